@@ -8,12 +8,16 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
+import styx.Complex;
+import styx.Function;
+import styx.Pair;
 import styx.Session;
 import styx.SessionFactory;
 import styx.SessionManager;
 import styx.StyxException;
 import styx.SystemConfiguration;
 import styx.Value;
+import styx.core.expressions.Profiler;
 import styx.core.intrinsics.ConsoleIntrinsics;
 import styx.core.intrinsics.FileIntrinsics;
 
@@ -26,6 +30,7 @@ public class Application {
         try {
             boolean      interactive = true;
             List<String> scripts     = new ArrayList<>();
+            String       profileFile = null;
 
             for(int i = 0; i < args.length; i++) {
                 if(args[i].equals("-factory")) {
@@ -50,6 +55,12 @@ public class Application {
                         scripts.add(FileIntrinsics.readToEnd(stm));
                         interactive = false;
                     }
+                } else if(args[i].equals("-profile")) {
+                    if(i + 1 >= args.length) {
+                        printHelp();
+                        return;
+                    }
+                    profileFile = args[++i];
                 } else if(args[i].equals("-interactive")) {
                     interactive = true;
                 } else if(args[i].equals("-help")) {
@@ -65,9 +76,13 @@ public class Application {
             System.out.println("Loaded STYX configuration from: " + sessionConfigFile);
             System.out.println("Using STYX session factory: " + sessionFactoryName);
 
-            SessionFactory factory = SessionManager.lookupSessionFactory(sessionFactoryName);
+            SessionFactory factory  = SessionManager.lookupSessionFactory(sessionFactoryName);
+            Profiler       profiler = profileFile != null ? new Profiler() : null;
             for(String script : scripts) {
-                eval(factory, script);
+                eval(factory, script, profiler);
+            }
+            if(profiler != null) {
+                writeProfile(factory, profiler, profileFile);
             }
             if(interactive) {
                 shell(factory);
@@ -82,13 +97,38 @@ public class Application {
         System.out.println("STYX Interpreter - (c) 2015 Philip Oswald");
         System.out.println();
         System.out.println("Syntax:");
-        System.out.println("$ styx [-factory <name>] [-eval <expr>] [-file <file>] [-interactive] [-help]");
+        System.out.println("$ styx [-factory <name>] [-eval <expr>] [-file <file>] [-profile <file>] [-interactive] [-help]");
+        System.out.println();
+        System.out.println("-profile: profiles the evaluation of the scripts given by -eval and -file and writes");
+        System.out.println("          the result as folded stacks (for flame graph tools) into the given file.");
         System.out.println();
     }
 
-    private static void eval(SessionFactory factory, String script) throws StyxException {
+    private static void eval(SessionFactory factory, String script, Profiler profiler) throws StyxException {
         try(Session session = factory.createSession()) {
-            session.evaluate(script);
+            if(profiler != null) {
+                Function func = profiler.instrument(session, session.parse(script));
+                func.invoke(session, null);
+            } else {
+                session.evaluate(script);
+            }
+        }
+    }
+
+    private static void writeProfile(SessionFactory factory, Profiler profiler, String file) throws StyxException, IOException {
+        Files.write(Paths.get(file), profiler.folded().getBytes(StandardCharsets.UTF_8));
+        System.out.println("Wrote profile to: " + file);
+        System.out.println(String.format("%8s %12s %12s %14s  %s", "count", "total [ms]", "self [ms]", "bytes", "node"));
+        try(Session session = factory.createSession()) {
+            for(Pair<Value, Value> entry : profiler.report(session)) {
+                Complex row = entry.val().asComplex();
+                System.out.println(String.format("%8d %12.3f %12.3f %14d  %s",
+                        row.get(session.text("count")).asNumber().toLong(),
+                        row.get(session.text("total")).asNumber().toLong() / 1e6,
+                        row.get(session.text("self")).asNumber().toLong() / 1e6,
+                        row.get(session.text("bytes")).asNumber().toLong(),
+                        row.get(session.text("node")).asText().toTextString()));
+            }
         }
     }
 
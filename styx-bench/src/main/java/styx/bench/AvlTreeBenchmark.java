@@ -0,0 +1,92 @@
+package styx.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import styx.Pair;
+import styx.Session;
+import styx.SessionManager;
+import styx.Value;
+import styx.core.utils.ImmutableAvlTree;
+import styx.core.utils.ImmutableSortedMap;
+
+/**
+ * Measures the immutable AVL tree that holds the children of complex values in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvlTreeBenchmark {
+
+    @Param({ "100", "10000" })
+    public int count;
+
+    private Value[] keys;
+    private List<Pair<Value, Value>> sorted;
+    private ImmutableSortedMap<Value, Value> tree;
+
+    @Setup
+    public void setup() {
+        Session session = SessionManager.getDetachedSession();
+        List<Value> list = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            list.add(session.text("key " + i));
+        }
+        Collections.shuffle(list, new Random(42));
+        keys = list.toArray(new Value[count]);
+
+        sorted = new ArrayList<>();
+        for(Value key : keys) {
+            sorted.add(new Pair<Value, Value>(key, key));
+        }
+        Collections.sort(sorted, (a, b) -> a.key().compareTo(b.key()));
+        tree = put();
+    }
+
+    @Benchmark
+    public ImmutableSortedMap<Value, Value> put() {
+        ImmutableSortedMap<Value, Value> result = new ImmutableAvlTree<>();
+        for(Value key : keys) {
+            result = result.put(key, key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ImmutableSortedMap<Value, Value> fromSorted() {
+        return ImmutableAvlTree.fromSorted(sorted);
+    }
+
+    @Benchmark
+    public void get(Blackhole bh) {
+        for(Value key : keys) {
+            bh.consume(tree.get(key));
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole bh) {
+        for(Pair<Value, Value> pair : tree) {
+            bh.consume(pair);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package styx.bench;
+
+import styx.Complex;
+import styx.Pair;
+import styx.Session;
+import styx.Value;
+
+/**
+ * Generates the documents that are used as input by the benchmarks.
+ */
+final class Documents {
+
+    private Documents() { }
+
+    /**
+     * Generates a tree of records with textual, numeric and complex children as typically found in larger documents.
+     * @param session the session used to create values.
+     * @param empty the empty complex value to start from, this allows to create values for a specific storage.
+     * @param depth the number of nested levels, 1 or more.
+     * @param width the number of records on the top level, halved on every nested level.
+     * @return the generated document.
+     */
+    static Complex records(Session session, Complex empty, int depth, int width) {
+        Complex result = empty;
+        for(int i = 1; i <= width; i++) {
+            Complex record = empty
+                    .put(session.text("id"), session.number(i * 1000003L))
+                    .put(session.text("name"), session.text("Name \"" + i + "\" with some more text"))
+                    .put(session.text("ratio"), session.number(i / 8.0))
+                    .put(session.text("active"), session.bool(i % 3 == 0));
+            if(depth > 1) {
+                record = record.put(session.text("children"), records(session, empty, depth - 1, width / 2));
+            }
+            result = result.add(record);
+        }
+        return result;
+    }
+
+    /**
+     * The sizes of the documents that are selected by the 'size' parameter of the benchmarks.
+     */
+    static Complex records(Session session, Complex empty, String size) {
+        switch(size) {
+            case "small":
+                return records(session, empty, 2, 10);
+            case "large":
+                return records(session, empty, 4, 40);
+            default:
+                throw new IllegalArgumentException("Unknown document size '" + size + "'.");
+        }
+    }
+
+    /**
+     * Walks through a value, forcing all lazily loaded parts to be read.
+     * @return the number of values visited.
+     */
+    static int walk(Value val) {
+        int count = 1;
+        if(val != null && val.isComplex()) {
+            for(Pair<Value, Value> pair : val.asComplex()) {
+                count += walk(pair.key()) + walk(pair.val());
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,98 @@
+package styx.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import styx.Function;
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+
+/**
+ * Measures parsing and executing representative scripts with the interpreter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark {
+
+    @Param({ "loops", "recursion", "strings", "collections" })
+    public String script;
+
+    private Session session;       // with the script cache disabled
+    private Session cachedSession; // with the script cache enabled
+    private String source;
+    private Function function;
+
+    @Setup(Level.Trial)
+    public void setup() throws StyxException {
+        session = SessionManager.createMemorySessionFactory(false).createSession();
+        System.setProperty("styx.script.cache.entries", "1000");
+        try {
+            cachedSession = SessionManager.createMemorySessionFactory(false).createSession();
+        } finally {
+            System.clearProperty("styx.script.cache.entries");
+        }
+        source = source(script);
+        function = session.parse(source);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws StyxException {
+        session.close();
+        cachedSession.close();
+    }
+
+    @Benchmark
+    public Function parse() throws StyxException {
+        return session.parse(source);
+    }
+
+    @Benchmark
+    public Function parseCached() throws StyxException {
+        return cachedSession.parse(source);
+    }
+
+    @Benchmark
+    public Value execute() throws StyxException {
+        return function.invoke(session, null);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dstyx.bytecode.threshold=100")
+    public Value executeBytecode() throws StyxException {
+        return function.invoke(session, null); // translated to bytecode during the warmup
+    }
+
+    private static String source(String script) {
+        switch(script) {
+            case "loops": // the inner part of scripts/benchmark.sts, building nested complex values
+                return "x := [ ], for(i := 1, i <= 20, i+=1) { y := [ ], for(j := 1, j <= 20, j+=1) { y = [ (y), (\"Inner \" ++ j), (i * j) ] }, x = [ (x), (\"Outer \" ++ i), (y) ] }, x";
+            case "recursion": // function calls and arithmetic
+                return "fib :=== (f, n) -> { if(n < 2) { return n }, return f(f, n-1) + f(f, n-2) }, fib(fib, 15)";
+            case "strings": // string concatenation
+                return "s := \"\", for(i := 1, i <= 200, i+=1) { s = s ++ i }, s";
+            case "collections": // yield and iteration over complex values
+                return "squares := for(i := 1, i <= 200, i+=1) yield i*i, sum := 0, foreach(k, v in squares) { sum += k * v }, sum";
+            default:
+                throw new IllegalArgumentException("Unknown script '" + script + "'.");
+        }
+    }
+}
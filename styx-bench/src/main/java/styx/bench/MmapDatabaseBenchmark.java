@@ -0,0 +1,84 @@
+package styx.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import styx.Session;
+import styx.SessionManager;
+import styx.Value;
+import styx.db.mmap.MmapDatabase;
+
+/**
+ * Measures storing documents into and loading them from a memory mapped database.
+ * <p>
+ * The database lives in a heap array instead of a file, so the numbers do not depend on the file system.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MmapDatabaseBenchmark {
+
+    private static final int DATABASE_SIZE = 64 << 20;
+
+    @Param({ "small", "large" })
+    public String size;
+
+    private final Session session = SessionManager.getDetachedSession();
+    private final byte[] bytes = new byte[DATABASE_SIZE];
+    private MmapDatabase db;
+    private long address;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = MmapDatabase.fromArray(new byte[DATABASE_SIZE]);
+        address = db.storeValue(Documents.records(session, db.getEmpty(), size));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    /**
+     * Provides an empty database for every invocation, since stored trees remember their address.
+     * The database is not closed, closing only releases the buffer and logs a message.
+     */
+    @State(Scope.Thread)
+    public static class EmptyDatabase {
+        MmapDatabase db;
+
+        @Setup(Level.Invocation)
+        public void setup(MmapDatabaseBenchmark benchmark) {
+            Arrays.fill(benchmark.bytes, (byte) 0);
+            db = MmapDatabase.fromArray(benchmark.bytes);
+        }
+    }
+
+    @Benchmark
+    public long store(EmptyDatabase empty) {
+        return empty.db.storeValue(Documents.records(session, empty.db.getEmpty(), size));
+    }
+
+    @Benchmark
+    public int load() {
+        Value val = db.loadValue(address);
+        return Documents.walk(val);
+    }
+}
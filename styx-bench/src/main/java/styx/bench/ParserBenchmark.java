@@ -0,0 +1,98 @@
+package styx.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+import styx.core.expressions.Expression;
+import styx.core.parser.Parser;
+
+/**
+ * Measures the raw throughput of the generated parser (without compiling or evaluating the result).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({ "script", "nested", "value" })
+    public String input;
+
+    private Session session;
+    private String text;
+
+    @Setup
+    public void setup() throws StyxException {
+        session = SessionManager.createMemorySessionFactory(false).createSession();
+        text = source(session, input);
+    }
+
+    @TearDown
+    public void tearDown() throws StyxException {
+        session.close();
+    }
+
+    @Benchmark
+    public Object parse() {
+        Parser parser = new Parser();
+        parser.session = session;
+        if(input.equals("value")) {
+            Parser.Ref<Value> output = new Parser.Ref<>(null);
+            if(!parser.Parse_ROOT_VALUE(text, output, new Parser.Ref_int(0))) {
+                throw new IllegalStateException("Failed to parse value.");
+            }
+            return output.val;
+        } else {
+            Parser.Ref<ArrayList<Expression>> output = new Parser.Ref<>(null);
+            if(!parser.Parse_ROOT_STATEMENT_LIST(text, output, new Parser.Ref_int(0))) {
+                throw new IllegalStateException("Failed to parse script.");
+            }
+            return output.val;
+        }
+    }
+
+    private static String source(Session session, String input) throws StyxException {
+        switch(input) {
+            case "script": { // about 40 KB of statements, functions, comments and literals
+                StringBuilder sb = new StringBuilder();
+                for(int i = 0; i < 200; i++) {
+                    sb.append("// block ").append(i).append("\n");
+                    sb.append("fib").append(i).append(" :=== (f, n) -> { if(n < 2) { return n }, return f(f, n-1) + f(f, n-2) }\n");
+                    sb.append("x := [ ], for(i := 1, i <= 20, i+=1) { x = [ (x), (\"Outer \" ++ i), (i * ").append(i).append(") ] }\n");
+                    sb.append("foreach(k, v in x) { if(k % 2 == 0 && v != null) { sum := (k + 1) * (k - 1) / 2 } else { /* skip */ } }\n");
+                }
+                return sb.toString();
+            }
+            case "nested": { // typed parameters nested 12 levels deep, all parsed as function arguments first
+                String script = "t";
+                for(int i = 0; i < 12; i++) {
+                    script = "(x" + i + " :: " + script + ") -> x" + i;
+                }
+                return script;
+            }
+            case "value": // about 300 KB of value literal
+                return session.serialize(Documents.records(session, session.complex(), "large"), true);
+            default:
+                throw new IllegalArgumentException("Unknown input '" + input + "'.");
+        }
+    }
+}
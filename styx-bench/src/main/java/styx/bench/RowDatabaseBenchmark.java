@@ -0,0 +1,97 @@
+package styx.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import styx.Reference;
+import styx.Session;
+import styx.StyxException;
+import styx.Value;
+import styx.db.jdbc.JdbcDialect;
+import styx.db.jdbc.JdbcSessionProvider;
+
+/**
+ * Measures writing and reading documents through RowDatabaseData on the embedded databases.
+ * <p>
+ * The database files are created in 'target/styx-bench/' below the current directory.
+ * Only small documents are used by default, larger ones can be selected with '-p size=large'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowDatabaseBenchmark {
+
+    @Param({ "H2", "Derby", "SQLite" })
+    public String dialect;
+
+    @Param({ "small" })
+    public String size;
+
+    private Session session;
+    private Reference readRef;
+    private Reference writeRef;
+    private Value document;
+
+    @Setup(Level.Trial)
+    public void setup() throws StyxException, IOException {
+        Path dir = Paths.get("target", "styx-bench");
+        Files.createDirectories(dir);
+        System.setProperty("derby.stream.error.file", dir.resolve("derby.log").toString());
+        String name = "RowDatabaseBenchmark." + dialect.toLowerCase();
+        String connstr;
+        switch(JdbcDialect.valueOf(dialect)) {
+            case H2:
+                connstr = "jdbc:h2:./" + dir.resolve(name);
+                break;
+            case Derby:
+                connstr = "jdbc:derby:" + dir.resolve(name) + ";create=true";
+                break;
+            case SQLite:
+                connstr = "jdbc:sqlite:" + dir.resolve(name);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported dialect '" + dialect + "'.");
+        }
+        session = JdbcSessionProvider.createSessionFactory(connstr, dialect).createSession();
+        readRef = session.root().child(session.text("read"));
+        writeRef = session.root().child(session.text("write"));
+        document = Documents.records(session, session.complex(), size);
+        session.write(session.root(), session.complex());
+        session.write(readRef, document);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws StyxException {
+        session.close();
+    }
+
+    @Benchmark
+    public void write() throws StyxException {
+        session.write(writeRef, document);
+    }
+
+    @Benchmark
+    public int read() throws StyxException {
+        return Documents.walk(session.read(readRef));
+    }
+}
@@ -0,0 +1,110 @@
+package styx.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+import styx.core.utils.ColumnarSerializer;
+import styx.core.utils.JsonCodec;
+import styx.core.utils.JsonSerializer;
+import styx.core.utils.XmlSerializer;
+
+/**
+ * Measures serialization and deserialization of documents in all supported text formats and the columnar binary format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({ "styx", "json", "json-codec", "xml", "columnar" })
+    public String format;
+
+    @Param({ "small", "large" })
+    public String size;
+
+    private Session session;
+    private Value document;
+    private Object encoded; // String for text formats, byte[] for binary formats
+
+    @Setup
+    public void setup() throws StyxException {
+        session = SessionManager.createMemorySessionFactory(false).createSession();
+        document = Documents.records(session, session.complex(), size);
+        encoded = serialize();
+    }
+
+    @TearDown
+    public void tearDown() throws StyxException {
+        session.close();
+    }
+
+    @Benchmark
+    public Object serialize() throws StyxException {
+        if(format.equals("columnar")) {
+            ByteArrayOutputStream stm = new ByteArrayOutputStream();
+            ColumnarSerializer.serialize(document, stm);
+            return stm.toByteArray();
+        }
+        StringWriter writer = new StringWriter();
+        switch(format) {
+            case "styx":
+                session.serialize(document, writer, false);
+                break;
+            case "json":
+                JsonSerializer.serialize(document, writer, false);
+                break;
+            case "json-codec":
+                JsonCodec.serialize(document, writer, false);
+                break;
+            case "xml":
+                XmlSerializer.serialize(document, writer, false);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format '" + format + "'.");
+        }
+        return writer.toString();
+    }
+
+    @Benchmark
+    public Value deserialize() throws StyxException {
+        if(format.equals("columnar")) {
+            return ColumnarSerializer.deserialize(session, new ByteArrayInputStream((byte[]) encoded));
+        }
+        StringReader reader = new StringReader((String) encoded);
+        switch(format) {
+            case "styx":
+                return session.deserialize(reader);
+            case "json":
+                return JsonSerializer.deserialize(session, reader);
+            case "json-codec":
+                return JsonCodec.deserialize(session, reader);
+            case "xml":
+                return XmlSerializer.deserialize(session, reader);
+            default:
+                throw new IllegalArgumentException("Unknown format '" + format + "'.");
+        }
+    }
+}
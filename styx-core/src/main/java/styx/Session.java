@@ -5,7 +5,9 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Public interface of sessions.
@@ -150,6 +152,26 @@ public interface Session extends AutoCloseable {
      */
     public void write(Reference ref, Value val) throws StyxException;
 
+    /**
+     * Reads the values of multiple references.
+     * <p>
+     * Outside of a transaction, all values are read from the same state of the data (where supported).
+     * @param refs the references, whose values are to be read, must not be null or contain null.
+     * @return the current values in the order of the given references, null for references that currently have no value.
+     * @throws StyxException if a storage access occurs, or if one of the given references does not exist.
+     */
+    public List<Value> readAll(Collection<Reference> refs) throws StyxException;
+
+    /**
+     * Writes the values of multiple references.
+     * <p>
+     * The values are written in the iteration order of the given map. Outside of a transaction,
+     * either all or none of the values are written.
+     * @param vals the references and their new values, must not be null. The values can be null if the current value is to be removed.
+     * @throws StyxException if a storage access occurs, or if one of the given references does not exist.
+     */
+    public void writeAll(Map<Reference, Value> vals) throws StyxException;
+
     /**
      * Browses the keys of the children of the given reference.
      * @param ref the reference, whose children are to be browsed, must not be null.
@@ -170,6 +192,28 @@ public interface Session extends AutoCloseable {
      */
     public List<Value> browse(Reference ref, Value after, Value before, Integer maxResults, boolean forward) throws StyxException;
 
+    // *** Watching
+
+    /**
+     * Starts watching a reference for changes made by this or other sessions.
+     * <p>
+     * The watcher is notified when the value of the reference or of one of its descendants differs from the value
+     * it had when watching started or when the watcher was last notified. Watching is independent of transactions,
+     * only committed changes are reported.
+     * @param ref the reference to be watched, must not be null.
+     * @param watcher the watcher to be notified, must not be null. If it is already watching, the reference is replaced.
+     * @throws StyxException if a storage access occurs.
+     */
+    public void watch(Reference ref, Watcher watcher) throws StyxException;
+
+    /**
+     * Stops watching a reference.
+     * <p>
+     * Calling this method with a watcher that is not watching is a no-op. Closing the session stops all watchers.
+     * @param watcher the watcher to be removed, must not be null.
+     */
+    public void unwatch(Watcher watcher);
+
     // *** Transactions
 
     /**
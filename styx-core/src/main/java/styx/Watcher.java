@@ -0,0 +1,17 @@
+package styx;
+
+/**
+ * Receives changes of references that are watched by a session (see Session.watch()).
+ */
+public interface Watcher {
+
+    /**
+     * Called when the value of a watched reference (including its descendants) has changed.
+     * <p>
+     * The method is called by a background thread of the session, never concurrently for the same session.
+     * Changes that follow each other closely are coalesced, only the latest value is reported.
+     * @param ref the watched reference.
+     * @param val the new value of the watched reference, null if it has been removed.
+     */
+    public void changed(Reference ref, Value val);
+}
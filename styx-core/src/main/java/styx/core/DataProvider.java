@@ -1,11 +1,15 @@
 package styx.core;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
 
 import styx.Reference;
 import styx.Session;
 import styx.StyxException;
 import styx.Value;
+import styx.Watcher;
 
 /**
  * The interface a STYX session uses for reading and writing mutable values.
@@ -44,6 +48,27 @@ public interface DataProvider extends AutoCloseable {
      */
     public void write(Session session, Reference ref, Value val) throws StyxException;
 
+    /**
+     * Reads the values of multiple references.
+     * <p>
+     * Outside of a transaction, implementations should read all values from the same state of the data.
+     * @param session the session this data provider belongs to.
+     * @param refs the references, whose values are to be read, must not be null or contain null.
+     * @return the current values in the order of the given references, null for references that currently have no value.
+     * @throws StyxException if a storage access occurs, or if one of the given references does not exist.
+     */
+    public List<Value> readAll(Session session, Collection<Reference> refs) throws StyxException;
+
+    /**
+     * Writes the values of multiple references, in the iteration order of the given map.
+     * <p>
+     * Outside of a transaction, implementations must write either all or none of the values.
+     * @param session the session this data provider belongs to.
+     * @param vals the references and their new values, must not be null. The values can be null if the current value is to be removed.
+     * @throws StyxException if a storage access occurs, or if one of the given references does not exist.
+     */
+    public void writeAll(Session session, Map<Reference, Value> vals) throws StyxException;
+
     /**
      * Browses the keys of the children of the given reference.
      * @param session the session this data provider belongs to.
@@ -57,6 +82,22 @@ public interface DataProvider extends AutoCloseable {
      */
     public List<Value> browse(Session session, Reference ref, Value after, Value before, Integer maxResults, boolean forward) throws StyxException;
 
+    /**
+     * Starts watching a reference for changes.
+     * @param session the session this instance belongs to.
+     * @param ref the reference to be watched, must not be null.
+     * @param watcher the watcher to be notified, must not be null.
+     * @throws StyxException if a storage access occurs.
+     */
+    public void watch(Session session, Reference ref, Watcher watcher) throws StyxException;
+
+    /**
+     * Stops watching a reference.
+     * @param session the session this instance belongs to.
+     * @param watcher the watcher to be removed, must not be null.
+     */
+    public void unwatch(Session session, Watcher watcher);
+
     /**
      * Determines whether there currently is an open transaction.
      * <p>
@@ -69,6 +110,17 @@ public interface DataProvider extends AutoCloseable {
      */
     public boolean hasTransaction();
 
+    /**
+     * Returns the lock used by 'atomic' statements to run transactions exclusively after repeated conflicts.
+     * <p>
+     * Data providers that access the same shared data must return the same lock, data providers that access
+     * independent data must return different locks. By default, there is no lock.
+     * @return the lock, or null if exclusive transactions are not supported.
+     */
+    public default ReadWriteLock transactionLock() {
+        return null;
+    }
+
     /**
      * Opens a new transaction.
      * <p>
@@ -1,10 +1,13 @@
 package styx.core;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import styx.Reference;
 import styx.Session;
 import styx.Value;
+import styx.Watcher;
 
 public final class NoData implements DataProvider {
 
@@ -21,11 +24,29 @@ public final class NoData implements DataProvider {
         throw new UnsupportedOperationException("This session does not support mutable data.");
     }
 
+    @Override
+    public List<Value> readAll(Session session, Collection<Reference> refs) {
+        throw new UnsupportedOperationException("This session does not support mutable data.");
+    }
+
+    @Override
+    public void writeAll(Session session, Map<Reference, Value> vals) {
+        throw new UnsupportedOperationException("This session does not support mutable data.");
+    }
+
     @Override
     public List<Value> browse(Session session, Reference ref, Value after, Value before, Integer maxResults, boolean forward) {
         throw new UnsupportedOperationException("This session does not support mutable data.");
     }
 
+    @Override
+    public void watch(Session session, Reference ref, Watcher watcher) {
+        throw new UnsupportedOperationException("This session does not support mutable data.");
+    }
+
+    @Override
+    public void unwatch(Session session, Watcher watcher) { }
+
     @Override
     public boolean hasTransaction() {
         return false;
@@ -57,6 +57,11 @@ public abstract class AbstractFunction extends Expression {
         return func;
     }
 
+    @Override
+    final void generate(BytecodeCompiler gen) {
+        gen.pushConstant(func);
+    }
+
     /**
      * Compiles the function.
      * <p>
@@ -12,20 +12,26 @@ import styx.Value;
  */
 public final class Assignment extends Expression {
 
-    private final Operator   op;
-    private final Expression expr1;
-    private final Expression expr2;
+    private final Operator       op;
+    private final Expression     expr1;
+    private final Expression     expr2;
+    private final BinaryOperator operation; // computes the value of a compound assignment, null for "="
 
     public Assignment(Operator op, Expression expr1, Expression expr2) {
-        this.op    = op;
-        this.expr1 = expr1;
-        this.expr2 = expr2;
+        this.op        = op;
+        this.expr1     = expr1;
+        this.expr2     = expr2;
+        this.operation = op.binary() != null ? new BinaryOperator(op.binary(), expr1, expr2) : null;
     }
 
     public Assignment(ExprFactory expf, String op, Complex value) throws StyxException {
-        this.op    = Operator.valueOf  (op);
-        this.expr1 = expf.newExpression(findMember(value, "expr1", true));
-        this.expr2 = expf.newExpression(findMember(value, "expr2", true));
+        this(Operator.valueOf(op),
+             expf.newExpression(findMember(value, "expr1", true)),
+             expf.newExpression(findMember(value, "expr2", true)));
+    }
+
+    Expression target() {
+        return expr1;
     }
 
     @Override
@@ -39,20 +45,43 @@ public final class Assignment extends Expression {
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
         requireFlag(flags, CompileFlag.AllowAssignment, "Variable or reference assignments are not allowed here.");
-        return new Assignment(op, cast(expr1.compile(scope, CompileFlag.EXPRESSION)).assignCheck(), expr2.compile(scope, CompileFlag.EXPRESSION));
+        return new Assignment(op, cast(scope.unhoist(expr1.compile(scope, CompileFlag.EXPRESSION))).assignCheck(), expr2.compile(scope, CompileFlag.EXPRESSION));
     }
 
     @Override
     public Determinism effects() {
-        return maxEffects(expr1, expr2);
+        // Writing a reference is a COMMAND even if the target expression itself only reads.
+        Determinism assignEffects = expr1 instanceof AssignableExpression ? ((AssignableExpression) expr1).assignEffects() : Determinism.CONSTANT;
+        return maxEffects(assignEffects, expr1, expr2);
     }
 
     @Override
     public Value evaluate(Stack stack) throws StyxException {
-        op.execute(stack, cast(expr1), expr2);
+        AssignableExpression target = cast(expr1);
+        target.assign(stack, operation != null ? operation.evaluate(stack) : expr2.evaluate(stack));
         return null;
     }
 
+    @Override
+    void generate(BytecodeCompiler gen) {
+        if(expr1 instanceof Variable) {
+            generateStatement(gen);
+            gen.pushNull();
+        } else {
+            super.generate(gen);
+        }
+    }
+
+    @Override
+    void generateStatement(BytecodeCompiler gen) {
+        if(expr1 instanceof Variable) {
+            gen.value(operation != null ? operation : expr2);
+            ((Variable) expr1).generateAssign(gen);
+        } else {
+            super.generateStatement(gen);
+        }
+    }
+
     private static AssignableExpression cast(Expression expr) throws StyxException {
         if(expr instanceof AssignableExpression) {
            return (AssignableExpression) expr;
@@ -62,87 +91,28 @@ public final class Assignment extends Expression {
     }
 
     public static enum Operator {
-        Assign {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, expr2.evaluate(stack));
-            }
-        },
-        AssignCoal {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Coal.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignOr {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Or.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignAnd {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.And.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignBitOr {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.BitOr.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignBitXor {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.BitXor.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignBitAnd {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.BitAnd.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignConcat {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Concat.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignShl {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Shl.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignShr {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Shr.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignAdd {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Add.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignSub {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Sub.evaluate(stack, expr1, expr2));
-           }
-        },
-        AssignMul {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Mul.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignDiv {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Div.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignMod {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Mod.evaluate(stack, expr1, expr2));
-            }
-        },
-        AssignPow {
-            @Override void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException {
-                expr1.assign(stack, BinaryOperator.Operator.Pow.evaluate(stack, expr1, expr2));
-            }
-        };
-
-        abstract void execute(Stack stack, AssignableExpression expr1, Expression expr2) throws StyxException;
+        Assign,
+        AssignCoal,
+        AssignOr,
+        AssignAnd,
+        AssignBitOr,
+        AssignBitXor,
+        AssignBitAnd,
+        AssignConcat,
+        AssignShl,
+        AssignShr,
+        AssignAdd,
+        AssignSub,
+        AssignMul,
+        AssignDiv,
+        AssignMod,
+        AssignPow;
+
+        /**
+         * Returns the binary operator used by a compound assignment (AssignAdd uses Add, etc.) or null for Assign.
+         */
+        BinaryOperator.Operator binary() {
+            return this == Assign ? null : BinaryOperator.Operator.valueOf(name().substring(6));
+        }
     }
 }
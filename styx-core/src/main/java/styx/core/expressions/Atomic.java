@@ -1,13 +1,17 @@
 package styx.core.expressions;
 
 import java.util.EnumSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 
 import styx.Complex;
 import styx.ConcurrentException;
 import styx.Determinism;
 import styx.RetryException;
+import styx.Session;
 import styx.StyxException;
 import styx.Value;
+import styx.core.sessions.TransactionMetrics;
 
 /**
  * Node of the abstract syntax tree that implements a "atomic ..." statement.
@@ -33,7 +37,8 @@ public final class Atomic extends Expression {
 
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
-        Expression exprc = expr.compile(scope, flags);
+        Scope.Region region = scope.enterAtomic(expr);
+        Expression exprc = scope.leaveRegion(region, expr.compile(scope, CompileFlag.remove(flags, CompileFlag.AllowTailCall))); // the call must be part of the transaction
         if(exprc.effects() == Determinism.NON_DETERMINISTIC) {
             throw new StyxException("An 'atomic' statement cannot contain non-deterministic expressions.");
         }
@@ -59,37 +64,56 @@ public final class Atomic extends Expression {
 
     @Override
     public Flow execute(Stack stack) throws StyxException {
-        if(stack.session().hasTransaction()) {
+        Session session = stack.session();
+        if(session.hasTransaction()) {
             // A transaction is already active. Transactions can be nested, but committing a nested
             // transaction has no effect and retrying always restart the outermost transaction.
             // Therefore, nothing has to be done before or after executing the atomic block.
             return expr.execute(stack);
         }
+        TransactionMetrics metrics = TransactionMetrics.of(session);
+        ReadWriteLock rwlock = RetryPolicy.lockOf(session);
+        int conflicts = 0;
         while(true) {
             int frameBase = stack.getFrameBase();
             int frameSize = stack.getFrameSize();
+            Lock lock = RetryPolicy.lock(rwlock, conflicts);
+            if(lock != null && RetryPolicy.exclusive(conflicts)) {
+                metrics.lock();
+            }
+            long start = System.nanoTime();
             try {
                 // Start a transaction, execute the atomic block and commit it.
-                stack.session().beginTransaction();
+                session.beginTransaction();
                 Flow flow = expr.execute(stack);
-                stack.session().commitTransaction();
+                session.commitTransaction();
+                metrics.commit();
                 return flow;
             } catch(ConcurrentException e) {
-                // Transactions experiencing concurrent modification start over immediately
+                // Transactions experiencing concurrent modification start over after a backoff (see below)
+                metrics.conflict(System.nanoTime() - start);
+                if(!RetryPolicy.mayRetry(++conflicts)) {
+                    metrics.failure();
+                    throw e;
+                }
                 stack.setFrame(frameBase, frameSize);
-                continue;
             } catch(RetryException e) {
                 // Retrying aborts the transaction, waits for a change and then continues to start over.
+                // The lock must not be held while waiting, the change is made by another transaction.
+                metrics.retry();
                 stack.setFrame(frameBase, frameSize);
-                stack.session().abortTransaction(true);
+                lock = RetryPolicy.unlock(lock);
+                session.abortTransaction(true);
                 continue;
             } finally {
                 // If an exception has thrown, abort the transaction, but don't catch the exception.
                 // If the transaction committed normally or if it is retried, there's nothing to do.
-                if(stack.session().hasTransaction()) {
-                    stack.session().abortTransaction(false);
+                if(session.hasTransaction()) {
+                    session.abortTransaction(false);
                 }
+                RetryPolicy.unlock(lock);
             }
+            RetryPolicy.backoff(conflicts);
         }
     }
 }
@@ -64,4 +64,19 @@ public final class Batch extends Expression {
             return result;
         }
     }
+
+    @Override
+    void generate(BytecodeCompiler gen) {
+        if(children.size() == 1) {
+            gen.value(children.get(0));
+        } else {
+            gen.generateComplex();
+            int key = 1;
+            for(Expression child : children) {
+                gen.generateNumber(key++);
+                gen.value(child);
+                gen.generatePut();
+            }
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package styx.core.expressions;
 
 import java.util.EnumSet;
+import java.util.Set;
 
 import styx.Complex;
 import styx.Determinism;
+import styx.Session;
 import styx.StyxException;
 import styx.Value;
 
@@ -12,20 +14,37 @@ import styx.Value;
  */
 public final class BinaryOperator extends Expression {
 
+    /**
+     * The operators that have a fast path for integer operands (see Operator.applyInteger()).
+     */
+    private static final Set<Operator> INTEGER_OPS = EnumSet.of(
+            Operator.BitOr, Operator.BitXor, Operator.BitAnd,
+            Operator.Compare, Operator.Equal, Operator.NotEqual,
+            Operator.LessOrEqual, Operator.Less, Operator.GreaterOrEqual, Operator.Greater,
+            Operator.Shl, Operator.Shr, Operator.Add, Operator.Sub, Operator.Mul, Operator.Mod);
+
     private final Operator   op;
     private final Expression expr1;
     private final Expression expr2;
 
+    /**
+     * True as long as all operands have been integers and no result has overflown.
+     * Volatile because nodes are shared by threads (see CollectionIntrinsics). The flag is only ever cleared, so a
+     * thread that has not yet seen it cleared just tries the fast path once more, which checks its operands anyway.
+     */
+    private volatile boolean speculate;
+
     public BinaryOperator(Operator op, Expression expr1, Expression expr2) {
-        this.op    = op;
-        this.expr1 = expr1;
-        this.expr2 = expr2;
+        this.op        = op;
+        this.expr1     = expr1;
+        this.expr2     = expr2;
+        this.speculate = INTEGER_OPS.contains(op);
     }
 
     public BinaryOperator(ExprFactory expf, String op, Complex value) throws StyxException {
-        this.op    = Operator.valueOf  (op);
-        this.expr1 = expf.newExpression(findMember(value, "expr1", true));
-        this.expr2 = expf.newExpression(findMember(value, "expr2", true));
+        this(Operator.valueOf(op),
+             expf.newExpression(findMember(value, "expr1", true)),
+             expf.newExpression(findMember(value, "expr2", true)));
     }
 
     @Override
@@ -38,7 +57,7 @@ public final class BinaryOperator extends Expression {
 
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
-        return new BinaryOperator(op, expr1.compile(scope, CompileFlag.EXPRESSION), expr2.compile(scope, CompileFlag.EXPRESSION)).optimizeConst(scope);
+        return scope.hoist(new BinaryOperator(op, expr1.compile(scope, CompileFlag.EXPRESSION), expr2.compile(scope, CompileFlag.EXPRESSION)).optimizeConst(scope));
     }
 
     @Override
@@ -48,9 +67,67 @@ public final class BinaryOperator extends Expression {
 
     @Override
     public Value evaluate(Stack stack) throws StyxException {
+        if(speculate) {
+            return apply(stack.session(), expr1.evaluate(stack), expr2.evaluate(stack));
+        }
         return op.evaluate(stack, expr1, expr2);
     }
 
+    /**
+     * Applies the operator to operands that are already evaluated, taking the fast path for integers if possible.
+     * The node falls back to the generic implementation for good as soon as the fast path fails once.
+     * <p>
+     * Public because it is called by translated functions (see BytecodeCompiler).
+     */
+    public Value apply(Session session, Value val1, Value val2) throws StyxException {
+        if(speculate) {
+            if(isInteger(val1) && isInteger(val2)) {
+                Value result = op.applyInteger(session, val1.asNumber().toInteger(), val2.asNumber().toInteger());
+                if(result != null) {
+                    return result;
+                }
+            }
+            speculate = false;
+        }
+        return op.apply(session, val1, val2);
+    }
+
+    boolean speculating() {
+        return speculate;
+    }
+
+    /**
+     * Converts the result of an integer fast path into a value.
+     * Always a new instance, like session.number(), because shared values detect changes by identity.
+     */
+    private static Value integer(long val) {
+        return number(val);
+    }
+
+    @Override
+    void generate(BytecodeCompiler gen) {
+        if(speculate) {
+            gen.generateBinary(this, expr1, expr2);
+        } else {
+            op.generate(gen, this, expr1, expr2);
+        }
+    }
+
+    @Override
+    void generateBranch(BytecodeCompiler gen, BytecodeCompiler.Label target, boolean when) {
+        if(speculate) {
+            generate(gen);
+            gen.generateTest(target, when);
+        } else {
+            op.generateBranch(gen, this, expr1, expr2, target, when);
+        }
+    }
+
+    /**
+     * The largest integer that can be represented by a double without loss (2^53).
+     */
+    private static final long DOUBLE_EXACT = 1L << 53;
+
     public static enum Operator {
         // evaluated last
         Coal {
@@ -58,6 +135,9 @@ public final class BinaryOperator extends Expression {
                 Value val1 = expr1.evaluate(stack);
                 return val1 != null ? val1 : expr2.evaluate(stack);
             }
+            @Override void generate(BytecodeCompiler gen, Expression self, Expression expr1, Expression expr2) {
+                gen.generateCoalesce(expr1, expr2);
+            }
         },
         // evaluated after And
         Or {
@@ -66,6 +146,20 @@ public final class BinaryOperator extends Expression {
                         expr1.evaluate(stack).asBool().toBool() ||
                         expr2.evaluate(stack).asBool().toBool());
             }
+            @Override void generate(BytecodeCompiler gen, Expression self, Expression expr1, Expression expr2) {
+                gen.generateBool(self);
+            }
+            @Override void generateBranch(BytecodeCompiler gen, Expression self, Expression expr1, Expression expr2, BytecodeCompiler.Label target, boolean when) {
+                if(when) {
+                    gen.branch(expr1, target, true);
+                    gen.branch(expr2, target, true);
+                } else {
+                    BytecodeCompiler.Label skip = gen.label();
+                    gen.branch(expr1, skip, true);
+                    gen.branch(expr2, target, false);
+                    gen.mark(skip);
+                }
+            }
         },
         // evaluated before Or
         And {
@@ -74,142 +168,209 @@ public final class BinaryOperator extends Expression {
                         expr1.evaluate(stack).asBool().toBool() &&
                         expr2.evaluate(stack).asBool().toBool());
             }
+            @Override void generate(BytecodeCompiler gen, Expression self, Expression expr1, Expression expr2) {
+                gen.generateBool(self);
+            }
+            @Override void generateBranch(BytecodeCompiler gen, Expression self, Expression expr1, Expression expr2, BytecodeCompiler.Label target, boolean when) {
+                if(when) {
+                    BytecodeCompiler.Label skip = gen.label();
+                    gen.branch(expr1, skip, false);
+                    gen.branch(expr2, target, true);
+                    gen.mark(skip);
+                } else {
+                    gen.branch(expr1, target, false);
+                    gen.branch(expr2, target, false);
+                }
+            }
         },
         // own category
         BitOr {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toLong() |
-                        expr2.evaluate(stack).asNumber().toLong());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toLong() |
+                        val2.asNumber().toLong());
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return integer(val1 | val2);
             }
         },
         // own category
         BitXor {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toLong() ^
-                        expr2.evaluate(stack).asNumber().toLong());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toLong() ^
+                        val2.asNumber().toLong());
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return integer(val1 ^ val2);
             }
         },
         // own category
         BitAnd {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toLong() &
-                        expr2.evaluate(stack).asNumber().toLong());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toLong() &
+                        val2.asNumber().toLong());
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return integer(val1 & val2);
             }
         },
         // comparison operators
         Compare {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(compare(expr1.evaluate(stack), expr2.evaluate(stack)));
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(compare(val1, val2));
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return integer(compareInteger(val1, val2));
             }
         },
         Equal {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().bool(compare(expr1.evaluate(stack), expr2.evaluate(stack)) == 0);
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.bool(compare(val1, val2) == 0);
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return session.bool(val1 == val2);
             }
         },
         NotEqual {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().bool(compare(expr1.evaluate(stack), expr2.evaluate(stack)) != 0);
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.bool(compare(val1, val2) != 0);
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return session.bool(val1 != val2);
             }
         },
         // relational operators
         LessOrEqual {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().bool(compare(expr1.evaluate(stack), expr2.evaluate(stack)) <= 0);
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.bool(compare(val1, val2) <= 0);
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return session.bool(val1 <= val2);
             }
         },
         Less {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().bool(compare(expr1.evaluate(stack), expr2.evaluate(stack)) < 0);
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.bool(compare(val1, val2) < 0);
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return session.bool(val1 < val2);
             }
         },
         GreaterOrEqual {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().bool(compare(expr1.evaluate(stack), expr2.evaluate(stack)) >= 0);
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.bool(compare(val1, val2) >= 0);
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return session.bool(val1 >= val2);
             }
         },
         Greater {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().bool(compare(expr1.evaluate(stack), expr2.evaluate(stack)) > 0);
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.bool(compare(val1, val2) > 0);
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return session.bool(val1 > val2);
             }
         },
         // evaluated after arithmethic computations
         Concat {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().text(
-                        expr1.evaluate(stack).asText().toTextString() +
-                        expr2.evaluate(stack).asText().toTextString());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.text(
+                        val1.asText().toTextString() +
+                        val2.asText().toTextString());
             }
         },
         // evaluated after Add, Sub
         Shl {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toLong() <<
-                        expr2.evaluate(stack).asNumber().toLong());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toLong() <<
+                        val2.asNumber().toLong());
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return integer((long) val1 << val2);
             }
         },
         // own category
         Shr {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toLong() >>
-                        expr2.evaluate(stack).asNumber().toLong());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toLong() >>
+                        val2.asNumber().toLong());
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return integer((long) val1 >> val2);
             }
         },
         // evaluated after Mul, Div, Mod
         Add {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toDouble() +
-                        expr2.evaluate(stack).asNumber().toDouble());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toDouble() +
+                        val2.asNumber().toDouble());
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return integer((long) val1 + val2);
             }
         },
         Sub {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toDouble() -
-                        expr2.evaluate(stack).asNumber().toDouble());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toDouble() -
+                        val2.asNumber().toDouble());
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                return integer((long) val1 - val2);
             }
         },
         // evaluated before Add or Sub
         Mul {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toDouble() *
-                        expr2.evaluate(stack).asNumber().toDouble());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toDouble() *
+                        val2.asNumber().toDouble());
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                long result = (long) val1 * val2;
+                if(result < -DOUBLE_EXACT || result > DOUBLE_EXACT) {
+                    return null; // would be rounded by the generic implementation
+                }
+                return integer(result);
             }
         },
         Div {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toDouble() /
-                        expr2.evaluate(stack).asNumber().toDouble());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toDouble() /
+                        val2.asNumber().toDouble());
             }
         },
         Mod {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(
-                        expr1.evaluate(stack).asNumber().toDouble() %
-                        expr2.evaluate(stack).asNumber().toDouble());
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(
+                        val1.asNumber().toDouble() %
+                        val2.asNumber().toDouble());
+            }
+            @Override Value applyInteger(Session session, int val1, int val2) {
+                if(val2 == 0) {
+                    return null; // let the generic implementation fail
+                }
+                return integer(val1 % val2);
             }
         },
         // evaluated before Mul, Div, Mod
         Pow {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                return stack.session().number(Math.pow(
-                        expr1.evaluate(stack).asNumber().toDouble(),
-                        expr2.evaluate(stack).asNumber().toDouble()));
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
+                return session.number(Math.pow(
+                        val1.asNumber().toDouble(),
+                        val2.asNumber().toDouble()));
             }
         },
         // evaluated first
         Child {
-            @Override Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
-                Value val1 = expr1.evaluate(stack);
-                Value val2 = expr2.evaluate(stack);
+            @Override public Value apply(Session session, Value val1, Value val2) throws StyxException {
                 if(val1.isReference()) {
                     return val1.asReference().child(val2);
                 }
@@ -220,6 +381,33 @@ public final class BinaryOperator extends Expression {
             }
         };
 
-        abstract Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException;
+        Value evaluate(Stack stack, Expression expr1, Expression expr2) throws StyxException {
+            return apply(stack.session(), expr1.evaluate(stack), expr2.evaluate(stack));
+        }
+
+        void generate(BytecodeCompiler gen, Expression self, Expression expr1, Expression expr2) {
+            gen.generateBinary(this, expr1, expr2);
+        }
+
+        void generateBranch(BytecodeCompiler gen, Expression self, Expression expr1, Expression expr2, BytecodeCompiler.Label target, boolean when) {
+            generate(gen, self, expr1, expr2);
+            gen.generateTest(target, when);
+        }
+
+        /**
+         * Applies the operator to two 32-bit signed integers without any conversions.
+         * The result must be the same as the one of apply(), which is based on double for arithmetic operators.
+         * @return the result or null if the fast path cannot be taken (i.e. on overflow).
+         */
+        Value applyInteger(Session session, int val1, int val2) {
+            return null;
+        }
+
+        /**
+         * Applies the operator to operands that are already evaluated (not supported by '??', '||' and '&&').
+         */
+        public Value apply(Session session, Value val1, Value val2) throws StyxException {
+            throw new UnsupportedOperationException("The operator " + this + " requires lazy evaluation.");
+        }
     }
 }
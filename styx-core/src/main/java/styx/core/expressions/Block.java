@@ -44,7 +44,10 @@ public final class Block extends Expression {
         List<Expression> childrenc = new ArrayList<>();
         int base = scope.enterBlock();
         for(Expression child : children) {
-            childrenc.add(child.compile(scope, flags));
+            Expression childc = child.compile(scope, flags); // unreachable statements must compile nevertheless
+            if(!scope.optimize(CompileFlag.EliminateDeadCode) || childrenc.isEmpty() || !(childrenc.get(childrenc.size() - 1) instanceof FlowStatement)) {
+                childrenc.add(childc);
+            }
         }
         scope.leaveBlock(base);
         return new Block(childrenc).optimizeConst(scope);
@@ -78,4 +81,16 @@ public final class Block extends Expression {
         }
         return null; // the block is left at the end.
     }
+
+    @Override
+    void generate(BytecodeCompiler gen) {
+        gen.generateBlock(children);
+    }
+
+    @Override
+    void generateStatement(BytecodeCompiler gen) {
+        for(Expression child : children) {
+            gen.statement(child);
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package styx.core.expressions;
+
+import java.util.Objects;
+
+import styx.Function;
+import styx.Session;
+import styx.StyxException;
+import styx.Value;
+
+/**
+ * Abstract base class for the body of a function that has been translated into JVM bytecode.
+ * <p>
+ * The subclasses are generated at runtime by BytecodeCompiler. They are loaded by their own class loader,
+ * so everything referenced by the generated code must be public. This includes the static helpers below.
+ */
+public abstract class BytecodeBody {
+
+    /**
+     * The nodes of the abstract syntax tree that are not translated and are evaluated by the interpreter.
+     */
+    protected final Expression[] nodes;
+
+    /**
+     * The constant values referenced by the generated code.
+     */
+    protected final Value[] constants;
+
+    protected BytecodeBody(Expression[] nodes, Value[] constants) {
+        this.nodes     = nodes;
+        this.constants = constants;
+    }
+
+    /**
+     * Invokes the function body.
+     * @param stack contains all function arguments in the current stack frame.
+     * @return the resulting value of the function, can be null.
+     * @throws StyxException if an exception was thrown during the evaluation of the function.
+     */
+    public abstract Value invoke(Stack stack) throws StyxException;
+
+    public static boolean test(Value val) {
+        return val.asBool().toBool();
+    }
+
+    public static Value bool(Session session, boolean val) {
+        return session.bool(val);
+    }
+
+    public static Function target(Value val) {
+        return Objects.requireNonNull(val, "The target of the function call is null.").asFunction();
+    }
+
+    public static Value call(Function target, Stack stack, int frameBase, boolean tail) throws StyxException {
+        return Call.invoke(target, stack, frameBase, tail);
+    }
+
+    public static int flow(Flow flow) {
+        return flow == null ? -1 : flow.ordinal();
+    }
+
+    public static RuntimeException invalidFlow() {
+        return new UnsupportedOperationException("Invalid control flow statement in {...} expression.");
+    }
+}
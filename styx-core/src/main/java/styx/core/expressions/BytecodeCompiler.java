@@ -0,0 +1,790 @@
+package styx.core.expressions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import styx.Value;
+
+/**
+ * Translates the body of a compiled function into JVM bytecode.
+ * <p>
+ * The generated code keeps function arguments and local variables in JVM locals and invokes the operators directly,
+ * so the JIT compiler of the JVM sees straight-line code instead of the virtual evaluate() calls of the interpreter.
+ * Nodes that do not implement generate() are evaluated by the interpreter: the local variables are written to the
+ * stack frame before and read back after, so both can be mixed freely.
+ * <p>
+ * The class files have version 49 (Java 5). They are verified by type inference and need no stack map frames.
+ * <p>
+ * Translation is enabled by the system property 'styx.bytecode.threshold', the number of invocations of a function
+ * after which it is translated. By default, it is negative and all functions are evaluated by the interpreter.
+ * The threshold is fixed when a function is compiled (see Scope).
+ */
+public final class BytecodeCompiler {
+
+    private static final Logger LOG = Logger.getLogger(BytecodeCompiler.class.toString());
+
+    /**
+     * The default number of invocations after which a function is translated, negative if never.
+     */
+    static final int THRESHOLD = Integer.getInteger("styx.bytecode.threshold", -1);
+
+    private static final AtomicInteger classes = new AtomicInteger();
+
+    private static final String BODY       = "styx/core/expressions/BytecodeBody";
+    private static final String STACK      = "styx/core/expressions/Stack";
+    private static final String EXPRESSION = "styx/core/expressions/Expression";
+    private static final String VALUE      = "Lstyx/Value;";
+    private static final String SESSION    = "Lstyx/Session;";
+    private static final String INIT_DESC  = "([Lstyx/core/expressions/Expression;[Lstyx/Value;)V";
+    private static final String BODY_DESC  = "(Lstyx/core/expressions/Stack;)Lstyx/Value;";
+
+    private static final int LOCAL_THIS    = 0;
+    private static final int LOCAL_STACK   = 1;
+    private static final int LOCAL_SESSION = 2;
+    private static final int LOCAL_SLOTS   = 3;
+
+    private static final int ACONST_NULL     = 0x01;
+    private static final int ICONST_0        = 0x03;
+    private static final int BIPUSH          = 0x10;
+    private static final int SIPUSH          = 0x11;
+    private static final int LDC_W           = 0x13;
+    private static final int ILOAD           = 0x15;
+    private static final int ALOAD           = 0x19;
+    private static final int ALOAD_0         = 0x2a;
+    private static final int ALOAD_1         = 0x2b;
+    private static final int ALOAD_2         = 0x2c;
+    private static final int AALOAD          = 0x32;
+    private static final int ISTORE          = 0x36;
+    private static final int ASTORE          = 0x3a;
+    private static final int POP             = 0x57;
+    private static final int DUP             = 0x59;
+    private static final int IFEQ            = 0x99;
+    private static final int IFNE            = 0x9a;
+    private static final int IFLT            = 0x9b;
+    private static final int IF_ICMPNE       = 0xa0;
+    private static final int IF_ACMPNE       = 0xa6;
+    private static final int GOTO            = 0xa7;
+    private static final int ARETURN         = 0xb0;
+    private static final int RETURN          = 0xb1;
+    private static final int GETSTATIC       = 0xb2;
+    private static final int GETFIELD        = 0xb4;
+    private static final int INVOKEVIRTUAL   = 0xb6;
+    private static final int INVOKESPECIAL   = 0xb7;
+    private static final int INVOKESTATIC    = 0xb8;
+    private static final int INVOKEINTERFACE = 0xb9;
+    private static final int ATHROW          = 0xbf;
+    private static final int CHECKCAST       = 0xc0;
+    private static final int WIDE            = 0xc4;
+    private static final int IFNULL          = 0xc6;
+    private static final int IFNONNULL       = 0xc7;
+
+    private final int argCount;
+    private final int slotCount; // the number of variable slots determined by the first pass, zero during the first pass
+
+    private final List<Expression>     nodes     = new ArrayList<>();
+    private final Map<Value, Integer>  constants = new IdentityHashMap<>();
+    private final Deque<Target>        targets   = new ArrayDeque<>();
+    private final ConstantPool         pool      = new ConstantPool();
+    private final ByteArrayOutputStream code     = new ByteArrayOutputStream();
+    private final Map<Integer, Integer> patches  = new HashMap<>(); // position of jump -> relative offset
+
+    private int usedSlots;
+    private int nextLocal;
+    private int depth;
+    private int maxDepth;
+
+    private BytecodeCompiler(int argCount, int slotCount) {
+        this.argCount  = argCount;
+        this.slotCount = slotCount;
+        this.usedSlots = argCount;
+        this.nextLocal = LOCAL_SLOTS + Math.max(argCount, slotCount);
+    }
+
+    /**
+     * Translates the body of a compiled function into JVM bytecode.
+     * @param body the compiled body of the function.
+     * @param argCount the number of arguments of the function, which are passed in the current stack frame.
+     * @return the translated body, or null if the body cannot be translated or would not gain anything.
+     */
+    public static BytecodeBody compile(Expression body, int argCount) {
+        try {
+            // The first pass determines the number of local variables, which have to be written to the stack frame
+            // around every node that is evaluated by the interpreter. The second pass generates the actual code.
+            BytecodeCompiler pass1 = new BytecodeCompiler(argCount, 0);
+            pass1.generateBody(body);
+            if(pass1.nodes.size() == 1 && pass1.nodes.get(0) == body) {
+                return null;
+            }
+            BytecodeCompiler pass2 = new BytecodeCompiler(argCount, pass1.usedSlots);
+            pass2.generateBody(body);
+
+            String name = "styx/core/expressions/BytecodeBody_" + classes.incrementAndGet();
+            byte[] bytes = pass2.toClassFile(name);
+            Value[] constants = new Value[pass2.constants.size()];
+            for(Map.Entry<Value, Integer> constant : pass2.constants.entrySet()) {
+                constants[constant.getValue()] = constant.getKey();
+            }
+            return (BytecodeBody) new Loader().define(name.replace('/', '.'), bytes).
+                    getConstructor(Expression[].class, Value[].class).
+                    newInstance(pass2.nodes.toArray(new Expression[0]), constants);
+        } catch(ReflectiveOperationException | LinkageError | RuntimeException e) {
+            LOG.warning("Failed to translate function, using the interpreter: " + e);
+            return null;
+        }
+    }
+
+    void value(Expression expr) {
+        expr.generate(this);
+    }
+
+    void statement(Expression expr) {
+        expr.generateStatement(this);
+    }
+
+    void branch(Expression cond, Label target, boolean when) {
+        cond.generateBranch(this, target, when);
+    }
+
+    Label label() {
+        return new Label();
+    }
+
+    void mark(Label label) {
+        if(label.position >= 0) {
+            throw new IllegalStateException("The label is already marked.");
+        }
+        label.position = code.size();
+        if(label.depth >= 0) {
+            depth = label.depth;
+        } else {
+            label.depth = depth;
+        }
+        for(int fixup : label.fixups) {
+            patchJump(fixup, label.position);
+        }
+    }
+
+    void jump(Label target) {
+        jump(GOTO, 0, target);
+    }
+
+    void pushNull() {
+        op(ACONST_NULL, 1);
+    }
+
+    void pop() {
+        op(POP, -1);
+    }
+
+    void pushConstant(Value value) {
+        if(value == null) {
+            pushNull();
+            return;
+        }
+        Integer index = constants.get(value);
+        if(index == null) {
+            constants.put(value, index = constants.size());
+        }
+        local(ALOAD, LOCAL_THIS);
+        field(GETFIELD, BODY, "constants", "[" + VALUE);
+        pushInt(index);
+        op(AALOAD, -1);
+    }
+
+    void loadVariable(int offset) {
+        local(ALOAD, slot(offset));
+    }
+
+    void storeVariable(int offset) {
+        local(ASTORE, slot(offset));
+    }
+
+    /**
+     * Generates a conditional jump for the value on the operand stack, which is consumed.
+     */
+    void generateTest(Label target, boolean when) {
+        invoke(INVOKESTATIC, BODY, "test", "(" + VALUE + ")Z");
+        jump(when ? IFNE : IFEQ, -1, target);
+    }
+
+    /**
+     * Generates a Bool value for a condition that is generated as a branch.
+     */
+    void generateBool(Expression cond) {
+        Label isFalse = label();
+        Label end     = label();
+        local(ALOAD, LOCAL_SESSION);
+        branch(cond, isFalse, false);
+        pushInt(1);
+        jump(end);
+        mark(isFalse);
+        pushInt(0);
+        mark(end);
+        invoke(INVOKESTATIC, BODY, "bool", "(" + SESSION + "Z)" + VALUE);
+    }
+
+    void generateCoalesce(Expression expr1, Expression expr2) {
+        Label end = label();
+        value(expr1);
+        op(DUP, 1);
+        jump(IFNONNULL, -1, end);
+        pop();
+        value(expr2);
+        mark(end);
+    }
+
+    /**
+     * Generates the lookup of a hoisted expression, which is evaluated and stored if its slot is still null.
+     */
+    void generateInvariant(Invariant node) {
+        // An empty slot means not evaluated yet, null is kept as the node itself (see Invariant.evaluate()).
+        Label compute = label();
+        Label store   = label();
+        Label end     = label();
+        loadVariable(node.offset());
+        op(DUP, 1);
+        jump(IFNULL, -1, compute);
+        op(DUP, 1);
+        pushConstant(node);
+        jump(IF_ACMPNE, -2, end);
+        pop();
+        pushNull();
+        jump(end);
+        mark(compute);
+        pop();
+        value(node.expr());
+        op(DUP, 1);
+        op(DUP, 1);
+        jump(IFNONNULL, -1, store);
+        pop();
+        pushConstant(node);
+        mark(store);
+        storeVariable(node.offset());
+        mark(end);
+    }
+
+    void generateBinary(BinaryOperator.Operator op, Expression expr1, Expression expr2) {
+        String type = "Lstyx/core/expressions/BinaryOperator$Operator;";
+        field(GETSTATIC, "styx/core/expressions/BinaryOperator$Operator", op.name(), type);
+        local(ALOAD, LOCAL_SESSION);
+        value(expr1);
+        value(expr2);
+        invoke(INVOKEVIRTUAL, "styx/core/expressions/BinaryOperator$Operator", "apply", "(" + SESSION + VALUE + VALUE + ")" + VALUE);
+    }
+
+    void generateBinary(BinaryOperator node, Expression expr1, Expression expr2) {
+        // The node keeps track of its speculation on integer operands, even when called from here.
+        loadNode(node);
+        code.write(CHECKCAST);
+        writeShort(pool.classRef("styx/core/expressions/BinaryOperator"));
+        local(ALOAD, LOCAL_SESSION);
+        value(expr1);
+        value(expr2);
+        invoke(INVOKEVIRTUAL, "styx/core/expressions/BinaryOperator", "apply", "(" + SESSION + VALUE + VALUE + ")" + VALUE);
+    }
+
+    void generateUnary(UnaryOperator.Operator op, Expression expr) {
+        String type = "Lstyx/core/expressions/UnaryOperator$Operator;";
+        field(GETSTATIC, "styx/core/expressions/UnaryOperator$Operator", op.name(), type);
+        local(ALOAD, LOCAL_SESSION);
+        value(expr);
+        invoke(INVOKEVIRTUAL, "styx/core/expressions/UnaryOperator$Operator", "apply", "(" + SESSION + VALUE + ")" + VALUE);
+    }
+
+    void generateCall(Expression func, List<Expression> args, boolean tail) {
+        // Same sequence as in Call.evaluate(): evaluate the target, push the arguments and invoke the target.
+        int frameBase = nextLocal++;
+        value(func);
+        invoke(INVOKESTATIC, BODY, "target", "(" + VALUE + ")Lstyx/Function;");
+        local(ALOAD, LOCAL_STACK);
+        invoke(INVOKEVIRTUAL, STACK, "prepareFrame", "()I");
+        local(ISTORE, frameBase);
+        for(Expression arg : args) {
+            local(ALOAD, LOCAL_STACK);
+            value(arg);
+            invoke(INVOKEVIRTUAL, STACK, "push", "(" + VALUE + ")V");
+        }
+        local(ALOAD, LOCAL_STACK);
+        local(ILOAD, frameBase);
+        pushInt(tail ? 1 : 0);
+        invoke(INVOKESTATIC, BODY, "call", "(Lstyx/Function;Lstyx/core/expressions/Stack;IZ)" + VALUE);
+    }
+
+    /**
+     * Generates an empty complex value, to be filled by generatePut().
+     */
+    void generateComplex() {
+        local(ALOAD, LOCAL_SESSION);
+        invoke(INVOKEINTERFACE, "styx/Session", "complex", "()Lstyx/Complex;");
+    }
+
+    void generateNumber(int value) {
+        local(ALOAD, LOCAL_SESSION);
+        pushInt(value);
+        invoke(INVOKEINTERFACE, "styx/Session", "number", "(I)Lstyx/Numeric;");
+    }
+
+    /**
+     * Generates Complex.put() for a complex value, a key and a value on the operand stack.
+     */
+    void generatePut() {
+        invoke(INVOKEINTERFACE, "styx/Complex", "put", "(" + VALUE + VALUE + ")Lstyx/Complex;");
+    }
+
+    /**
+     * Generates a {...} block that is used as an expression: 'return' and 'yield' leave the block with a result.
+     */
+    void generateBlock(List<Expression> children) {
+        Target target = new Target(label(), nextLocal++, null, null, null);
+        targets.push(target);
+        for(Expression child : children) {
+            statement(child);
+        }
+        targets.pop();
+        pushNull();
+        local(ASTORE, target.result);
+        mark(target.exit);
+        local(ALOAD, target.result);
+    }
+
+    void enterLoop(Label breakLabel, Label continueLabel, Label yieldLabel) {
+        targets.push(new Target(null, -1, breakLabel, continueLabel, yieldLabel));
+    }
+
+    void leaveLoop() {
+        targets.pop();
+    }
+
+    /**
+     * Generates a 'return', 'yield', 'break' or 'continue' statement.
+     * @param expr the result of 'return' or 'yield', can be null.
+     */
+    void generateFlow(Flow flow, Expression expr) {
+        generateFlow(flow, expr, false);
+    }
+
+    void generateFallback(Expression expr) {
+        spill();
+        loadNode(expr);
+        local(ALOAD, LOCAL_STACK);
+        invoke(INVOKEVIRTUAL, EXPRESSION, "evaluate", "(Lstyx/core/expressions/Stack;)" + VALUE);
+        reload();
+    }
+
+    void generateFallbackStatement(Expression expr) {
+        spill();
+        loadNode(expr);
+        local(ALOAD, LOCAL_STACK);
+        invoke(INVOKEVIRTUAL, EXPRESSION, "execute", "(Lstyx/core/expressions/Stack;)Lstyx/core/expressions/Flow;");
+        reload();
+        invoke(INVOKESTATIC, BODY, "flow", "(Lstyx/core/expressions/Flow;)I");
+        // Dispatch the control flow statement that was executed by the interpreter, if any.
+        Label none = label();
+        op(DUP, 1);
+        jump(IFLT, -1, none);
+        for(Flow flow : Flow.values()) {
+            Label next = label();
+            op(DUP, 1);
+            pushInt(flow.ordinal());
+            jump(IF_ICMPNE, -2, next);
+            pop();
+            generateFlow(flow, null, true);
+            mark(next);
+        }
+        mark(none);
+        pop();
+    }
+
+    private void generateBody(Expression body) {
+        local(ALOAD, LOCAL_STACK);
+        invoke(INVOKEVIRTUAL, STACK, "session", "()" + SESSION);
+        local(ASTORE, LOCAL_SESSION);
+        for(int offset = 0; offset < Math.max(argCount, slotCount); offset++) {
+            if(offset < argCount) {
+                local(ALOAD, LOCAL_STACK);
+                pushInt(offset);
+                invoke(INVOKEVIRTUAL, STACK, "getFrameValue", "(I)" + VALUE);
+            } else {
+                pushNull();
+            }
+            local(ASTORE, slot(offset));
+        }
+        if(slotCount > argCount) {
+            // Reserve the stack frame for the local variables, as they may be written to it later.
+            local(ALOAD, LOCAL_STACK);
+            pushInt(slotCount - 1);
+            pushNull();
+            invoke(INVOKEVIRTUAL, STACK, "setFrameValue", "(I" + VALUE + ")V");
+        }
+        value(body);
+        op(ARETURN, -1);
+    }
+
+    private void generateFlow(Flow flow, Expression expr, boolean result) {
+        for(Target target : targets) {
+            if(target.exit != null) {
+                // The innermost {...} expression handles 'return' and 'yield' and must not see 'break' or 'continue'.
+                if(flow == Flow.Return || flow == Flow.Yield) {
+                    generateFlowResult(expr, result);
+                    local(ASTORE, target.result);
+                    jump(target.exit);
+                } else {
+                    invoke(INVOKESTATIC, BODY, "invalidFlow", "()Ljava/lang/RuntimeException;");
+                    op(ATHROW, -1);
+                }
+                return;
+            }
+            switch(flow) {
+                case Return:
+                    continue; // loops pass 'return' on to the enclosing block.
+                case Yield:
+                    if(expr != null) {
+                        value(expr);
+                        pop();
+                    }
+                    jump(target.yieldLabel);
+                    return;
+                case Break:
+                    jump(target.breakLabel);
+                    return;
+                case Continue:
+                    jump(target.continueLabel);
+                    return;
+            }
+        }
+        throw new IllegalStateException("Control flow statement outside of a block.");
+    }
+
+    private void generateFlowResult(Expression expr, boolean result) {
+        if(result) {
+            local(ALOAD, LOCAL_STACK);
+            invoke(INVOKEVIRTUAL, STACK, "getResult", "()" + VALUE);
+        } else if(expr != null) {
+            value(expr);
+        } else {
+            pushNull();
+        }
+    }
+
+    private void loadNode(Expression expr) {
+        local(ALOAD, LOCAL_THIS);
+        field(GETFIELD, BODY, "nodes", "[L" + EXPRESSION + ";");
+        pushInt(nodes.size());
+        op(AALOAD, -1);
+        nodes.add(expr);
+    }
+
+    private void spill() {
+        for(int offset = 0; offset < slotCount; offset++) {
+            local(ALOAD, LOCAL_STACK);
+            pushInt(offset);
+            local(ALOAD, slot(offset));
+            invoke(INVOKEVIRTUAL, STACK, "setFrameValue", "(I" + VALUE + ")V");
+        }
+    }
+
+    private void reload() {
+        for(int offset = 0; offset < slotCount; offset++) {
+            local(ALOAD, LOCAL_STACK);
+            pushInt(offset);
+            invoke(INVOKEVIRTUAL, STACK, "getFrameValue", "(I)" + VALUE);
+            local(ASTORE, slot(offset));
+        }
+    }
+
+    private int slot(int offset) {
+        usedSlots = Math.max(usedSlots, offset + 1);
+        if(slotCount > 0 && offset >= slotCount) {
+            throw new IllegalStateException("Variable offset differs between the passes.");
+        }
+        return LOCAL_SLOTS + offset;
+    }
+
+    private void op(int opcode, int delta) {
+        code.write(opcode);
+        adjust(delta);
+    }
+
+    private void pushInt(int value) {
+        if(value >= -1 && value <= 5) {
+            code.write(ICONST_0 + value);
+        } else if(value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.write(BIPUSH);
+            code.write(value);
+        } else if(value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            code.write(SIPUSH);
+            writeShort(value);
+        } else {
+            code.write(LDC_W);
+            writeShort(pool.integer(value));
+        }
+        adjust(1);
+    }
+
+    private void local(int opcode, int index) {
+        if(index > 0xFF) {
+            code.write(WIDE);
+            code.write(opcode);
+            writeShort(index);
+        } else {
+            code.write(opcode);
+            code.write(index);
+        }
+        nextLocal = Math.max(nextLocal, index + 1);
+        adjust(opcode == ALOAD || opcode == ILOAD ? 1 : -1);
+    }
+
+    private void field(int opcode, String owner, String name, String desc) {
+        code.write(opcode);
+        writeShort(pool.member(9, owner, name, desc));
+        adjust(opcode == GETSTATIC ? 1 : 0);
+    }
+
+    private void invoke(int opcode, String owner, String name, String desc) {
+        int args = 0;
+        for(int i = 1; desc.charAt(i) != ')'; i++) {
+            char c = desc.charAt(i);
+            while(c == '[') {
+                c = desc.charAt(++i);
+            }
+            if(c == 'L') {
+                i = desc.indexOf(';', i);
+            }
+            args++; // only single slot types (references, int and boolean) are used.
+        }
+        int delta = (desc.endsWith(")V") ? 0 : 1) - args - (opcode == INVOKESTATIC ? 0 : 1);
+        code.write(opcode);
+        writeShort(pool.member(opcode == INVOKEINTERFACE ? 11 : 10, owner, name, desc));
+        if(opcode == INVOKEINTERFACE) {
+            code.write(args + 1);
+            code.write(0);
+        }
+        adjust(delta);
+    }
+
+    private void jump(int opcode, int delta, Label target) {
+        int position = code.size();
+        code.write(opcode);
+        writeShort(0);
+        adjust(delta);
+        if(target.depth < 0) {
+            target.depth = depth;
+        }
+        if(target.position >= 0) {
+            patchJump(position, target.position);
+        } else {
+            target.fixups.add(position);
+        }
+    }
+
+    private void patchJump(int position, int target) {
+        // The code cannot be patched in place, so the jumps are resolved in toClassFile().
+        patches.put(position, target - position);
+    }
+
+    private void adjust(int delta) {
+        depth += delta;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private void writeShort(int value) {
+        code.write(value >> 8);
+        code.write(value);
+    }
+
+    private byte[] toClassFile(String name) {
+        byte[] body = code.toByteArray();
+        if(body.length > 0xFFFF) {
+            throw new IllegalStateException("The generated method is too large.");
+        }
+        for(Map.Entry<Integer, Integer> patch : patches.entrySet()) {
+            int offset = patch.getValue();
+            if(offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                throw new IllegalStateException("The generated jump is too far.");
+            }
+            body[patch.getKey() + 1] = (byte) (offset >> 8);
+            body[patch.getKey() + 2] = (byte) offset;
+        }
+        try {
+            int thisClass  = pool.classRef(name);
+            int superClass = pool.classRef(BODY);
+            int superInit  = pool.member(10, BODY, "<init>", INIT_DESC);
+            int initName   = pool.utf8("<init>");
+            int initDesc   = pool.utf8(INIT_DESC);
+            int invokeName = pool.utf8("invoke");
+            int invokeDesc = pool.utf8(BODY_DESC);
+            int codeName   = pool.utf8("Code");
+            byte[] init = new byte[] {
+                    ALOAD_0, ALOAD_1, ALOAD_2,
+                    (byte) INVOKESPECIAL, (byte) (superInit >> 8), (byte) superInit,
+                    (byte) RETURN };
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);  // minor version
+            out.writeShort(49); // major version
+            pool.write(out);
+            out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(2); // methods
+            writeMethod(out, 0x0001, initName, initDesc, codeName, 3, 3, init);
+            writeMethod(out, 0x0001 | 0x0010, invokeName, invokeDesc, codeName, maxDepth, nextLocal, body);
+            out.writeShort(0); // attributes
+            return bytes.toByteArray();
+        } catch(IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int access, int name, int desc, int codeName, int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(desc);
+        out.writeShort(1); // attributes
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    /**
+     * A position in the generated code that is the target of jumps.
+     */
+    static final class Label {
+        private int position = -1;
+        private int depth    = -1; // the depth of the operand stack at the label, -1 if not yet known
+        private final List<Integer> fixups = new ArrayList<>();
+    }
+
+    /**
+     * The statement that handles control flow statements: either a {...} expression or a loop.
+     */
+    private static final class Target {
+        private final Label exit;   // for {...} expressions
+        private final int   result; // for {...} expressions
+        private final Label breakLabel;
+        private final Label continueLabel;
+        private final Label yieldLabel;
+
+        Target(Label exit, int result, Label breakLabel, Label continueLabel, Label yieldLabel) {
+            this.exit          = exit;
+            this.result        = result;
+            this.breakLabel    = breakLabel;
+            this.continueLabel = continueLabel;
+            this.yieldLabel    = yieldLabel;
+        }
+    }
+
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream bytes   = new ByteArrayOutputStream();
+        private final DataOutputStream      out     = new DataOutputStream(bytes);
+        private final Map<String, Integer>  entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            String key = "utf8:" + value;
+            Integer index = entries.get(key);
+            if(index == null) {
+                try {
+                    out.writeByte(1);
+                    out.writeUTF(value);
+                } catch(IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                entries.put(key, index = count++);
+            }
+            return index;
+        }
+
+        int integer(int value) {
+            String key = "int:" + value;
+            Integer index = entries.get(key);
+            if(index == null) {
+                try {
+                    out.writeByte(3);
+                    out.writeInt(value);
+                } catch(IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                entries.put(key, index = count++);
+            }
+            return index;
+        }
+
+        int classRef(String name) {
+            String key = "class:" + name;
+            Integer index = entries.get(key);
+            if(index == null) {
+                int utf8 = utf8(name);
+                write(7, utf8, -1);
+                entries.put(key, index = count++);
+            }
+            return index;
+        }
+
+        int member(int tag, String owner, String name, String desc) {
+            String key = tag + ":" + owner + "." + name + desc;
+            Integer index = entries.get(key);
+            if(index == null) {
+                int clazz = classRef(owner);
+                String natKey = "nat:" + name + desc;
+                Integer nat = entries.get(natKey);
+                if(nat == null) {
+                    int utf8Name = utf8(name);
+                    int utf8Desc = utf8(desc);
+                    write(12, utf8Name, utf8Desc);
+                    entries.put(natKey, nat = count++);
+                }
+                write(tag, clazz, nat);
+                entries.put(key, index = count++);
+            }
+            return index;
+        }
+
+        void write(DataOutputStream target) throws IOException {
+            target.writeShort(count);
+            bytes.writeTo(target);
+        }
+
+        private void write(int tag, int value1, int value2) {
+            try {
+                out.writeByte(tag);
+                out.writeShort(value1);
+                if(value2 >= 0) {
+                    out.writeShort(value2);
+                }
+            } catch(IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final class Loader extends ClassLoader {
+
+        Loader() {
+            super(BytecodeBody.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -21,23 +21,44 @@ public final class Call extends Expression {
     private final Expression       func;
     private final List<Expression> args;
     private final Determinism   det;
+    private final boolean       tail; // true for 'return f(...)', see tailCall()
 
     public Call(Expression func, List<Expression> args) {
         this.func = func;
         this.args = args != null ? args : new ArrayList<Expression>();
         this.det  = null;
+        this.tail = false;
     }
 
     public Call(ExprFactory expf, Complex value) throws StyxException {
         this.func = expf.newExpression (findMember(value, "func",  true));
         this.args = expf.newExpressions(findMember(value, "args",  true));
         this.det  = null;
+        this.tail = false;
     }
 
     private Call(Expression func, List<Expression> args, Scope scope) {
         this.func = func;
         this.args = args;
         this.det  = calcDeterminism(scope);
+        this.tail = false;
+    }
+
+    private Call(Call call) {
+        this.func = call.func;
+        this.args = call.args;
+        this.det  = call.det;
+        this.tail = true;
+    }
+
+    /**
+     * Returns a copy of this call that replaces the calling function if the target is a function defined by a script.
+     * Instead of entering a new stack frame, the arguments replace the current one and the target is invoked after
+     * the current function has returned (see FunctionExpression.invoke()). This way, self-recursive functions such as
+     * "f := (f, n) -> { if(n == 0) { return 0 }, return f(f, n-1) }" run in constant stack space.
+     */
+    Call tailCall() {
+        return new Call(this);
     }
 
     @Override
@@ -55,7 +76,7 @@ public final class Call extends Expression {
             argsc.add(arg.compile(scope, CompileFlag.EXPRESSION));
         }
         // TODO (implement) check argumentCount() if call is statically linked
-        return new Call(func.compile(scope, CompileFlag.EXPRESSION), argsc, scope).optimizeConst(scope);
+        return scope.hoist(new Call(func.compile(scope, CompileFlag.EXPRESSION), argsc, scope).optimizeConst(scope));
     }
 
     @Override
@@ -72,6 +93,20 @@ public final class Call extends Expression {
         for(int i = 0; i < args.size(); i++) {
             stack.push(args.get(i).evaluate(stack));
         }
+        return invoke(target, stack, frameBase, tail);
+    }
+
+    /**
+     * Invokes the target of a call after the arguments have been pushed onto the stack.
+     * @param frameBase the return value of Stack.prepareFrame() before pushing the arguments.
+     * @param tail true to replace the current function, see tailCall().
+     * @return the result of the function or null for a tail call, which is made later.
+     */
+    static Value invoke(Function target, Stack stack, int frameBase, boolean tail) throws StyxException {
+        if(tail && target instanceof ConcreteFunction && ((ConcreteFunction) target).definition() instanceof FunctionExpression) {
+            stack.enterTailCall(frameBase, (FunctionExpression) ((ConcreteFunction) target).definition());
+            return null;
+        }
         stack.enterFrame(frameBase);
         Value result;
         if(target instanceof ConcreteFunction) {
@@ -89,6 +124,17 @@ public final class Call extends Expression {
         return result;
     }
 
+    @Override
+    void generate(BytecodeCompiler gen) {
+        gen.generateCall(func, args, tail);
+    }
+
+    @Override
+    void generateStatement(BytecodeCompiler gen) {
+        gen.generateCall(func, args, tail);
+        gen.pop();
+    }
+
     private Determinism calcDeterminism(Scope scope) {
         // Note:
         // - argsdet is CONSTANT if all arguments are constant.
@@ -38,7 +38,35 @@ public enum CompileFlag {
     /**
      * Variable or reference assignments are allowed.
      */
-    AllowAssignment;
+    AllowAssignment,
+
+    /**
+     * A function call in a 'return' statement can replace the current function (no 'try' or 'atomic' in between).
+     */
+    AllowTailCall,
+
+    /**
+     * Optimization: expressions that are CONSTANT (including calls of PURE functions with constant arguments)
+     * are evaluated at compile time.
+     */
+    FoldConstants,
+
+    /**
+     * Optimization: branches of 'if' and loops with a constant condition as well as statements after a control flow
+     * statement are removed.
+     */
+    EliminateDeadCode,
+
+    /**
+     * Optimization: expressions without side effects that do not depend on variables assigned in a loop
+     * are evaluated only once per execution of the loop.
+     */
+    HoistInvariants,
+
+    /**
+     * Optimization: reference reads in a read-only 'atomic' block are evaluated only once per transaction.
+     */
+    HoistReads;
 
     /**
      * The flags to be used for compiling top level batches: everything but 'return', 'yield', 'break', 'continue' is allowed.
@@ -48,13 +76,39 @@ public enum CompileFlag {
     /**
      * The flags to be used for compiling function bodies (not lambdas) : 'return' is allowed.
      */
-    public static final EnumSet<CompileFlag> BODY = EnumSet.of(AllowReturn);
+    public static final EnumSet<CompileFlag> BODY = EnumSet.of(AllowReturn, AllowTailCall);
 
     /**
      * The flags to be used for compiling expressions (including lambdas): no statements are allowed.
      */
     public static final EnumSet<CompileFlag> EXPRESSION = EnumSet.noneOf(CompileFlag.class);
 
+    /**
+     * All optimizations. Unlike the other flags, they are not passed to compile() but kept by the Scope.
+     */
+    public static final EnumSet<CompileFlag> OPTIMIZATIONS = EnumSet.of(FoldConstants, EliminateDeadCode, HoistInvariants, HoistReads);
+
+    /**
+     * Parses a comma separated list of optimizations.
+     * @param names the names of the flags, null for all optimizations.
+     */
+    public static EnumSet<CompileFlag> parseOptimizations(String names) {
+        if(names == null) {
+            return EnumSet.copyOf(OPTIMIZATIONS);
+        }
+        EnumSet<CompileFlag> result = EnumSet.noneOf(CompileFlag.class);
+        for(String name : names.split(",")) {
+            if(!name.trim().isEmpty()) {
+                CompileFlag flag = valueOf(name.trim());
+                if(!OPTIMIZATIONS.contains(flag)) {
+                    throw new IllegalArgumentException("Not an optimization: " + flag);
+                }
+                result.add(flag);
+            }
+        }
+        return result;
+    }
+
     public static EnumSet<CompileFlag> add(EnumSet<CompileFlag> a, CompileFlag... b) {
         EnumSet<CompileFlag> result = EnumSet.copyOf(a);
         result.addAll(Arrays.asList(b));
@@ -66,4 +120,10 @@ public enum CompileFlag {
         result.addAll(b);
         return result;
     }
+
+    public static EnumSet<CompileFlag> remove(EnumSet<CompileFlag> a, CompileFlag... b) {
+        EnumSet<CompileFlag> result = EnumSet.copyOf(a);
+        result.removeAll(Arrays.asList(b));
+        return result;
+    }
 }
@@ -66,7 +66,7 @@ public final class ComplexExpression extends Expression {
                     child.val.compile(scope, CompileFlag.EXPRESSION)));
         }
         scope.leaveBlock(base);
-        return new ComplexExpression(childrenc).optimizeConst(scope);
+        return scope.hoist(new ComplexExpression(childrenc).optimizeConst(scope));
     }
 
     @Override
@@ -98,6 +98,16 @@ public final class ComplexExpression extends Expression {
         return null;
     }
 
+    @Override
+    void generate(BytecodeCompiler gen) {
+        gen.generateComplex();
+        for(PairExpression child : children) {
+            gen.value(child.key);
+            gen.value(child.val);
+            gen.generatePut();
+        }
+    }
+
     private static List<PairExpression> convToPairList(ExprFactory expf, Complex value) throws StyxException {
         List<PairExpression> res = new ArrayList<>();
         for(Pair<Value,Value> child : value.asComplex()) {
@@ -54,4 +54,9 @@ public final class Constant extends Expression {
     public Value evaluate(Stack stack) {
         return value;
     }
+
+    @Override
+    void generate(BytecodeCompiler gen) {
+        gen.pushConstant(value);
+    }
 }
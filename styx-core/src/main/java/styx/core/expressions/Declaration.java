@@ -60,6 +60,20 @@ public final class Declaration extends Expression {
         return null;
     }
 
+    @Override
+    void generate(BytecodeCompiler gen) {
+        generateStatement(gen);
+        gen.pushNull();
+    }
+
+    @Override
+    void generateStatement(BytecodeCompiler gen) {
+        if(var != null) { // a constant declaration is a no-op
+            gen.value(expr);
+            var.generateAssign(gen);
+        }
+    }
+
     public static enum Operator {
         DeclareConstant {
             @Override Expression compile(Scope scope, IdentifierDeclaration ident, Expression exprc) throws StyxException {
@@ -19,15 +19,29 @@ public final class ExprFactory {
     private static final List<String> UNARY_OPERATORS  = toStringArray(UnaryOperator.Operator.values());
 
     private final FuncRegistry registry;
+    private final Profiler     profiler; // null if the expressions are not instrumented
 
     public ExprFactory(FuncRegistry registry) {
+        this(registry, null);
+    }
+
+    /**
+     * Creates a factory that wraps every created node in a Profiled node (see Profiler.instrument()).
+     */
+    ExprFactory(FuncRegistry registry, Profiler profiler) {
         this.registry = registry;
+        this.profiler = profiler;
     }
 
     // TODO (implement) All resulting expressions should be equal to the value from which they are initialized.
     //                  This can be done easily by passing the original value to the CompiledComplex constructor.
 
     public Expression newExpression(Value value) throws StyxException {
+        Expression expr = decodeExpression(value);
+        return profiler != null && expr != null ? profiler.wrap(expr) : expr;
+    }
+
+    private Expression decodeExpression(Value value) throws StyxException {
         try {
             if(value == null || (value.isComplex() && value.asComplex().isEmpty())) {
                 return null; // [] is used when no value is needed, for example @Break []
@@ -2,11 +2,15 @@ package styx.core.expressions;
 
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import styx.Determinism;
+import styx.Pair;
 import styx.StyxException;
+import styx.Text;
 import styx.Value;
 import styx.core.values.CompiledComplex;
+import styx.core.values.LazyComplex;
 
 /**
  * Abstract base class for nodes of the abstract syntax tree.
@@ -62,6 +66,34 @@ public abstract class Expression extends CompiledComplex {
         return null;
     }
 
+    /**
+     * Generates JVM bytecode that evaluates the expression and leaves the result on the operand stack.
+     * <p>
+     * This simple implementation lets the interpreter evaluate the expression,
+     * it _can_ be overridden by subclasses that can be translated (see BytecodeCompiler).
+     */
+    void generate(BytecodeCompiler gen) {
+        gen.generateFallback(this);
+    }
+
+    /**
+     * Generates JVM bytecode that executes the statement, including the control flow statements it executes.
+     * <p>
+     * This simple implementation lets the interpreter execute the statement,
+     * it _can_ be overridden by subclasses that can be translated (see BytecodeCompiler).
+     */
+    void generateStatement(BytecodeCompiler gen) {
+        gen.generateFallbackStatement(this);
+    }
+
+    /**
+     * Generates JVM bytecode that evaluates the expression as a condition and jumps if it has the given value.
+     */
+    void generateBranch(BytecodeCompiler gen, BytecodeCompiler.Label target, boolean when) {
+        gen.value(this);
+        gen.generateTest(target, when);
+    }
+
     protected static void requireFlag(EnumSet<CompileFlag> flags, CompileFlag required, String message) throws StyxException {
         if(!flags.contains(required)) {
             throw new StyxException(message);
@@ -69,9 +101,13 @@ public abstract class Expression extends CompiledComplex {
     }
 
     protected final Expression optimizeConst(Scope scope) {
-        if(effects() == Determinism.CONSTANT) {
+        if(effects() == Determinism.CONSTANT && scope.optimize(CompileFlag.FoldConstants)) {
             try {
-                return new Constant(evaluateConst(scope)); // optimization possible.
+                Value value = evaluateConst(scope);
+                if(value instanceof LazyComplex) {
+                    return this; // lazy values are generated where they are used (this is not optimized).
+                }
+                return new Constant(value); // optimization possible.
             } catch (RuntimeException | StyxException e) {
                 return this; // optimization possible, but evaluation leads to an exception (this is not optimized).
             }
@@ -84,6 +120,43 @@ public abstract class Expression extends CompiledComplex {
         return evaluate(new Stack(scope.getSession()));
     }
 
+    /**
+     * Collects the names of the variables that are declared or assigned in an uncompiled expression,
+     * not including nested functions.
+     */
+    static void collectAssigned(Value node, Set<Text> names) {
+        if(node instanceof Profiled) {
+            node = Profiled.unwrap((Profiled) node);
+        }
+        if(node instanceof IdentifierDeclaration) {
+            names.add(((IdentifierDeclaration) node).name());
+        } else if(node instanceof Assignment && ((Assignment) node).target() instanceof Variable) {
+            names.add(((Variable) ((Assignment) node).target()).ident());
+        } else if(node instanceof Constant || node instanceof AbstractFunction) {
+            return;
+        }
+        if(node != null && node.isComplex()) {
+            for(Pair<Value, Value> child : node.asComplex()) {
+                collectAssigned(child.val(), names);
+            }
+        }
+    }
+
+    /**
+     * Collects the names of the variables that are read by a compiled expression.
+     */
+    static void collectVariables(Value node, Set<Text> names) {
+        if(node instanceof Variable) {
+            names.add(((Variable) node).ident());
+        } else if(node instanceof Constant || node instanceof AbstractFunction) {
+            return;
+        } else if(node != null && node.isComplex()) {
+            for(Pair<Value, Value> child : node.asComplex()) {
+                collectVariables(child.val(), names);
+            }
+        }
+    }
+
     protected static Determinism maxEffects(Determinism det1, Determinism det2) {
         return det1.ordinal() >= det2.ordinal() ? det1 : det2;
     }
@@ -34,7 +34,14 @@ public final class FlowStatement extends Expression {
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
         keyw.checkFlags(flags);
-        return new FlowStatement(keyw, expr != null ? expr.compile(scope, CompileFlag.EXPRESSION) : null);
+        Expression exprc = expr != null ? expr.compile(scope, CompileFlag.EXPRESSION) : null;
+        if(keyw == Keyword.Return && flags.contains(CompileFlag.AllowTailCall)) {
+            exprc = scope.unhoist(exprc); // a tail call must not be cached.
+        }
+        if(keyw == Keyword.Return && Profiled.unwrap(exprc) instanceof Call && flags.contains(CompileFlag.AllowTailCall)) {
+            exprc = ((Call) Profiled.unwrap(exprc)).tailCall(); // the call itself is not profiled
+        }
+        return new FlowStatement(keyw, exprc);
     }
 
     @Override
@@ -52,11 +59,19 @@ public final class FlowStatement extends Expression {
         return keyw.execute(stack, expr);
     }
 
+    @Override
+    void generateStatement(BytecodeCompiler gen) {
+        keyw.generate(gen, this, expr);
+    }
+
     public static enum Keyword {
         Return {
             @Override void checkFlags(EnumSet<CompileFlag> flags) throws StyxException {
                 requireFlag(flags, CompileFlag.AllowReturn, "The 'return' control flow statement is not allowed here.");
             }
+            @Override void generate(BytecodeCompiler gen, Expression self, Expression expr) {
+                gen.generateFlow(Flow.Return, expr);
+            }
             @Override Flow execute(Stack stack, Expression expr) throws StyxException {
                 stack.setResult(expr == null ? null : expr.evaluate(stack));
                 return Flow.Return;
@@ -66,6 +81,9 @@ public final class FlowStatement extends Expression {
             @Override void checkFlags(EnumSet<CompileFlag> flags) throws StyxException {
                 requireFlag(flags, CompileFlag.AllowYield, "The 'yield' control flow statement is not allowed here.");
             }
+            @Override void generate(BytecodeCompiler gen, Expression self, Expression expr) {
+                gen.generateFlow(Flow.Yield, expr);
+            }
             @Override Flow execute(Stack stack, Expression expr) throws StyxException {
                 stack.setResult(expr.evaluate(stack));
                 return Flow.Yield;
@@ -75,6 +93,9 @@ public final class FlowStatement extends Expression {
             @Override void checkFlags(EnumSet<CompileFlag> flags) throws StyxException {
                 requireFlag(flags, CompileFlag.AllowBreak, "The 'break' control flow statement is not allowed here.");
             }
+            @Override void generate(BytecodeCompiler gen, Expression self, Expression expr) {
+                gen.generateFlow(Flow.Break, expr);
+            }
             @Override Flow execute(Stack stack, Expression expr) throws StyxException {
                 return Flow.Break;
             }
@@ -83,6 +104,9 @@ public final class FlowStatement extends Expression {
             @Override void checkFlags(EnumSet<CompileFlag> flags) throws StyxException {
                 requireFlag(flags, CompileFlag.AllowContinue, "The 'continue' control flow statement is not allowed here.");
             }
+            @Override void generate(BytecodeCompiler gen, Expression self, Expression expr) {
+                gen.generateFlow(Flow.Continue, expr);
+            }
             @Override Flow execute(Stack stack, Expression expr) throws StyxException {
                 return Flow.Continue;
             }
@@ -106,5 +130,9 @@ public final class FlowStatement extends Expression {
 
         abstract void checkFlags(EnumSet<CompileFlag> flags) throws StyxException;
         abstract Flow execute(Stack stack, Expression expr) throws StyxException;
+
+        void generate(BytecodeCompiler gen, Expression self, Expression expr) {
+            gen.generateFallbackStatement(self);
+        }
     }
 }
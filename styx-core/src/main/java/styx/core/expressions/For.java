@@ -48,13 +48,15 @@ public final class For extends Expression {
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
         int base = scope.enterBlock();
+        Expression declc = decl.compile(scope, CompileFlag.add(CompileFlag.EXPRESSION, CompileFlag.AllowDeclaration));
+        Scope.Region region = scope.enterLoop(this);
         For result = new For(
-                decl.compile(scope, CompileFlag.add(CompileFlag.EXPRESSION, CompileFlag.AllowDeclaration)),
+                declc,
                 cond.compile(scope, CompileFlag.EXPRESSION),
                 incr.compile(scope, CompileFlag.add(CompileFlag.EXPRESSION, CompileFlag.AllowAssignment)),
                 expr.compile(scope, CompileFlag.add(flags, CompileFlag.AllowYield, CompileFlag.AllowBreak, CompileFlag.AllowContinue)));
         scope.leaveBlock(base);
-        return result;
+        return scope.leaveRegion(region, result);
     }
 
     @Override
@@ -100,4 +102,23 @@ public final class For extends Expression {
         }
         return null;
     }
+
+    @Override
+    void generateStatement(BytecodeCompiler gen) {
+        BytecodeCompiler.Label labelstart = gen.label();
+        BytecodeCompiler.Label labelincr  = gen.label();
+        BytecodeCompiler.Label labelbreak = gen.label();
+        gen.value(decl);
+        gen.pop();
+        gen.mark(labelstart);
+        gen.branch(cond, labelbreak, false);
+        gen.enterLoop(labelbreak, labelstart, labelincr); // 'continue' skips incr, 'yield' does not.
+        gen.statement(expr);
+        gen.leaveLoop();
+        gen.mark(labelincr);
+        gen.value(incr);
+        gen.pop();
+        gen.jump(labelstart);
+        gen.mark(labelbreak);
+    }
 }
@@ -9,6 +9,7 @@ import styx.Determinism;
 import styx.Pair;
 import styx.StyxException;
 import styx.Value;
+import styx.core.values.LazyComplex;
 
 /**
  * Node of the abstract syntax tree that implements a "foreach(... in ...) ..." statement.
@@ -67,12 +68,13 @@ public final class ForEach extends Expression {
         int base = scope.enterBlock();
         Variable var1 = scope.registerVariable(ident1, true);
         Variable var2 = ident2 != null ? scope.registerVariable(ident2, true) : null;
+        Scope.Region region = scope.enterLoop(this);
         ForEach result = new ForEach(
                 ident1, ident2, var1, var2,
                 exprc,
                 expr.compile(scope, CompileFlag.add(flags, CompileFlag.AllowYield, CompileFlag.AllowBreak, CompileFlag.AllowContinue)));
         scope.leaveBlock(base);
-        return result;
+        return scope.leaveRegion(region, result);
     }
 
     @Override
@@ -85,23 +87,27 @@ public final class ForEach extends Expression {
         List<Value> result = new ArrayList<Value>();
         Value coll = init.evaluate(stack);
         if(coll != null) {
-            for(Pair<Value, Value> pair : coll.asComplex()) {
-                if(ident2 != null) {
-                    var1.assign(stack, pair.key());
-                    var2.assign(stack, pair.val());
-                } else {
-                    var1.assign(stack, pair.val());
-                }
-                Flow flow = expr.execute(stack);
-                if(flow == Flow.Yield) {
-                    result.add(stack.getResult());
-                } else if(flow == Flow.Break) {
-                    break;
-                } else if(flow == Flow.Continue) {
-                    continue;
-                } else if(flow != null) {
-                    throw new UnsupportedOperationException("Invalid control flow statement in foreach(...) expression.");
+            try {
+                for(Pair<Value, Value> pair : coll.asComplex()) {
+                    if(ident2 != null) {
+                        var1.assign(stack, pair.key());
+                        var2.assign(stack, pair.val());
+                    } else {
+                        var1.assign(stack, pair.val());
+                    }
+                    Flow flow = expr.execute(stack);
+                    if(flow == Flow.Yield) {
+                        result.add(stack.getResult());
+                    } else if(flow == Flow.Break) {
+                        break;
+                    } else if(flow == Flow.Continue) {
+                        continue;
+                    } else if(flow != null) {
+                        throw new UnsupportedOperationException("Invalid control flow statement in foreach(...) expression.");
+                    }
                 }
+            } catch(LazyComplex.GeneratorException e) {
+                throw e.getCause(); // the collection is a lazy value whose generator failed
             }
         }
         return stack.session().complex().addAll(result);
@@ -111,23 +117,27 @@ public final class ForEach extends Expression {
     public Flow execute(Stack stack) throws StyxException {
         Value coll = init.evaluate(stack);
         if(coll != null) {
-            for(Pair<Value, Value> pair : coll.asComplex()) {
-                if(ident2 != null) {
-                    var1.assign(stack, pair.key());
-                    var2.assign(stack, pair.val());
-                } else {
-                    var1.assign(stack, pair.val());
-                }
-                Flow flow = expr.execute(stack);
-                if(flow == Flow.Yield) {
-                    // result.add(stack.getResult()); // TODO really allow 'yield' here?
-                } else if(flow == Flow.Break) {
-                    break;
-                } else if(flow == Flow.Continue) {
-                    continue;
-                } else if(flow != null) {
-                    return flow;
+            try {
+                for(Pair<Value, Value> pair : coll.asComplex()) {
+                    if(ident2 != null) {
+                        var1.assign(stack, pair.key());
+                        var2.assign(stack, pair.val());
+                    } else {
+                        var1.assign(stack, pair.val());
+                    }
+                    Flow flow = expr.execute(stack);
+                    if(flow == Flow.Yield) {
+                        // result.add(stack.getResult()); // TODO really allow 'yield' here?
+                    } else if(flow == Flow.Break) {
+                        break;
+                    } else if(flow == Flow.Continue) {
+                        continue;
+                    } else if(flow != null) {
+                        return flow;
+                    }
                 }
+            } catch(LazyComplex.GeneratorException e) {
+                throw e.getCause(); // the collection is a lazy value whose generator failed
             }
         }
         return null;
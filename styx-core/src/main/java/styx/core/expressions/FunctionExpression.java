@@ -2,8 +2,11 @@ package styx.core.expressions;
 
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import styx.Complex;
+import styx.Determinism;
 import styx.StyxException;
 import styx.Value;
 
@@ -15,18 +18,35 @@ public final class FunctionExpression extends AbstractFunction {
     public static final String TAG = "Function";
 
     private final Expression body;
+    private final int        frameSize; // the number of stack slots used by the arguments and local variables
+    private final MemoCache  memo; // null if the results are not cached (see MemoCache)
+    private final int        threshold; // the number of invocations after which the body is translated, negative if never
+
+    private volatile BytecodeBody  bytecode; // null if not (yet) translated
+    private final AtomicInteger    invocations = new AtomicInteger();
+    private final AtomicBoolean    translated  = new AtomicBoolean(); // set by the one thread that translates the body
 
     public FunctionExpression(boolean compiled, List<IdentifierDeclaration> args, Expression body) {
         // The 1st argument of the constructor is the return value of Function.determinism(). This is computed
         // from the body on compilation (not yet known and null when parsing). If the body evaluates the function's
         // arguments, the determinism will be PURE or higher. Otherwise, it might be CONST.
+        this(compiled, args, body, 0, -1);
+    }
+
+    private FunctionExpression(boolean compiled, List<IdentifierDeclaration> args, Expression body, int frameSize, int threshold) {
         super(compiled ? body.effects() : null, args);
-        this.body = body;
+        this.body      = body;
+        this.frameSize = Math.max(frameSize, this.args.size());
+        this.memo      = determ == Determinism.PURE && MemoCache.maxEntries > 0 ? new MemoCache(MemoCache.maxEntries) : null;
+        this.threshold = compiled ? threshold : -1;
     }
 
     public FunctionExpression(ExprFactory expf, Complex value) throws StyxException {
         super(null, expf.newIdentDecls(findMember(value, "args", true)));
-        this.body = expf.newExpression (findMember(value, "body", true));
+        this.body      = expf.newExpression (findMember(value, "body", true));
+        this.frameSize = args.size();
+        this.memo      = null;
+        this.threshold = -1;
     }
 
     @Override
@@ -43,16 +63,70 @@ public final class FunctionExpression extends AbstractFunction {
         for(IdentifierDeclaration arg : args) {
             scope2.registerVariable(arg, false);
         }
-        return new FunctionExpression(true, args, body.compile(scope2, body instanceof Block ? CompileFlag.BODY : CompileFlag.EXPRESSION));
+        Expression bodyc = body.compile(scope2, Profiled.unwrap(body) instanceof Block ? CompileFlag.BODY : CompileFlag.EXPRESSION);
+        return new FunctionExpression(true, args, bodyc, scope2.getFrameSize(), scope.getThreshold());
+    }
+
+    Expression body() {
+        return body;
+    }
+
+    BytecodeBody bytecode() {
+        return bytecode;
+    }
+
+    int frameSize() {
+        return frameSize;
+    }
+
+    MemoCache memo() {
+        return memo;
     }
 
     @Override
     public Value invoke(Stack stack) throws StyxException {
+        if(memo == null) {
+            return invokeChain(stack);
+        }
+        // A PURE function depends on nothing but its arguments, which are all in the current frame.
+        Value[] key = stack.getFrameAsArray();
+        MemoCache.Entry entry = memo.get(key);
+        if(entry != null) {
+            return entry.result;
+        }
+        Value result = invokeChain(stack);
+        memo.put(key, result);
+        return result;
+    }
+
+    private Value invokeChain(Stack stack) throws StyxException {
         // Fast call, but not generic: pass stack from caller to target.
         // The current stack frame is set up and moved by the caller.
+        FunctionExpression function = this;
+        while(true) {
+            Value result = function.invokeBody(stack);
+            // A 'return f(...)' in the body may have replaced the current frame by the arguments for f (see Call).
+            function = stack.leaveTailCall();
+            if(function == null) {
+                return result;
+            }
+        }
+    }
+
+    private Value invokeBody(Stack stack) throws StyxException {
         if(stack.getFrameSize() != args.size()) {
             throw new IllegalArgumentException("Argument count mismatch (expected: " + args.size() + ", provided: "+ stack.getFrameSize() + ")");
         }
+        stack.reserveFrame(frameSize);
+        BytecodeBody bytecode = this.bytecode;
+        if(bytecode == null && threshold >= 0 && !translated.get() &&
+                invocations.getAndIncrement() >= threshold && translated.compareAndSet(false, true)) {
+            // Concurrent invocations keep using the interpreter until the translated body has been published.
+            bytecode = this.bytecode = BytecodeCompiler.compile(body, args.size());
+        }
+        if(bytecode != null) {
+            return bytecode.invoke(stack);
+        }
         return body.evaluate(stack);
     }
 }
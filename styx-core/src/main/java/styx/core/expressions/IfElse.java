@@ -41,10 +41,17 @@ public final class IfElse extends Expression {
 
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
-        return new IfElse(
-                cond.compile(scope, CompileFlag.EXPRESSION),
-                exprif.compile(scope, flags),
-                exprelse != null ? exprelse.compile(scope, flags) : null).optimizeConst(scope);
+        Expression condc     = cond.compile(scope, CompileFlag.EXPRESSION);
+        Expression exprifc   = exprif.compile(scope, flags);
+        Expression exprelsec = exprelse != null ? exprelse.compile(scope, flags) : null;
+        if(scope.optimize(CompileFlag.EliminateDeadCode) && condc instanceof Constant) {
+            Value value = Constant.unwrap(condc);
+            if(value != null && value.isBool()) {
+                // Only the branch that is taken remains.
+                return value.asBool().toBool() ? exprifc : exprelsec != null ? exprelsec : new Constant(null);
+            }
+        }
+        return new IfElse(condc, exprifc, exprelsec).optimizeConst(scope);
     }
 
     @Override
@@ -73,4 +80,36 @@ public final class IfElse extends Expression {
             return null;
         }
     }
+
+    @Override
+    void generate(BytecodeCompiler gen) {
+        BytecodeCompiler.Label labelelse = gen.label();
+        BytecodeCompiler.Label labelend  = gen.label();
+        gen.branch(cond, labelelse, false);
+        gen.value(exprif);
+        gen.jump(labelend);
+        gen.mark(labelelse);
+        if(exprelse != null) {
+            gen.value(exprelse);
+        } else {
+            gen.pushNull();
+        }
+        gen.mark(labelend);
+    }
+
+    @Override
+    void generateStatement(BytecodeCompiler gen) {
+        BytecodeCompiler.Label labelelse = gen.label();
+        BytecodeCompiler.Label labelend  = gen.label();
+        gen.branch(cond, labelelse, false);
+        gen.statement(exprif);
+        if(exprelse != null) {
+            gen.jump(labelend);
+            gen.mark(labelelse);
+            gen.statement(exprelse);
+            gen.mark(labelend);
+        } else {
+            gen.mark(labelelse);
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package styx.core.expressions;
+
+import java.util.EnumSet;
+
+import styx.Complex;
+import styx.Determinism;
+import styx.StyxException;
+import styx.Value;
+
+/**
+ * Node of the abstract syntax tree that caches the value of an expression that has been hoisted out of a loop
+ * or an 'atomic' block (see Scope.hoist() and Scope.hoistRead()).
+ * <p>
+ * The value is kept in a stack slot after the local variables. It is evaluated when it is used for the first time
+ * and reused until the enclosing InvariantScope clears the slot. An empty slot means that the value has not been
+ * evaluated yet, so a value of null is kept as the node itself. Since the expression is not evaluated earlier
+ * than without the optimization, exceptions are thrown at the same place.
+ * <p>
+ * This node exists in compiled trees only, it is serialized as the wrapped expression.
+ */
+final class Invariant extends Expression {
+
+    private final Expression expr;
+    private int              offset = -1; // the stack slot, assigned by Scope.getFrameSize(). Negative if not cached.
+
+    Invariant(Expression expr) {
+        this.expr = expr;
+    }
+
+    Expression expr() {
+        return expr;
+    }
+
+    int offset() {
+        return offset;
+    }
+
+    void assignSlot(int offset) {
+        this.offset = offset;
+    }
+
+    @Override
+    protected Complex toValue() {
+        return expr;
+    }
+
+    @Override
+    public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
+        return expr.compile(scope, flags);
+    }
+
+    @Override
+    public Determinism effects() {
+        return expr.effects();
+    }
+
+    @Override
+    public Value evaluate(Stack stack) throws StyxException {
+        if(offset < 0) {
+            return expr.evaluate(stack);
+        }
+        Value value = stack.getFrameValue(offset);
+        if(value == null) {
+            value = expr.evaluate(stack);
+            stack.setFrameValue(offset, value != null ? value : this);
+            return value;
+        }
+        return value != this ? value : null;
+    }
+
+    @Override
+    void generate(BytecodeCompiler gen) {
+        if(offset < 0) {
+            gen.value(expr);
+        } else {
+            gen.generateInvariant(this);
+        }
+    }
+}
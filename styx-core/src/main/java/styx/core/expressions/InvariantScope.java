@@ -0,0 +1,82 @@
+package styx.core.expressions;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import styx.Complex;
+import styx.Determinism;
+import styx.StyxException;
+import styx.Value;
+
+/**
+ * Node of the abstract syntax tree that clears the cached values of hoisted expressions (see Invariant)
+ * before evaluating a loop or the body of an 'atomic' block.
+ * <p>
+ * This node exists in compiled trees only, it is serialized as the wrapped expression.
+ */
+final class InvariantScope extends Expression {
+
+    private final List<Invariant> invariants;
+    private final Expression      expr;
+
+    InvariantScope(List<Invariant> invariants, Expression expr) {
+        this.invariants = invariants;
+        this.expr       = expr;
+    }
+
+    @Override
+    protected Complex toValue() {
+        return expr;
+    }
+
+    @Override
+    public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
+        return expr.compile(scope, flags);
+    }
+
+    @Override
+    public Determinism effects() {
+        return expr.effects();
+    }
+
+    @Override
+    public Value evaluate(Stack stack) throws StyxException {
+        clear(stack);
+        return expr.evaluate(stack);
+    }
+
+    @Override
+    public Flow execute(Stack stack) throws StyxException {
+        clear(stack);
+        return expr.execute(stack);
+    }
+
+    @Override
+    void generate(BytecodeCompiler gen) {
+        clear(gen);
+        gen.value(expr);
+    }
+
+    @Override
+    void generateStatement(BytecodeCompiler gen) {
+        clear(gen);
+        gen.statement(expr);
+    }
+
+    private void clear(Stack stack) {
+        for(Invariant invariant : invariants) {
+            if(invariant.offset() >= 0) {
+                stack.setFrameValue(invariant.offset(), null);
+            }
+        }
+    }
+
+    private void clear(BytecodeCompiler gen) {
+        for(Invariant invariant : invariants) {
+            if(invariant.offset() >= 0) {
+                gen.pushNull();
+                gen.storeVariable(invariant.offset());
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package styx.core.expressions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import styx.Pair;
+import styx.Value;
+
+/**
+ * A bounded, thread safe cache of the results of a PURE function, keyed by the argument values.
+ * <p>
+ * Memoization is enabled by the system property 'styx.memo.entries', the maximum number of entries per function.
+ * By default, it is zero and no results are cached. Only results of successful invocations are cached.
+ * <p>
+ * The arguments are hashed structurally (the hash of a complex value is computed from its first children)
+ * and compared by Value.equals(). Lookups do not lock. When an insertion exceeds the maximum number of entries,
+ * the least recently used entries are evicted until the cache is at 90% of its limit again.
+ */
+final class MemoCache {
+
+    static int maxEntries = Integer.getInteger("styx.memo.entries", 0);
+
+    /**
+     * The number of children of a complex value that are included in its hash.
+     */
+    private static final int HASHED_CHILDREN = 8;
+
+    private final int limit;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Object evictLock = new Object();
+
+    private final AtomicLong clock     = new AtomicLong();
+    private final AtomicLong hits      = new AtomicLong();
+    private final AtomicLong misses    = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    MemoCache(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Looks up the result for the given arguments, counting a hit or a miss.
+     * @return the cached entry or null if there is none.
+     */
+    Entry get(Value[] args) {
+        Entry entry = entries.get(new Key(args));
+        if(entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Adds the result for the given arguments, evicting the least recently used entries if the limit is exceeded.
+     */
+    void put(Value[] args, Value result) {
+        entries.put(new Key(args), new Entry(result, clock.incrementAndGet()));
+        if(entries.size() > limit) {
+            evict();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    long evictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "MemoCache[size=" + size() + ", hits=" + hits() + ", misses=" + misses() + ", evictions=" + evictions() + "]";
+    }
+
+    private void evict() {
+        synchronized(evictLock) {
+            if(entries.size() <= limit) {
+                return; // another thread has already evicted
+            }
+            List<Map.Entry<Key, Entry>> candidates = new ArrayList<>(entries.entrySet());
+            Collections.sort(candidates, new Comparator<Map.Entry<Key, Entry>>() {
+                @Override
+                public int compare(Map.Entry<Key, Entry> a, Map.Entry<Key, Entry> b) {
+                    return Long.compare(a.getValue().lastUsed, b.getValue().lastUsed);
+                }
+            });
+            long target = limit * 9L / 10;
+            for(Map.Entry<Key, Entry> candidate : candidates) {
+                if(entries.size() <= target) {
+                    break;
+                }
+                if(entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes a hash that is consistent with Value.equals(), without serializing the value.
+     */
+    static int hash(Value val) {
+        if(val == null) {
+            return 0;
+        } else if(val.isNumber()) {
+            // Before isText(), numbers are texts. Hashes the normalized decimal string, which is the same for all
+            // representations of a number (and for denormalized forms such as "1.0"), including unbounded numbers.
+            return val.asNumber().toDecimalString().hashCode();
+        } else if(val.isText()) {
+            return val.asText().toTextString().hashCode();
+        } else if(val.isBool()) {
+            return Boolean.hashCode(val.asBool().toBool());
+        } else if(val.isVoid()) {
+            return 1;
+        } else if(val.isBinary()) {
+            return Arrays.hashCode(val.asBinary().toByteArray());
+        } else if(val.isComplex()) {
+            int hash = 2;
+            Iterator<Pair<Value, Value>> it = val.asComplex().iterator();
+            for(int i = 0; i < HASHED_CHILDREN && it.hasNext(); i++) {
+                Pair<Value, Value> pair = it.next();
+                hash = (hash * 31 + hash(pair.key())) * 31 + hash(pair.val());
+            }
+            return hash;
+        } else {
+            return val.hashCode();
+        }
+    }
+
+    private static final class Key {
+        private final Value[] args;
+        private final int     hash;
+
+        Key(Value[] args) {
+            int hash = 0;
+            for(Value arg : args) {
+                hash = hash * 31 + hash(arg);
+            }
+            this.args = args;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if(!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            if(hash != key.hash || args.length != key.args.length) {
+                return false;
+            }
+            for(int i = 0; i < args.length; i++) {
+                if(args[i] == null ? key.args[i] != null : key.args[i] == null || !args[i].equals(key.args[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final class Entry {
+        final Value result; // can be null
+        private volatile long lastUsed; // written without locking, concurrent hits may store a slightly older time
+
+        Entry(Value result, long lastUsed) {
+            this.result   = result;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
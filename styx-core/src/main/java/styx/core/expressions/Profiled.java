@@ -0,0 +1,96 @@
+package styx.core.expressions;
+
+import java.util.EnumSet;
+
+import styx.Complex;
+import styx.Determinism;
+import styx.StyxException;
+import styx.Value;
+
+/**
+ * Node of the abstract syntax tree that records the evaluation of the wrapped node in a Profiler.
+ * <p>
+ * The nodes are created by an ExprFactory that has a profiler (see Profiler.instrument()) and are
+ * serialized as the wrapped node. Compilation drops the wrapper for nodes that are cheap or that must be
+ * recognized by their parents (such as constants, variables and control flow statements).
+ */
+final class Profiled extends AssignableExpression {
+
+    private final Profiler      profiler;
+    private final Profiler.Site site;
+    private final Expression    expr;
+
+    Profiled(Profiler profiler, Profiler.Site site, Expression expr) {
+        this.profiler = profiler;
+        this.site     = site;
+        this.expr     = expr;
+    }
+
+    static Expression unwrap(Expression expr) {
+        return expr instanceof Profiled ? ((Profiled) expr).expr : expr;
+    }
+
+    Profiler.Site site() {
+        return site;
+    }
+
+    @Override
+    protected Complex toValue() {
+        return expr;
+    }
+
+    @Override
+    public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
+        Expression exprc = expr.compile(scope, flags);
+        if(exprc instanceof Constant || exprc instanceof Variable || exprc instanceof Invariant ||
+                exprc instanceof FlowStatement || exprc instanceof AbstractFunction) {
+            return exprc;
+        }
+        return new Profiled(profiler, site, exprc);
+    }
+
+    @Override
+    public AssignableExpression assignCheck() throws StyxException {
+        // The target of an assignment is not profiled, only reads are.
+        if(expr instanceof AssignableExpression) {
+            return ((AssignableExpression) expr).assignCheck();
+        } else {
+            throw new StyxException("The left expression is not assignable (" + expr.getClass().getSimpleName() + ").");
+        }
+    }
+
+    @Override
+    public Determinism assignEffects() {
+        return expr instanceof AssignableExpression ? ((AssignableExpression) expr).assignEffects() : expr.effects();
+    }
+
+    @Override
+    public void assign(Stack stack, Value val) throws StyxException {
+        ((AssignableExpression) expr).assign(stack, val);
+    }
+
+    @Override
+    public Determinism effects() {
+        return expr.effects();
+    }
+
+    @Override
+    public Value evaluate(Stack stack) throws StyxException {
+        profiler.enter(site);
+        try {
+            return expr.evaluate(stack);
+        } finally {
+            profiler.leave();
+        }
+    }
+
+    @Override
+    public Flow execute(Stack stack) throws StyxException {
+        profiler.enter(site);
+        try {
+            return expr.execute(stack);
+        } finally {
+            profiler.leave();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package styx.core.expressions;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import styx.Complex;
+import styx.Function;
+import styx.Session;
+import styx.StyxException;
+import styx.Value;
+import styx.core.utils.LimitingWriter;
+import styx.core.utils.Serializer;
+
+/**
+ * Records call counts, inclusive and exclusive time and allocated bytes for the nodes of instrumented functions.
+ * <p>
+ * A function is instrumented by re-creating its compiled definition with a Profiled node around every node of
+ * the abstract syntax tree (see instrument()). Nested functions are instrumented as well, other functions
+ * (such as intrinsics or functions read from the database) are accounted to the node that called them.
+ * <p>
+ * The measurements are kept in a call tree, separately for every path of nested nodes. Allocated bytes are
+ * measured by the JVM per thread, they are zero if this is not supported. Evaluations in other threads
+ * (for example by the parallel collection intrinsics) are recorded as separate roots.
+ * <p>
+ * The results can be exported as a flat report per node and per function (see report()) or in the folded
+ * stack format that is read by flame graph tools such as flamegraph.pl or speedscope (see folded()).
+ */
+public final class Profiler {
+
+    private static final int LABEL_LENGTH = 60;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final boolean ALLOCATIONS = THREADS instanceof com.sun.management.ThreadMXBean &&
+            ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported() &&
+            ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemoryEnabled();
+
+    private final AtomicInteger          sites   = new AtomicInteger();
+    private final Map<Site, Node>        roots   = new ConcurrentHashMap<>();
+    private final ThreadLocal<Activation> current = new ThreadLocal<Activation>() {
+        @Override
+        protected Activation initialValue() {
+            return new Activation();
+        }
+    };
+
+    /**
+     * Instruments a function defined by a script.
+     * @param session the session used to compile the function.
+     * @param function the function to be instrumented.
+     * @return an equivalent function that records its evaluation into this profiler,
+     *         or the given function if it is not defined by a script.
+     * @throws StyxException if the function cannot be compiled again.
+     */
+    public Function instrument(Session session, Function function) throws StyxException {
+        if(!(function.definition() instanceof FunctionExpression)) {
+            return function;
+        }
+        AbstractFunction definition = new ExprFactory(new FuncRegistry(), this).newFunction(function.definition());
+        markFunction(definition);
+        // The compiled definition no longer refers to the environment, the symbols have been resolved.
+        return definition.compile(new Scope(session, session.complex()), null).function();
+    }
+
+    /**
+     * Wraps a node that has been created by an ExprFactory.
+     */
+    Expression wrap(Expression expr) {
+        if(expr instanceof AbstractFunction) {
+            markFunction((AbstractFunction) expr);
+            return expr;
+        }
+        return new Profiled(this, new Site(sites.incrementAndGet(), expr), expr);
+    }
+
+    private static void markFunction(AbstractFunction function) {
+        if(function instanceof FunctionExpression && ((FunctionExpression) function).body() instanceof Profiled) {
+            ((Profiled) ((FunctionExpression) function).body()).site().function = function;
+        }
+    }
+
+    void enter(Site site) {
+        Activation activation = current.get();
+        Node parent = activation.depth == 0 ? null : activation.nodes[activation.depth - 1];
+        Node node = parent == null ? child(roots, site) : child(parent.children, site);
+        activation.push(node, System.nanoTime(), allocatedBytes());
+    }
+
+    void leave() {
+        long time  = System.nanoTime();
+        long alloc = allocatedBytes();
+        Activation activation = current.get();
+        int  depth    = --activation.depth;
+        Node node     = activation.nodes[depth];
+        long elapsed  = time  - activation.times[depth];
+        node.count.increment();
+        node.nanos.add(elapsed);
+        node.bytes.add(alloc - activation.allocs[depth]);
+        activation.nodes[depth] = null;
+        if(depth > 0) {
+            activation.nodes[depth - 1].childNanos.add(elapsed);
+        }
+    }
+
+    private static Node child(Map<Site, Node> children, Site site) {
+        Node node = children.get(site);
+        if(node == null) {
+            Node existing = children.putIfAbsent(site, node = new Node(site));
+            if(existing != null) {
+                node = existing;
+            }
+        }
+        return node;
+    }
+
+    private static long allocatedBytes() {
+        if(ALLOCATIONS) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Clears all measurements.
+     */
+    public void reset() {
+        roots.clear();
+    }
+
+    /**
+     * Returns the measurements per node and per function, ordered by descending exclusive time.
+     * Inclusive time is counted once for recursive evaluations of the same node.
+     * @return one entry per node, the keys are 'node', 'count', 'total' and 'self' (both in nanoseconds), 'bytes'
+     *         and 'function' (true if the node is the body of a function).
+     */
+    public Complex report(Session session) {
+        Map<Site, Stats> stats = new IdentityHashMap<>();
+        for(Node root : roots.values()) {
+            collect(root, stats, new IdentityHashMap<Site, Boolean>());
+        }
+        List<Stats> sorted = new ArrayList<>(stats.values());
+        Collections.sort(sorted, new Comparator<Stats>() {
+            @Override
+            public int compare(Stats a, Stats b) {
+                return Long.compare(b.self, a.self);
+            }
+        });
+        List<Value> result = new ArrayList<>();
+        for(Stats s : sorted) {
+            Complex entry = session.complex().
+                    put(session.text("node"),  session.text(s.site.label())).
+                    put(session.text("count"), session.number(s.count)).
+                    put(session.text("total"), session.number(s.total)).
+                    put(session.text("self"),  session.number(s.self)).
+                    put(session.text("bytes"), session.number(s.bytes));
+            if(s.site.function != null) {
+                entry = entry.put(session.text("function"), session.bool(true));
+            }
+            result.add(entry);
+        }
+        return session.complex().addAll(result);
+    }
+
+    private static void collect(Node node, Map<Site, Stats> stats, Map<Site, Boolean> active) {
+        Stats s = stats.get(node.site);
+        if(s == null) {
+            stats.put(node.site, s = new Stats(node.site));
+        }
+        long nanos = node.nanos.sum();
+        s.count += node.count.sum();
+        s.self  += nanos - node.childNanos.sum();
+        boolean recursive = active.put(node.site, Boolean.TRUE) != null;
+        if(!recursive) {
+            s.total += nanos;
+            s.bytes += node.bytes.sum();
+        }
+        for(Node child : node.children.values()) {
+            collect(child, stats, active);
+        }
+        if(!recursive) {
+            active.remove(node.site);
+        }
+    }
+
+    /**
+     * Returns the measurements in the folded stack format of flame graph tools.
+     * @return one line per path of nested nodes, consisting of the labels of the nodes separated by ';',
+     *         a space and the exclusive time in microseconds.
+     */
+    public String folded() {
+        StringBuilder result = new StringBuilder();
+        for(Node root : sortedNodes(roots)) {
+            fold(root, new StringBuilder(), result);
+        }
+        return result.toString();
+    }
+
+    private static void fold(Node node, StringBuilder path, StringBuilder result) {
+        int length = path.length();
+        if(length > 0) {
+            path.append(';');
+        }
+        path.append(node.site.label().replace(';', ','));
+        long self = (node.nanos.sum() - node.childNanos.sum()) / 1000;
+        if(self > 0) {
+            result.append(path).append(' ').append(self).append('\n');
+        }
+        for(Node child : sortedNodes(node.children)) {
+            fold(child, path, result);
+        }
+        path.setLength(length);
+    }
+
+    private static List<Node> sortedNodes(Map<Site, Node> nodes) {
+        List<Node> sorted = new ArrayList<>(nodes.values());
+        Collections.sort(sorted, new Comparator<Node>() {
+            @Override
+            public int compare(Node a, Node b) {
+                return Integer.compare(a.site.id, b.site.id);
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * A node of an instrumented function.
+     */
+    static final class Site {
+        private final int        id;   // in order of creation, for stable output
+        private final Expression expr; // the uncompiled node
+        private volatile AbstractFunction function; // non-null if the node is the body of this function
+        private volatile String  label;
+
+        private Site(int id, Expression expr) {
+            this.id   = id;
+            this.expr = expr;
+        }
+
+        String label() {
+            String result = label;
+            if(result == null) {
+                result = label = (function != null ? signature(function) + excerpt(expr) : excerpt(expr)).replace('\n', ' ');
+            }
+            return result;
+        }
+
+        private static String signature(AbstractFunction function) {
+            StringBuilder result = new StringBuilder("(");
+            for(IdentifierDeclaration arg : function.args) {
+                result.append(result.length() > 1 ? ", " : "").append(arg.name().toTextString());
+            }
+            return result.append(") -> ").toString();
+        }
+
+        private static String excerpt(Value value) {
+            StringWriter stm = new StringWriter();
+            try {
+                Serializer.serialize(value, new LimitingWriter(stm, LABEL_LENGTH), false);
+                return stm.toString();
+            } catch (StyxException e) {
+                return stm.toString() + "...";
+            }
+        }
+    }
+
+    /**
+     * The measurements of a site for a given path of enclosing sites.
+     */
+    private static final class Node {
+        private final Site             site;
+        private final Map<Site, Node>  children   = new ConcurrentHashMap<>();
+        private final LongAdder        count      = new LongAdder();
+        private final LongAdder        nanos      = new LongAdder();
+        private final LongAdder        childNanos = new LongAdder();
+        private final LongAdder        bytes      = new LongAdder();
+
+        private Node(Site site) {
+            this.site = site;
+        }
+    }
+
+    /**
+     * The nodes being evaluated by a thread, innermost last.
+     */
+    private static final class Activation {
+        private Node[] nodes  = new Node[16];
+        private long[] times  = new long[16];
+        private long[] allocs = new long[16];
+        private int    depth;
+
+        private void push(Node node, long time, long alloc) {
+            if(depth == nodes.length) {
+                nodes  = Arrays.copyOf(nodes,  depth * 2);
+                times  = Arrays.copyOf(times,  depth * 2);
+                allocs = Arrays.copyOf(allocs, depth * 2);
+            }
+            nodes [depth] = node;
+            times [depth] = time;
+            allocs[depth] = alloc;
+            depth++;
+        }
+    }
+
+    private static final class Stats {
+        private final Site site;
+        private long count;
+        private long total;
+        private long self;
+        private long bytes;
+
+        private Stats(Site site) {
+            this.site = site;
+        }
+    }
+}
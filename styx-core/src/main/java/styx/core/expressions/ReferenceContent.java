@@ -31,7 +31,7 @@ public final class ReferenceContent extends AssignableExpression {
 
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
-        return new ReferenceContent(expr.compile(scope, CompileFlag.EXPRESSION)).optimizeConst(scope);
+        return scope.hoistRead(new ReferenceContent(expr.compile(scope, CompileFlag.EXPRESSION)).optimizeConst(scope));
     }
 
     @Override
@@ -0,0 +1,104 @@
+package styx.core.expressions;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import styx.Session;
+import styx.core.sessions.ConcreteSession;
+
+/**
+ * The policy used by 'atomic' statements when a transaction fails to commit because of a concurrent modification.
+ * <p>
+ * The policy is configured by the following system properties:
+ * <ul>
+ * <li>'styx.atomic.attempts': the maximum number of attempts, the default is zero (unlimited).
+ *     If exceeded, the ConcurrentException is thrown to the caller.
+ * <li>'styx.atomic.backoff.min' and 'styx.atomic.backoff.max': the range of the delay before a retry in microseconds,
+ *     the defaults are 10 and 10000. The delay doubles with every conflict and is randomized between zero and the
+ *     current delay (full jitter). A minimum of zero disables the backoff.
+ * <li>'styx.atomic.lock': the number of conflicts after which a transaction runs exclusively,
+ *     the default is zero (never).
+ * </ul>
+ * Exclusive transactions are implemented by the read-write lock of the shared data (see DataProvider.transactionLock()):
+ * if enabled, all transactions of this process on the same data hold the read lock, exclusive ones hold the write lock.
+ * The lock is not held while waiting for a 'retry'. Transactions on other data, transactions of other processes and
+ * writes outside of transactions are not affected by the lock.
+ */
+final class RetryPolicy {
+
+    static int  maxAttempts = Integer.getInteger("styx.atomic.attempts", 0);
+    static long minBackoff  = Long.getLong("styx.atomic.backoff.min", 10);
+    static long maxBackoff  = Long.getLong("styx.atomic.backoff.max", 10000);
+    static int  lockAfter   = Integer.getInteger("styx.atomic.lock", 0);
+
+    private RetryPolicy() { }
+
+    /**
+     * Checks if a transaction is to be started over.
+     * @param conflicts the number of conflicts so far, at least one.
+     * @return false if the maximum number of attempts has been reached.
+     */
+    static boolean mayRetry(int conflicts) {
+        return maxAttempts <= 0 || conflicts < maxAttempts;
+    }
+
+    /**
+     * Waits before a transaction is started over.
+     * @param conflicts the number of conflicts so far, at least one.
+     */
+    static void backoff(int conflicts) {
+        if(minBackoff > 0) {
+            long delay = Math.min(maxBackoff, minBackoff << Math.min(conflicts - 1, 30));
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ThreadLocalRandom.current().nextLong(delay + 1)));
+        }
+    }
+
+    /**
+     * Checks if a transaction runs exclusively.
+     * @param conflicts the number of conflicts so far.
+     */
+    static boolean exclusive(int conflicts) {
+        return lockAfter > 0 && conflicts >= lockAfter;
+    }
+
+    /**
+     * Returns the read-write lock for the transactions of a session.
+     * @return the lock of the session's shared data, null if locking is disabled or not supported by the session.
+     */
+    static ReadWriteLock lockOf(Session session) {
+        if(lockAfter <= 0 || !(session instanceof ConcreteSession)) {
+            return null;
+        }
+        return ((ConcreteSession) session).transactionLock();
+    }
+
+    /**
+     * Acquires the lock for an attempt of a transaction.
+     * @param rwlock the lock returned by lockOf(), can be null.
+     * @param conflicts the number of conflicts so far.
+     * @return the acquired lock, null if locking is disabled.
+     */
+    static Lock lock(ReadWriteLock rwlock, int conflicts) {
+        if(rwlock == null) {
+            return null;
+        }
+        Lock lock = exclusive(conflicts) ? rwlock.writeLock() : rwlock.readLock();
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Releases a lock acquired by lock().
+     * @param lock the lock, can be null.
+     * @return null.
+     */
+    static Lock unlock(Lock lock) {
+        if(lock != null) {
+            lock.unlock();
+        }
+        return null;
+    }
+}
@@ -2,6 +2,8 @@ package styx.core.expressions;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -14,6 +16,12 @@ import styx.Value;
 
 public class Scope {
 
+    /**
+     * The optimizations used for compilation, set by the system property 'styx.compile.optimizations'
+     * (a comma separated list of CompileFlag values, all optimizations by default).
+     */
+    static EnumSet<CompileFlag> optimizations = CompileFlag.parseOptimizations(System.getProperty("styx.compile.optimizations"));
+
     private static final Set<String> RESERVED = new java.util.HashSet<String>(Arrays.asList(
             "return", "if", "else", "switch", "case", "default",
             "loop", "while", "do", "for", "foreach", "in", "break", "continue",
@@ -22,12 +30,27 @@ public class Scope {
     private final Session session;
     private final Complex environment;
     private final Scope      parent;
+    private final EnumSet<CompileFlag> flags; // the enabled optimizations
+    private final int        threshold; // the number of invocations after which functions are translated (see BytecodeCompiler)
     private List<Symbol>     symbols = new ArrayList<>();
+    private int              frameSize; // the largest number of stack slots used by variables so far
+    private final List<Region>    regions    = new ArrayList<>(); // the enclosing loops and 'atomic' blocks, outermost first
+    private final List<Invariant> invariants = new ArrayList<>(); // the hoisted expressions, their slots follow the variables
 
     public Scope(Session session, Complex environment) {
+        this(session, environment, optimizations, BytecodeCompiler.THRESHOLD);
+    }
+
+    public Scope(Session session, Complex environment, EnumSet<CompileFlag> optimizations) {
+        this(session, environment, optimizations, BytecodeCompiler.THRESHOLD);
+    }
+
+    public Scope(Session session, Complex environment, EnumSet<CompileFlag> optimizations, int threshold) {
         this.session     = session;
         this.environment = environment;
         this.parent      = null;
+        this.flags       = EnumSet.copyOf(optimizations);
+        this.threshold   = threshold;
 
         symbols.add(new Symbol(session.text("null"),  new Constant(null)));
         symbols.add(new Symbol(session.text("void"),  new Constant(session.empty())));
@@ -39,12 +62,159 @@ public class Scope {
         this.session     = parent.session;
         this.environment = null;
         this.parent      = parent;
+        this.flags       = parent.flags;
+        this.threshold   = parent.threshold;
     }
 
     public Session getSession() {
         return session;
     }
 
+    /**
+     * Returns the number of stack slots needed by the variables of this scope (not including nested functions).
+     * Must be called once after the function has been compiled: this also assigns the slots of hoisted expressions.
+     */
+    public int getFrameSize() {
+        for(int i = 0; i < invariants.size(); i++) {
+            invariants.get(i).assignSlot(frameSize + i);
+        }
+        return frameSize + invariants.size();
+    }
+
+    /**
+     * Checks whether an optimization is enabled.
+     */
+    public boolean optimize(CompileFlag flag) {
+        return flags.contains(flag);
+    }
+
+    /**
+     * Returns the number of invocations after which compiled functions are translated into bytecode, negative if never.
+     */
+    int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Called before compiling the repeated parts of a loop.
+     * @param loop the loop, not yet compiled.
+     * @return the region to be passed to leaveRegion().
+     */
+    Region enterLoop(Expression loop) {
+        return enterRegion(false, loop);
+    }
+
+    /**
+     * Called before compiling the body of an 'atomic' block.
+     * @param body the body, not yet compiled.
+     * @return the region to be passed to leaveRegion().
+     */
+    Region enterAtomic(Expression body) {
+        return enterRegion(true, body);
+    }
+
+    private Region enterRegion(boolean atomic, Expression expr) {
+        Set<Text> assigned = new HashSet<>();
+        if(optimize(atomic ? CompileFlag.HoistReads : CompileFlag.HoistInvariants)) {
+            Expression.collectAssigned(expr, assigned);
+        }
+        Region region = new Region(atomic, assigned);
+        regions.add(region);
+        return region;
+    }
+
+    /**
+     * Called after compiling a loop or the body of an 'atomic' block.
+     * @param region the region returned by enterLoop() or enterAtomic().
+     * @param exprc the compiled loop or body.
+     * @return the given expression or an expression that prepares the hoisted expressions and then evaluates it.
+     */
+    Expression leaveRegion(Region region, Expression exprc) {
+        regions.remove(regions.size() - 1);
+        if(region.invariants.isEmpty()) {
+            return exprc;
+        }
+        if(region.atomic && exprc.effects().ordinal() > Determinism.QUERY.ordinal()) {
+            // The block may write, so reads are evaluated every time.
+            invariants.removeAll(region.invariants);
+            return exprc;
+        }
+        return new InvariantScope(region.invariants, exprc);
+    }
+
+    /**
+     * Hoists an expression without side effects out of the enclosing loops, if possible.
+     * @param exprc the compiled expression.
+     * @return the given expression or an Invariant that evaluates it once per execution of the outermost loop
+     *         that does not assign any variable read by the expression.
+     */
+    Expression hoist(Expression exprc) {
+        if(!optimize(CompileFlag.HoistInvariants) || regions.isEmpty() || exprc.effects().ordinal() > Determinism.PURE.ordinal() ||
+                exprc instanceof Constant || exprc instanceof Variable || exprc instanceof Invariant) {
+            return exprc;
+        }
+        Set<Text> variables = null;
+        for(Region region : regions) {
+            if(region.atomic) {
+                continue;
+            }
+            if(variables == null) {
+                variables = new HashSet<>();
+                Expression.collectVariables(exprc, variables);
+            }
+            if(!intersects(variables, region.assigned)) {
+                return region.add(this, exprc);
+            }
+        }
+        return exprc;
+    }
+
+    /**
+     * Hoists a reference read out of the enclosing 'atomic' block, if possible.
+     * The read is evaluated every time if the block turns out not to be read-only.
+     * @param exprc the compiled reference read.
+     * @return the given expression or an Invariant that evaluates it once per transaction.
+     */
+    Expression hoistRead(Expression exprc) {
+        if(!optimize(CompileFlag.HoistReads) || exprc.effects() != Determinism.QUERY) {
+            return exprc;
+        }
+        for(int i = regions.size() - 1; i >= 0; i--) {
+            Region region = regions.get(i);
+            if(region.atomic) {
+                Set<Text> variables = new HashSet<>();
+                Expression.collectVariables(exprc, variables);
+                return intersects(variables, region.assigned) ? exprc : region.add(this, exprc);
+            }
+        }
+        return exprc;
+    }
+
+    /**
+     * Reverts hoisting of an expression that must not be cached, such as the target of an assignment.
+     * @param exprc the compiled expression.
+     * @return the given expression or the expression wrapped by the Invariant.
+     */
+    Expression unhoist(Expression exprc) {
+        if(exprc instanceof Invariant) {
+            for(Region region : regions) {
+                region.invariants.remove(exprc);
+            }
+            invariants.remove(exprc);
+            return ((Invariant) exprc).expr();
+        }
+        return exprc;
+    }
+
+    private static boolean intersects(Set<Text> a, Set<Text> b) {
+        for(Text name : a) {
+            if(b.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public int enterBlock() {
         return symbols.size();
     }
@@ -73,6 +243,7 @@ public class Scope {
         }
         Variable var = new Variable(name, mutable, symbols.size());
         symbols.add(new Symbol(name, var));
+        frameSize = Math.max(frameSize, symbols.size());
         return var;
     }
 
@@ -112,6 +283,27 @@ public class Scope {
         return name;
     }
 
+    /**
+     * A loop or an 'atomic' block that is being compiled.
+     */
+    static final class Region {
+        private final boolean         atomic;
+        private final Set<Text>       assigned; // the names of the variables that are declared or assigned within the region
+        private final List<Invariant> invariants = new ArrayList<>();
+
+        private Region(boolean atomic, Set<Text> assigned) {
+            this.atomic   = atomic;
+            this.assigned = assigned;
+        }
+
+        private Invariant add(Scope scope, Expression exprc) {
+            Invariant invariant = new Invariant(exprc);
+            invariants.add(invariant);
+            scope.invariants.add(invariant);
+            return invariant;
+        }
+    }
+
     private static final class Symbol {
         public final Text    name;
         public final Expression expr;
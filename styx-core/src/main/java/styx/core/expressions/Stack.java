@@ -2,19 +2,29 @@ package styx.core.expressions;
 
 import java.util.Arrays;
 
+import styx.Function;
 import styx.Session;
+import styx.StyxException;
 import styx.Value;
 
 public class Stack {
 
     private final Session session;
-    private Value[]       values = new Value[1];
+    private Value[]       values;
+    private int[]         links;  // parallel to values: the base of the previous frame, stored at the position before a frame
     private int              size   = 0;
     private int              frame  = 0;
     private Value         result = null;
+    private FunctionExpression tailCall = null; // the function to be invoked in place of the current one, see enterTailCall()
 
     public Stack(Session session) {
+        this(session, 16);
+    }
+
+    public Stack(Session session, int capacity) {
         this.session = session;
+        this.values  = new Value[Math.max(capacity, 1)];
+        this.links   = new int[values.length];
     }
 
     public Session session() {
@@ -23,13 +33,26 @@ public class Stack {
 
     public void push(Value val) {
         if(size == values.length) {
-            values = Arrays.copyOf(values, values.length << 1);
+            grow(size + 1);
         }
         values[size++] = val;
     }
 
+    /**
+     * Makes sure that the current frame can have the given size without growing the stack.
+     */
+    public void reserveFrame(int frameSize) {
+        if(frame + frameSize >= values.length) {
+            grow(frame + frameSize + 1);
+        }
+    }
+
     public int prepareFrame() {
-        push(session.number(frame));
+        if(size == values.length) {
+            grow(size + 1);
+        }
+        links[size] = frame;
+        values[size++] = null;
         return size;
     }
 
@@ -39,7 +62,38 @@ public class Stack {
 
     public void leaveFrame(int base) {
         size  = base - 1;
-        frame = values[size].asNumber().toInteger();
+        frame = links[size];
+    }
+
+    /**
+     * Replaces the current frame by the arguments pushed after prepareFrame() instead of entering a new frame.
+     * The function is invoked by FunctionExpression.invoke() after the current one has returned.
+     */
+    void enterTailCall(int base, FunctionExpression function) {
+        int count = size - base;
+        System.arraycopy(values, base, values, frame, count);
+        size     = frame + count;
+        tailCall = function;
+    }
+
+    /**
+     * Returns and clears the function to be invoked in place of the current one, if any.
+     */
+    FunctionExpression leaveTailCall() {
+        FunctionExpression function = tailCall;
+        tailCall = null;
+        return function;
+    }
+
+    /**
+     * Invokes a function with the given arguments in a new frame on top of this stack.
+     * This avoids the temporary stack created by Function.invoke(Session, Value[]) when many calls are made.
+     */
+    public Value invoke(Function target, Value arg1, Value arg2) throws StyxException {
+        int base = prepareFrame();
+        push(arg1);
+        push(arg2);
+        return Call.invoke(target, this, base, false);
     }
 
     public Value[] getFrameAsArray() {
@@ -64,8 +118,8 @@ public class Stack {
     }
 
     public void setFrameValue(int offset, Value val) {
-        while(frame + offset >= values.length) {
-            push(null);
+        if(frame + offset >= values.length) {
+            grow(frame + offset + 1);
         }
         if(frame + offset >= size) {
             size = frame + offset + 1;
@@ -80,4 +134,10 @@ public class Stack {
     public Value getResult() {
         return result;
     }
+
+    private void grow(int capacity) {
+        int length = Math.max(values.length << 1, capacity);
+        values = Arrays.copyOf(values, length);
+        links  = Arrays.copyOf(links,  length);
+    }
 }
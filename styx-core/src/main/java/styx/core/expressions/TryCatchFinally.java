@@ -6,6 +6,7 @@ import styx.Complex;
 import styx.Determinism;
 import styx.StyxException;
 import styx.Value;
+import styx.core.values.LazyComplex;
 
 /**
  * Node of the abstract syntax tree that implements a "try ... catch(...) ... finally ..." statement.
@@ -41,6 +42,7 @@ public final class TryCatchFinally extends Expression {
 
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
+        flags = CompileFlag.remove(flags, CompileFlag.AllowTailCall); // the frame is restored after leaving try, catch or finally
         return new TryCatchFinally(
                 exprtry     != null ? exprtry.    compile(scope, flags) : null,
                 exprcatch   != null ? exprcatch.  compile(scope, flags) : null,
@@ -75,7 +77,7 @@ public final class TryCatchFinally extends Expression {
                     return flow;
                 }
             }
-        } catch(StyxException e) {
+        } catch(StyxException | LazyComplex.GeneratorException e) { // the latter is thrown by lazy values that are consumed in 'try'
             stack.setFrame(frameBase, frameSize);
             if(exprcatch != null) {
                 Flow flow = exprcatch.execute(stack);
@@ -44,7 +44,7 @@ public final class UnaryOperator extends Expression {
 
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
-        return new UnaryOperator(op, expr.compile(scope, CompileFlag.EXPRESSION)).optimizeConst(scope);
+        return scope.hoist(new UnaryOperator(op, expr.compile(scope, CompileFlag.EXPRESSION)).optimizeConst(scope));
     }
 
     @Override
@@ -57,39 +57,52 @@ public final class UnaryOperator extends Expression {
         return op.evaluate(stack, expr);
     }
 
+    @Override
+    void generate(BytecodeCompiler gen) {
+        gen.generateUnary(op, expr);
+    }
+
+    @Override
+    void generateBranch(BytecodeCompiler gen, BytecodeCompiler.Label target, boolean when) {
+        op.generateBranch(gen, this, expr, target, when);
+    }
+
     public static enum Operator {
         Not {
-            @Override Value evaluate(Stack stack, Expression expr) throws StyxException {
-                return stack.session().bool(!expr.evaluate(stack).asBool().toBool());
+            @Override public Value apply(Session session, Value val) throws StyxException {
+                return session.bool(!val.asBool().toBool());
+            }
+            @Override void generateBranch(BytecodeCompiler gen, Expression self, Expression expr, BytecodeCompiler.Label target, boolean when) {
+                gen.branch(expr, target, !when);
             }
         },
         Neg {
             @Override Expression propagateConst(Session session, Expression self, Value value) {
                 return new Constant(session.number("-" + value.asText().toTextString()));
             }
-            @Override Value evaluate(Stack stack, Expression expr) throws StyxException {
-                return stack.session().number(-expr.evaluate(stack).asNumber().toLong());
+            @Override public Value apply(Session session, Value val) throws StyxException {
+                return session.number(-val.asNumber().toLong());
             }
         },
         BitNot {
-            @Override Value evaluate(Stack stack, Expression expr) throws StyxException {
-                return stack.session().number(~expr.evaluate(stack).asNumber().toLong());
+            @Override public Value apply(Session session, Value val) throws StyxException {
+                return session.number(~val.asNumber().toLong());
             }
         },
         TypeExpression {
             @Override Expression propagateConst(Session session, Expression self, Value value) throws StyxException {
                 return new Constant(session.type(value));
             }
-            @Override Value evaluate(Stack stack, Expression expr) throws StyxException {
-                return stack.session().type(expr.evaluate(stack));
+            @Override public Value apply(Session session, Value val) throws StyxException {
+                return session.type(val);
             }
         },
         FunctionExpression {
             @Override Expression propagateConst(Session session, Expression self, Value value) throws StyxException {
                 return new Constant(session.function(value));
             }
-            @Override Value evaluate(Stack stack, Expression expr) throws StyxException {
-                return stack.session().function(expr.evaluate(stack));
+            @Override public Value apply(Session session, Value val) throws StyxException {
+                return session.function(val);
             }
         };
 
@@ -97,6 +110,18 @@ public final class UnaryOperator extends Expression {
             return self;
         }
 
-        abstract Value evaluate(Stack stack, Expression expr) throws StyxException;
+        Value evaluate(Stack stack, Expression expr) throws StyxException {
+            return apply(stack.session(), expr.evaluate(stack));
+        }
+
+        void generateBranch(BytecodeCompiler gen, Expression self, Expression expr, BytecodeCompiler.Label target, boolean when) {
+            gen.value(self);
+            gen.generateTest(target, when);
+        }
+
+        /**
+         * Applies the operator to an operand that is already evaluated.
+         */
+        public abstract Value apply(Session session, Value val) throws StyxException;
     }
 }
@@ -31,6 +31,10 @@ public final class Variable extends AssignableExpression {
         this.offset  = offset;
     }
 
+    Text ident() {
+        return ident;
+    }
+
     @Override
     protected Complex toValue() {
         return complex(text(Variable.TAG), ident);
@@ -74,4 +78,13 @@ public final class Variable extends AssignableExpression {
     public void assign(Stack stack, Value val) throws StyxException {
         stack.setFrameValue(offset, val);
     }
+
+    @Override
+    void generate(BytecodeCompiler gen) {
+        gen.loadVariable(offset);
+    }
+
+    void generateAssign(BytecodeCompiler gen) {
+        gen.storeVariable(offset);
+    }
 }
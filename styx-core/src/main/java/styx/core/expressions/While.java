@@ -43,10 +43,33 @@ public final class While extends Expression {
 
     @Override
     public Expression compile(Scope scope, EnumSet<CompileFlag> flags) throws StyxException {
-        return new While(
-                precond  != null ? precond. compile(scope, CompileFlag.EXPRESSION) : null,
-                postcond != null ? postcond.compile(scope, CompileFlag.EXPRESSION) : null,
-                expr.compile(scope, CompileFlag.add(flags, CompileFlag.AllowYield, CompileFlag.AllowBreak, CompileFlag.AllowContinue)));
+        Scope.Region region = scope.enterLoop(this);
+        Expression preconc  = precond  != null ? precond. compile(scope, CompileFlag.EXPRESSION) : null;
+        Expression postconc = postcond != null ? postcond.compile(scope, CompileFlag.EXPRESSION) : null;
+        Expression exprc    = expr.compile(scope, CompileFlag.add(flags, CompileFlag.AllowYield, CompileFlag.AllowBreak, CompileFlag.AllowContinue));
+        if(scope.optimize(CompileFlag.EliminateDeadCode)) {
+            if(isConst(preconc, false)) {
+                // The loop is never entered.
+                scope.leaveRegion(region, exprc);
+                return new Constant(scope.getSession().complex());
+            }
+            // A condition that is always true is not evaluated.
+            if(isConst(preconc, true)) {
+                preconc = null;
+            }
+            if(isConst(postconc, true)) {
+                postconc = null;
+            }
+        }
+        return scope.leaveRegion(region, new While(preconc, postconc, exprc));
+    }
+
+    private static boolean isConst(Expression cond, boolean value) {
+        if(cond instanceof Constant) {
+            Value val = Constant.unwrap(cond);
+            return val != null && val.isBool() && val.asBool().toBool() == value;
+        }
+        return false;
     }
 
     @Override
@@ -100,4 +123,24 @@ public final class While extends Expression {
         }
         return null;
     }
+
+    @Override
+    void generateStatement(BytecodeCompiler gen) {
+        BytecodeCompiler.Label labelstart = gen.label();
+        BytecodeCompiler.Label labelpost  = gen.label();
+        BytecodeCompiler.Label labelbreak = gen.label();
+        gen.mark(labelstart);
+        if(precond != null) {
+            gen.branch(precond, labelbreak, false);
+        }
+        gen.enterLoop(labelbreak, labelstart, labelpost); // 'continue' skips postcond, 'yield' does not.
+        gen.statement(expr);
+        gen.leaveLoop();
+        gen.mark(labelpost);
+        if(postcond != null) {
+            gen.branch(postcond, labelbreak, false);
+        }
+        gen.jump(labelstart);
+        gen.mark(labelbreak);
+    }
 }
@@ -1,7 +1,13 @@
 package styx.core.intrinsics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 import styx.Complex;
 import styx.Determinism;
@@ -9,15 +15,48 @@ import styx.StyxException;
 import styx.Function;
 import styx.Pair;
 import styx.Session;
+import styx.SessionManager;
 import styx.Value;
 import styx.core.expressions.CompiledFunction;
 import styx.core.expressions.FuncRegistry;
 import styx.core.expressions.Stack;
+import styx.core.values.LazyComplex;
 
+/**
+ * Intrinsic functions for collections (complex values).
+ * <p>
+ * If enabled, large collections are processed in parallel on the common ForkJoinPool, but only if the provided
+ * function is PURE or CONSTANT. Every worker invokes the function on a stack of its own and with the detached session
+ * instead of the caller's one, since sessions are not thread-safe. The detached session has no state, and a PURE
+ * function does not depend on the state of the caller's session.
+ * The results are merged in the original order, so the result is the same as the one of a sequential evaluation.
+ * <p>
+ * The workers share the nodes of the function. Nodes with mutable state are safe for this: the speculation flag of
+ * BinaryOperator is volatile and only ever cleared, FunctionExpression counts invocations atomically and translates
+ * its body once (other threads keep interpreting until the bytecode is published), and MemoCache and Profiler are
+ * based on concurrent maps and atomic counters (Profiler keeps the activations per thread).
+ * <p>
+ * Parallel evaluation is enabled by the system property 'styx.collection.parallel.threshold', which sets the
+ * minimum number of entries. The default of -1 disables it.
+ * <p>
+ * lazy() turns a collection into a lazy sequence. filter(), filter_vals(), map() and map_vals() with a PURE or
+ * CONSTANT function return a lazy sequence again, which evaluates all functions in a single pass when it is
+ * iterated (by foreach, reduce() or reduce_assoc()). Chained pipelines therefore run in constant extra memory.
+ */
 public class CollectionIntrinsics {
 
+    static int parallelThreshold = Integer.getInteger("styx.collection.parallel.threshold", -1);
+
+    private static final int MIN_CHUNK_SIZE = 256;
+
     public static Complex buildEnvironment(FuncRegistry registry, Session session) throws StyxException {
         return session.complex()
+                .put(session.text("lazy"), new CompiledFunction(registry, "collection_lazy", Determinism.PURE, 1) {
+                    @Override
+                    public Value invoke(Stack stack) throws StyxException {
+                        return lazy(stack.session(), stack.getFrameValue(0).asComplex());
+                    }
+                }.function())
                 .put(session.text("filter"), new CompiledFunction(registry, "collection_filter", Determinism.PURE, 2) {
                     @Override
                     public Value invoke(Stack stack) throws StyxException {
@@ -47,65 +86,416 @@ public class CollectionIntrinsics {
                     public Value invoke(Stack stack) throws StyxException {
                         return reduce(stack.session(), stack.getFrameValue(0).asComplex(), stack.getFrameValue(1).asFunction());
                     }
+                }.function())
+                .put(session.text("reduce_assoc"), new CompiledFunction(registry, "collection_reduce_assoc", Determinism.PURE, 2) {
+                    @Override
+                    public Value invoke(Stack stack) throws StyxException {
+                        return reduce_assoc(stack.session(), stack.getFrameValue(0).asComplex(), stack.getFrameValue(1).asFunction());
+                    }
                 }.function());
     }
 
+    public static Complex lazy(Session session, Complex complex) {
+        if(complex instanceof Sequence) {
+            return complex;
+        }
+        return new Sequence(session, complex, new Stage[0], new Function[0]);
+    }
+
     public static Complex filter(Session session, Complex complex, Function predicate) throws StyxException {
+        if(complex instanceof Sequence && pure(predicate)) {
+            return ((Sequence) complex).then(Stage.Filter, predicate);
+        }
+        List<Pair<Value, Value>> entries = entries(complex);
+        Value[] results = invokeAll(session, entries, predicate);
         List<Pair<Value, Value>> result = new ArrayList<Pair<Value,Value>>();
-        for(Pair<Value, Value> entry : complex) {
-            if(predicate.invoke(session, new Value[] { entry.key(), entry.val() }).asBool().toBool()) {
-                result.add(entry);
+        for(int i = 0; i < results.length; i++) {
+            if(results[i].asBool().toBool()) {
+                result.add(entries.get(i));
             }
         }
         return session.complex().putAll(result);
     }
 
     public static Complex filter_vals(Session session, Complex complex, Function predicate) throws StyxException {
+        if(complex instanceof Sequence && pure(predicate)) {
+            return ((Sequence) complex).then(Stage.FilterVals, predicate);
+        }
+        List<Pair<Value, Value>> entries = entries(complex);
+        Value[] results = invokeAll(session, entries, predicate);
         List<Value> result = new ArrayList<Value>();
-        for(Pair<Value, Value> entry : complex) {
-            if(predicate.invoke(session, new Value[] { entry.key(), entry.val() }).asBool().toBool()) {
-                result.add(entry.val());
+        for(int i = 0; i < results.length; i++) {
+            if(results[i].asBool().toBool()) {
+                result.add(entries.get(i).val());
             }
         }
         return session.complex().addAll(result);
     }
 
     public static Complex map(Session session, Complex complex, Function mapper) throws StyxException {
-        List<Pair<Value, Value>> result = new ArrayList<Pair<Value,Value>>();
-        for(Pair<Value, Value> entry : complex) {
-            Value mapped = mapper.invoke(session, new Value[] { entry.key(), entry.val() });
-            if(mapped == null) {
+        if(complex instanceof Sequence && pure(mapper)) {
+            return ((Sequence) complex).then(Stage.Map, mapper);
+        }
+        List<Pair<Value, Value>> entries = entries(complex);
+        Value[] results = invokeAll(session, entries, mapper);
+        List<Pair<Value, Value>> result = new ArrayList<Pair<Value,Value>>(results.length);
+        for(int i = 0; i < results.length; i++) {
+            if(results[i] == null) {
                 throw new StyxException("map(): The provided mapper function did not return a value.");
             }
-            result.add(new Pair<Value, Value>(entry.key(), mapped));
+            result.add(new Pair<Value, Value>(entries.get(i).key(), results[i]));
         }
         return session.complex().putAll(result);
     }
 
     public static Complex map_vals(Session session, Complex complex, Function mapper) throws StyxException {
-        List<Value> result = new ArrayList<Value>();
-        for(Pair<Value, Value> entry : complex) {
-            Value mapped = mapper.invoke(session, new Value[] { entry.key(), entry.val() });
-            if(mapped == null) {
+        if(complex instanceof Sequence && pure(mapper)) {
+            return ((Sequence) complex).then(Stage.MapVals, mapper);
+        }
+        List<Pair<Value, Value>> entries = entries(complex);
+        Value[] results = invokeAll(session, entries, mapper);
+        List<Value> result = new ArrayList<Value>(results.length);
+        for(int i = 0; i < results.length; i++) {
+            if(results[i] == null) {
                 throw new StyxException("map_vals(): The provided mapper function did not return a value.");
             }
-            result.add(mapped);
+            result.add(results[i]);
         }
         return session.complex().addAll(result);
     }
 
     public static Value reduce(Session session, Complex complex, Function accumulator) throws StyxException {
+        Stack stack = new Stack(session);
         Value result = null;
-        for(Pair<Value, Value> entry : complex) {
-            if(result == null) {
-                result = entry.val();
-            } else {
-                result = accumulator.invoke(session, new Value[] { result, entry.val() });
+        try {
+            for(Pair<Value, Value> entry : complex) {
+                if(result == null) {
+                    result = entry.val();
+                } else {
+                    result = stack.invoke(accumulator, result, entry.val());
+                }
+                if(result == null) {
+                    throw new StyxException("reduce(): The provided accumulator function did not return a value.");
+                }
             }
-            if(result == null) {
-                throw new StyxException("reduce(): The provided accumulator function did not return a value.");
+        } catch(LazyComplex.GeneratorException e) {
+            throw e.getCause();
+        }
+        return result;
+    }
+
+    /**
+     * Like reduce(), but the caller guarantees that the accumulator function is associative.
+     * The values can therefore be reduced as a tree instead of from left to right, which is done in parallel
+     * for large collections. The order of the values is preserved, the function needs not to be commutative.
+     */
+    public static Value reduce_assoc(Session session, Complex complex, Function accumulator) throws StyxException {
+        if(complex instanceof LazyComplex) {
+            // reduced while it is generated, without keeping the values.
+            Stack stack = new Stack(session);
+            Value result = null;
+            try {
+                for(Pair<Value, Value> entry : complex) {
+                    result = result == null ? entry.val() : accumulate(stack, accumulator, result, entry.val());
+                }
+            } catch(LazyComplex.GeneratorException e) {
+                throw e.getCause();
             }
+            return result;
+        }
+        List<Pair<Value, Value>> entries = entries(complex);
+        if(entries.isEmpty()) {
+            return null;
+        }
+        if(!parallel(accumulator, entries.size())) {
+            return reduceRange(new Stack(session), entries, accumulator, 0, entries.size());
+        }
+        try {
+            return ForkJoinPool.commonPool().invoke(new ReduceTask(entries, accumulator, 0, entries.size(), chunkSize(entries.size())));
+        } catch(RuntimeException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static List<Pair<Value, Value>> entries(Complex complex) throws StyxException {
+        List<Pair<Value, Value>> entries = new ArrayList<Pair<Value,Value>>();
+        try {
+            for(Pair<Value, Value> entry : complex) {
+                entries.add(entry);
+            }
+        } catch(LazyComplex.GeneratorException e) {
+            throw e.getCause();
+        }
+        return entries;
+    }
+
+    /**
+     * Returns true if the function has no side effects and does not depend on the session's state.
+     */
+    private static boolean pure(Function function) {
+        Determinism determinism = function.determinism();
+        return determinism == Determinism.CONSTANT || determinism == Determinism.PURE;
+    }
+
+    /**
+     * Returns true if the function should be invoked in parallel for the given number of values.
+     */
+    private static boolean parallel(Function function, int count) {
+        return parallelThreshold >= 0 && count >= parallelThreshold && pure(function);
+    }
+
+    private static int chunkSize(int count) {
+        return Math.max(count / (ForkJoinPool.getCommonPoolParallelism() * 4), MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Invokes the function for all entries and returns the results in the same order.
+     */
+    private static Value[] invokeAll(Session session, List<Pair<Value, Value>> entries, Function function) throws StyxException {
+        Value[] results = new Value[entries.size()];
+        if(!parallel(function, results.length)) {
+            invokeRange(new Stack(session), entries, function, results, 0, results.length);
+            return results;
+        }
+        try {
+            ForkJoinPool.commonPool().invoke(new InvokeTask(entries, function, results, 0, results.length, chunkSize(results.length)));
+            return results;
+        } catch(RuntimeException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static void invokeRange(Stack stack, List<Pair<Value, Value>> entries, Function function, Value[] results, int from, int to) throws StyxException {
+        for(int i = from; i < to; i++) {
+            Pair<Value, Value> entry = entries.get(i);
+            results[i] = stack.invoke(function, entry.key(), entry.val());
+        }
+    }
+
+    private static Value reduceRange(Stack stack, List<Pair<Value, Value>> entries, Function accumulator, int from, int to) throws StyxException {
+        Value result = entries.get(from).val();
+        for(int i = from + 1; i < to; i++) {
+            result = accumulate(stack, accumulator, result, entries.get(i).val());
         }
         return result;
     }
+
+    private static Value accumulate(Stack stack, Function accumulator, Value val1, Value val2) throws StyxException {
+        Value result = stack.invoke(accumulator, val1, val2);
+        if(result == null) {
+            throw new StyxException("reduce_assoc(): The provided accumulator function did not return a value.");
+        }
+        return result;
+    }
+
+    /**
+     * Returns the StyxException thrown by a worker, ForkJoinPool may rethrow it wrapped into copies of Failure.
+     */
+    private static StyxException unwrap(RuntimeException e) {
+        for(Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if(cause instanceof StyxException) {
+                return (StyxException) cause;
+            }
+        }
+        throw e;
+    }
+
+    /**
+     * Transports a StyxException out of a ForkJoinTask.
+     */
+    @SuppressWarnings("serial")
+    private static final class Failure extends RuntimeException {
+        private Failure(StyxException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Invokes a function for a range of entries, splitting it until a chunk is small enough.
+     * Every chunk is evaluated on a stack of its own with the detached session, the results are written into disjoint
+     * parts of the same array.
+     */
+    @SuppressWarnings("serial")
+    private static final class InvokeTask extends RecursiveAction {
+
+        private final List<Pair<Value, Value>> entries;
+        private final Function function;
+        private final Value[] results;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        private InvokeTask(List<Pair<Value, Value>> entries, Function function, Value[] results, int from, int to, int chunk) {
+            this.entries  = entries;
+            this.function = function;
+            this.results  = results;
+            this.from     = from;
+            this.to       = to;
+            this.chunk    = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= chunk) {
+                try {
+                    invokeRange(new Stack(SessionManager.getDetachedSession()), entries, function, results, from, to);
+                } catch(StyxException e) {
+                    throw new Failure(e);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new InvokeTask(entries, function, results, from, mid, chunk),
+                          new InvokeTask(entries, function, results, mid, to, chunk));
+            }
+        }
+    }
+
+    /**
+     * Reduces a range of entries, splitting it until a chunk is small enough.
+     * The results of both halves are combined from left to right, which requires an associative function.
+     */
+    @SuppressWarnings("serial")
+    private static final class ReduceTask extends RecursiveTask<Value> {
+
+        private final List<Pair<Value, Value>> entries;
+        private final Function accumulator;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        private ReduceTask(List<Pair<Value, Value>> entries, Function accumulator, int from, int to, int chunk) {
+            this.entries     = entries;
+            this.accumulator = accumulator;
+            this.from        = from;
+            this.to          = to;
+            this.chunk       = chunk;
+        }
+
+        @Override
+        protected Value compute() {
+            try {
+                if(to - from <= chunk) {
+                    return reduceRange(new Stack(SessionManager.getDetachedSession()), entries, accumulator, from, to);
+                }
+                int mid = (from + to) >>> 1;
+                ReduceTask left  = new ReduceTask(entries, accumulator, from, mid, chunk);
+                ReduceTask right = new ReduceTask(entries, accumulator, mid, to, chunk);
+                right.fork();
+                Value val1 = left.compute();
+                Value val2 = right.join();
+                return accumulate(new Stack(SessionManager.getDetachedSession()), accumulator, val1, val2);
+            } catch(StyxException e) {
+                throw new Failure(e);
+            }
+        }
+    }
+
+    private enum Stage {
+        Filter,
+        FilterVals,
+        Map,
+        MapVals
+    }
+
+    /**
+     * A lazy sequence over a source collection and a chain of stages, see lazy().
+     * While iterating, every entry of the source passes all stages before the next one is read.
+     */
+    private static final class Sequence extends LazyComplex {
+
+        private final Session session;
+        private final Complex source;
+        private final Stage[] stages;
+        private final Function[] functions;
+
+        private Sequence(Session session, Complex source, Stage[] stages, Function[] functions) {
+            super(session.complex());
+            this.session   = session;
+            this.source    = source;
+            this.stages    = stages;
+            this.functions = functions;
+        }
+
+        private Sequence then(Stage stage, Function function) {
+            Stage[] stages = Arrays.copyOf(this.stages, this.stages.length + 1);
+            Function[] functions = Arrays.copyOf(this.functions, this.functions.length + 1);
+            stages[stages.length - 1] = stage;
+            functions[functions.length - 1] = function;
+            return new Sequence(session, source, stages, functions);
+        }
+
+        @Override
+        protected Iterator<Pair<Value, Value>> generate() {
+            return new Generator();
+        }
+
+        private final class Generator implements Iterator<Pair<Value, Value>> {
+
+            private final Iterator<Pair<Value, Value>> input = source.iterator();
+            private final Stack stack = new Stack(session);
+            private final int[] counters = new int[stages.length]; // the last key generated by the *_vals stages
+            private Pair<Value, Value> next;
+
+            @Override
+            public boolean hasNext() {
+                while(next == null && input.hasNext()) {
+                    try {
+                        next = apply(input.next());
+                    } catch(StyxException e) {
+                        throw new LazyComplex.GeneratorException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Pair<Value, Value> next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Pair<Value, Value> result = next;
+                next = null;
+                return result;
+            }
+
+            /**
+             * Passes an entry through all stages.
+             * @return the resulting entry or null if it has been removed by a filter.
+             */
+            private Pair<Value, Value> apply(Pair<Value, Value> entry) throws StyxException {
+                Value key = entry.key();
+                Value val = entry.val();
+                for(int i = 0; i < stages.length; i++) {
+                    Value result = stack.invoke(functions[i], key, val);
+                    switch(stages[i]) {
+                        case Filter:
+                            if(!result.asBool().toBool()) {
+                                return null;
+                            }
+                            break;
+                        case FilterVals:
+                            if(!result.asBool().toBool()) {
+                                return null;
+                            }
+                            key = session.number(++counters[i]);
+                            break;
+                        case Map:
+                            if(result == null) {
+                                throw new StyxException("map(): The provided mapper function did not return a value.");
+                            }
+                            val = result;
+                            break;
+                        case MapVals:
+                            if(result == null) {
+                                throw new StyxException("map_vals(): The provided mapper function did not return a value.");
+                            }
+                            key = session.number(++counters[i]);
+                            val = result;
+                            break;
+                    }
+                }
+                return key == entry.key() && val == entry.val() ? entry : new Pair<Value, Value>(key, val);
+            }
+        }
+    }
 }
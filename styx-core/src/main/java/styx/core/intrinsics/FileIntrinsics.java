@@ -20,9 +20,9 @@ import styx.Value;
 import styx.core.expressions.CompiledFunction;
 import styx.core.expressions.FuncRegistry;
 import styx.core.expressions.Stack;
-import styx.core.utils.JsonSerializer;
+import styx.core.utils.ColumnarSerializer;
+import styx.core.utils.JsonCodec;
 import styx.core.utils.XmlExporter;
-import styx.core.utils.XmlLargeExporter;
 import styx.core.utils.XmlSerializer;
 
 public class FileIntrinsics {
@@ -112,11 +112,33 @@ public class FileIntrinsics {
                         }
                     }
                 }.function())
+                .put(session.text("read_xml_stream"), new CompiledFunction(registry, "file_read_xml_stream", Determinism.NON_DETERMINISTIC, 2) {
+                    @Override
+                    public Value invoke(Stack stack) throws StyxException {
+                        try(FileInputStream stm = new FileInputStream(stack.getFrameValue(0).asText().toTextString())) {
+                            XmlSerializer.deserialize(stack.session(), stm, stack.getFrameValue(1).asReference());
+                            return null;
+                        } catch (IOException e) {
+                            throw new StyxException("Cannot read XML file.", e);
+                        }
+                    }
+                }.function())
+                .put(session.text("write_xml_stream"), new CompiledFunction(registry, "file_write_xml_stream", Determinism.NON_DETERMINISTIC, 3) {
+                    @Override
+                    public Value invoke(Stack stack) throws StyxException {
+                        try(FileOutputStream stm = new FileOutputStream(stack.getFrameValue(0).asText().toTextString())) {
+                            XmlSerializer.serialize(stack.session(), stack.getFrameValue(1).asReference(), stm, stack.getFrameValue(2).asBool().toBool());
+                            return null;
+                        } catch (IOException e) {
+                            throw new StyxException("Cannot write XML file.", e);
+                        }
+                    }
+                }.function())
                 .put(session.text("read_json"), new CompiledFunction(registry, "file_read_json", Determinism.NON_DETERMINISTIC, 1) {
                     @Override
                     public Value invoke(Stack stack) throws StyxException {
                         try(FileInputStream stm = new FileInputStream(stack.getFrameValue(0).asText().toTextString())) {
-                            return JsonSerializer.deserialize(stack.session(), stm);
+                            return JsonCodec.deserialize(stack.session(), stm);
                         } catch (IOException e) {
                             throw new StyxException("Cannot read JSON file.", e);
                         }
@@ -126,13 +148,56 @@ public class FileIntrinsics {
                     @Override
                     public Value invoke(Stack stack) throws StyxException {
                         try(FileOutputStream stm = new FileOutputStream(stack.getFrameValue(0).asText().toTextString())) {
-                            JsonSerializer.serialize(stack.getFrameValue(1), stm, stack.getFrameValue(2).asBool().toBool());
+                            JsonCodec.serialize(stack.getFrameValue(1), stm, stack.getFrameValue(2).asBool().toBool());
                             return null;
                         } catch (IOException e) {
                             throw new StyxException("Cannot write JSON file.", e);
                         }
                     }
                 }.function())
+                .put(session.text("read_columnar"), new CompiledFunction(registry, "file_read_columnar", Determinism.NON_DETERMINISTIC, 1) {
+                    @Override
+                    public Value invoke(Stack stack) throws StyxException {
+                        try(FileInputStream stm = new FileInputStream(stack.getFrameValue(0).asText().toTextString())) {
+                            return ColumnarSerializer.deserialize(stack.session(), stm);
+                        } catch (IOException e) {
+                            throw new StyxException("Cannot read columnar file.", e);
+                        }
+                    }
+                }.function())
+                .put(session.text("write_columnar"), new CompiledFunction(registry, "file_write_columnar", Determinism.NON_DETERMINISTIC, 2) {
+                    @Override
+                    public Value invoke(Stack stack) throws StyxException {
+                        try(FileOutputStream stm = new FileOutputStream(stack.getFrameValue(0).asText().toTextString())) {
+                            ColumnarSerializer.serialize(stack.getFrameValue(1), stm);
+                            return null;
+                        } catch (IOException e) {
+                            throw new StyxException("Cannot write columnar file.", e);
+                        }
+                    }
+                }.function())
+                .put(session.text("read_columnar_stream"), new CompiledFunction(registry, "file_read_columnar_stream", Determinism.NON_DETERMINISTIC, 2) {
+                    @Override
+                    public Value invoke(Stack stack) throws StyxException {
+                        try(FileInputStream stm = new FileInputStream(stack.getFrameValue(0).asText().toTextString())) {
+                            ColumnarSerializer.deserialize(stack.session(), stm, stack.getFrameValue(1).asReference());
+                            return null;
+                        } catch (IOException e) {
+                            throw new StyxException("Cannot read columnar file.", e);
+                        }
+                    }
+                }.function())
+                .put(session.text("write_columnar_stream"), new CompiledFunction(registry, "file_write_columnar_stream", Determinism.NON_DETERMINISTIC, 2) {
+                    @Override
+                    public Value invoke(Stack stack) throws StyxException {
+                        try(FileOutputStream stm = new FileOutputStream(stack.getFrameValue(0).asText().toTextString())) {
+                            ColumnarSerializer.serialize(stack.session(), stack.getFrameValue(1).asReference(), stm);
+                            return null;
+                        } catch (IOException e) {
+                            throw new StyxException("Cannot write columnar file.", e);
+                        }
+                    }
+                }.function())
                 .put(session.text("import_xml"), new CompiledFunction(registry, "file_import_xml", Determinism.NON_DETERMINISTIC, 1) {
                     @Override
                     public Value invoke(Stack stack) throws StyxException {
@@ -143,11 +208,14 @@ public class FileIntrinsics {
                         }
                     }
                 }.function())
+                // import_large_xml(file, depth, target) writes the document to target and returns nothing (see XmlExporter).
+                // It replaces import_large_xml(file, limit, swap), which returned the document and used swap as temporary storage.
                 .put(session.text("import_large_xml"), new CompiledFunction(registry, "file_import_large_xml", Determinism.NON_DETERMINISTIC, 3) {
                     @Override
                     public Value invoke(Stack stack) throws StyxException {
                         try(FileInputStream stm = new FileInputStream(stack.getFrameValue(0).asText().toTextString())) {
-                            return new XmlLargeExporter(stack.session(), stack.getFrameValue(1).asNumber().toInteger(), stack.getFrameValue(2).asReference()).importDocument(stm);
+                            new XmlExporter(stack.session()).importDocument(stm, stack.getFrameValue(2).asReference(), stack.getFrameValue(1).asNumber().toInteger());
+                            return null;
                         } catch (IOException e) {
                             throw new StyxException("Cannot import XML file.", e);
                         }
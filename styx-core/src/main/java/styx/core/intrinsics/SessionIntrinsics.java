@@ -10,6 +10,7 @@ import styx.Value;
 import styx.core.expressions.CompiledFunction;
 import styx.core.expressions.FuncRegistry;
 import styx.core.expressions.Stack;
+import styx.core.sessions.TransactionMetrics;
 
 public class SessionIntrinsics {
 
@@ -56,6 +57,15 @@ public class SessionIntrinsics {
                         return stack.session().evaluate(
                             stack.getFrameValue(0).asText().toTextString());
                     }
+                }.function())
+                .put(session.text("transactions"), new CompiledFunction(registry, "session_transactions", Determinism.NON_DETERMINISTIC, 0) {
+                    @Override
+                    public Value invoke(Stack stack) throws StyxException {
+                        Session session = stack.session();
+                        return session.complex()
+                            .put(session.text("session"), TransactionMetrics.of(session).toValue(session))
+                            .put(session.text("global"), TransactionMetrics.global().toValue(session));
+                    }
                 }.function());
     }
 }
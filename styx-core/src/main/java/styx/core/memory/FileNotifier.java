@@ -0,0 +1,175 @@
+package styx.core.memory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Notifies threads that are waiting for changes of files, based on a single WatchService for all instances
+ * of SharedValueFile.
+ * <p>
+ * A file's directory is registered when the file is waited for the first time. Any creation, modification or
+ * deletion of a file whose name starts with the file's name (such as its '.lock' and '.journal' files) wakes the
+ * threads waiting for it. If the file system cannot be watched, waiting degrades to sleeping (polling).
+ * <p>
+ * A signal exists only while threads are waiting for its file: acquire() and release() count the waiters,
+ * and the signal is removed when the last one leaves.
+ */
+final class FileNotifier {
+
+    private static final Logger LOG = Logger.getLogger(FileNotifier.class.toString());
+
+    private static final FileNotifier INSTANCE = new FileNotifier();
+
+    private final WatchService         service; // null if not supported
+    private final Map<Path, Boolean>   dirs    = new ConcurrentHashMap<>();
+    private final Map<Path, Signal>    signals = new ConcurrentHashMap<>();
+
+    private FileNotifier() {
+        WatchService service = null;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    dispatch();
+                }
+            }, "styx-file-notifier");
+            thread.setDaemon(true);
+            thread.start();
+        } catch(IOException | UnsupportedOperationException e) {
+            LOG.warning("Failed to create watch service, falling back to polling: " + e);
+        }
+        this.service = service;
+    }
+
+    /**
+     * Returns the signal of the given file, which is shared by all threads waiting for the same file.
+     * Must be followed by release() when the caller stops waiting.
+     */
+    static Signal acquire(Path file) {
+        return INSTANCE.register(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Releases a signal returned by acquire().
+     */
+    static void release(Signal signal) {
+        INSTANCE.unregister(signal);
+    }
+
+    /**
+     * Checks whether a thread is waiting for the given file, for testing.
+     */
+    static boolean isWaiting(Path file) {
+        return INSTANCE.signals.containsKey(file.toAbsolutePath().normalize());
+    }
+
+    private synchronized Signal register(Path file) {
+        Signal signal = signals.get(file);
+        if(signal == null) {
+            signals.put(file, signal = new Signal(file));
+        }
+        signal.waiters++;
+        Path dir = file.getParent();
+        if(service != null && dir != null && !dirs.containsKey(dir)) {
+            try {
+                dir.register(service,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                dirs.put(dir, Boolean.TRUE);
+            } catch(IOException | RuntimeException e) {
+                // The directory may not exist yet, we'll try again next time.
+                LOG.info("Failed to watch directory '" + dir + "': " + e);
+            }
+        }
+        return signal;
+    }
+
+    private synchronized void unregister(Signal signal) {
+        if(--signal.waiters == 0) {
+            signals.remove(signal.file);
+        }
+    }
+
+    private void dispatch() {
+        try {
+            while(true) {
+                WatchKey key = service.take();
+                Path dir = (Path) key.watchable();
+                for(WatchEvent<?> event : key.pollEvents()) {
+                    Object name = event.context();
+                    for(Signal signal : signals.values()) {
+                        if(dir.equals(signal.file.getParent()) && (event.kind() == StandardWatchEventKinds.OVERFLOW ||
+                                name.toString().startsWith(signal.file.getFileName().toString()))) {
+                            signal.fire();
+                        }
+                    }
+                }
+                if(!key.reset()) {
+                    dirs.remove(dir); // the directory has been deleted, register again when re-created.
+                }
+            }
+        } catch(InterruptedException | ClosedWatchServiceException e) {
+            LOG.warning("Watch service terminated: " + e);
+        }
+    }
+
+    /**
+     * A counter of the changes of a file, on which threads can wait.
+     */
+    static final class Signal {
+        private final Path file;
+        private long       changes;
+        private int        waiters; // guarded by the FileNotifier
+
+        private Signal(Path file) {
+            this.file = file;
+        }
+
+        /**
+         * Returns the number of changes so far, to be passed to await().
+         */
+        synchronized long changes() {
+            return changes;
+        }
+
+        /**
+         * Waits until the file has changed or until the timeout has expired.
+         * @param seen the number of changes returned by changes() before checking the file.
+         * @param millis the timeout in milliseconds.
+         * @return true if the file has changed, false if the timeout has expired or the thread has been interrupted
+         *         (the interrupt status is kept).
+         */
+        synchronized boolean await(long seen, long millis) {
+            long deadline = System.currentTimeMillis() + millis;
+            try {
+                while(changes == seen) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if(remaining <= 0) {
+                        return false;
+                    }
+                    wait(remaining);
+                }
+                return true;
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private synchronized void fire() {
+            changes++;
+            notifyAll();
+        }
+    }
+}
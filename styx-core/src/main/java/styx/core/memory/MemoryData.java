@@ -1,16 +1,22 @@
 package styx.core.memory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import styx.Pair;
 import styx.Reference;
 import styx.Session;
 import styx.StyxException;
 import styx.Value;
+import styx.Watcher;
 import styx.core.DataProvider;
 import styx.core.utils.IdentityWrapper;
 import styx.core.utils.SessionUtils;
@@ -23,25 +29,58 @@ import styx.core.utils.SessionUtils;
 public final class MemoryData implements DataProvider {
 
     /**
-     * The root object, never null.
+     * The initial value of the root object, can be null.
      */
-    private final MemoryObject root;
+    private final Value initial;
 
     /**
-     * A fast cache to optimize repeated access to a Reference using the same reference instance.
+     * The root object, null until the first write.
      * <p>
-     * When a Reference is accessed with multiple reference instances, there will be cache misses.
-     * In this case, MemoryObject still ensures that there is only one object instance for all equal references.
+     * As long as nothing has been written, reads are served directly from the (immutable) initial value.
      */
-    private final Map<IdentityWrapper<Reference>, MemoryObject> cache;
+    private MemoryObject root;
+
+    /**
+     * A cache to optimize repeated access to a Reference, keyed by equality.
+     * <p>
+     * References cache their hash codes and compare from the bottom up, so that lookups of equal references
+     * built from different instances (as they are by scripts and REST requests) hit as well.
+     * On a miss, the object is found by descending from the nearest cached ancestor.
+     */
+    private final Map<Reference, MemoryObject> cache;
+
+    /**
+     * The references that have been read or browsed, null if not tracked.
+     * <p>
+     * The references are kept by identity, which is cheap for repeated reads using the same reference instance.
+     * Reads of references that have been written before (or whose ancestors have been written before) are not
+     * recorded, their values do not depend on the initial value of the root object.
+     */
+    private final Set<IdentityWrapper<Reference>> reads;
+
+    /**
+     * The references that have been written and their values, in order of the last write, null if not tracked.
+     */
+    private final Map<Reference, Value> writes;
 
     /**
      * Constructs a new object tree.
      * @param val the value of the root object, can be null.
      */
     public MemoryData(Value val) {
-        root = new MemoryObject(val);
+        this(val, false);
+    }
+
+    /**
+     * Constructs a new object tree, optionally recording the references that are read and written.
+     * @param val the value of the root object, can be null.
+     * @param track true if reads and writes are to be recorded for validate() and replay().
+     */
+    public MemoryData(Value val, boolean track) {
+        initial = val;
         cache = new HashMap<>();
+        reads = track ? new HashSet<IdentityWrapper<Reference>>() : null;
+        writes = track ? new LinkedHashMap<Reference, Value>() : null;
     }
 
     /**
@@ -49,7 +88,7 @@ public final class MemoryData implements DataProvider {
      * @return the value of the root object, can be null.
      */
     public Value get() {
-        return root.read();
+        return root == null ? initial : root.read();
     }
 
     @Override
@@ -62,7 +101,9 @@ public final class MemoryData implements DataProvider {
      */
     @Override
     public Value read(Session session, Reference ref) {
-        return lookup(Objects.requireNonNull(ref)).read();
+        Objects.requireNonNull(ref);
+        track(ref);
+        return root == null ? get(initial, ref) : lookup(ref).read();
     }
 
     /**
@@ -73,12 +114,51 @@ public final class MemoryData implements DataProvider {
      */
     @Override
     public void write(Session session, Reference ref, Value val) throws StyxException {
+        if(root == null) {
+            root = new MemoryObject(initial);
+        }
         lookup(Objects.requireNonNull(ref)).write(val);
+        if(writes != null) {
+            writes.remove(ref); // move to the end, the order matters if ancestors are written as well
+            writes.put(ref, val);
+        }
+    }
+
+    @Override
+    public List<Value> readAll(Session session, Collection<Reference> refs) {
+        List<Value> result = new ArrayList<>(refs.size());
+        for(Reference ref : refs) {
+            result.add(read(session, ref));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the values of multiple references.
+     * <p>
+     * As MemoryData does not support transactions, the values written before a failure are not rolled back.
+     * @throws StyxException if the parent of a reference is non-existing or non-complex.
+     */
+    @Override
+    public void writeAll(Session session, Map<Reference, Value> vals) throws StyxException {
+        for(Map.Entry<Reference, Value> entry : vals.entrySet()) {
+            write(session, entry.getKey(), entry.getValue());
+        }
     }
 
     @Override
     public List<Value> browse(Session session, Reference ref, Value after, Value before, Integer maxResults, boolean forward) {
-        Value value = lookup(Objects.requireNonNull(ref)).read();
+        Objects.requireNonNull(ref);
+        track(ref);
+        return browse(root == null ? get(initial, ref) : lookup(ref).read(), after, before, maxResults, forward);
+    }
+
+    /**
+     * Returns the names of the children of an (immutable) value.
+     * @param value the value to be browsed, can be null.
+     * @return the names of the children, null if the value is not existing or not complex.
+     */
+    static List<Value> browse(Value value, Value after, Value before, Integer maxResults, boolean forward) {
         if(value == null || !value.isComplex()) {
             return null;
         }
@@ -89,6 +169,14 @@ public final class MemoryData implements DataProvider {
         return SessionUtils.filter(result, after, before, maxResults, forward);
     }
 
+    @Override
+    public void watch(Session session, Reference ref, Watcher watcher) {
+        throw new UnsupportedOperationException("This session does not support watching.");
+    }
+
+    @Override
+    public void unwatch(Session session, Watcher watcher) { }
+
     @Override
     public boolean hasTransaction() {
         return false;
@@ -109,6 +197,92 @@ public final class MemoryData implements DataProvider {
         throw new UnsupportedOperationException("This session does not support transactions.");
     }
 
+    /**
+     * Checks if the values that have been read or written are equal in two versions of the root value.
+     * <p>
+     * If this is the case, the reads would have returned the same values if they had been based on the other
+     * version, and the writes do not overwrite changes made in the other version. Therefore, the writes can be
+     * replayed onto it.
+     * @param base the value of the root object this instance has been constructed with.
+     * @param other another version of the root value.
+     * @return true if the values of all references that have been read or written are equal.
+     */
+    public boolean validate(Value base, Value other) {
+        if(base == other) {
+            return true;
+        }
+        for(IdentityWrapper<Reference> ref : reads) {
+            if(!validate(base, other, ref.unwrap())) {
+                return false;
+            }
+        }
+        for(Reference ref : writes.keySet()) {
+            if(!validate(base, other, ref)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean validate(Value base, Value other, Reference ref) {
+        Value a = get(base, ref);
+        Value b = get(other, ref);
+        return a == b || (a != null && a.equals(b));
+    }
+
+    /**
+     * Applies the writes that have been made to another version of the root value.
+     * @param session the session used to write.
+     * @param other another version of the root value.
+     * @return the resulting root value.
+     * @throws StyxException if the parent of a written reference is non-existing or non-complex in the other version.
+     */
+    public Value replay(Session session, Value other) throws StyxException {
+        MemoryData temp = new MemoryData(other);
+        for(Map.Entry<Reference, Value> write : writes.entrySet()) {
+            temp.write(session, write.getKey(), write.getValue());
+        }
+        return temp.get();
+    }
+
+    /**
+     * Returns the writes that have been made, in the order they have to be applied.
+     * @return the written references and values (null for removals), never null if tracking is enabled.
+     */
+    public Map<Reference, Value> writes() {
+        return writes == null ? null : Collections.unmodifiableMap(writes);
+    }
+
+    /**
+     * Records a read of the given reference, unless it or one of its ancestors has been written before.
+     */
+    private void track(Reference ref) {
+        if(reads != null) {
+            if(!writes.isEmpty()) {
+                for(Reference cur = ref; cur != null; cur = cur.parent()) {
+                    if(writes.containsKey(cur)) {
+                        return;
+                    }
+                }
+            }
+            reads.add(new IdentityWrapper<Reference>(ref));
+        }
+    }
+
+    /**
+     * Returns the value of the given reference within the given (immutable) root value.
+     * @param val the root value, can be null.
+     * @param ref the reference whose value is to be returned, must not be null.
+     * @return the value, null if not existing.
+     */
+    static Value get(Value val, Reference ref) {
+        int refl = ref.level();
+        for(int curl = 1; curl <= refl && val != null; curl++) {
+            val = val.isComplex() ? val.asComplex().get(ref.parent(curl).name()) : null;
+        }
+        return val;
+    }
+
     /**
      * Returns the object identified by the given reference.
      * <p>
@@ -121,21 +295,21 @@ public final class MemoryData implements DataProvider {
         int          refl = ref.level();
         Reference cur  = ref;
         int          curl = refl;
-        MemoryObject obj  = cache.get(new IdentityWrapper<Reference>(cur));
+        MemoryObject obj  = cache.get(cur);
         while(obj == null && cur.parent() != null) {
             cur = cur.parent();
             curl--;
-            obj = cache.get(new IdentityWrapper<Reference>(cur));
+            obj = cache.get(cur);
         }
         if(obj == null) {
             obj = root;
-            cache.put(new IdentityWrapper<Reference>(cur), obj);
+            cache.put(cur, obj);
         }
         while(curl < refl) {
             curl++;
             cur = ref.parent(curl);
             obj = obj.child(cur.name());
-            cache.put(new IdentityWrapper<Reference>(cur), obj);
+            cache.put(cur, obj);
         }
         return obj;
     }
@@ -1,12 +1,18 @@
 package styx.core.memory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
 
 import styx.ConcurrentException;
 import styx.StyxException;
 import styx.Reference;
 import styx.Session;
 import styx.Value;
+import styx.Watcher;
 import styx.core.DataProvider;
 
 /**
@@ -14,28 +20,41 @@ import styx.core.DataProvider;
  * <p>
  * The in-memory tree of mutable objects is provided by the class MemoryData.
  * This class adds support for transactions and for storing the shared (root) value in an external location.
+ * <p>
+ * Transactions record the references they read and write. If the shared value has been changed by another
+ * transaction in the meantime, the commit checks whether the references that have been read or written still
+ * have the same values. If this is the case, the writes are replayed onto the new shared value, otherwise the commit fails.
+ * <p>
+ * Reads outside of transactions and reads of transactions that have not written anything yet are served directly
+ * from the immutable shared value. Transactions that have not written anything commit without accessing it.
+ * <p>
+ * Watchers are notified by a background thread that compares successive shared values (see SharedValueWatcher).
  */
 public final class SharedMemoryData implements DataProvider {
 
     private SharedValue state;
     private MemoryData  txn;
+    private Value       base; // the shared value the transaction is based on
     private boolean     dirty;
+    private SharedValueWatcher watcher; // created by the first call to watch()
 
     public SharedMemoryData(SharedValue state) {
          this.state = state;
     }
 
     @Override
-    public void close() { }
+    public void close() {
+        if(watcher != null) {
+            watcher.close();
+        }
+    }
 
     @Override
     public Value read(Session session, Reference ref) throws StyxException {
         if(txn != null) {
             return txn.read(session, ref);
         } else {
-            try(MemoryData temp = new MemoryData(state.get(session))) {
-                return temp.read(session, ref);
-            }
+            return MemoryData.get(state.get(session), ref);
         }
     }
 
@@ -54,8 +73,39 @@ public final class SharedMemoryData implements DataProvider {
                         temp.write(session, ref, val);
                         rootval = temp.get();
                     }
-                } while(!state.testset(session, rootval));
+                } while(!state.testset(session, rootval, Collections.singletonMap(ref, val)));
+            }
+        }
+    }
+
+    @Override
+    public List<Value> readAll(Session session, Collection<Reference> refs) throws StyxException {
+        if(txn != null) {
+            return txn.readAll(session, refs);
+        } else {
+            Value rootval = state.get(session); // a single snapshot for all references
+            List<Value> result = new ArrayList<>(refs.size());
+            for(Reference ref : refs) {
+                result.add(MemoryData.get(rootval, ref));
             }
+            return result;
+        }
+    }
+
+    @Override
+    public void writeAll(Session session, Map<Reference, Value> vals) throws StyxException {
+        if(txn != null) {
+            dirty = true;
+            txn.writeAll(session, vals);
+        } else {
+            // All values are written with a single update of the shared value.
+            Value rootval;
+            do {
+                try(MemoryData temp = new MemoryData(state.get(session))) {
+                    temp.writeAll(session, vals);
+                    rootval = temp.get();
+                }
+            } while(!state.testset(session, rootval, vals));
         }
     }
 
@@ -64,12 +114,30 @@ public final class SharedMemoryData implements DataProvider {
         if(txn != null) {
             return txn.browse(session, ref, after, before, maxResults, forward);
         } else {
-            try(MemoryData temp = new MemoryData(state.get(session))) {
-                return temp.browse(session, ref, after, before, maxResults, forward);
-            }
+            return MemoryData.browse(MemoryData.get(state.get(session), ref), after, before, maxResults, forward);
         }
     }
 
+    @Override
+    public void watch(Session session, Reference ref, Watcher watcher) throws StyxException {
+        if(this.watcher == null) {
+            this.watcher = new SharedValueWatcher(state);
+        }
+        this.watcher.watch(session, ref, watcher);
+    }
+
+    @Override
+    public void unwatch(Session session, Watcher watcher) {
+        if(this.watcher != null) {
+            this.watcher.unwatch(watcher);
+        }
+    }
+
+    @Override
+    public ReadWriteLock transactionLock() {
+        return state.transactionLock();
+    }
+
     @Override
     public boolean hasTransaction() {
         return txn != null;
@@ -79,7 +147,8 @@ public final class SharedMemoryData implements DataProvider {
     public void beginTransaction(Session session) throws StyxException {
         // Note: multiple calls are silently ignored.
         if(txn == null) {
-            txn = new MemoryData(state.get(session));
+            base = state.get(session);
+            txn = new MemoryData(base, true);
         }
     }
 
@@ -88,11 +157,24 @@ public final class SharedMemoryData implements DataProvider {
         // Note: multiple calls are silently ignored.
         if(txn != null) {
             MemoryData t = txn;
+            Value b = base;
             txn = null; // no need to close, it's a no-op.
+            base = null;
             if(dirty) {
                 dirty = false;
-                if(!state.testset(session, t.get())) {
-                    throw new ConcurrentException("The data has been changed by another transaction.");
+                Value rootval = t.get();
+                while(!state.testset(session, rootval, t.writes())) {
+                    // Another transaction has committed. Rebase onto its result unless it changed what we have read or written.
+                    Value current = state.get(session);
+                    if(!t.validate(b, current)) {
+                        throw new ConcurrentException("The data has been changed by another transaction.");
+                    }
+                    try {
+                        rootval = t.replay(session, current);
+                    } catch(StyxException e) {
+                        throw new ConcurrentException("The data has been changed by another transaction.", e);
+                    }
+                    b = current;
                 }
             }
         }
@@ -103,6 +185,7 @@ public final class SharedMemoryData implements DataProvider {
         // Note: multiple calls are silently ignored.
         if(txn != null) {
             txn = null; // no need to close, it's a no-op.
+            base = null;
             dirty = false;
             if(retry) {
                 state.monitor(session);
@@ -1,5 +1,9 @@
 package styx.core.memory;
 
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import styx.Reference;
 import styx.StyxException;
 import styx.Session;
 import styx.Value;
@@ -19,6 +23,12 @@ public interface SharedValue extends Cloneable {
      */
     public SharedValue clone();
 
+    /**
+     * Returns the lock used by 'atomic' statements to run transactions exclusively (see DataProvider.transactionLock()).
+     * @return the same lock for all instances that refer to the same shared location, never null.
+     */
+    public ReadWriteLock transactionLock();
+
     /**
      * Reads the value from the shared location.
      * @param session the session this instance belongs to.
@@ -46,6 +56,20 @@ public interface SharedValue extends Cloneable {
      */
     public boolean testset(Session session, Value value) throws StyxException;
 
+    /**
+     * Writes the value to the shared location if the value has not been changed by another session.
+     * <p>
+     * Implementations may store only the given changes instead of the whole value. By default, the whole value is written.
+     * @param session the session this instance belongs to.
+     * @param value the value to be written, can be null.
+     * @param changes the references and values (null for removals) that have been written since the last read or write.
+     * @return true if the value has been written, false if the value has been changed by another session.
+     * @throws StyxException if a storage access occurs
+     */
+    public default boolean testset(Session session, Value value, Map<Reference, Value> changes) throws StyxException {
+        return testset(session, value);
+    }
+
     /**
      * Waits until the value has been changed by another session or until a timeout has expired.
      * <p>
@@ -1,23 +1,62 @@
 package styx.core.memory;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
 
+import styx.Complex;
+import styx.Pair;
+import styx.Reference;
 import styx.Session;
 import styx.StyxException;
 import styx.Value;
+import styx.core.utils.Serializer;
 
 /**
  * Implementation of a shared value stored in a flat file.
+ * <p>
+ * In journal mode, commits that know their changes (see SharedValue.testset()) do not rewrite the file.
+ * Instead, they append the written references and values to a journal file next to it ('.journal').
+ * Readers replay the journal on top of the file (the checkpoint). When the journal has grown beyond
+ * 'styx.file.checkpoint.bytes' (default 1 MB), the file is rewritten and the journal truncated in the background.
+ * <p>
+ * The journal starts with three header lines (in the same format as the version line of the file): the version of the
+ * checkpoint it is based on, the current version and the length of the journal up to the entry of the current version.
+ * Each entry is a line with a list consisting of its version and the writes [ref, value] or [ref] (for removals),
+ * the versions of the entries are consecutive. An entry is appended and forced to disk before the current version
+ * and the length are updated in place, so anything after the length is left over from an append that failed
+ * (e.g. a crash) and is ignored by readers and truncated by the next append.
+ * Instances that are not in journal mode still read the journal and reset it when they rewrite the file.
  */
 public final class SharedValueFile implements SharedValue {
 
@@ -29,6 +68,27 @@ public final class SharedValueFile implements SharedValue {
     private final boolean indent;
     private final int     storeRetires;   // 10..1000 ms, exponential back-off (attempts to lock file before reporting failure)
     private final int     monitorRetries; // 10..1000 ms, exponential back-off (attempts before assuming timeout)
+    private final boolean journal;
+    private final Path    journalFile;
+
+    static long checkpointBytes = Long.getLong("styx.file.checkpoint.bytes", 1 << 20);
+
+    private static final int HEADER = 32; // the length of a version line (without BOM)
+    private static final int JOURNAL_HEADER = 3 * HEADER; // base version, current version and committed length
+
+    /**
+     * The files for which a checkpoint is being written.
+     */
+    private static final Set<Path> checkpoints = ConcurrentHashMap.newKeySet();
+
+    private static final ExecutorService checkpointer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "styx-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
 
     /**
      * The version of the last value read from or written to the file, zero if none.
@@ -39,25 +99,92 @@ public final class SharedValueFile implements SharedValue {
      */
     private int version = 0;
 
+    /**
+     * The last value read from or written to each file, shared by all instances, keyed by the normalized path.
+     * <p>
+     * It is returned by get() without parsing the file as long as the modification times and sizes of the file
+     * and of the journal and the current version have not changed. The values are held softly, so the cached
+     * values of files that are no longer used can be reclaimed.
+     */
+    private static final Map<Path, SoftReference<Snapshot>> cache = new ConcurrentHashMap<>();
+
+    private final Path cacheKey;
+
+    /**
+     * The locks for exclusive transactions of this process, one per file, keyed by the normalized path.
+     */
+    private static final Map<Path, ReadWriteLock> locks = new ConcurrentHashMap<>();
+
     public SharedValueFile(Path file, boolean indent) {
         this(file, indent, 100, 1000);
     }
 
     public SharedValueFile(Path file, boolean indent, int storeRetires, int monitorRetries) {
+        this(file, indent, storeRetires, monitorRetries, false);
+    }
+
+    public SharedValueFile(Path file, boolean indent, boolean journal) {
+        this(file, indent, 100, 1000, journal);
+    }
+
+    public SharedValueFile(Path file, boolean indent, int storeRetires, int monitorRetries, boolean journal) {
         this.file   = file;
         this.indent = indent;
         this.storeRetires   = storeRetires;
         this.monitorRetries = monitorRetries;
+        this.journal        = journal;
+        this.journalFile    = FileSystems.getDefault().getPath(file.toString() + ".journal");
+        this.cacheKey       = file.toAbsolutePath().normalize();
     }
 
     @Override
     public SharedValue clone() {
-        return new SharedValueFile(file, indent, storeRetires, monitorRetries);
+        return new SharedValueFile(file, indent, storeRetires, monitorRetries, journal);
+    }
+
+    @Override
+    public ReadWriteLock transactionLock() {
+        ReadWriteLock lock = locks.get(cacheKey);
+        if(lock == null) {
+            ReadWriteLock prev = locks.putIfAbsent(cacheKey, lock = new ReentrantReadWriteLock());
+            if(prev != null) {
+                lock = prev;
+            }
+        }
+        return lock;
     }
 
     @Override
     public Value get(Session session) throws StyxException {
-        return load(session);
+        Snapshot snapshot = cached();
+        if(snapshot != null && snapshot.matches(this)) {
+            // The file exists and is unchanged, so only the version header of the journal (if there is one)
+            // or of the file has to be read to confirm a hit.
+            int current = snapshot.journalTime != null ? journalVersion() : readVersion(file);
+            if(current == snapshot.version) {
+                version = current;
+                return snapshot.value;
+            }
+        }
+        Snapshot stamp = new Snapshot(this, 0, null); // before loading, so that concurrent changes are detected.
+        Value value = load(session);
+        remember(stamp, value);
+        return value;
+    }
+
+    /**
+     * Puts the value of the current version into the cache.
+     * @param stamp the modification times and sizes of the file and of the journal at or before reading or writing it.
+     */
+    private void remember(Snapshot stamp, Value value) {
+        if(version != 0) {
+            cache.put(cacheKey, new SoftReference<>(new Snapshot(stamp, version, value)));
+        }
+    }
+
+    private Snapshot cached() {
+        SoftReference<Snapshot> ref = cache.get(cacheKey);
+        return ref == null ? null : ref.get();
     }
 
     @Override
@@ -70,18 +197,85 @@ public final class SharedValueFile implements SharedValue {
         return store(session, value, true);
     }
 
+    @Override
+    public boolean testset(Session session, Value value, Map<Reference, Value> changes) throws StyxException {
+        if(!journal) {
+            return store(session, value, true);
+        }
+        return append(session, value, changes);
+    }
+
     @Override
     public void monitor(Session session) {
-        int retries = monitorRetries;
-        int millis = 10;
-        while(readVersion(file) == version && retries-- > 0) {
-            LOG.info("Monitoring file '"+ file + "' (version="+version+").");
-            sleepSafely(millis);
-            millis = Math.min(millis * 3 / 2, 1000);
+        // Wait for notifications of the file and its journal, polling is only the fallback if they do not arrive.
+        FileNotifier.Signal signal = FileNotifier.acquire(file);
+        try {
+            int retries = monitorRetries;
+            int millis = 10;
+            while(true) {
+                long seen = signal.changes();
+                if(currentVersion() != version || retries <= 0 || Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                LOG.info("Monitoring file '"+ file + "' (version="+version+").");
+                if(!signal.await(seen, millis)) {
+                    retries--;
+                    millis = Math.min(millis * 3 / 2, 1000);
+                }
+            }
+        } finally {
+            FileNotifier.release(signal);
         }
     }
 
     private Value load(Session session) throws StyxException {
+        int retries = storeRetires;
+        int millis = 10;
+        while(true) {
+            Value value = loadCheckpoint(session);
+            if(version == 0 || !Files.exists(journalFile)) {
+                return value; // a journal without file is left over and will be reset by the next write.
+            }
+            // Replay the journal, unless it belongs to another checkpoint (which is being written right now).
+            try(BufferedReader stm = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+                int base    = readVersion(stm);
+                int current = readVersion(stm);
+                readVersion(stm); // the committed length, entries after the current version are never read.
+                if(base == version && base != 0) {
+                    MemoryData data = new MemoryData(value);
+                    int applied = base;
+                    String line;
+                    while(applied != current && (line = stm.readLine()) != null) {
+                        int expected = incrementVersion(applied);
+                        if(entryVersion(line) != expected) {
+                            throw new StyxException("Invalid journal entry (version="+entryVersion(line)+", expected="+expected+").");
+                        }
+                        applied = applyEntry(session, data, line);
+                    }
+                    if(applied == current) {
+                        LOG.info("Loaded journal '"+ journalFile + "' (version="+current+").");
+                        this.version = current;
+                        return data.get();
+                    }
+                }
+            } catch(NoSuchFileException e) {
+                continue; // the journal has been replaced, start over.
+            } catch(IOException | StyxException e) {
+                LOG.severe("Failed to load journal '"+ journalFile + "' (invalid path or data or access denied): " + e);
+                throw new StyxException("Failed to load journal '"+ journalFile + "' (invalid path or data or access denied): " + e);
+            }
+            if(retries-- > 0) {
+                LOG.info("Waiting for journal '"+ journalFile + "' to be written (concurrent checkpoint).");
+                sleepSafely(millis);
+                millis = Math.min(millis * 3 / 2, 1000);
+            } else {
+                LOG.severe("Failed to load journal '"+ journalFile + "' (does not match file and timeout expired).");
+                throw new StyxException("Failed to load journal '"+ journalFile + "' (does not match file and timeout expired).");
+            }
+        }
+    }
+
+    private Value loadCheckpoint(Session session) throws StyxException {
         // Check if the file exists. If not, assume we are creating a new file with version zero.
         if(!Files.exists(file)) {
             // Assume success, reset the version.
@@ -117,40 +311,16 @@ public final class SharedValueFile implements SharedValue {
     }
 
     private boolean store(Session session, Value value, boolean test) throws StyxException {
-        Path file2 = FileSystems.getDefault().getPath(file.toString() + ".lock");
-        int retries = storeRetires;
-        int millis = 10;
-        while(true) {
-            // Create a temporary file. This operation is atomic and orders writers. If creation fails,
-            // we assume that another session is currently writing a new value and wait until it is done.
-            try {
-                Files.createFile(file2);
-            } catch(FileAlreadyExistsException e) {
-                if(retries-- > 0) {
-                    // Do not return false immediately since retrying before the new value is written is not very smart.
-                    LOG.info("Waiting for file '"+ file + "' to be written (concurrent modification, old version="+version+").");
-                    sleepSafely(millis);
-                    millis = Math.min(millis * 3 / 2, 1000);
-                    continue;
-                } else {
-                    LOG.severe("Failed to store file '"+ file + "' (locked and timeout expired): " + e);
-                    throw new StyxException("Failed to store file '"+ file + "' (locked and timeout expired).", e);
-                }
-            } catch (IOException e) {
-                LOG.severe("Failed to store file '"+ file + "' (invalid path or access denied): " + e);
-                throw new StyxException("Failed to store file '"+ file + "' (invalid path or access denied).", e);
-            }
-            break;
-        }
+        Path file2 = lock();
 
         // We got the lock, now check the version of the existing file.
-        if(test && readVersion(file) != version) {
+        if(test && currentVersion() != version) {
             LOG.info("Not storing file '"+ file + "' (concurrent modification, old version="+version+").");
             deleteSafely(file2);
             return false;
         }
         if(!test) {
-            version = readVersion(file); // Use the latest version, even if that value has never been read.
+            version = currentVersion(); // Use the latest version, even if that value has never been read.
         }
 
         // Write the value to the temporary file. This may take some time for large values.
@@ -165,6 +335,17 @@ public final class SharedValueFile implements SharedValue {
             throw new StyxException("Failed to store file '"+ file + "' (could not write to temporary file).", e);
         }
 
+        // An existing journal is replaced by an empty one for the new version before the file is replaced.
+        // Until then, readers wait because the journal does not match the file and writers fail because of the version.
+        if(Files.exists(journalFile)) {
+            try {
+                resetJournal(incrementVersion(version));
+            } catch(StyxException e) {
+                deleteSafely(file2);
+                throw e;
+            }
+        }
+
         // Replace the original file with the temporary file.
         // This is guaranteed to be atomic (or it might fail on some platforms).
         try {
@@ -179,9 +360,285 @@ public final class SharedValueFile implements SharedValue {
         // Successful, remember the new version.
         LOG.info("Stored file '"+ file + "' (version="+incrementVersion(version)+").");
         version = incrementVersion(version);
+        remember(new Snapshot(this, 0, null), value);
         return true;
     }
 
+    /**
+     * Appends the changes to the journal (creating it if necessary) instead of rewriting the file.
+     */
+    private boolean append(Session session, Value value, Map<Reference, Value> changes) throws StyxException {
+        if(!Files.exists(file)) {
+            return store(session, value, true); // the first value is always stored as checkpoint.
+        }
+        Path file2 = lock();
+        try {
+            int current = currentVersion();
+            if(current != version) {
+                LOG.info("Not appending to journal '"+ journalFile + "' (concurrent modification, old version="+version+").");
+                return false;
+            }
+            if(!Files.exists(journalFile)) {
+                resetJournal(current);
+            }
+            int next = incrementVersion(current);
+            StringWriter entry = new StringWriter();
+            Serializer.serialize(encodeEntry(session, next, changes), entry, false);
+            entry.write('\n');
+            byte[] bytes = entry.toString().getBytes(StandardCharsets.UTF_8);
+            long size;
+            try(FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Remove what a failed append may have left after the committed length.
+                long length = committedLength(channel);
+                if(channel.size() > length) {
+                    LOG.warning("Truncating journal '"+ journalFile + "' (incomplete entry after version="+current+").");
+                    channel.truncate(length);
+                }
+                // Append the entry and force it to disk first, then update the current version and the length in place.
+                size = length + bytes.length;
+                channel.write(ByteBuffer.wrap(bytes), length);
+                channel.force(true);
+                channel.write(ByteBuffer.wrap((versionLine(next) + versionLine((int) size)).getBytes(StandardCharsets.US_ASCII)), HEADER);
+            } catch(IOException e) {
+                LOG.severe("Failed to append to journal '"+ journalFile + "': " + e);
+                throw new StyxException("Failed to append to journal '"+ journalFile + "'.", e);
+            }
+            LOG.info("Appended to journal '"+ journalFile + "' (version="+next+").");
+            version = next;
+            remember(new Snapshot(this, 0, null), value);
+            if(size > checkpointBytes && checkpoints.add(file)) {
+                scheduleCheckpoint(value, next);
+            }
+            return true;
+        } finally {
+            deleteSafely(file2);
+        }
+    }
+
+    /**
+     * Rewrites the file with the given value and version in the background and removes the journal entries up to this version.
+     */
+    private void scheduleCheckpoint(final Value value, final int checkpointVersion) {
+        checkpointer.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    checkpoint(value, checkpointVersion);
+                } catch(StyxException | RuntimeException e) {
+                    LOG.severe("Failed to write checkpoint of file '"+ file + "': " + e);
+                } finally {
+                    checkpoints.remove(file);
+                }
+            }
+        });
+    }
+
+    private void checkpoint(Value value, int checkpointVersion) throws StyxException {
+        // Write the new checkpoint without holding the lock, commits can continue in the meantime.
+        Path temp;
+        try {
+            temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".checkpoint");
+            try(Writer stm = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writeVersion(stm, checkpointVersion);
+                Serializer.serialize(value, stm, indent);
+            }
+        } catch(IOException e) {
+            throw new StyxException("Failed to write checkpoint.", e);
+        }
+        Path file2 = lock();
+        try {
+            // Keep the entries that have been appended after the checkpoint's version.
+            List<String> entries = new ArrayList<>();
+            int current;
+            try(BufferedReader stm = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+                readVersion(stm);
+                current = readVersion(stm);
+                readVersion(stm);
+                boolean found = false;
+                String line;
+                while((line = stm.readLine()) != null) {
+                    int entryVersion = entryVersion(line);
+                    if(found) {
+                        entries.add(line);
+                    } else {
+                        found = entryVersion == checkpointVersion;
+                    }
+                    if(entryVersion == current) {
+                        break; // anything after the current version is left over from a failed append.
+                    }
+                }
+                if(!found) {
+                    LOG.info("Not writing checkpoint of file '"+ file + "' (version="+checkpointVersion+" has been replaced).");
+                    return;
+                }
+            } catch(IOException e) {
+                throw new StyxException("Failed to read journal.", e);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new StyxException("Failed to move checkpoint.", e);
+            }
+            writeJournal(checkpointVersion, current, entries);
+            LOG.info("Stored checkpoint of file '"+ file + "' (version="+checkpointVersion+", remaining entries="+entries.size()+").");
+        } finally {
+            deleteSafely(file2);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) { }
+        }
+    }
+
+    private void resetJournal(int version) throws StyxException {
+        writeJournal(version, version, Collections.<String>emptyList());
+    }
+
+    /**
+     * Replaces the journal atomically.
+     */
+    private void writeJournal(int base, int current, List<String> entries) throws StyxException {
+        Path temp = FileSystems.getDefault().getPath(journalFile.toString() + ".tmp");
+        long length = JOURNAL_HEADER;
+        for(String entry : entries) {
+            length += entry.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        try {
+            try(Writer stm = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                stm.write(versionLine(base));
+                stm.write(versionLine(current));
+                stm.write(versionLine((int) length));
+                for(String entry : entries) {
+                    stm.write(entry);
+                    stm.write('\n');
+                }
+            }
+            Files.move(temp, journalFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException e) {
+            LOG.severe("Failed to write journal '"+ journalFile + "': " + e);
+            throw new StyxException("Failed to write journal '"+ journalFile + "'.", e);
+        }
+    }
+
+    private static Value encodeEntry(Session session, int version, Map<Reference, Value> changes) {
+        List<Value> result = new ArrayList<>();
+        result.add(session.number(version));
+        for(Map.Entry<Reference, Value> change : changes.entrySet()) {
+            Complex write = session.complex().add(change.getKey());
+            result.add(change.getValue() == null ? write : write.add(change.getValue()));
+        }
+        return session.complex().addAll(result);
+    }
+
+    /**
+     * Applies a journal entry.
+     * @return the version of the entry.
+     */
+    private static int applyEntry(Session session, MemoryData data, String line) throws StyxException {
+        Complex entry = session.deserialize(line).asComplex();
+        int version = 0;
+        for(Pair<Value, Value> item : entry) {
+            if(version == 0) {
+                version = item.val().asNumber().toInteger();
+            } else {
+                Complex write = item.val().asComplex();
+                data.write(session, write.get(session.number(1)).asReference(), write.get(session.number(2)));
+            }
+        }
+        return version;
+    }
+
+    private static int entryVersion(String line) {
+        int end = line.indexOf(',');
+        try {
+            return Integer.parseInt(line.substring(1, end < 0 ? line.length() - 1 : end));
+        } catch(RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Reads the length of the journal up to the entry of the current version from its header.
+     */
+    private static long committedLength(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER);
+        channel.read(buffer, 2 * HEADER);
+        int length = readVersion(new StringReader(new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII)));
+        if(length < JOURNAL_HEADER || length > channel.size()) {
+            throw new IOException("Invalid journal header (length="+length+").");
+        }
+        return length;
+    }
+
+    /**
+     * Returns the current version, as found in the journal or in the file.
+     */
+    private int currentVersion() {
+        int version = readVersion(file);
+        if(version == 0) {
+            return 0; // a journal without file is ignored.
+        }
+        int current = journalVersion();
+        return current >= 0 ? current : version;
+    }
+
+    /**
+     * Returns the current version found in the journal, -1 if there is no journal.
+     */
+    private int journalVersion() {
+        try(Reader stm = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            readVersion(stm);
+            return readVersion(stm);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Creates the lock file.
+     * @return the lock file, to be deleted by the caller.
+     */
+    private Path lock() throws StyxException {
+        Path file2 = FileSystems.getDefault().getPath(file.toString() + ".lock");
+        FileNotifier.Signal signal = FileNotifier.acquire(file);
+        try {
+            int retries = storeRetires;
+            int millis = 10;
+            while(true) {
+                // Create a temporary file. This operation is atomic and orders writers. If creation fails,
+                // we assume that another session is currently writing a new value and wait until it is done.
+                long seen = signal.changes();
+                try {
+                    Files.createFile(file2);
+                } catch(FileAlreadyExistsException e) {
+                    if(retries > 0) {
+                        // Do not return false immediately since retrying before the new value is written is not very smart.
+                        // The removal (or move) of the lock file is notified, polling is only the fallback.
+                        LOG.info("Waiting for file '"+ file + "' to be written (concurrent modification, old version="+version+").");
+                        if(!signal.await(seen, millis)) {
+                            if(Thread.currentThread().isInterrupted()) {
+                                LOG.severe("Failed to store file '"+ file + "' (locked and interrupted).");
+                                throw new StyxException("Failed to store file '"+ file + "' (locked and interrupted).", e);
+                            }
+                            retries--;
+                            millis = Math.min(millis * 3 / 2, 1000);
+                        }
+                        continue;
+                    } else {
+                        LOG.severe("Failed to store file '"+ file + "' (locked and timeout expired): " + e);
+                        throw new StyxException("Failed to store file '"+ file + "' (locked and timeout expired).", e);
+                    }
+                } catch (IOException e) {
+                    LOG.severe("Failed to store file '"+ file + "' (invalid path or access denied): " + e);
+                    throw new StyxException("Failed to store file '"+ file + "' (invalid path or access denied).", e);
+                }
+                break;
+            }
+            return file2;
+        } finally {
+            FileNotifier.release(signal);
+        }
+    }
+
     private static int incrementVersion(int version) {
         if(version < 0x7FFFFFFF) {
             return version + 1;
@@ -221,11 +678,16 @@ public final class SharedValueFile implements SharedValue {
 
     private static void writeVersion(Writer stm, int version) throws IOException {
         stm.write(BOM);
+        stm.write(versionLine(version));
+    }
+
+    private static String versionLine(int version) {
+        StringBuilder line = new StringBuilder(HEADER);
         for(int i = 0; i < 31; i++) {
             boolean bit = (version & (1<<i)) != 0;
-            stm.write(bit ? (byte) '\t' : (byte) ' ');
+            line.append(bit ? '\t' : ' ');
         }
-        stm.write((byte) '\n');
+        return line.append('\n').toString();
     }
 
     private static boolean sleepSafely(int millis) {
@@ -244,4 +706,53 @@ public final class SharedValueFile implements SharedValue {
             LOG.severe("Failed to delete temporary file after '"+file+"' error or concurrent modification: " + e);
         }
     }
+
+    /**
+     * A value together with its version and the modification times and sizes of the file and of the journal.
+     */
+    private static final class Snapshot {
+        private final int      version;
+        private final Value    value;
+        private final FileTime fileTime;
+        private final long     fileSize;
+        private final FileTime journalTime; // null if there is no journal
+        private final long     journalSize;
+
+        private Snapshot(SharedValueFile owner, int version, Value value) {
+            this.version = version;
+            this.value   = value;
+            BasicFileAttributes attrs = attributes(owner.file);
+            this.fileTime = attrs == null ? null : attrs.lastModifiedTime();
+            this.fileSize = attrs == null ? -1 : attrs.size();
+            attrs = attributes(owner.journalFile);
+            this.journalTime = attrs == null ? null : attrs.lastModifiedTime();
+            this.journalSize = attrs == null ? -1 : attrs.size();
+        }
+
+        private Snapshot(Snapshot stamp, int version, Value value) {
+            this.version     = version;
+            this.value       = value;
+            this.fileTime    = stamp.fileTime;
+            this.fileSize    = stamp.fileSize;
+            this.journalTime = stamp.journalTime;
+            this.journalSize = stamp.journalSize;
+        }
+
+        /**
+         * Checks if the file and the journal still have the same modification times and sizes.
+         */
+        private boolean matches(SharedValueFile owner) {
+            Snapshot other = new Snapshot(owner, 0, null);
+            return fileTime != null && fileTime.equals(other.fileTime) && fileSize == other.fileSize &&
+                    Objects.equals(journalTime, other.journalTime) && journalSize == other.journalSize;
+        }
+
+        private static BasicFileAttributes attributes(Path file) {
+            try {
+                return Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
 }
@@ -1,18 +1,34 @@
 package styx.core.memory;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 import styx.Session;
 import styx.Value;
 
 /**
  * Implementation of a shared value in memory.
+ * <p>
+ * The implementation is lock-free: changes are detected by identity and testset() is a compare-and-set.
+ * Threads in monitor() are parked and only woken when the version they are monitoring is replaced.
  */
 public final class SharedValueMemory implements SharedValue {
 
     /**
-     * The actual shared value, always an array with a single element.
-     * The shared value may be null and multiple instances may refer to the same array.
+     * The maximum time a thread waits in monitor().
+     */
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * The actual shared value and its waiting threads.
+     * Multiple instances may refer to the same state.
      */
-    private final Value[] state;
+    private final State state;
 
     /**
      * The last value read or written, used to detect changes in testset() and monitor().
@@ -24,14 +40,14 @@ public final class SharedValueMemory implements SharedValue {
      * @param value the initial value of the new shared value.
      */
     public SharedValueMemory(Value value) {
-        this.state = new Value[] { value };
+        this.state = new State(value);
     }
 
     /**
      * Constructs a new instance that references an existing shared value.
      * @param state the shared value to reference, must not be null.
      */
-    private SharedValueMemory(Value[] state) {
+    private SharedValueMemory(State state) {
         this.state = state;
     }
 
@@ -40,46 +56,87 @@ public final class SharedValueMemory implements SharedValue {
         return new SharedValueMemory(state);
     }
 
+    @Override
+    public ReadWriteLock transactionLock() {
+        return state.lock;
+    }
+
     @Override
     public Value get(Session session) {
-        synchronized(state) {
-            base = state[0];
-            return base;
-        }
+        base = state.value.get();
+        return base;
     }
 
     @Override
     public void set(Session session, Value value) {
-        synchronized(state) {
-            base = value;
-            state[0] = value;
-            state.notifyAll();
-        }
+        base = value;
+        state.wake(state.value.getAndSet(value));
     }
 
     @Override
     public boolean testset(Session session, Value value) {
-        synchronized(state) {
-            if(state[0] != base) {
-                return false;
-            }
-            base = value;
-            state[0] = value;
-            state.notifyAll();
-            return true;
+        Value prev = base;
+        if(!state.value.compareAndSet(prev, value)) {
+            return false;
         }
+        base = value;
+        state.wake(prev);
+        return true;
     }
 
     @Override
     public void monitor(Session session) {
-        synchronized(state) {
-            while(state[0] == base) {
-                try {
-                    state.wait(10000);
-                } catch (InterruptedException e) {
+        // Register before checking, so that a change between the check and parking is not missed.
+        Waiter waiter = new Waiter(Thread.currentThread(), base);
+        state.waiters.add(waiter);
+        try {
+            long deadline = System.nanoTime() + TIMEOUT;
+            while(state.value.get() == base) {
+                long remaining = deadline - System.nanoTime();
+                if(remaining <= 0 || Thread.interrupted()) {
                     break;
                 }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            state.waiters.remove(waiter);
+        }
+    }
+
+    /**
+     * The shared part of instances referring to the same value.
+     */
+    private static final class State {
+        private final AtomicReference<Value> value;
+        private final Queue<Waiter>          waiters = new ConcurrentLinkedQueue<>();
+        private final ReadWriteLock          lock    = new ReentrantReadWriteLock();
+
+        private State(Value value) {
+            this.value = new AtomicReference<>(value);
+        }
+
+        /**
+         * Wakes the threads that are monitoring the given version, which has just been replaced.
+         */
+        private void wake(Value replaced) {
+            for(Waiter waiter : waiters) {
+                if(waiter.version == replaced) {
+                    LockSupport.unpark(waiter.thread);
+                }
             }
         }
     }
+
+    /**
+     * A thread waiting in monitor() and the version it is monitoring.
+     */
+    private static final class Waiter {
+        private final Thread thread;
+        private final Value  version;
+
+        private Waiter(Thread thread, Value version) {
+            this.thread  = thread;
+            this.version = version;
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package styx.core.memory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+import styx.Reference;
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+import styx.Watcher;
+
+/**
+ * Notifies the watchers of a session about changes of the shared value, used by SharedMemoryData.
+ * <p>
+ * A background thread waits for changes of the shared value (see SharedValue.monitor()) and compares the values of
+ * the watched references in successive versions. Unchanged subtrees are usually the same instance in both versions,
+ * so that comparing them is cheap. New watchers start from the version the thread has seen last, so that they are
+ * compared on the same basis as the existing ones. Since sessions are not thread-safe, the thread does not use the
+ * session of the owner but the detached session, which has no state. The watchers are notified on this thread.
+ * <p>
+ * After a change, the thread waits for 'styx.watch.delay' milliseconds (default 10) before reading the shared value,
+ * so that bursts of changes are coalesced into a single notification per watcher. The thread terminates when the
+ * last watcher has been removed.
+ */
+final class SharedValueWatcher {
+
+    private static final Logger LOG = Logger.getLogger(SharedValueWatcher.class.toString());
+
+    static long delay = Long.getLong("styx.watch.delay", 10);
+
+    private final SharedValue state; // only cloned, every thread uses its own instance
+
+    private final Map<Watcher, Watch> watches = new LinkedHashMap<>();
+    private Value  root;
+    private Thread thread;
+
+    SharedValueWatcher(SharedValue state) {
+        this.state = state;
+    }
+
+    /**
+     * Adds a watcher, starting the thread if necessary.
+     * @param session the session of the caller, used on the calling thread only.
+     */
+    synchronized void watch(Session session, Reference ref, Watcher watcher) throws StyxException {
+        if(thread == null) {
+            // A new instance, since a stopped thread may still be using its instance.
+            final SharedValue value = state.clone();
+            root = value.get(session);
+            thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    dispatch(value);
+                }
+            }, "styx-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        // The thread compares the next version with its root, which may be older than the current value.
+        watches.put(watcher, new Watch(ref, MemoryData.get(root, ref)));
+    }
+
+    synchronized void unwatch(Watcher watcher) {
+        watches.remove(watcher);
+        if(watches.isEmpty()) {
+            stop();
+        }
+    }
+
+    synchronized void close() {
+        watches.clear();
+        stop();
+    }
+
+    private void stop() {
+        if(thread != null) {
+            thread.interrupt(); // wake it up from monitor()
+            thread = null;
+        }
+    }
+
+    private void dispatch(SharedValue value) {
+        Thread self = Thread.currentThread();
+        try {
+            Session session = SessionManager.getDetachedSession();
+            while(true) {
+                synchronized(this) {
+                    if(thread != self) {
+                        return;
+                    }
+                }
+                value.monitor(session);
+                if(delay > 0) {
+                    Thread.sleep(delay);
+                }
+                Value next = value.get(session);
+                List<Watch> changes = new ArrayList<>();
+                List<Watcher> watchers = new ArrayList<>();
+                synchronized(this) {
+                    if(thread != self) {
+                        return;
+                    }
+                    if(next == root) {
+                        continue;
+                    }
+                    root = next;
+                    for(Map.Entry<Watcher, Watch> entry : watches.entrySet()) {
+                        Watch watch = entry.getValue();
+                        Value val = MemoryData.get(next, watch.ref);
+                        if(!Objects.equals(val, watch.val)) {
+                            entry.setValue(watch = new Watch(watch.ref, val));
+                            changes.add(watch);
+                            watchers.add(entry.getKey());
+                        }
+                    }
+                }
+                for(int i = 0; i < changes.size(); i++) {
+                    try {
+                        watchers.get(i).changed(changes.get(i).ref, changes.get(i).val);
+                    } catch(RuntimeException e) {
+                        LOG.warning("Watcher failed: " + e);
+                    }
+                }
+            }
+        } catch(InterruptedException e) {
+            // stopped while coalescing changes.
+        } catch(StyxException | RuntimeException e) {
+            LOG.severe("Failed to watch the shared value, stopping all watchers: " + e);
+            synchronized(this) {
+                if(thread == self) {
+                    watches.clear();
+                    thread = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * A watched reference and the value its watcher has seen last.
+     */
+    private static final class Watch {
+        private final Reference ref;
+        private final Value     val;
+
+        private Watch(Reference ref, Value val) {
+            this.ref = ref;
+            this.val = val;
+        }
+    }
+}
@@ -15,11 +15,30 @@ import styx.core.expressions.Scope;
 
 public final class Interpreter implements EvalProvider {
 
+    private final ScriptCache cache;
+
+    public Interpreter() {
+        this(new ScriptCache());
+    }
+
+    public Interpreter(ScriptCache cache) {
+        this.cache = cache;
+    }
+
+    public ScriptCache getCache() {
+        return cache;
+    }
+
     @Override
     public Function parse(Session session, Complex environment, String script, boolean compile) throws StyxException {
         if(script == null) {
             return null;
         }
+        Complex empty = session.complex(); // the compiled constants depend on the values the session creates
+        Function cached = cache.get(script, environment, empty, compile);
+        if(cached != null) {
+            return cached;
+        }
         List<Expression> stmts = parse(session, script);
         if(stmts == null) {
             return null;
@@ -28,7 +47,9 @@ public final class Interpreter implements EvalProvider {
         if(compile) {
             function = function.compile(new Scope(session, environment), null);
         }
-        return function.function();
+        Function result = function.function();
+        cache.put(script, environment, empty, compile, result);
+        return result;
     }
 
     private List<Expression> parse(Session session, String script) throws StyxException {
@@ -1,6 +1,6 @@
 //
-// NOTE: This file has been generated by RSPT (the Really Simple Parser Tool).
-//       Do not modify the contents of this file as it will be overwritten!
+// NOTE: This file was originally generated by RSPT (the Really Simple Parser Tool) from grammar.rspt.txt,
+//       it is now maintained by hand. Do not regenerate it, grammar changes have to be applied here as well.
 //
 package styx.core.parser;
 
@@ -11,7 +11,10 @@ import styx.core.expressions.*;
 
 public class Parser {
 
-    private char[] _input;
+    private CharSequence _input;
+    private int _length;
+    private final Ref<Object> _ignored = new Ref<Object>(null);
+    private final Memo _memo = new Memo();
 
     public Parser() { }
 
@@ -42,947 +45,839 @@ public class Parser {
     }
 
 
-    public boolean Parse_ROOT_STATEMENT_LIST(String input, final Ref<ArrayList<Expression>> output, final Ref_int pos) {
-        _input     = input.toCharArray();
+    public boolean Parse_ROOT_STATEMENT_LIST(CharSequence input, final Ref<ArrayList<Expression>> output, final Ref_int pos) {
+        _input     = input;
+        _length    = input.length();
         pos.val    = 0;
         output.val = null;
-        return nt_ROOT_STATEMENT_LIST(pos, output) && pos.val == _input.length;
+        try {
+            final int end = nt_ROOT_STATEMENT_LIST(0, output);
+            if(end < 0) return false;
+            pos.val = end;
+            return end == _length;
+        } finally {
+            _input = null;
+            _memo.clear();
+        }
     }
 
-    public boolean Parse_ROOT_VALUE(String input, final Ref<Value> output, final Ref_int pos) {
-        _input     = input.toCharArray();
+    public boolean Parse_ROOT_VALUE(CharSequence input, final Ref<Value> output, final Ref_int pos) {
+        _input     = input;
+        _length    = input.length();
         pos.val    = 0;
         output.val = null;
-        return nt_ROOT_VALUE(pos, output) && pos.val == _input.length;
+        try {
+            final int end = nt_ROOT_VALUE(0, output);
+            if(end < 0) return false;
+            pos.val = end;
+            return end == _length;
+        } finally {
+            _input = null;
+            _memo.clear();
+        }
     }
 
-    private boolean nt_ROOT_STATEMENT_LIST(final Ref_int pos, final Ref<ArrayList<Expression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_ROOT_STATEMENT_LIST(final int pos, final Ref<ArrayList<Expression>> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WSML(pos1, output1)) {
+            final int pos1 = nt_WSML(pos0, _ignored);
+            if(pos1 >= 0) {
                 final Ref<ArrayList<Expression>> output2 = new Ref<ArrayList<Expression>>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_STMT_BLOCK_HEAD(pos2, output2)) {
-                    final Ref<Object> output3 = new Ref<Object>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EOF(pos3, output3)) {
+                final int pos2 = nt_STMT_BLOCK_HEAD(pos1, output2);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EOF(pos2, _ignored);
+                    if(pos3 >= 0) {
                         output.val = output2.val;
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_ROOT_VALUE(final Ref_int pos, final Ref<Value> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_ROOT_VALUE(final int pos, final Ref<Value> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WSML(pos1, output1)) {
+            final int pos1 = nt_WSML(pos0, _ignored);
+            if(pos1 >= 0) {
                 final Ref<Expression> output2 = new Ref<Expression>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_VALUE(pos2, output2)) {
-                    final Ref<Object> output3 = new Ref<Object>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_WSML(pos3, output3)) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_EOF(pos4, output4)) {
+                final int pos2 = nt_VALUE(pos1, output2);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_WSML(pos2, _ignored);
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_EOF(pos3, _ignored);
+                        if(pos4 >= 0) {
                             output.val = Constant.unwrap(output2.val);
-                            pos.val = pos4.val;
-                            return true;
+                            return pos4;
                         }
                     }
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WSML(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_EOF(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_WSML(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_EOF(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_WS(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_WS(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tset(pos1, t_1 /* " \t\r" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tset(pos0, t_1 /* " \t\r" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_COMMENT_C(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_COMMENT_C(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_COMMENT_P(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_COMMENT_P(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_WSML(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_WSML(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tset(pos1, t_2 /* " \t\r\n" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tset(pos0, t_2 /* " \t\r\n" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_COMMENT_C(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_COMMENT_C(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_COMMENT_P(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_COMMENT_P(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_SEP(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_SEP(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WS(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_SEP2(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_WS(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_SEP2(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_SEP2(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_SEP2(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '\n')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
-                    final Ref<Object> output3 = new Ref<Object>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_SEP3(pos3, output3)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = tc(pos0, '\n');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_SEP3(pos2, _ignored);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, ',')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tc(pos0, ',');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_SEP3(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_SEP3(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, ',')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tc(pos0, ',');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WSML(pos1, output1)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_WSML(pos0, _ignored);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_COMMENT_C(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_COMMENT_C(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_3 /* " / *" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_COMMENT_C_TAIL(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = ts(pos0, t_3 /* " / *" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_COMMENT_C_TAIL(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_COMMENT_P(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_COMMENT_P(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_4 /* " /  / " */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_COMMENT_P_TAIL(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = ts(pos0, t_4 /* " /  / " */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_COMMENT_P_TAIL(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_COMMENT_C_TAIL(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_COMMENT_C_TAIL(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_COMMENT_C(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_COMMENT_C_TAIL(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_COMMENT_C(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_COMMENT_C_TAIL(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tnotset(pos1, t_5 /* "*" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_COMMENT_C_TAIL(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tnotset(pos0, t_5 /* "*" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_COMMENT_C_TAIL(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '*')) {
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(tnotset(pos2, t_6 /* " / " */)) {
-                    final Ref<Object> output3 = new Ref<Object>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_COMMENT_C_TAIL(pos3, output3)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = tc(pos0, '*');
+            if(pos1 >= 0) {
+                final int pos2 = tnotset(pos1, t_6 /* " / " */);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_COMMENT_C_TAIL(pos2, _ignored);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_7 /* "* / " */)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = ts(pos0, t_7 /* "* / " */);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_COMMENT_P_TAIL(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_COMMENT_P_TAIL(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tnotset(pos1, t_8 /* "\n" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_COMMENT_P_TAIL(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tnotset(pos0, t_8 /* "\n" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_COMMENT_P_TAIL(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EOF(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EOF(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            if(pos.val == _input.length) return true;
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tset(pos1, t_9 /* "" */)) {
-                pos.val = pos1.val;
-                return true;
+            if(pos == _length) return pos;
+            final int pos1 = tset(pos0, t_9 /* "" */);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_VALUE(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_VALUE(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<Binary> output1 = new Ref<Binary>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_BINARY(pos1, output1)) {
+            final int pos1 = nt_BINARY(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = new Constant(output1.val);
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
             final Ref<Numeric> output1 = new Ref<Numeric>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_NUMBER(pos1, output1)) {
+            final int pos1 = nt_NUMBER(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = new Constant(output1.val);
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
             final Ref<Text> output1 = new Ref<Text>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_IDENT(pos1, output1)) {
+            final int pos1 = nt_IDENT(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = new Constant(output1.val);
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
             final Ref<Text> output1 = new Ref<Text>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STRING(pos1, output1)) {
+            final int pos1 = nt_STRING(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = new Constant(output1.val);
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
             final Ref<Expression> output1 = new Ref<Expression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_REFERENCE(pos1, output1)) {
+            final int pos1 = nt_REFERENCE(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = output1.val;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
             final Ref<Expression> output1 = new Ref<Expression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_COMPLEX(pos1, output1)) {
+            final int pos1 = nt_COMPLEX(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = output1.val;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
             final Ref<Expression> output1 = new Ref<Expression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_TYPE(pos1, output1)) {
+            final int pos1 = nt_TYPE(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = output1.val;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
             final Ref<Expression> output1 = new Ref<Expression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_FUNC(pos1, output1)) {
+            final int pos1 = nt_FUNC(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = output1.val;
-                pos.val = pos1.val;
-                return true;
-            }
-        }
-        {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '(')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output)) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WSML(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(tc(pos5, ')')) {
-                                pos.val = pos5.val;
-                                return true;
+                return pos1;
+            }
+        }
+        {
+            final int pos1 = tc(pos0, '(');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPRESSION(pos2, output);
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WSML(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = tc(pos4, ')');
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_NUMBER(final Ref_int pos, final Ref<Numeric> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_NUMBER(final int pos, final Ref<Numeric> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_NUMBER_SINTEGER(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_NUMBER_FRACTION_0(pos2, output2)) {
-                    final Ref<Object> output3 = new Ref<Object>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_NUMBER_EXPONENT_0(pos3, output3)) {
-                        output.val=session.number(new String(_input, pos0.val, pos3.val - pos0.val));
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_NUMBER_SINTEGER(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_NUMBER_FRACTION_0(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_NUMBER_EXPONENT_0(pos2, _ignored);
+                    if(pos3 >= 0) {
+                        output.val=session.number(_input.subSequence(pos0, pos3).toString());
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_NUMBER_SINTEGER(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_NUMBER_SINTEGER(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '-')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_NUMBER_UINTEGER(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tc(pos0, '-');
+            if(pos1 >= 0) {
+                final int pos2 = nt_NUMBER_UINTEGER(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_NUMBER_UINTEGER(pos1, output1)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_NUMBER_UINTEGER(pos0, _ignored);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_NUMBER_UINTEGER(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_NUMBER_UINTEGER(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
             final Ref<Integer> output1 = new Ref<Integer>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_DEC_DIGIT(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_DEC_DIGIT_0N(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_DEC_DIGIT(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_DEC_DIGIT_0N(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_NUMBER_FRACTION_0(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_NUMBER_FRACTION_0(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '.')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_NUMBER_UINTEGER(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tc(pos0, '.');
+            if(pos1 >= 0) {
+                final int pos2 = nt_NUMBER_UINTEGER(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_NUMBER_EXPONENT_0(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_NUMBER_EXPONENT_0(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, 'E')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_NUMBER_SINTEGER(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tc(pos0, 'E');
+            if(pos1 >= 0) {
+                final int pos2 = nt_NUMBER_SINTEGER(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_DEC_DIGIT_0N(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_DEC_DIGIT_0N(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
             final Ref<Integer> output1 = new Ref<Integer>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_DEC_DIGIT(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_DEC_DIGIT_0N(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_DEC_DIGIT(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_DEC_DIGIT_0N(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_DEC_DIGIT(final Ref_int pos, final Ref<Integer> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_DEC_DIGIT(final int pos, final Ref<Integer> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tset(pos1, t_10 /* "0123456789" */)) {
-                output.val = _input[pos1.val-1] - '0';
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = tset(pos0, t_10 /* "0123456789" */);
+            if(pos1 >= 0) {
+                output.val = _input.charAt(pos1-1) - '0';
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_IDENT(final Ref_int pos, final Ref<Text> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_IDENT(final int pos, final Ref<Text> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_IDENT_LETTER(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_IDENT_CHAR_0N(pos2, output2)) {
-                    output.val=session.text(new String(_input, pos0.val, pos2.val - pos0.val));
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_IDENT_LETTER(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_IDENT_CHAR_0N(pos1, _ignored);
+                if(pos2 >= 0) {
+                    output.val=session.text(_input.subSequence(pos0, pos2).toString());
+                    return pos2;
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_IDENT_LETTER(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_IDENT_LETTER(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(trange(pos1, 'a', 'z')) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = trange(pos0, 'a', 'z');
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(trange(pos1, 'A', 'Z')) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = trange(pos0, 'A', 'Z');
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '_')) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = tc(pos0, '_');
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(trange(pos1, 'Ā', '￮')) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = trange(pos0, 'Ā', '￮');
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_IDENT_CHAR_0N(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_IDENT_CHAR_0N(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_IDENT_CHAR(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_IDENT_CHAR_0N(pos2, output2)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_IDENT_CHAR(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_IDENT_CHAR_0N(pos1, _ignored);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_IDENT_CHAR(final Ref_int pos, final Ref<Object> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_IDENT_CHAR(final int pos, final Ref<Object> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(trange(pos1, 'a', 'z')) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = trange(pos0, 'a', 'z');
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(trange(pos1, 'A', 'Z')) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = trange(pos0, 'A', 'Z');
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '_')) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = tc(pos0, '_');
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(trange(pos1, '0', '9')) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = trange(pos0, '0', '9');
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(trange(pos1, 'Ā', '￮')) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = trange(pos0, 'Ā', '￮');
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STRING(final Ref_int pos, final Ref<Text> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STRING(final int pos, final Ref<Text> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '\"')) {
+            final int pos1 = tc(pos0, '\"');
+            if(pos1 >= 0) {
                 final Ref<StringBuilder> output2 = new Ref<StringBuilder>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_STRING_CHAR_0N(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(tc(pos3, '\"')) {
+                final int pos2 = nt_STRING_CHAR_0N(pos1, output2);
+                if(pos2 >= 0) {
+                    final int pos3 = tc(pos2, '\"');
+                    if(pos3 >= 0) {
                         output.val = session.text(output2.val != null ? output2.val.toString() : null);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STRING_CHAR_0N(final Ref_int pos, final Ref<StringBuilder> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STRING_CHAR_0N(final int pos, final Ref<StringBuilder> output) {
+        final int pos0 = pos;
         {
             final Ref<Character> output1 = new Ref<Character>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STRING_CHAR(pos1, output1)) {
+            final int pos1 = nt_STRING_CHAR(pos0, output1);
+            if(pos1 >= 0) {
                 appendChar(output, output1.val);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_STRING_CHAR_0N(pos2, output)) {
-                    pos.val = pos2.val;
-                    return true;
+                final int pos2 = nt_STRING_CHAR_0N(pos1, output);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_STRING_CHAR(final Ref_int pos, final Ref<Character> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STRING_CHAR(final int pos, final Ref<Character> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tnotset(pos1, t_11 /* "\\\"\t\r\n" */)) {
-                output.val=_input[pos1.val-1];
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = tnotset(pos0, t_11 /* "\\\"\t\r\n" */);
+            if(pos1 >= 0) {
+                output.val=_input.charAt(pos1-1);
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STRING_ESCAPE(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STRING_ESCAPE(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STRING_ESCAPE(final Ref_int pos, final Ref<Character> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STRING_ESCAPE(final int pos, final Ref<Character> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '\\')) {
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(tset(pos2, t_12 /* "\\\'\"" */)) {
-                    output.val=_input[pos2.val-1];
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = tc(pos0, '\\');
+            if(pos1 >= 0) {
+                final int pos2 = tset(pos1, t_12 /* "\\\'\"" */);
+                if(pos2 >= 0) {
+                    output.val=_input.charAt(pos2-1);
+                    return pos2;
                 }
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_13 /* "\\t" */)) {
+            final int pos1 = ts(pos0, t_13 /* "\\t" */);
+            if(pos1 >= 0) {
                 output.val='\t';
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_14 /* "\\r" */)) {
+            final int pos1 = ts(pos0, t_14 /* "\\r" */);
+            if(pos1 >= 0) {
                 output.val='\r';
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_15 /* "\\n" */)) {
+            final int pos1 = ts(pos0, t_15 /* "\\n" */);
+            if(pos1 >= 0) {
                 output.val='\n';
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_16 /* "\\u" */)) {
+            final int pos1 = ts(pos0, t_16 /* "\\u" */);
+            if(pos1 >= 0) {
                 final Ref<Integer> output2 = new Ref<Integer>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_HEX_DIGIT(pos2, output2)) {
+                final int pos2 = nt_HEX_DIGIT(pos1, output2);
+                if(pos2 >= 0) {
                     final Ref<Integer> output3 = new Ref<Integer>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_HEX_DIGIT(pos3, output3)) {
+                    final int pos3 = nt_HEX_DIGIT(pos2, output3);
+                    if(pos3 >= 0) {
                         final Ref<Integer> output4 = new Ref<Integer>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_HEX_DIGIT(pos4, output4)) {
+                        final int pos4 = nt_HEX_DIGIT(pos3, output4);
+                        if(pos4 >= 0) {
                             final Ref<Integer> output5 = new Ref<Integer>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_HEX_DIGIT(pos5, output5)) {
+                            final int pos5 = nt_HEX_DIGIT(pos4, output5);
+                            if(pos5 >= 0) {
                                 output.val = makeChar(output2, output3, output4, output5);
-                                pos.val = pos5.val;
-                                return true;
+                                return pos5;
                             }
                         }
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_BINARY(final Ref_int pos, final Ref<Binary> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_BINARY(final int pos, final Ref<Binary> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_17 /* "0x" */)) {
+            final int pos1 = ts(pos0, t_17 /* "0x" */);
+            if(pos1 >= 0) {
                 final Ref<ByteArrayOutputStream> output2 = new Ref<ByteArrayOutputStream>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_HEX_DIGIT_0N(pos2, output2)) {
+                final int pos2 = nt_HEX_DIGIT_0N(pos1, output2);
+                if(pos2 >= 0) {
                     output.val=session.binary(output2.val != null ? output2.val.toByteArray() : null);
-                    pos.val = pos2.val;
-                    return true;
+                    return pos2;
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_HEX_DIGIT_0N(final Ref_int pos, final Ref<ByteArrayOutputStream> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_HEX_DIGIT_0N(final int pos, final Ref<ByteArrayOutputStream> output) {
+        final int pos0 = pos;
         {
             final Ref<Integer> output1 = new Ref<Integer>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_HEX_DIGIT(pos1, output1)) {
+            final int pos1 = nt_HEX_DIGIT(pos0, output1);
+            if(pos1 >= 0) {
                 final Ref<Integer> output2 = new Ref<Integer>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_HEX_DIGIT(pos2, output2)) {
+                final int pos2 = nt_HEX_DIGIT(pos1, output2);
+                if(pos2 >= 0) {
                     appendByte(output, output1.val, output2.val);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_HEX_DIGIT_0N(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+                    final int pos3 = nt_HEX_DIGIT_0N(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_HEX_DIGIT(final Ref_int pos, final Ref<Integer> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_HEX_DIGIT(final int pos, final Ref<Integer> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tset(pos1, t_18 /* "0123456789" */)) {
-                output.val = _input[pos1.val-1] - '0';
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = tset(pos0, t_18 /* "0123456789" */);
+            if(pos1 >= 0) {
+                output.val = _input.charAt(pos1-1) - '0';
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tset(pos1, t_19 /* "ABCDEF" */)) {
-                output.val = _input[pos1.val-1] - 'A' + 10;
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = tset(pos0, t_19 /* "ABCDEF" */);
+            if(pos1 >= 0) {
+                output.val = _input.charAt(pos1-1) - 'A' + 10;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_REFERENCE(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_REFERENCE(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_20 /* "[ / " */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_20 /* "[ / " */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<ArrayList<Expression>> output3 = new Ref<ArrayList<Expression>>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_REFERENCE_HEAD(pos3, output3)) {
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(tc(pos4, ']')) {
+                    final int pos3 = nt_REFERENCE_HEAD(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = tc(pos3, ']');
+                        if(pos4 >= 0) {
                             output.val=new ReferenceExpression(output3.val).propagateConst(session);
-                            pos.val = pos4.val;
-                            return true;
+                            return pos4;
                         }
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_REFERENCE_HEAD(final Ref_int pos, final Ref<ArrayList<Expression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_REFERENCE_HEAD(final int pos, final Ref<ArrayList<Expression>> output) {
+        final int pos0 = pos;
         {
             final Ref<Expression> output1 = new Ref<Expression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_VALUE(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_VALUE(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     appendT(output, output1.val);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_REFERENCE_TAIL(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+                    final int pos3 = nt_REFERENCE_TAIL(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_REFERENCE_TAIL(final Ref_int pos, final Ref<ArrayList<Expression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_REFERENCE_TAIL(final int pos, final Ref<ArrayList<Expression>> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '/')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = tc(pos0, '/');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_VALUE(pos3, output3)) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
+                    final int pos3 = nt_VALUE(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
                             appendT(output, output3.val);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_REFERENCE_TAIL(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                            final int pos5 = nt_REFERENCE_TAIL(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -990,471 +885,414 @@ public class Parser {
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WS(pos1, output1)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_WS(pos0, _ignored);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_COMPLEX(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_COMPLEX(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '[')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
+            final int pos1 = tc(pos0, '[');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<ArrayList<PairExpression>> output3 = new Ref<ArrayList<PairExpression>>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_COMPLEX_HEAD(pos3, output3)) {
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(tc(pos4, ']')) {
+                    final int pos3 = nt_COMPLEX_HEAD(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = tc(pos3, ']');
+                        if(pos4 >= 0) {
                             output.val=new ComplexExpression(output3.val).propagateConst(session);
-                            pos.val = pos4.val;
-                            return true;
+                            return pos4;
                         }
                     }
                 }
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '@')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = tc(pos0, '@');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_VALUE(pos3, output3)) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
+                    final int pos3 = nt_VALUE(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<Expression> output5 = new Ref<Expression>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_VALUE(pos5, output5)) {
+                            final int pos5 = nt_VALUE(pos4, output5);
+                            if(pos5 >= 0) {
                                 output.val=new ComplexExpression(output3.val, output5.val).propagateConst(session);
-                                pos.val = pos5.val;
-                                return true;
+                                return pos5;
                             }
                         }
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_COMPLEX_HEAD(final Ref_int pos, final Ref<ArrayList<PairExpression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_COMPLEX_HEAD(final int pos, final Ref<ArrayList<PairExpression>> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_COMPLEX_CHILD(pos1, output)) {
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_COMPLEX_TAIL(pos2, output)) {
-                    pos.val = pos2.val;
-                    return true;
+            final int pos1 = nt_COMPLEX_CHILD(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_COMPLEX_TAIL(pos1, output);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_COMPLEX_CHILD(final Ref_int pos, final Ref<ArrayList<PairExpression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_COMPLEX_CHILD(final int pos, final Ref<ArrayList<PairExpression>> output) {
+        final int pos0 = pos;
         {
             final Ref<Expression> output1 = new Ref<Expression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_VALUE(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_VALUE(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_COMPLEX_CHILD2(pos3, output3)) {
+                    final int pos3 = nt_COMPLEX_CHILD2(pos2, output3);
+                    if(pos3 >= 0) {
                         appendT(output, new PairExpression(output1.val, output3.val));
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_COMPLEX_CHILD2(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_COMPLEX_CHILD2(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, ':')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_VALUE(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = tc(pos0, ':');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_VALUE(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_COMPLEX_TAIL(final Ref_int pos, final Ref<ArrayList<PairExpression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_COMPLEX_TAIL(final int pos, final Ref<ArrayList<PairExpression>> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_SEP(pos1, output1)) {
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_COMPLEX_CHILD(pos2, output)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_COMPLEX_TAIL(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_SEP(pos0, _ignored);
+            if(pos1 >= 0) {
+                final int pos2 = nt_COMPLEX_CHILD(pos1, output);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_COMPLEX_TAIL(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WSML(pos1, output1)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_WSML(pos0, _ignored);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_TYPE(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_TYPE(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_21 /* "::" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_21 /* "::" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_VALUE(pos3, output3)) {
+                    final int pos3 = nt_VALUE(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new UnaryOperator(UnaryOperator.Operator.TypeExpression, output3.val).propagateConst(session);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_FUNC(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_FUNC(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_22 /* "->" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_22 /* "->" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_VALUE(pos3, output3)) {
+                    final int pos3 = nt_VALUE(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new UnaryOperator(UnaryOperator.Operator.FunctionExpression, output3.val).propagateConst(session);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPRESSION(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPRESSION(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_BLOCK(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_BLOCK(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_RETURN(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_RETURN(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_YIELD(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_YIELD(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_IF(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_IF(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_SWITCH(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_SWITCH(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_WHILE(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_WHILE(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_FOR(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_FOR(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_FOREACH(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_FOREACH(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_BREAK(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_BREAK(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_CONTINUE(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_CONTINUE(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_TRY(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_TRY(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_THROW(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_THROW(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_ATOMIC(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_ATOMIC(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_RETRY(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_RETRY(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_DECLARATION(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_DECLARATION(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_STMT_ASSIGNMENT(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_STMT_ASSIGNMENT(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_BLOCK(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_BLOCK(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '{')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
+            final int pos1 = tc(pos0, '{');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<ArrayList<Expression>> output3 = new Ref<ArrayList<Expression>>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_STMT_BLOCK_HEAD(pos3, output3)) {
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(tc(pos4, '}')) {
+                    final int pos3 = nt_STMT_BLOCK_HEAD(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = tc(pos3, '}');
+                        if(pos4 >= 0) {
                             output.val=new Block(output3.val);
-                            pos.val = pos4.val;
-                            return true;
+                            return pos4;
                         }
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_BLOCK_HEAD(final Ref_int pos, final Ref<ArrayList<Expression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_BLOCK_HEAD(final int pos, final Ref<ArrayList<Expression>> output) {
+        final int pos0 = pos;
         {
             final Ref<Expression> output1 = new Ref<Expression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPRESSION(pos1, output1)) {
+            final int pos1 = nt_EXPRESSION(pos0, output1);
+            if(pos1 >= 0) {
                 appendT(output, output1.val);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_STMT_BLOCK_TAIL(pos2, output)) {
-                    pos.val = pos2.val;
-                    return true;
+                final int pos2 = nt_STMT_BLOCK_TAIL(pos1, output);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_STMT_BLOCK_TAIL(final Ref_int pos, final Ref<ArrayList<Expression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_BLOCK_TAIL(final int pos, final Ref<ArrayList<Expression>> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_SEP(pos1, output1)) {
+            final int pos1 = nt_SEP(pos0, _ignored);
+            if(pos1 >= 0) {
                 final Ref<Expression> output2 = new Ref<Expression>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_EXPRESSION(pos2, output2)) {
+                final int pos2 = nt_EXPRESSION(pos1, output2);
+                if(pos2 >= 0) {
                     appendT(output, output2.val);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_STMT_BLOCK_TAIL(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+                    final int pos3 = nt_STMT_BLOCK_TAIL(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WSML(pos1, output1)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_WSML(pos0, _ignored);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_RETURN(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_RETURN(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_23 /* "return" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_23 /* "return" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output3)) {
+                    final int pos3 = nt_EXPRESSION(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val=new FlowStatement(FlowStatement.Keyword.Return, output3.val);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_24 /* "return" */)) {
+            final int pos1 = ts(pos0, t_24 /* "return" */);
+            if(pos1 >= 0) {
                 output.val=new FlowStatement(FlowStatement.Keyword.Return, null);
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_YIELD(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_YIELD(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_25 /* "yield" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_25 /* "yield" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output3)) {
+                    final int pos3 = nt_EXPRESSION(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val=new FlowStatement(FlowStatement.Keyword.Yield, output3.val);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_IF(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_IF(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_26 /* "if" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(tc(pos3, '(')) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WSML(pos4, output4)) {
+            final int pos1 = ts(pos0, t_26 /* "if" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = tc(pos2, '(');
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WSML(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<Expression> output5 = new Ref<Expression>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPRESSION(pos5, output5)) {
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_WSML(pos6, output6)) {
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(tc(pos7, ')')) {
-                                        final Ref<Object> output8 = new Ref<Object>(null);
-                                        final Ref_int pos8 = new Ref_int(pos7.val);
-                                        if(nt_WS(pos8, output8)) {
+                            final int pos5 = nt_EXPRESSION(pos4, output5);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_WSML(pos5, _ignored);
+                                if(pos6 >= 0) {
+                                    final int pos7 = tc(pos6, ')');
+                                    if(pos7 >= 0) {
+                                        final int pos8 = nt_WS(pos7, _ignored);
+                                        if(pos8 >= 0) {
                                             final Ref<Expression> output9 = new Ref<Expression>(null);
-                                            final Ref_int pos9 = new Ref_int(pos8.val);
-                                            if(nt_EXPRESSION(pos9, output9)) {
-                                                final Ref<Object> output10 = new Ref<Object>(null);
-                                                final Ref_int pos10 = new Ref_int(pos9.val);
-                                                if(nt_WS(pos10, output10)) {
+                                            final int pos9 = nt_EXPRESSION(pos8, output9);
+                                            if(pos9 >= 0) {
+                                                final int pos10 = nt_WS(pos9, _ignored);
+                                                if(pos10 >= 0) {
                                                     final Ref<Expression> output11 = new Ref<Expression>(null);
-                                                    final Ref_int pos11 = new Ref_int(pos10.val);
-                                                    if(nt_STMT_ELSE_0(pos11, output11)) {
+                                                    final int pos11 = nt_STMT_ELSE_0(pos10, output11);
+                                                    if(pos11 >= 0) {
                                                         output.val=new IfElse(output5.val, output9.val, output11.val);
-                                                        pos.val = pos11.val;
-                                                        return true;
+                                                        return pos11;
                                                     }
                                                 }
                                             }
@@ -1467,70 +1305,60 @@ public class Parser {
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_ELSE_0(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_ELSE_0(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_27 /* "else" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = ts(pos0, t_27 /* "else" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPRESSION(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_STMT_SWITCH(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_SWITCH(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_28 /* "switch" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(tc(pos3, '(')) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WSML(pos4, output4)) {
+            final int pos1 = ts(pos0, t_28 /* "switch" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = tc(pos2, '(');
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WSML(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<Expression> output5 = new Ref<Expression>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPRESSION(pos5, output5)) {
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_WSML(pos6, output6)) {
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(tc(pos7, ')')) {
-                                        final Ref<Object> output8 = new Ref<Object>(null);
-                                        final Ref_int pos8 = new Ref_int(pos7.val);
-                                        if(nt_WS(pos8, output8)) {
-                                            final Ref_int pos9 = new Ref_int(pos8.val);
-                                            if(tc(pos9, '{')) {
-                                                final Ref<Object> output10 = new Ref<Object>(null);
-                                                final Ref_int pos10 = new Ref_int(pos9.val);
-                                                if(nt_WSML(pos10, output10)) {
+                            final int pos5 = nt_EXPRESSION(pos4, output5);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_WSML(pos5, _ignored);
+                                if(pos6 >= 0) {
+                                    final int pos7 = tc(pos6, ')');
+                                    if(pos7 >= 0) {
+                                        final int pos8 = nt_WS(pos7, _ignored);
+                                        if(pos8 >= 0) {
+                                            final int pos9 = tc(pos8, '{');
+                                            if(pos9 >= 0) {
+                                                final int pos10 = nt_WSML(pos9, _ignored);
+                                                if(pos10 >= 0) {
                                                     final Ref<ArrayList<Expression>> output11 = new Ref<ArrayList<Expression>>(null);
-                                                    final Ref_int pos11 = new Ref_int(pos10.val);
-                                                    if(nt_STMT_CASE_0N(pos11, output11)) {
-                                                        final Ref<Object> output12 = new Ref<Object>(null);
-                                                        final Ref_int pos12 = new Ref_int(pos11.val);
-                                                        if(nt_WSML(pos12, output12)) {
-                                                            final Ref_int pos13 = new Ref_int(pos12.val);
-                                                            if(tc(pos13, '}')) {
-                                                                pos.val = pos13.val;
-                                                                return true;
+                                                    final int pos11 = nt_STMT_CASE_0N(pos10, output11);
+                                                    if(pos11 >= 0) {
+                                                        final int pos12 = nt_WSML(pos11, _ignored);
+                                                        if(pos12 >= 0) {
+                                                            final int pos13 = tc(pos12, '}');
+                                                            if(pos13 >= 0) {
+                                                                return pos13;
                                                             }
                                                         }
                                                     }
@@ -1545,43 +1373,37 @@ public class Parser {
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_CASE_0N(final Ref_int pos, final Ref<ArrayList<Expression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_CASE_0N(final int pos, final Ref<ArrayList<Expression>> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_29 /* "case" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(tc(pos3, '(')) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WSML(pos4, output4)) {
+            final int pos1 = ts(pos0, t_29 /* "case" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = tc(pos2, '(');
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WSML(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<Expression> output5 = new Ref<Expression>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPRESSION(pos5, output5)) {
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_WSML(pos6, output6)) {
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(tc(pos7, ')')) {
-                                        final Ref<Object> output8 = new Ref<Object>(null);
-                                        final Ref_int pos8 = new Ref_int(pos7.val);
-                                        if(nt_WS(pos8, output8)) {
+                            final int pos5 = nt_EXPRESSION(pos4, output5);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_WSML(pos5, _ignored);
+                                if(pos6 >= 0) {
+                                    final int pos7 = tc(pos6, ')');
+                                    if(pos7 >= 0) {
+                                        final int pos8 = nt_WS(pos7, _ignored);
+                                        if(pos8 >= 0) {
                                             final Ref<Expression> output9 = new Ref<Expression>(null);
-                                            final Ref_int pos9 = new Ref_int(pos8.val);
-                                            if(nt_EXPRESSION(pos9, output9)) {
-                                                final Ref<Object> output10 = new Ref<Object>(null);
-                                                final Ref_int pos10 = new Ref_int(pos9.val);
-                                                if(nt_WS(pos10, output10)) {
-                                                    final Ref_int pos11 = new Ref_int(pos10.val);
-                                                    if(nt_STMT_CASE_0N(pos11, output)) {
-                                                        pos.val = pos11.val;
-                                                        return true;
+                                            final int pos9 = nt_EXPRESSION(pos8, output9);
+                                            if(pos9 >= 0) {
+                                                final int pos10 = nt_WS(pos9, _ignored);
+                                                if(pos10 >= 0) {
+                                                    final int pos11 = nt_STMT_CASE_0N(pos10, output);
+                                                    if(pos11 >= 0) {
+                                                        return pos11;
                                                     }
                                                 }
                                             }
@@ -1595,57 +1417,49 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_STMT_WHILE(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_WHILE(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_30 /* "loop" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_30 /* "loop" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output3)) {
+                    final int pos3 = nt_EXPRESSION(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val=new While(null, null, output3.val);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_31 /* "while" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(tc(pos3, '(')) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WSML(pos4, output4)) {
+            final int pos1 = ts(pos0, t_31 /* "while" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = tc(pos2, '(');
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WSML(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<Expression> output5 = new Ref<Expression>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPRESSION(pos5, output5)) {
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_WSML(pos6, output6)) {
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(tc(pos7, ')')) {
-                                        final Ref<Object> output8 = new Ref<Object>(null);
-                                        final Ref_int pos8 = new Ref_int(pos7.val);
-                                        if(nt_WS(pos8, output8)) {
+                            final int pos5 = nt_EXPRESSION(pos4, output5);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_WSML(pos5, _ignored);
+                                if(pos6 >= 0) {
+                                    final int pos7 = tc(pos6, ')');
+                                    if(pos7 >= 0) {
+                                        final int pos8 = nt_WS(pos7, _ignored);
+                                        if(pos8 >= 0) {
                                             final Ref<Expression> output9 = new Ref<Expression>(null);
-                                            final Ref_int pos9 = new Ref_int(pos8.val);
-                                            if(nt_EXPRESSION(pos9, output9)) {
+                                            final int pos9 = nt_EXPRESSION(pos8, output9);
+                                            if(pos9 >= 0) {
                                                 output.val=new While(output5.val, null, output9.val);
-                                                pos.val = pos9.val;
-                                                return true;
+                                                return pos9;
                                             }
                                         }
                                     }
@@ -1657,38 +1471,32 @@ public class Parser {
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_32 /* "do" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_32 /* "do" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output3)) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(ts(pos5, t_33 /* "while" */)) {
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_WS(pos6, output6)) {
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(tc(pos7, '(')) {
-                                        final Ref<Object> output8 = new Ref<Object>(null);
-                                        final Ref_int pos8 = new Ref_int(pos7.val);
-                                        if(nt_WSML(pos8, output8)) {
+                    final int pos3 = nt_EXPRESSION(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = ts(pos4, t_33 /* "while" */);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_WS(pos5, _ignored);
+                                if(pos6 >= 0) {
+                                    final int pos7 = tc(pos6, '(');
+                                    if(pos7 >= 0) {
+                                        final int pos8 = nt_WSML(pos7, _ignored);
+                                        if(pos8 >= 0) {
                                             final Ref<Expression> output9 = new Ref<Expression>(null);
-                                            final Ref_int pos9 = new Ref_int(pos8.val);
-                                            if(nt_EXPRESSION(pos9, output9)) {
-                                                final Ref<Object> output10 = new Ref<Object>(null);
-                                                final Ref_int pos10 = new Ref_int(pos9.val);
-                                                if(nt_WSML(pos10, output10)) {
-                                                    final Ref_int pos11 = new Ref_int(pos10.val);
-                                                    if(tc(pos11, ')')) {
+                                            final int pos9 = nt_EXPRESSION(pos8, output9);
+                                            if(pos9 >= 0) {
+                                                final int pos10 = nt_WSML(pos9, _ignored);
+                                                if(pos10 >= 0) {
+                                                    final int pos11 = tc(pos10, ')');
+                                                    if(pos11 >= 0) {
                                                         output.val=new While(null, output9.val, output3.val);
-                                                        pos.val = pos11.val;
-                                                        return true;
+                                                        return pos11;
                                                     }
                                                 }
                                             }
@@ -1701,51 +1509,44 @@ public class Parser {
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_FOR(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_FOR(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_34 /* "for" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(tc(pos3, '(')) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WSML(pos4, output4)) {
+            final int pos1 = ts(pos0, t_34 /* "for" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = tc(pos2, '(');
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WSML(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<Expression> output5 = new Ref<Expression>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_STMT_DECLARATION(pos5, output5)) {
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_SEP(pos6, output6)) {
+                            final int pos5 = nt_STMT_DECLARATION(pos4, output5);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_SEP(pos5, _ignored);
+                                if(pos6 >= 0) {
                                     final Ref<Expression> output7 = new Ref<Expression>(null);
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(nt_EXPRESSION(pos7, output7)) {
-                                        final Ref<Object> output8 = new Ref<Object>(null);
-                                        final Ref_int pos8 = new Ref_int(pos7.val);
-                                        if(nt_SEP(pos8, output8)) {
+                                    final int pos7 = nt_EXPRESSION(pos6, output7);
+                                    if(pos7 >= 0) {
+                                        final int pos8 = nt_SEP(pos7, _ignored);
+                                        if(pos8 >= 0) {
                                             final Ref<Expression> output9 = new Ref<Expression>(null);
-                                            final Ref_int pos9 = new Ref_int(pos8.val);
-                                            if(nt_STMT_ASSIGNMENT(pos9, output9)) {
-                                                final Ref<Object> output10 = new Ref<Object>(null);
-                                                final Ref_int pos10 = new Ref_int(pos9.val);
-                                                if(nt_WSML(pos10, output10)) {
-                                                    final Ref_int pos11 = new Ref_int(pos10.val);
-                                                    if(tc(pos11, ')')) {
-                                                        final Ref<Object> output12 = new Ref<Object>(null);
-                                                        final Ref_int pos12 = new Ref_int(pos11.val);
-                                                        if(nt_WS(pos12, output12)) {
+                                            final int pos9 = nt_STMT_ASSIGNMENT(pos8, output9);
+                                            if(pos9 >= 0) {
+                                                final int pos10 = nt_WSML(pos9, _ignored);
+                                                if(pos10 >= 0) {
+                                                    final int pos11 = tc(pos10, ')');
+                                                    if(pos11 >= 0) {
+                                                        final int pos12 = nt_WS(pos11, _ignored);
+                                                        if(pos12 >= 0) {
                                                             final Ref<Expression> output13 = new Ref<Expression>(null);
-                                                            final Ref_int pos13 = new Ref_int(pos12.val);
-                                                            if(nt_EXPRESSION(pos13, output13)) {
+                                                            final int pos13 = nt_EXPRESSION(pos12, output13);
+                                                            if(pos13 >= 0) {
                                                                 output.val=new For(output5.val, output7.val, output9.val, output13.val);
-                                                                pos.val = pos13.val;
-                                                                return true;
+                                                                return pos13;
                                                             }
                                                         }
                                                     }
@@ -1760,56 +1561,48 @@ public class Parser {
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_FOREACH(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_FOREACH(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_35 /* "foreach" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(tc(pos3, '(')) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WSML(pos4, output4)) {
+            final int pos1 = ts(pos0, t_35 /* "foreach" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = tc(pos2, '(');
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WSML(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<IdentifierDeclaration> output5 = new Ref<IdentifierDeclaration>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_IDENT_DECLARATION(pos5, output5)) {
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_WS(pos6, output6)) {
+                            final int pos5 = nt_IDENT_DECLARATION(pos4, output5);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_WS(pos5, _ignored);
+                                if(pos6 >= 0) {
                                     final Ref<IdentifierDeclaration> output7 = new Ref<IdentifierDeclaration>(null);
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(nt_IDENT_DECLARATION_B(pos7, output7)) {
-                                        final Ref<Object> output8 = new Ref<Object>(null);
-                                        final Ref_int pos8 = new Ref_int(pos7.val);
-                                        if(nt_WS(pos8, output8)) {
-                                            final Ref_int pos9 = new Ref_int(pos8.val);
-                                            if(ts(pos9, t_36 /* "in" */)) {
-                                                final Ref<Object> output10 = new Ref<Object>(null);
-                                                final Ref_int pos10 = new Ref_int(pos9.val);
-                                                if(nt_WS(pos10, output10)) {
+                                    final int pos7 = nt_IDENT_DECLARATION_B(pos6, output7);
+                                    if(pos7 >= 0) {
+                                        final int pos8 = nt_WS(pos7, _ignored);
+                                        if(pos8 >= 0) {
+                                            final int pos9 = ts(pos8, t_36 /* "in" */);
+                                            if(pos9 >= 0) {
+                                                final int pos10 = nt_WS(pos9, _ignored);
+                                                if(pos10 >= 0) {
                                                     final Ref<Expression> output11 = new Ref<Expression>(null);
-                                                    final Ref_int pos11 = new Ref_int(pos10.val);
-                                                    if(nt_EXPRESSION(pos11, output11)) {
-                                                        final Ref<Object> output12 = new Ref<Object>(null);
-                                                        final Ref_int pos12 = new Ref_int(pos11.val);
-                                                        if(nt_WSML(pos12, output12)) {
-                                                            final Ref_int pos13 = new Ref_int(pos12.val);
-                                                            if(tc(pos13, ')')) {
-                                                                final Ref<Object> output14 = new Ref<Object>(null);
-                                                                final Ref_int pos14 = new Ref_int(pos13.val);
-                                                                if(nt_WS(pos14, output14)) {
+                                                    final int pos11 = nt_EXPRESSION(pos10, output11);
+                                                    if(pos11 >= 0) {
+                                                        final int pos12 = nt_WSML(pos11, _ignored);
+                                                        if(pos12 >= 0) {
+                                                            final int pos13 = tc(pos12, ')');
+                                                            if(pos13 >= 0) {
+                                                                final int pos14 = nt_WS(pos13, _ignored);
+                                                                if(pos14 >= 0) {
                                                                     final Ref<Expression> output15 = new Ref<Expression>(null);
-                                                                    final Ref_int pos15 = new Ref_int(pos14.val);
-                                                                    if(nt_EXPRESSION(pos15, output15)) {
+                                                                    final int pos15 = nt_EXPRESSION(pos14, output15);
+                                                                    if(pos15 >= 0) {
                                                                         output.val=new ForEach(output5.val, output7.val, output11.val, output15.val);
-                                                                        pos.val = pos15.val;
-                                                                        return true;
+                                                                        return pos15;
                                                                     }
                                                                 }
                                                             }
@@ -1826,61 +1619,55 @@ public class Parser {
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_BREAK(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_BREAK(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_37 /* "break" */)) {
+            final int pos1 = ts(pos0, t_37 /* "break" */);
+            if(pos1 >= 0) {
                 output.val=new FlowStatement(FlowStatement.Keyword.Break, null);
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_CONTINUE(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_CONTINUE(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_38 /* "continue" */)) {
+            final int pos1 = ts(pos0, t_38 /* "continue" */);
+            if(pos1 >= 0) {
                 output.val=new FlowStatement(FlowStatement.Keyword.Continue, null);
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_TRY(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_TRY(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_39 /* "try" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_39 /* "try" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_STMT_BLOCK(pos3, output3)) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
+                    final int pos3 = nt_STMT_BLOCK(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<Expression> output5 = new Ref<Expression>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_STMT_CATCH_0(pos5, output5)) {
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_WS(pos6, output6)) {
+                            final int pos5 = nt_STMT_CATCH_0(pos4, output5);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_WS(pos5, _ignored);
+                                if(pos6 >= 0) {
                                     final Ref<Expression> output7 = new Ref<Expression>(null);
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(nt_STMT_FINALLY_0(pos7, output7)) {
+                                    final int pos7 = nt_STMT_FINALLY_0(pos6, output7);
+                                    if(pos7 >= 0) {
                                         output.val=new TryCatchFinally(output3.val, output5.val, output7.val);
-                                        pos.val = pos7.val;
-                                        return true;
+                                        return pos7;
                                     }
                                 }
                             }
@@ -1889,37 +1676,32 @@ public class Parser {
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_CATCH_0(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_CATCH_0(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_40 /* "catch" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(tc(pos3, '(')) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WSML(pos4, output4)) {
+            final int pos1 = ts(pos0, t_40 /* "catch" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = tc(pos2, '(');
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WSML(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<IdentifierDeclaration> output5 = new Ref<IdentifierDeclaration>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_IDENT_DECLARATION(pos5, output5)) {
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_WSML(pos6, output6)) {
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(tc(pos7, ')')) {
-                                        final Ref<Object> output8 = new Ref<Object>(null);
-                                        final Ref_int pos8 = new Ref_int(pos7.val);
-                                        if(nt_WS(pos8, output8)) {
-                                            final Ref_int pos9 = new Ref_int(pos8.val);
-                                            if(nt_STMT_BLOCK(pos9, output)) {
-                                                pos.val = pos9.val;
-                                                return true;
+                            final int pos5 = nt_IDENT_DECLARATION(pos4, output5);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_WSML(pos5, _ignored);
+                                if(pos6 >= 0) {
+                                    final int pos7 = tc(pos6, ')');
+                                    if(pos7 >= 0) {
+                                        final int pos8 = nt_WS(pos7, _ignored);
+                                        if(pos8 >= 0) {
+                                            final int pos9 = nt_STMT_BLOCK(pos8, output);
+                                            if(pos9 >= 0) {
+                                                return pos9;
                                             }
                                         }
                                     }
@@ -1931,442 +1713,402 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_STMT_FINALLY_0(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_FINALLY_0(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_41 /* "finally" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_STMT_BLOCK(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = ts(pos0, t_41 /* "finally" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_STMT_BLOCK(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_STMT_THROW(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_THROW(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_42 /* "throw" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_42 /* "throw" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output3)) {
+                    final int pos3 = nt_EXPRESSION(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val=new FlowStatement(FlowStatement.Keyword.Throw, output3.val);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_ATOMIC(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_ATOMIC(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_43 /* "atomic" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_43 /* "atomic" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_STMT_BLOCK(pos3, output3)) {
+                    final int pos3 = nt_STMT_BLOCK(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val=new Atomic(output3.val);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_RETRY(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_RETRY(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_44 /* "retry" */)) {
+            final int pos1 = ts(pos0, t_44 /* "retry" */);
+            if(pos1 >= 0) {
                 output.val=new FlowStatement(FlowStatement.Keyword.Retry, null);
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_DECLARATION(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_DECLARATION(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<IdentifierDeclaration> output1 = new Ref<IdentifierDeclaration>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_IDENT_DECLARATION(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_IDENT_DECLARATION(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Declaration.Operator> output3 = new Ref<Declaration.Operator>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_OP_DECLARATION(pos3, output3)) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
+                    final int pos3 = nt_OP_DECLARATION(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
                             final Ref<Expression> output5 = new Ref<Expression>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPRESSION(pos5, output5)) {
+                            final int pos5 = nt_EXPRESSION(pos4, output5);
+                            if(pos5 >= 0) {
                                 output.val = new Declaration(output3.val, output1.val, output5.val);
-                                pos.val = pos5.val;
-                                return true;
+                                return pos5;
                             }
                         }
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_OP_DECLARATION(final Ref_int pos, final Ref<Declaration.Operator> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_OP_DECLARATION(final int pos, final Ref<Declaration.Operator> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_45 /* ":===" */)) {
+            final int pos1 = ts(pos0, t_45 /* ":===" */);
+            if(pos1 >= 0) {
                 output.val = Declaration.Operator.DeclareConstant;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_46 /* ":==" */)) {
+            final int pos1 = ts(pos0, t_46 /* ":==" */);
+            if(pos1 >= 0) {
                 output.val = Declaration.Operator.DeclareImmutableVariable;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_47 /* ":=" */)) {
+            final int pos1 = ts(pos0, t_47 /* ":=" */);
+            if(pos1 >= 0) {
                 output.val = Declaration.Operator.DeclareMutableVariable;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
+    }
+
+    private int nt_IDENT_DECLARATION(final int pos, final Ref<IdentifierDeclaration> output) {
+        if(_memo.get(1, pos)) {
+            if(_memo.end >= 0) output.val = (IdentifierDeclaration) _memo.val;
+            return _memo.end;
+        }
+        final int end = memo_IDENT_DECLARATION(pos, output);
+        _memo.put(1, pos, end, end >= 0 ? output.val : null);
+        return end;
     }
 
-    private boolean nt_IDENT_DECLARATION(final Ref_int pos, final Ref<IdentifierDeclaration> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int memo_IDENT_DECLARATION(final int pos, final Ref<IdentifierDeclaration> output) {
+        final int pos0 = pos;
         {
             final Ref<Text> output1 = new Ref<Text>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_IDENT(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_IDENT(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_TYPE_0(pos3, output3)) {
+                    final int pos3 = nt_EXPR_TYPE_0(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new IdentifierDeclaration(output1.val, output3.val);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_IDENT_DECLARATION_B(final Ref_int pos, final Ref<IdentifierDeclaration> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_IDENT_DECLARATION_B(final int pos, final Ref<IdentifierDeclaration> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, ',')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_IDENT_DECLARATION(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = tc(pos0, ',');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_IDENT_DECLARATION(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_TYPE_0(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_TYPE_0(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_TYPE(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_EXPR_TYPE(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_TYPE(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_TYPE(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_48 /* "::" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = ts(pos0, t_48 /* "::" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPRESSION(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_ASSIGNMENT(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_ASSIGNMENT(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<Expression> output1 = new Ref<Expression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_COAL(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_EXPR_COAL(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     output.val = output1.val;
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_STMT_OPASSIGN_0(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+                    final int pos3 = nt_STMT_OPASSIGN_0(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_STMT_OPASSIGN_0(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_STMT_OPASSIGN_0(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<Assignment.Operator> output1 = new Ref<Assignment.Operator>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_OP_ASSIGN(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_OP_ASSIGN(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output3)) {
+                    final int pos3 = nt_EXPRESSION(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new Assignment(output1.val, output.val, output3.val);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_OP_ASSIGN(final Ref_int pos, final Ref<Assignment.Operator> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_OP_ASSIGN(final int pos, final Ref<Assignment.Operator> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '=')) {
+            final int pos1 = tc(pos0, '=');
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.Assign;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_49 /* "??=" */)) {
+            final int pos1 = ts(pos0, t_49 /* "??=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignCoal;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_50 /* "||=" */)) {
+            final int pos1 = ts(pos0, t_50 /* "||=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignOr;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_51 /* "&&=" */)) {
+            final int pos1 = ts(pos0, t_51 /* "&&=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignAnd;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_52 /* "|=" */)) {
+            final int pos1 = ts(pos0, t_52 /* "|=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignBitOr;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_53 /* "^=" */)) {
+            final int pos1 = ts(pos0, t_53 /* "^=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignBitXor;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_54 /* "&=" */)) {
+            final int pos1 = ts(pos0, t_54 /* "&=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignBitAnd;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_55 /* "++=" */)) {
+            final int pos1 = ts(pos0, t_55 /* "++=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignConcat;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_56 /* "<<=" */)) {
+            final int pos1 = ts(pos0, t_56 /* "<<=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignShl;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_57 /* ">>=" */)) {
+            final int pos1 = ts(pos0, t_57 /* ">>=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignShr;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_58 /* "+=" */)) {
+            final int pos1 = ts(pos0, t_58 /* "+=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignAdd;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_59 /* "-=" */)) {
+            final int pos1 = ts(pos0, t_59 /* "-=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignSub;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_60 /* "*=" */)) {
+            final int pos1 = ts(pos0, t_60 /* "*=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignMul;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_61 /* " / =" */)) {
+            final int pos1 = ts(pos0, t_61 /* " / =" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignDiv;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_62 /* "%=" */)) {
+            final int pos1 = ts(pos0, t_62 /* "%=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignMod;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_63 /* "**=" */)) {
+            final int pos1 = ts(pos0, t_63 /* "**=" */);
+            if(pos1 >= 0) {
                 output.val = Assignment.Operator.AssignPow;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_COAL(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_COAL(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_OR(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPCOAL(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_OR(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPCOAL(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPCOAL(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPCOAL(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_64 /* "??" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_64 /* "??" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OR(pos3, output3)) {
+                    final int pos3 = nt_EXPR_OR(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(BinaryOperator.Operator.Coal, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPCOAL(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPCOAL(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2374,49 +2116,43 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_OR(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OR(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_AND(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPOR(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_AND(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPOR(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPOR(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPOR(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_65 /* "||" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_65 /* "||" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_AND(pos3, output3)) {
+                    final int pos3 = nt_EXPR_AND(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(BinaryOperator.Operator.Or, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPOR(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPOR(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2424,49 +2160,43 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_AND(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_AND(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_BITOR(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPAND(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_BITOR(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPAND(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPAND(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPAND(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_66 /* "&&" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_66 /* "&&" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_BITOR(pos3, output3)) {
+                    final int pos3 = nt_EXPR_BITOR(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(BinaryOperator.Operator.And, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPAND(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPAND(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2474,49 +2204,43 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_BITOR(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_BITOR(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_BITXOR(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPBITOR(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_BITXOR(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPBITOR(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPBITOR(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPBITOR(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '|')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = tc(pos0, '|');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_BITXOR(pos3, output3)) {
+                    final int pos3 = nt_EXPR_BITXOR(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(BinaryOperator.Operator.BitOr, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPBITOR(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPBITOR(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2524,49 +2248,43 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_BITXOR(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_BITXOR(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_BITAND(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPBITXOR(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_BITAND(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPBITXOR(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPBITXOR(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPBITXOR(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '^')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = tc(pos0, '^');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_BITAND(pos3, output3)) {
+                    final int pos3 = nt_EXPR_BITAND(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(BinaryOperator.Operator.BitXor, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPBITXOR(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPBITXOR(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2574,49 +2292,43 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_BITAND(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_BITAND(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_CMP(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPBITAND(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_CMP(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPBITAND(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPBITAND(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPBITAND(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '&')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = tc(pos0, '&');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_CMP(pos3, output3)) {
+                    final int pos3 = nt_EXPR_CMP(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(BinaryOperator.Operator.BitAnd, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPBITAND(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPBITAND(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2624,50 +2336,44 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_CMP(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_CMP(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_REL(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPCMP(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_REL(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPCMP(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPCMP(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPCMP(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<BinaryOperator.Operator> output1 = new Ref<BinaryOperator.Operator>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_OP_CMP(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_OP_CMP(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_REL(pos3, output3)) {
+                    final int pos3 = nt_EXPR_REL(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(output1.val, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPCMP(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPCMP(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2675,79 +2381,70 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_OP_CMP(final Ref_int pos, final Ref<BinaryOperator.Operator> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_OP_CMP(final int pos, final Ref<BinaryOperator.Operator> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_67 /* "<=>" */)) {
+            final int pos1 = ts(pos0, t_67 /* "<=>" */);
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Compare;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_68 /* "==" */)) {
+            final int pos1 = ts(pos0, t_68 /* "==" */);
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Equal;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_69 /* "!=" */)) {
+            final int pos1 = ts(pos0, t_69 /* "!=" */);
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.NotEqual;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_REL(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_REL(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_CAT(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPREL(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_CAT(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPREL(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPREL(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPREL(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<BinaryOperator.Operator> output1 = new Ref<BinaryOperator.Operator>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_OP_REL(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_OP_REL(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_CAT(pos3, output3)) {
+                    final int pos3 = nt_EXPR_CAT(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(output1.val, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPREL(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPREL(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2755,86 +2452,76 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_OP_REL(final Ref_int pos, final Ref<BinaryOperator.Operator> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_OP_REL(final int pos, final Ref<BinaryOperator.Operator> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_70 /* "<=" */)) {
+            final int pos1 = ts(pos0, t_70 /* "<=" */);
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.LessOrEqual;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '<')) {
+            final int pos1 = tc(pos0, '<');
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Less;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_71 /* ">=" */)) {
+            final int pos1 = ts(pos0, t_71 /* ">=" */);
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.GreaterOrEqual;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '>')) {
+            final int pos1 = tc(pos0, '>');
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Greater;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_CAT(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_CAT(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_SHIFT(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPCAT(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_SHIFT(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPCAT(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPCAT(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPCAT(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_72 /* "++" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_72 /* "++" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_SHIFT(pos3, output3)) {
+                    final int pos3 = nt_EXPR_SHIFT(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(BinaryOperator.Operator.Concat, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPCAT(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPCAT(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2842,50 +2529,44 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_SHIFT(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_SHIFT(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_ADD(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPSHIFT(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_ADD(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPSHIFT(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPSHIFT(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPSHIFT(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<BinaryOperator.Operator> output1 = new Ref<BinaryOperator.Operator>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_OP_SHIFT(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_OP_SHIFT(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_ADD(pos3, output3)) {
+                    final int pos3 = nt_EXPR_ADD(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(output1.val, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPSHIFT(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPSHIFT(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2893,71 +2574,63 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_OP_SHIFT(final Ref_int pos, final Ref<BinaryOperator.Operator> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_OP_SHIFT(final int pos, final Ref<BinaryOperator.Operator> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_73 /* "<<" */)) {
+            final int pos1 = ts(pos0, t_73 /* "<<" */);
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Shl;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_74 /* ">>" */)) {
+            final int pos1 = ts(pos0, t_74 /* ">>" */);
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Shr;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_ADD(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_ADD(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_MUL(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPADD(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_MUL(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPADD(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPADD(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPADD(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<BinaryOperator.Operator> output1 = new Ref<BinaryOperator.Operator>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_OP_ADD(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_OP_ADD(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_MUL(pos3, output3)) {
+                    final int pos3 = nt_EXPR_MUL(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(output1.val, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPADD(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPADD(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -2965,71 +2638,63 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_OP_ADD(final Ref_int pos, final Ref<BinaryOperator.Operator> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_OP_ADD(final int pos, final Ref<BinaryOperator.Operator> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '+')) {
+            final int pos1 = tc(pos0, '+');
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Add;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '-')) {
+            final int pos1 = tc(pos0, '-');
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Sub;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_MUL(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_MUL(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_POW(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPMUL(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_POW(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPMUL(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPMUL(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPMUL(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<BinaryOperator.Operator> output1 = new Ref<BinaryOperator.Operator>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_OP_MUL(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_OP_MUL(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_POW(pos3, output3)) {
+                    final int pos3 = nt_EXPR_POW(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(output1.val, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPMUL(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPMUL(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -3037,78 +2702,69 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_OP_MUL(final Ref_int pos, final Ref<BinaryOperator.Operator> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_OP_MUL(final int pos, final Ref<BinaryOperator.Operator> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '*')) {
+            final int pos1 = tc(pos0, '*');
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Mul;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '/')) {
+            final int pos1 = tc(pos0, '/');
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Div;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '%')) {
+            final int pos1 = tc(pos0, '%');
+            if(pos1 >= 0) {
                 output.val = BinaryOperator.Operator.Mod;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_POW(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_POW(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_PREFIX(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPPOW(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_PREFIX(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPPOW(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPPOW(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPPOW(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_75 /* "**" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_75 /* "**" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_PREFIX(pos3, output3)) {
+                    final int pos3 = nt_EXPR_PREFIX(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(BinaryOperator.Operator.Pow, output.val, output3.val);
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPPOW(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPPOW(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -3116,109 +2772,97 @@ public class Parser {
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_EXPR_PREFIX(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_PREFIX(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<UnaryOperator.Operator> output1 = new Ref<UnaryOperator.Operator>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_PREFIX_OP(pos1, output1)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = nt_PREFIX_OP(pos0, output1);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_PREFIX(pos3, output3)) {
+                    final int pos3 = nt_EXPR_PREFIX(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new UnaryOperator(output1.val, output3.val).propagateConst(session);
-                        pos.val = pos3.val;
-                        return true;
+                        return pos3;
                     }
                 }
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_CALL(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_EXPR_CALL(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_PREFIX_OP(final Ref_int pos, final Ref<UnaryOperator.Operator> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_PREFIX_OP(final int pos, final Ref<UnaryOperator.Operator> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '!')) {
+            final int pos1 = tc(pos0, '!');
+            if(pos1 >= 0) {
                 output.val = UnaryOperator.Operator.Not;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '-')) {
+            final int pos1 = tc(pos0, '-');
+            if(pos1 >= 0) {
                 output.val = UnaryOperator.Operator.Neg;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '~')) {
+            final int pos1 = tc(pos0, '~');
+            if(pos1 >= 0) {
                 output.val = UnaryOperator.Operator.BitNot;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_CALL(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_CALL(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_LEAF(pos1, output)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPR_OPCALL(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+            final int pos1 = nt_EXPR_LEAF(pos0, output);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
+                    final int pos3 = nt_EXPR_OPCALL(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_OPCALL(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_OPCALL(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '(')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
+            final int pos1 = tc(pos0, '(');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<ArrayList<Expression>> output3 = new Ref<ArrayList<Expression>>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_CALL_ARGS(pos3, output3)) {
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(tc(pos4, ')')) {
+                    final int pos3 = nt_CALL_ARGS(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = tc(pos3, ')');
+                        if(pos4 >= 0) {
                             output.val = new Call(output.val, output3.val);
-                            final Ref<Object> output5 = new Ref<Object>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_WS(pos5, output5)) {
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_EXPR_OPCALL(pos6, output)) {
-                                    pos.val = pos6.val;
-                                    return true;
+                            final int pos5 = nt_WS(pos4, _ignored);
+                            if(pos5 >= 0) {
+                                final int pos6 = nt_EXPR_OPCALL(pos5, output);
+                                if(pos6 >= 0) {
+                                    return pos6;
                                 }
                             }
                         }
@@ -3227,22 +2871,19 @@ public class Parser {
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '.')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = tc(pos0, '.');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Text> output3 = new Ref<Text>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_IDENT(pos3, output3)) {
+                    final int pos3 = nt_IDENT(pos2, output3);
+                    if(pos3 >= 0) {
                         output.val = new BinaryOperator(BinaryOperator.Operator.Child, output.val, new Constant(output3.val));
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_EXPR_OPCALL(pos5, output)) {
-                                pos.val = pos5.val;
-                                return true;
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_EXPR_OPCALL(pos4, output);
+                            if(pos5 >= 0) {
+                                return pos5;
                             }
                         }
                     }
@@ -3250,27 +2891,23 @@ public class Parser {
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '[')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = tc(pos0, '[');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<Expression> output3 = new Ref<Expression>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_EXPRESSION(pos3, output3)) {
-                        final Ref<Object> output4 = new Ref<Object>(null);
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_WS(pos4, output4)) {
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(tc(pos5, ']')) {
+                    final int pos3 = nt_EXPRESSION(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_WS(pos3, _ignored);
+                        if(pos4 >= 0) {
+                            final int pos5 = tc(pos4, ']');
+                            if(pos5 >= 0) {
                                 output.val = new BinaryOperator(BinaryOperator.Operator.Child, output.val, output3.val);
-                                final Ref<Object> output6 = new Ref<Object>(null);
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(nt_WS(pos6, output6)) {
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(nt_EXPR_OPCALL(pos7, output)) {
-                                        pos.val = pos7.val;
-                                        return true;
+                                final int pos6 = nt_WS(pos5, _ignored);
+                                if(pos6 >= 0) {
+                                    final int pos7 = nt_EXPR_OPCALL(pos6, output);
+                                    if(pos7 >= 0) {
+                                        return pos7;
                                     }
                                 }
                             }
@@ -3280,136 +2917,119 @@ public class Parser {
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(ts(pos1, t_76 /* "[*]" */)) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WS(pos2, output2)) {
+            final int pos1 = ts(pos0, t_76 /* "[*]" */);
+            if(pos1 >= 0) {
+                final int pos2 = nt_WS(pos1, _ignored);
+                if(pos2 >= 0) {
                     output.val = new ReferenceContent(output.val);
-                    final Ref<Object> output3 = new Ref<Object>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_WS(pos3, output3)) {
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(nt_EXPR_OPCALL(pos4, output)) {
-                            pos.val = pos4.val;
-                            return true;
+                    final int pos3 = nt_WS(pos2, _ignored);
+                    if(pos3 >= 0) {
+                        final int pos4 = nt_EXPR_OPCALL(pos3, output);
+                        if(pos4 >= 0) {
+                            return pos4;
                         }
                     }
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_CALL_ARGS(final Ref_int pos, final Ref<ArrayList<Expression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_CALL_ARGS(final int pos, final Ref<ArrayList<Expression>> output) {
+        final int pos0 = pos;
         {
             final Ref<Expression> output1 = new Ref<Expression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPRESSION(pos1, output1)) {
+            final int pos1 = nt_EXPRESSION(pos0, output1);
+            if(pos1 >= 0) {
                 appendT(output, output1.val);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_CALL_TAIL(pos2, output)) {
-                    pos.val = pos2.val;
-                    return true;
+                final int pos2 = nt_CALL_TAIL(pos1, output);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_CALL_TAIL(final Ref_int pos, final Ref<ArrayList<Expression>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_CALL_TAIL(final int pos, final Ref<ArrayList<Expression>> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_SEP(pos1, output1)) {
+            final int pos1 = nt_SEP(pos0, _ignored);
+            if(pos1 >= 0) {
                 final Ref<Expression> output2 = new Ref<Expression>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_EXPRESSION(pos2, output2)) {
+                final int pos2 = nt_EXPRESSION(pos1, output2);
+                if(pos2 >= 0) {
                     appendT(output, output2.val);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_CALL_TAIL(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+                    final int pos3 = nt_CALL_TAIL(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WSML(pos1, output1)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_WSML(pos0, _ignored);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_LEAF(final Ref_int pos, final Ref<Expression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_LEAF(final int pos, final Ref<Expression> output) {
+        final int pos0 = pos;
         {
             final Ref<Text> output1 = new Ref<Text>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_IDENT(pos1, output1)) {
+            final int pos1 = nt_IDENT(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = new Variable(output1.val);
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
             final Ref<FunctionExpression> output1 = new Ref<FunctionExpression>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_EXPR_FUNC(pos1, output1)) {
+            final int pos1 = nt_EXPR_FUNC(pos0, output1);
+            if(pos1 >= 0) {
                 output.val = output1.val;
-                pos.val = pos1.val;
-                return true;
+                return pos1;
             }
         }
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_VALUE(pos1, output)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_VALUE(pos0, output);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_EXPR_FUNC(final Ref_int pos, final Ref<FunctionExpression> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_EXPR_FUNC(final int pos, final Ref<FunctionExpression> output) {
+        final int pos0 = pos;
         {
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(tc(pos1, '(')) {
-                final Ref<Object> output2 = new Ref<Object>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_WSML(pos2, output2)) {
+            final int pos1 = tc(pos0, '(');
+            if(pos1 >= 0) {
+                final int pos2 = nt_WSML(pos1, _ignored);
+                if(pos2 >= 0) {
                     final Ref<ArrayList<IdentifierDeclaration>> output3 = new Ref<ArrayList<IdentifierDeclaration>>(null);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_FUNC_ARGS(pos3, output3)) {
-                        final Ref_int pos4 = new Ref_int(pos3.val);
-                        if(tc(pos4, ')')) {
-                            final Ref<Object> output5 = new Ref<Object>(null);
-                            final Ref_int pos5 = new Ref_int(pos4.val);
-                            if(nt_WS(pos5, output5)) {
-                                final Ref_int pos6 = new Ref_int(pos5.val);
-                                if(ts(pos6, t_77 /* "->" */)) {
-                                    final Ref<Object> output7 = new Ref<Object>(null);
-                                    final Ref_int pos7 = new Ref_int(pos6.val);
-                                    if(nt_WS(pos7, output7)) {
+                    final int pos3 = nt_FUNC_ARGS(pos2, output3);
+                    if(pos3 >= 0) {
+                        final int pos4 = tc(pos3, ')');
+                        if(pos4 >= 0) {
+                            final int pos5 = nt_WS(pos4, _ignored);
+                            if(pos5 >= 0) {
+                                final int pos6 = ts(pos5, t_77 /* "->" */);
+                                if(pos6 >= 0) {
+                                    final int pos7 = nt_WS(pos6, _ignored);
+                                    if(pos7 >= 0) {
                                         final Ref<Expression> output8 = new Ref<Expression>(null);
-                                        final Ref_int pos8 = new Ref_int(pos7.val);
-                                        if(nt_EXPRESSION(pos8, output8)) {
+                                        final int pos8 = nt_EXPRESSION(pos7, output8);
+                                        if(pos8 >= 0) {
                                             output.val = new FunctionExpression(false, output3.val, output8.val);
-                                            pos.val = pos8.val;
-                                            return true;
+                                            return pos8;
                                         }
                                     }
                                 }
@@ -3419,96 +3039,88 @@ public class Parser {
                 }
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean nt_FUNC_ARGS(final Ref_int pos, final Ref<ArrayList<IdentifierDeclaration>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_FUNC_ARGS(final int pos, final Ref<ArrayList<IdentifierDeclaration>> output) {
+        final int pos0 = pos;
         {
             final Ref<IdentifierDeclaration> output1 = new Ref<IdentifierDeclaration>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_IDENT_DECLARATION(pos1, output1)) {
+            final int pos1 = nt_IDENT_DECLARATION(pos0, output1);
+            if(pos1 >= 0) {
                 appendT(output, output1.val);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_FUNC_TAIL(pos2, output)) {
-                    pos.val = pos2.val;
-                    return true;
+                final int pos2 = nt_FUNC_TAIL(pos1, output);
+                if(pos2 >= 0) {
+                    return pos2;
                 }
             }
         }
         {
-            pos.val = pos0.val;
-            return true;
+            return pos0;
         }
     }
 
-    private boolean nt_FUNC_TAIL(final Ref_int pos, final Ref<ArrayList<IdentifierDeclaration>> output) {
-        final Ref_int pos0 = new Ref_int(pos.val);
+    private int nt_FUNC_TAIL(final int pos, final Ref<ArrayList<IdentifierDeclaration>> output) {
+        final int pos0 = pos;
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_SEP(pos1, output1)) {
+            final int pos1 = nt_SEP(pos0, _ignored);
+            if(pos1 >= 0) {
                 final Ref<IdentifierDeclaration> output2 = new Ref<IdentifierDeclaration>(null);
-                final Ref_int pos2 = new Ref_int(pos1.val);
-                if(nt_IDENT_DECLARATION(pos2, output2)) {
+                final int pos2 = nt_IDENT_DECLARATION(pos1, output2);
+                if(pos2 >= 0) {
                     appendT(output, output2.val);
-                    final Ref_int pos3 = new Ref_int(pos2.val);
-                    if(nt_FUNC_TAIL(pos3, output)) {
-                        pos.val = pos3.val;
-                        return true;
+                    final int pos3 = nt_FUNC_TAIL(pos2, output);
+                    if(pos3 >= 0) {
+                        return pos3;
                     }
                 }
             }
         }
         {
-            final Ref<Object> output1 = new Ref<Object>(null);
-            final Ref_int pos1 = new Ref_int(pos0.val);
-            if(nt_WSML(pos1, output1)) {
-                pos.val = pos1.val;
-                return true;
+            final int pos1 = nt_WSML(pos0, _ignored);
+            if(pos1 >= 0) {
+                return pos1;
             }
         }
-        return false;
+        return -1;
     }
 
-    private boolean ts(final Ref_int pos, char[] s) {
-        for(char c : s) {
-            if(pos.val >= _input.length || _input[pos.val] != c) return false;
-            pos.val++;
+    private int ts(final int pos, char[] s) {
+        if(pos + s.length > _length) return -1;
+        for(int i = 0; i < s.length; i++) {
+            if(_input.charAt(pos + i) != s[i]) return -1;
         }
-        return true;
+        return pos + s.length;
     }
 
-    private boolean tc(final Ref_int pos, char c) {
-        if(pos.val >= _input.length || _input[pos.val] != c) return false;
-        pos.val++;
-        return true;
+    private int tc(final int pos, char c) {
+        if(pos >= _length || _input.charAt(pos) != c) return -1;
+        return pos + 1;
     }
 
-    private boolean tset(final Ref_int pos, char[] s) {
+    private int tset(final int pos, char[] s) {
+        if(pos >= _length) return -1;
+        final char c = _input.charAt(pos);
         for(int i = 0; i < s.length; i++) {
-            if(pos.val < _input.length && s[i] == _input[pos.val]) {
-                pos.val++;
-                return true;
-            }
+            if(s[i] == c) return pos + 1;
         }
-        return false;
+        return -1;
     }
 
-    private boolean trange(final Ref_int pos, char c1, char c2) {
-        if(pos.val >= _input.length || _input[pos.val] < c1 || _input[pos.val] > c2) return false;
-        pos.val++;
-        return true;
+    private int trange(final int pos, char c1, char c2) {
+        if(pos >= _length) return -1;
+        final char c = _input.charAt(pos);
+        if(c < c1 || c > c2) return -1;
+        return pos + 1;
     }
 
-    private boolean tnotset(final Ref_int pos, char[] s) {
+    private int tnotset(final int pos, char[] s) {
+        if(pos >= _length) return -1;
+        final char c = _input.charAt(pos);
         for(int i = 0; i < s.length; i++) {
-            if(pos.val >= _input.length || s[i] == _input[pos.val]) {
-                return false;
-            }
+            if(s[i] == c) return -1;
         }
-        pos.val++;
-        return true;
+        return pos + 1;
     }
 
     private static final char[] t_1 = " \t\r".toCharArray();
@@ -3598,4 +3210,81 @@ public class Parser {
         public int val;
         public Ref_int(int val) { this.val = val; }
     }
+
+    /**
+     * Packrat memo table for the results of backtracking non terminals.
+     * Maps (rule, start position) to (end position or -1, output) using open addressing, so lookups do not allocate.
+     */
+    private final static class Memo {
+        private long[]   keys = new long[256];
+        private int[]    ends = new int[256];
+        private Object[] vals = new Object[256];
+        private int      size;
+
+        public int    end;
+        public Object val;
+
+        public boolean get(int rule, int pos) {
+            final long key = ((long) rule << 32) | pos;
+            final int mask = keys.length - 1;
+            for(int i = hash(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if(keys[i] == key) {
+                    end = ends[i];
+                    val = vals[i];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void put(int rule, int pos, int end, Object val) {
+            if(2 * (size + 1) > keys.length) {
+                grow();
+            }
+            insert(((long) rule << 32) | pos, end, val);
+        }
+
+        public void clear() {
+            if(size > 0) {
+                java.util.Arrays.fill(keys, 0);
+                java.util.Arrays.fill(vals, null);
+                size = 0;
+            }
+            val = null;
+        }
+
+        private void insert(long key, int end, Object val) {
+            final int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while(keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if(keys[i] == 0) {
+                size++;
+            }
+            keys[i] = key;
+            ends[i] = end;
+            vals[i] = val;
+        }
+
+        private void grow() {
+            final long[]   oldKeys = keys;
+            final int[]    oldEnds = ends;
+            final Object[] oldVals = vals;
+            keys = new long[oldKeys.length * 2];
+            ends = new int[oldKeys.length * 2];
+            vals = new Object[oldKeys.length * 2];
+            size = 0;
+            for(int i = 0; i < oldKeys.length; i++) {
+                if(oldKeys[i] != 0) {
+                    insert(oldKeys[i], oldEnds[i], oldVals[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            final long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
 }
@@ -0,0 +1,211 @@
+package styx.core.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import styx.Complex;
+import styx.Function;
+
+/**
+ * A bounded, thread safe cache of parsed (and usually compiled) scripts.
+ * <p>
+ * Entries are keyed by the script text and the identity of the environment and of the empty complex value of the
+ * session, so functions are shared only by sessions that would compile them in exactly the same way.
+ * Lookups do not lock. When an insertion exceeds the maximum number of entries or the maximum estimated memory,
+ * the least recently used entries are evicted until the cache is at 90% of its limits again.
+ * <p>
+ * Every session factory has a cache of its own (see AbstractSessionFactory). The cached functions are shared by the
+ * sessions and threads of the factory. Their nodes keep only state that is safe for concurrent use (see
+ * CollectionIntrinsics), nevertheless the cache is disabled by default.
+ */
+public final class ScriptCache {
+
+    /**
+     * The estimated memory per entry that does not depend on the length of the script (key, entry, map node).
+     */
+    private static final long ENTRY_BYTES = 200;
+
+    /**
+     * The estimated memory per character of the script: the text itself (1 or 2 bytes)
+     * and the syntax tree (3 to 13 bytes measured for the scripts in this repository).
+     */
+    private static final long CHAR_BYTES = 16;
+
+    private final int  maxEntries;
+    private final long maxBytes;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Object evictLock = new Object();
+
+    private final AtomicLong clock     = new AtomicLong();
+    private final AtomicLong bytes     = new AtomicLong();
+    private final AtomicLong hits      = new AtomicLong();
+    private final AtomicLong misses    = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache with the limits given by the system properties 'styx.script.cache.entries' (default 0)
+     * and 'styx.script.cache.bytes' (default 64 MB). A limit of zero disables the cache, so it is disabled by default.
+     */
+    public ScriptCache() {
+        this(Integer.getInteger("styx.script.cache.entries", 0), Long.getLong("styx.script.cache.bytes", 64L << 20));
+    }
+
+    /**
+     * Creates a cache with the given limits.
+     * @param maxEntries the maximum number of scripts, zero disables the cache.
+     * @param maxBytes the maximum estimated memory used by the scripts, zero disables the cache.
+     */
+    public ScriptCache(int maxEntries, long maxBytes) {
+        if(maxEntries < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("Limits must not be negative.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes   = maxBytes;
+    }
+
+    /**
+     * Looks up a script, counting a hit or a miss.
+     * @return the cached function or null if the script is not cached.
+     */
+    public Function get(String script, Complex environment, Complex empty, boolean compile) {
+        Entry entry = entries.get(new Key(script, environment, empty, compile));
+        if(entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        hits.incrementAndGet();
+        return entry.function;
+    }
+
+    /**
+     * Adds a script, evicting the least recently used entries if a limit is exceeded.
+     * Scripts that alone exceed the memory limit are not added.
+     */
+    public void put(String script, Complex environment, Complex empty, boolean compile, Function function) {
+        Entry entry = new Entry(function, ENTRY_BYTES + CHAR_BYTES * script.length(), clock.incrementAndGet());
+        if(maxEntries == 0 || entry.bytes > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(new Key(script, environment, empty, compile), entry);
+        bytes.addAndGet(entry.bytes - (previous != null ? previous.bytes : 0));
+        if(entries.size() > maxEntries || bytes.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * Removes all entries (the counters are not reset).
+     */
+    public void clear() {
+        synchronized(evictLock) {
+            for(Key key : new ArrayList<>(entries.keySet())) {
+                Entry entry = entries.remove(key);
+                if(entry != null) {
+                    bytes.addAndGet(-entry.bytes);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long bytes() {
+        return bytes.get();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptCache[size=" + size() + ", bytes=" + bytes() + ", hits=" + hits() + ", misses=" + misses() + ", evictions=" + evictions() + "]";
+    }
+
+    private void evict() {
+        synchronized(evictLock) {
+            if(entries.size() <= maxEntries && bytes.get() <= maxBytes) {
+                return; // another thread has already evicted
+            }
+            List<Map.Entry<Key, Entry>> candidates = new ArrayList<>(entries.entrySet());
+            Collections.sort(candidates, new Comparator<Map.Entry<Key, Entry>>() {
+                @Override
+                public int compare(Map.Entry<Key, Entry> a, Map.Entry<Key, Entry> b) {
+                    return Long.compare(a.getValue().lastUsed, b.getValue().lastUsed);
+                }
+            });
+            long targetEntries = maxEntries * 9L / 10;
+            long targetBytes   = maxBytes   * 9L / 10;
+            for(Map.Entry<Key, Entry> candidate : candidates) {
+                if(entries.size() <= targetEntries && bytes.get() <= targetBytes) {
+                    break;
+                }
+                if(entries.remove(candidate.getKey(), candidate.getValue())) {
+                    bytes.addAndGet(-candidate.getValue().bytes);
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String  script;
+        private final Complex environment;
+        private final Complex empty;
+        private final boolean compile;
+        private final int     hash;
+
+        Key(String script, Complex environment, Complex empty, boolean compile) {
+            this.script      = script;
+            this.environment = environment;
+            this.empty       = empty;
+            this.compile     = compile;
+            this.hash        = ((script.hashCode() * 31 + System.identityHashCode(environment)) * 31 +
+                                System.identityHashCode(empty)) * 2 + (compile ? 1 : 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if(!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hash == key.hash && environment == key.environment && empty == key.empty &&
+                   compile == key.compile && script.equals(key.script);
+        }
+    }
+
+    private static final class Entry {
+        private final Function function;
+        private final long     bytes;
+        private volatile long  lastUsed;
+
+        Entry(Function function, long bytes, long lastUsed) {
+            this.function = function;
+            this.bytes    = bytes;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
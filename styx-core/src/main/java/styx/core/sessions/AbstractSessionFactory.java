@@ -7,13 +7,13 @@ import styx.SessionManager;
 import styx.StyxException;
 import styx.StyxRuntimeException;
 import styx.Value;
-import styx.core.EvalProvider;
 import styx.core.FuncProvider;
 import styx.core.TypeProvider;
 import styx.core.expressions.FuncFactory;
 import styx.core.expressions.FuncRegistry;
 import styx.core.intrinsics.AllIntrinsics;
 import styx.core.parser.Interpreter;
+import styx.core.parser.ScriptCache;
 import styx.core.types.TypeFactory;
 
 public abstract class AbstractSessionFactory implements SessionFactory {
@@ -24,7 +24,7 @@ public abstract class AbstractSessionFactory implements SessionFactory {
 
     protected final TypeProvider type = new TypeFactory();
     protected final FuncProvider func = new FuncFactory(registry);
-    protected final EvalProvider eval = new Interpreter();
+    protected final Interpreter  eval = new Interpreter();
 
     protected Complex environment;
 
@@ -44,4 +44,8 @@ public abstract class AbstractSessionFactory implements SessionFactory {
     public FuncRegistry getRegistry() {
         return registry;
     }
+
+    public ScriptCache getScriptCache() {
+        return eval.getCache();
+    }
 }
@@ -5,8 +5,12 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
 
 import styx.Binary;
 import styx.Bool;
@@ -20,12 +24,14 @@ import styx.Text;
 import styx.Type;
 import styx.Value;
 import styx.Void;
+import styx.Watcher;
 import styx.core.DataProvider;
 import styx.core.EvalProvider;
 import styx.core.FuncProvider;
 import styx.core.TypeProvider;
 import styx.core.utils.Serializer;
 import styx.core.values.AbstractValue;
+import styx.core.values.LazyComplex;
 
 public class ConcreteSession implements Session {
 
@@ -35,6 +41,7 @@ public class ConcreteSession implements Session {
     private final FuncProvider func;
     private final EvalProvider eval;
     private final Complex      environment;
+    private final TransactionMetrics metrics = new TransactionMetrics();
 
     public ConcreteSession(DataProvider data, TypeProvider type, FuncProvider func, EvalProvider eval, Complex environment) {
         this(AbstractValue.complex(), data, type, func, eval, environment);
@@ -54,6 +61,20 @@ public class ConcreteSession implements Session {
         data.close();
     }
 
+    /**
+     * Returns the counters of the transactions of 'atomic' statements evaluated in this session.
+     */
+    public TransactionMetrics transactionMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the lock used by 'atomic' statements to run transactions exclusively, see DataProvider.transactionLock().
+     */
+    public ReadWriteLock transactionLock() {
+        return data.transactionLock();
+    }
+
     @Override
     public Text text(String val) {
         return AbstractValue.text(val);
@@ -126,7 +147,27 @@ public class ConcreteSession implements Session {
 
     @Override
     public void write(Reference ref, Value val) throws StyxException {
-        data.write(this, ref, val);
+        data.write(this, ref, LazyComplex.materializeAll(val)); // store the children instead of the generators
+    }
+
+    @Override
+    public List<Value> readAll(Collection<Reference> refs) throws StyxException {
+        return data.readAll(this, refs);
+    }
+
+    @Override
+    public void writeAll(Map<Reference, Value> vals) throws StyxException {
+        Map<Reference, Value> copy = null; // only if there are lazy values, which are replaced by their children
+        for(Map.Entry<Reference, Value> entry : vals.entrySet()) {
+            Value val = LazyComplex.materializeAll(entry.getValue());
+            if(copy == null && val != entry.getValue()) {
+                copy = new LinkedHashMap<>(vals);
+            }
+            if(copy != null) {
+                copy.put(entry.getKey(), val);
+            }
+        }
+        data.writeAll(this, copy != null ? copy : vals);
     }
 
     @Override
@@ -139,6 +180,16 @@ public class ConcreteSession implements Session {
         return data.browse(this, ref, after, before, maxResults, forward);
     }
 
+    @Override
+    public void watch(Reference ref, Watcher watcher) throws StyxException {
+        data.watch(this, Objects.requireNonNull(ref), Objects.requireNonNull(watcher));
+    }
+
+    @Override
+    public void unwatch(Watcher watcher) {
+        data.unwatch(this, watcher);
+    }
+
     @Override
     public boolean hasTransaction() {
         return data.hasTransaction();
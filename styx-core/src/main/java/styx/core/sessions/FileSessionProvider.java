@@ -9,6 +9,7 @@ import styx.SessionFactory;
 import styx.SessionManager;
 import styx.SessionProvider;
 import styx.StyxException;
+import styx.Value;
 import styx.core.memory.SharedMemoryData;
 import styx.core.memory.SharedValue;
 import styx.core.memory.SharedValueFile;
@@ -23,13 +24,19 @@ public final class FileSessionProvider implements SessionProvider {
     @Override
     public SessionFactory createSessionFactory(Complex parameters) {
         Session detached = SessionManager.getDetachedSession();
+        Value journal = parameters.get(detached.text("journal"));
         return createSessionFactory(
                 FileSystems.getDefault().getPath(parameters.get(detached.text("path")).asText().toTextString()),
-                parameters.get(detached.text("indent")).asBool().toBool());
+                parameters.get(detached.text("indent")).asBool().toBool(),
+                journal != null && journal.asBool().toBool());
     }
 
     public static AbstractSessionFactory createSessionFactory(Path path, boolean indent) {
-        final SharedValue state = new SharedValueFile(path, indent);
+        return createSessionFactory(path, indent, false);
+    }
+
+    public static AbstractSessionFactory createSessionFactory(Path path, boolean indent, boolean journal) {
+        final SharedValue state = new SharedValueFile(path, indent, journal);
         return new AbstractSessionFactory() {
             @Override
             public Session createSession() throws StyxException {
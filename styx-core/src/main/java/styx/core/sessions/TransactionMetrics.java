@@ -0,0 +1,148 @@
+package styx.core.sessions;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import styx.Complex;
+import styx.Session;
+
+/**
+ * Counts the outcomes of the transactions of 'atomic' statements, per session and for the whole process.
+ * <p>
+ * Every session has its own instance (see ConcreteSession), which also updates the global instance.
+ */
+public final class TransactionMetrics {
+
+    private static final TransactionMetrics GLOBAL = new TransactionMetrics(null);
+
+    private final TransactionMetrics parent;
+
+    private final LongAdder commits   = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries   = new LongAdder();
+    private final LongAdder failures  = new LongAdder();
+    private final LongAdder locks     = new LongAdder();
+    private final LongAdder aborted   = new LongAdder();
+
+    /**
+     * Constructs a new instance for a session.
+     */
+    public TransactionMetrics() {
+        this(GLOBAL);
+    }
+
+    private TransactionMetrics(TransactionMetrics parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Returns the instance that counts the transactions of all sessions of this process.
+     */
+    public static TransactionMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the instance that counts the transactions of the given session.
+     * @return the global instance if the session does not count transactions itself.
+     */
+    public static TransactionMetrics of(Session session) {
+        return session instanceof ConcreteSession ? ((ConcreteSession) session).transactionMetrics() : GLOBAL;
+    }
+
+    /**
+     * Counts a committed transaction.
+     */
+    public void commit() {
+        commits.increment();
+        if(parent != null) {
+            parent.commit();
+        }
+    }
+
+    /**
+     * Counts an attempt that failed because of a concurrent modification.
+     * @param nanos the duration of the aborted attempt.
+     */
+    public void conflict(long nanos) {
+        conflicts.increment();
+        aborted.add(nanos);
+        if(parent != null) {
+            parent.conflict(nanos);
+        }
+    }
+
+    /**
+     * Counts an attempt that has been aborted by a 'retry' statement.
+     */
+    public void retry() {
+        retries.increment();
+        if(parent != null) {
+            parent.retry();
+        }
+    }
+
+    /**
+     * Counts a transaction that has been given up because the maximum number of attempts has been reached.
+     */
+    public void failure() {
+        failures.increment();
+        if(parent != null) {
+            parent.failure();
+        }
+    }
+
+    /**
+     * Counts an attempt that runs exclusively.
+     */
+    public void lock() {
+        locks.increment();
+        if(parent != null) {
+            parent.lock();
+        }
+    }
+
+    public long commits() {
+        return commits.sum();
+    }
+
+    public long conflicts() {
+        return conflicts.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long locks() {
+        return locks.sum();
+    }
+
+    public long abortedNanos() {
+        return aborted.sum();
+    }
+
+    /**
+     * Returns the counters as a value.
+     * @return the keys are 'commits', 'conflicts', 'retries', 'failures', 'locks' and 'aborted'
+     *         (the total duration of the attempts that failed because of a conflict, in nanoseconds).
+     */
+    public Complex toValue(Session session) {
+        return session.complex().
+                put(session.text("commits"),   session.number(commits())).
+                put(session.text("conflicts"), session.number(conflicts())).
+                put(session.text("retries"),   session.number(retries())).
+                put(session.text("failures"),  session.number(failures())).
+                put(session.text("locks"),     session.number(locks())).
+                put(session.text("aborted"),   session.number(abortedNanos()));
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionMetrics[commits=" + commits() + ", conflicts=" + conflicts() + ", retries=" + retries() +
+                ", failures=" + failures() + ", locks=" + locks() + ", aborted=" + abortedNanos() + "ns]";
+    }
+}
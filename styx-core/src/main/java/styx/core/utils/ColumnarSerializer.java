@@ -0,0 +1,571 @@
+package styx.core.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import styx.Numeric;
+import styx.Pair;
+import styx.Reference;
+import styx.Session;
+import styx.StyxException;
+import styx.StyxRuntimeException;
+import styx.Value;
+
+/**
+ * Serializes and deserializes UDM values to and from a columnar binary format.
+ * <p>
+ * The format is intended for large collections of similarly shaped records, such as lists of complex values
+ * that all have the same keys. Such collections are written in blocks of up to {@value #BLOCK_SIZE} rows.
+ * Within a block, the keys of the records are written only once and the values are written column by column:
+ * <ul>
+ * <li> numbers as variable length integers or as doubles,
+ * <li> consecutive integers (such as the keys of lists) as start value only,
+ * <li> other textual values as indexes into a dictionary per column, which grows from block to block,
+ * <li> anything else recursively as values.
+ * </ul>
+ * Rows that do not match the records of the current block start a new block, so any complex value can be written.
+ * Values that are not collections of complex values are written as STYX text.
+ * <p>
+ * Since every block is self-contained except for the dictionaries, both writing and reading can be streamed:
+ * rows are written as they are read from a reference and written to a reference as soon as their block has been read.
+ */
+public final class ColumnarSerializer {
+
+    private static final byte[] MAGIC = "STYX-COL-0001___".getBytes(StandardCharsets.UTF_8);
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private static final int TAG_NULL = 0; // only at top level
+    private static final int TAG_TEXT = 1; // STYX text
+    private static final int TAG_ROWS = 2; // blocks of rows
+
+    private static final int BLOCK_END     = 0;
+    private static final int BLOCK_RECORDS = 1; // complex values with the same keys, column by column
+    private static final int BLOCK_VALUES  = 2; // arbitrary values
+
+    private static final int COLUMN_SEQUENCE = 1; // consecutive integers: start
+    private static final int COLUMN_LONG     = 2; // integers: zig-zag encoded variable length integers
+    private static final int COLUMN_DOUBLE   = 3; // numbers: 64-bit floating point
+    private static final int COLUMN_TEXT     = 4; // textual values: new dictionary entries, then indexes
+    private static final int COLUMN_VALUE    = 5; // anything else: values
+
+    /**
+     * Serializes an arbitrary UDM value into an OutputStream.
+     * @param val the value, can be null.
+     * @param stm the OutputStream, receives the binary document.
+     * @throws StyxException if an IO related error occurs.
+     */
+    public static void serialize(Value val, OutputStream stm) throws StyxException {
+        Objects.requireNonNull(stm);
+        try {
+            Writer writer = new Writer(stm);
+            writer.writeValue(val);
+            writer.flush();
+        } catch (IOException e) {
+            throw new StyxException("Failed to serialize as columnar.", e);
+        }
+    }
+
+    /**
+     * Serializes the value of a reference into an OutputStream, reading complex values child by child.
+     * @param session the session to read from.
+     * @param ref the reference to serialize.
+     * @param stm the OutputStream, receives the binary document.
+     * @throws StyxException if an IO related error occurs.
+     */
+    public static void serialize(final Session session, final Reference ref, OutputStream stm) throws StyxException {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(ref);
+        Objects.requireNonNull(stm);
+        final List<Value> keys = session.browse(ref);
+        if(keys == null) {
+            serialize(session.read(ref), stm); // not complex
+            return;
+        }
+        Iterator<Pair<Value, Value>> rows = new Iterator<Pair<Value, Value>>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < keys.size();
+            }
+
+            @Override
+            public Pair<Value, Value> next() {
+                if(index >= keys.size()) {
+                    throw new NoSuchElementException();
+                }
+                Value key = keys.get(index++);
+                try {
+                    return new Pair<Value, Value>(key, session.read(ref.child(key)));
+                } catch (StyxException e) {
+                    throw new StyxRuntimeException("Failed to read child.", e);
+                }
+            }
+        };
+        try {
+            Writer writer = new Writer(stm);
+            writer.writeRows(rows);
+            writer.flush();
+        } catch (IOException | StyxRuntimeException e) {
+            throw new StyxException("Failed to serialize as columnar.", e);
+        }
+    }
+
+    /**
+     * Deserializes an arbitrary UDM value from an InputStream.
+     * @param session the session to be used to create values.
+     * @param stm the InputStream, must contain a binary document.
+     * @return the deserialized UDM value, can be null.
+     * @throws StyxException if an IO related error occurs, including format violations.
+     */
+    public static Value deserialize(Session session, InputStream stm) throws StyxException {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(stm);
+        try {
+            return new Reader(session, stm).readDocument();
+        } catch (IOException | StyxException e) {
+            throw new StyxException("Failed to deserialize from columnar.", e);
+        }
+    }
+
+    /**
+     * Deserializes an UDM value from an InputStream and writes it to a reference, row by row if complex.
+     * <p>
+     * If the document contains a complex value, the target is first set to an empty complex value and every
+     * row is written to a child of the target, so the whole value is never held in memory.
+     * @param session the session to be used to create and write values.
+     * @param stm the InputStream, must contain a binary document.
+     * @param target the reference to write to.
+     * @throws StyxException if an IO related error occurs, including format violations.
+     */
+    public static void deserialize(final Session session, InputStream stm, final Reference target) throws StyxException {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(stm);
+        Objects.requireNonNull(target);
+        try {
+            Reader reader = new Reader(session, stm);
+            reader.readMagic();
+            int tag = reader.in.readUnsignedByte();
+            if(tag == TAG_ROWS) {
+                session.write(target, session.complex());
+                reader.readRows((key, val) -> session.write(target.child(key), val));
+            } else {
+                session.write(target, reader.readValue(tag));
+            }
+        } catch (IOException | StyxException e) {
+            throw new StyxException("Failed to deserialize from columnar.", e);
+        }
+    }
+
+    /**
+     * Writes values to a DataOutputStream.
+     */
+    private static final class Writer {
+
+        private final DataOutputStream out;
+
+        /**
+         * The dictionaries of textual columns, by key of the column (null for the keys of the rows).
+         */
+        private final Map<Value, Map<String, Integer>> dictionaries = new HashMap<>();
+
+        Writer(OutputStream stm) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(stm));
+            out.write(MAGIC);
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        void writeValue(Value val) throws IOException, StyxException {
+            if(val == null) {
+                out.writeByte(TAG_NULL);
+            } else if(isCollection(val)) {
+                writeRows(val.asComplex().iterator());
+            } else {
+                out.writeByte(TAG_TEXT);
+                writeString(Serializer.serialize(val, false));
+            }
+        }
+
+        void writeRows(Iterator<Pair<Value, Value>> rows) throws IOException, StyxException {
+            out.writeByte(TAG_ROWS);
+            Writer nested = new Writer(this); // nested collections have their own dictionaries
+            List<Pair<Value, Value>> block = new ArrayList<>();
+            List<Value> fields = null;
+            while(rows.hasNext()) {
+                Pair<Value, Value> row = rows.next();
+                List<Value> rowFields = fieldsOf(row.val());
+                if(!block.isEmpty() && (block.size() == BLOCK_SIZE || !Objects.equals(fields, rowFields))) {
+                    nested.writeBlock(block, fields);
+                    block.clear();
+                }
+                block.add(row);
+                fields = rowFields;
+            }
+            if(!block.isEmpty()) {
+                nested.writeBlock(block, fields);
+            }
+            out.writeByte(BLOCK_END);
+        }
+
+        private Writer(Writer parent) {
+            this.out = parent.out;
+        }
+
+        private void writeBlock(List<Pair<Value, Value>> block, List<Value> fields) throws IOException, StyxException {
+            int rows = block.size();
+            Value[] column = new Value[rows];
+            for(int i = 0; i < rows; i++) {
+                column[i] = block.get(i).key();
+            }
+            if(fields == null) {
+                out.writeByte(BLOCK_VALUES);
+                writeVarLong(rows);
+                writeColumn(null, column);
+                for(int i = 0; i < rows; i++) {
+                    writeValue(block.get(i).val());
+                }
+            } else {
+                out.writeByte(BLOCK_RECORDS);
+                writeVarLong(rows);
+                writeColumn(null, column);
+                writeVarLong(fields.size());
+                for(Value field : fields) {
+                    writeValue(field);
+                }
+                List<Iterator<Pair<Value, Value>>> records = new ArrayList<>(rows);
+                for(int i = 0; i < rows; i++) {
+                    records.add(block.get(i).val().asComplex().iterator());
+                }
+                for(Value field : fields) {
+                    for(int i = 0; i < rows; i++) {
+                        column[i] = records.get(i).next().val(); // same order of keys in all records
+                    }
+                    writeColumn(field, column);
+                }
+            }
+        }
+
+        private void writeColumn(Value field, Value[] column) throws IOException, StyxException {
+            int kind = columnKind(column);
+            out.writeByte(kind);
+            switch(kind) {
+                case COLUMN_SEQUENCE:
+                    writeVarLong(zigZag(column[0].asNumber().toLong()));
+                    break;
+                case COLUMN_LONG:
+                    for(Value val : column) {
+                        writeVarLong(zigZag(val.asNumber().toLong()));
+                    }
+                    break;
+                case COLUMN_DOUBLE:
+                    for(Value val : column) {
+                        out.writeDouble(val.asNumber().toDouble());
+                    }
+                    break;
+                case COLUMN_TEXT: {
+                    Map<String, Integer> dictionary = dictionaries.get(field);
+                    if(dictionary == null) {
+                        dictionary = new HashMap<>();
+                        dictionaries.put(field, dictionary);
+                    }
+                    int[] indexes = new int[column.length];
+                    List<String> entries = new ArrayList<>();
+                    for(int i = 0; i < column.length; i++) {
+                        String text = column[i].asText().toTextString();
+                        Integer index = dictionary.get(text);
+                        if(index == null) {
+                            index = dictionary.size();
+                            dictionary.put(text, index);
+                            entries.add(text);
+                        }
+                        indexes[i] = index;
+                    }
+                    writeVarLong(entries.size());
+                    for(String entry : entries) {
+                        writeString(entry);
+                    }
+                    for(int index : indexes) {
+                        writeVarLong(index);
+                    }
+                    break;
+                }
+                default:
+                    for(Value val : column) {
+                        writeValue(val);
+                    }
+                    break;
+            }
+        }
+
+        private static int columnKind(Value[] column) {
+            boolean longs = true;
+            boolean doubles = true;
+            boolean texts = true;
+            for(Value val : column) {
+                if(val.isNumber() && val.asNumber().normalized()) {
+                    Numeric num = val.asNumber();
+                    longs &= num.isLong();
+                    doubles &= num.isDouble();
+                } else {
+                    longs = false;
+                    doubles = false;
+                    texts &= val.isText();
+                }
+            }
+            if(longs) {
+                for(int i = 1; i < column.length; i++) {
+                    if(column[i].asNumber().toLong() != column[i - 1].asNumber().toLong() + 1) {
+                        return COLUMN_LONG;
+                    }
+                }
+                return COLUMN_SEQUENCE;
+            }
+            if(doubles) {
+                return COLUMN_DOUBLE;
+            }
+            if(texts) {
+                return COLUMN_TEXT;
+            }
+            return COLUMN_VALUE;
+        }
+
+        /**
+         * Returns the keys of a complex value if it can be written as record, null otherwise.
+         */
+        private static List<Value> fieldsOf(Value val) {
+            if(val == null || !val.isComplex()) {
+                return null;
+            }
+            List<Value> fields = new ArrayList<>();
+            for(Pair<Value, Value> pair : val.asComplex()) {
+                fields.add(pair.key());
+            }
+            return fields;
+        }
+
+        private static boolean isCollection(Value val) {
+            if(!val.isComplex()) {
+                return false;
+            }
+            Iterator<Pair<Value, Value>> it = val.asComplex().iterator();
+            return it.hasNext() && it.next().val().isComplex();
+        }
+
+        private void writeString(String str) throws IOException {
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarLong(long val) throws IOException {
+            while((val & ~0x7FL) != 0) {
+                out.writeByte((int) ((val & 0x7F) | 0x80));
+                val >>>= 7;
+            }
+            out.writeByte((int) val);
+        }
+
+        private static long zigZag(long val) {
+            return (val << 1) ^ (val >> 63);
+        }
+    }
+
+    /**
+     * Receives the rows of a collection while it is being read.
+     */
+    private interface RowSink {
+        public void row(Value key, Value val) throws StyxException;
+    }
+
+    /**
+     * Reads values from a DataInputStream.
+     */
+    private static final class Reader {
+
+        private final Session session;
+        private final DataInputStream in;
+
+        /**
+         * The dictionaries of textual columns, by key of the column (null for the keys of the rows).
+         */
+        private final Map<Value, List<Value>> dictionaries = new HashMap<>();
+
+        Reader(Session session, InputStream stm) {
+            this.session = session;
+            this.in = new DataInputStream(new BufferedInputStream(stm));
+        }
+
+        private Reader(Reader parent) {
+            this.session = parent.session;
+            this.in = parent.in;
+        }
+
+        void readMagic() throws IOException, StyxException {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if(!Arrays.equals(magic, MAGIC)) {
+                throw new StyxException("Not a columnar document.");
+            }
+        }
+
+        Value readDocument() throws IOException, StyxException {
+            readMagic();
+            Value result = readValue(in.readUnsignedByte());
+            if(in.read() != -1) {
+                throw new StyxException("Unexpected data after end of document.");
+            }
+            return result;
+        }
+
+        Value readValue(int tag) throws IOException, StyxException {
+            switch(tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_TEXT:
+                    return session.deserialize(readString());
+                case TAG_ROWS: {
+                    final List<Pair<Value, Value>> pairs = new ArrayList<>();
+                    readRows((key, val) -> pairs.add(new Pair<Value, Value>(key, val)));
+                    return session.complex().putAll(pairs);
+                }
+                default:
+                    throw new StyxException("Invalid tag " + tag + ".");
+            }
+        }
+
+        void readRows(RowSink sink) throws IOException, StyxException {
+            Reader nested = new Reader(this); // nested collections have their own dictionaries
+            int kind;
+            while((kind = in.readUnsignedByte()) != BLOCK_END) {
+                int rows = readCount();
+                Value[] keys = nested.readColumn(null, rows);
+                if(kind == BLOCK_VALUES) {
+                    for(int i = 0; i < rows; i++) {
+                        sink.row(keys[i], nested.readValue(in.readUnsignedByte()));
+                    }
+                } else if(kind == BLOCK_RECORDS) {
+                    int count = readCount();
+                    Value[] fields = new Value[count];
+                    for(int j = 0; j < count; j++) {
+                        fields[j] = nested.readValue(in.readUnsignedByte());
+                    }
+                    Value[][] columns = new Value[count][];
+                    for(int j = 0; j < count; j++) {
+                        columns[j] = nested.readColumn(fields[j], rows);
+                    }
+                    for(int i = 0; i < rows; i++) {
+                        List<Pair<Value, Value>> record = new ArrayList<>(count);
+                        for(int j = 0; j < count; j++) {
+                            record.add(new Pair<Value, Value>(fields[j], columns[j][i]));
+                        }
+                        sink.row(keys[i], session.complex().putAll(record));
+                    }
+                } else {
+                    throw new StyxException("Invalid block " + kind + ".");
+                }
+            }
+        }
+
+        private Value[] readColumn(Value field, int rows) throws IOException, StyxException {
+            Value[] column = new Value[rows];
+            int kind = in.readUnsignedByte();
+            switch(kind) {
+                case COLUMN_SEQUENCE: {
+                    long start = unZigZag(readVarLong());
+                    for(int i = 0; i < rows; i++) {
+                        column[i] = session.number(start + i);
+                    }
+                    break;
+                }
+                case COLUMN_LONG:
+                    for(int i = 0; i < rows; i++) {
+                        column[i] = session.number(unZigZag(readVarLong()));
+                    }
+                    break;
+                case COLUMN_DOUBLE:
+                    for(int i = 0; i < rows; i++) {
+                        column[i] = session.number(in.readDouble());
+                    }
+                    break;
+                case COLUMN_TEXT: {
+                    List<Value> dictionary = dictionaries.get(field);
+                    if(dictionary == null) {
+                        dictionary = new ArrayList<>();
+                        dictionaries.put(field, dictionary);
+                    }
+                    int entries = readCount();
+                    for(int i = 0; i < entries; i++) {
+                        dictionary.add(session.text(readString()));
+                    }
+                    for(int i = 0; i < rows; i++) {
+                        int index = readCount();
+                        if(index >= dictionary.size()) {
+                            throw new StyxException("Invalid dictionary index " + index + ".");
+                        }
+                        column[i] = dictionary.get(index);
+                    }
+                    break;
+                }
+                case COLUMN_VALUE:
+                    for(int i = 0; i < rows; i++) {
+                        column[i] = readValue(in.readUnsignedByte());
+                        if(column[i] == null) {
+                            throw new StyxException("Invalid null value in column.");
+                        }
+                    }
+                    break;
+                default:
+                    throw new StyxException("Invalid column " + kind + ".");
+            }
+            return column;
+        }
+
+        private String readString() throws IOException, StyxException {
+            byte[] bytes = new byte[readCount()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int readCount() throws IOException, StyxException {
+            long val = readVarLong();
+            if(val < 0 || val > Integer.MAX_VALUE) {
+                throw new StyxException("Invalid count " + val + ".");
+            }
+            return (int) val;
+        }
+
+        private long readVarLong() throws IOException, StyxException {
+            long val = 0;
+            for(int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+                val |= (long) (b & 0x7F) << shift;
+                if((b & 0x80) == 0) {
+                    return val;
+                }
+            }
+            throw new StyxException("Invalid variable length integer.");
+        }
+
+        private static long unZigZag(long val) {
+            return (val >>> 1) ^ -(val & 1);
+        }
+    }
+}
@@ -30,6 +30,15 @@ public class ImmutableAvlTree<K extends Comparable<K>, V> implements ImmutableSo
         this.height = 1 + max(left.height, right.height);
     }
 
+    /**
+     * Builds a balanced tree from pairs that are already sorted, in O(n) instead of O(n log n).
+     * @param pairs the pairs, strictly ascending by key, with neither keys nor values being null.
+     * @return a new tree containing the given pairs.
+     */
+    public static <K extends Comparable<K>, V> ImmutableAvlTree<K, V> fromSorted(List<Pair<K, V>> pairs) {
+        return internalBuild(pairs, 0, pairs.size(), new ImmutableAvlTree<K, V>());
+    }
+
     private int balance() {
         return right.height - left.height;
     }
@@ -184,6 +193,18 @@ public class ImmutableAvlTree<K extends Comparable<K>, V> implements ImmutableSo
         }
     }
 
+    private static <K extends Comparable<K>, V> ImmutableAvlTree<K, V> internalBuild(List<Pair<K, V>> pairs, int from, int to, ImmutableAvlTree<K, V> empty)
+    {
+        if(from >= to)
+            return empty;
+        // Splitting at the middle yields subtrees whose heights differ by at most one.
+        int mid = (from + to) >>> 1;
+        Pair<K, V> pair = pairs.get(mid);
+        return new ImmutableAvlTree<K, V>(pair.key(), pair.val(),
+            internalBuild(pairs, from, mid, empty),
+            internalBuild(pairs, mid + 1, to, empty));
+    }
+
     private static <K extends Comparable<K>, V> void internalToList(ImmutableAvlTree<K, V> node, List<Pair<K, V>> list)
     {
         // Debug.Assert(node.balance() >= -1 && node.balance() <= 1);
@@ -0,0 +1,823 @@
+package styx.core.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import styx.Complex;
+import styx.Numeric;
+import styx.Pair;
+import styx.Reference;
+import styx.Session;
+import styx.StyxException;
+import styx.Value;
+import styx.core.values.ConcreteComplex;
+
+/**
+ * A fast, hand-written reader and writer for the canonical JSON format of {@link JsonSerializer}.
+ * <p>
+ * The documents read and written are the same as with {@link JsonSerializer}, but the JSON text is processed
+ * in chunks of characters instead of a stream of events and strings. Keys and numbers are converted into
+ * values without creating intermediate strings where possible, and complex values are built in one go
+ * using {@link Complex#putAll(java.util.Collection)}, which creates a balanced {@link ConcreteComplex} directly.
+ * Unlike {@link JsonSerializer}, no implementation of the JSON-P API is required at runtime.
+ */
+public final class JsonCodec {
+
+    private static final byte[] BOM = new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Serializes an arbitrary UDM value into an OutputStream.
+     * @param val the value, can be null.
+     * @param stm the OutputStream, receives an JSON document encoded as UTF-8.
+     * @param indent true if the output shall be formatted prettily.
+     * @throws StyxException if an IO related error occurs.
+     */
+    public static void serialize(Value val, OutputStream stm, boolean indent) throws StyxException {
+        Objects.requireNonNull(stm);
+        try {
+            stm.write(BOM);
+            Writer writer = new OutputStreamWriter(stm, StandardCharsets.UTF_8);
+            new Generator(writer, indent).serialize(val);
+            writer.flush();
+        } catch (IOException e) {
+            throw new StyxException("Failed to serialize as JSON.", e);
+        }
+    }
+
+    /**
+     * Serializes an arbitrary UDM value into a Writer.
+     * @param val the value, can be null.
+     * @param stm the Writer, receives a JSON document.
+     * @param indent true if the output shall be formatted prettily.
+     * @throws StyxException if an IO related error occurs.
+     */
+    public static void serialize(Value val, Writer stm, boolean indent) throws StyxException {
+        Objects.requireNonNull(stm);
+        try {
+            new Generator(stm, indent).serialize(val);
+            stm.flush();
+        } catch (IOException e) {
+            throw new StyxException("Failed to serialize as JSON.", e);
+        }
+    }
+
+    /**
+     * Deserializes an arbitrary UDM value from an InputStream.
+     * @param session the session to be used to create values.
+     * @param stm the InputStream, must contain a JSON document encoded as UTF-8, with or without BOM.
+     * @return the deserialized UDM value, can be null.
+     * @throws StyxException if an IO related error occurs, including format violations.
+     */
+    public static Value deserialize(Session session, InputStream stm) throws StyxException {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(stm);
+        return deserialize(session, new InputStreamReader(stm, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deserializes an arbitrary UDM value from a Reader.
+     * @param session the session to be used to create values.
+     * @param stm the Reader, must contain a JSON document.
+     * @return the deserialized UDM value, can be null.
+     * @throws StyxException if an IO related error occurs, including format violations.
+     */
+    public static Value deserialize(Session session, Reader stm) throws StyxException {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(stm);
+        try {
+            return new Parser(session, stm).parseDocument();
+        } catch (IOException | StyxException e) {
+            throw new StyxException("Failed to deserialize from JSON.", e);
+        }
+    }
+
+    /**
+     * Checks whether the given characters are the decimal representation of a normalized integer
+     * that fits into a long (at most 18 digits, no leading zeros, no negative zero).
+     */
+    private static boolean isSimpleInteger(char[] chars, int count) {
+        int start = count > 0 && chars[0] == '-' ? 1 : 0;
+        int digits = count - start;
+        if(digits < 1 || digits > 18) {
+            return false;
+        }
+        if(chars[start] == '0' && (digits > 1 || start > 0)) {
+            return false;
+        }
+        for(int i = start; i < count; i++) {
+            if(chars[i] < '0' || chars[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseSimpleInteger(char[] chars, int count) {
+        boolean negative = chars[0] == '-';
+        long result = 0;
+        for(int i = negative ? 1 : 0; i < count; i++) {
+            result = result * 10 + (chars[i] - '0');
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Writes JSON text into a character buffer that is flushed to the underlying Writer when full.
+     */
+    private static final class Generator {
+
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final Writer out;
+        private final boolean indent;
+        private final char[] buf = new char[BUFFER_SIZE];
+        private int len;
+        private int level;
+        private boolean first = true;
+
+        Generator(Writer out, boolean indent) {
+            this.out = out;
+            this.indent = indent;
+        }
+
+        void serialize(Value val) throws IOException {
+            if(val == null) {
+                startContainer('{');
+                writeMember("@null");
+                writeQuoted("");
+                endContainer('}');
+            } else if(val.isText()) {
+                startContainer('{');
+                writeMember("@text");
+                writeText(val);
+                endContainer('}');
+            } else {
+                writeValue(val);
+            }
+            flush();
+        }
+
+        /**
+         * Writes a value as a member of the current container, the name (if any) must already have been written.
+         */
+        private void writeValue(Value val) throws IOException {
+            if(val.isText()) {
+                writeText(val);
+            } else if(val.isReference()) {
+                startContainer('{');
+                writeMember("@ref");
+                startContainer('[');
+                Reference ref = val.asReference();
+                int level = ref.level();
+                for(int i = 1; i <= level; i++) {
+                    writeMember(null);
+                    writeValue(ref.parent(i).name());
+                }
+                endContainer(']');
+                endContainer('}');
+            } else if(val.isComplex()) {
+                Complex complex = val.asComplex();
+                if(hasTextKeys(complex)) {
+                    startContainer('{');
+                    for(Pair<Value, Value> pair : complex) {
+                        writeKey(pair.key().asText().toTextString());
+                        writeValue(pair.val());
+                    }
+                    endContainer('}');
+                } else {
+                    startContainer('[');
+                    for(Pair<Value, Value> pair : complex) {
+                        writeMember(null);
+                        startContainer('{');
+                        writeMember("@key");
+                        writeValue(pair.key());
+                        writeMember("@val");
+                        writeValue(pair.val());
+                        endContainer('}');
+                    }
+                    endContainer(']');
+                }
+            } else if(val.isType()) {
+                startContainer('{');
+                writeMember("@type");
+                writeValue(val.asType().definition());
+                endContainer('}');
+            } else if(val.isFunction()) {
+                startContainer('{');
+                writeMember("@func");
+                writeValue(val.asFunction().definition());
+                endContainer('}');
+            }
+        }
+
+        private void writeText(Value val) throws IOException {
+            if(val.isNumber()) {
+                Numeric num = val.asNumber();
+                if(num.isLong() && num.normalized()) {
+                    append('"');
+                    writeLong(num.toLong());
+                    append('"');
+                    return;
+                }
+            }
+            writeQuoted(val.asText().toTextString());
+        }
+
+        /**
+         * Opens a container, the separator and name (if any) must already have been written unless at root.
+         */
+        private void startContainer(char open) throws IOException {
+            if(level == 0 && indent) {
+                newLine();
+            }
+            append(open);
+            level++;
+            first = true;
+        }
+
+        private void endContainer(char close) throws IOException {
+            level--;
+            if(indent) {
+                newLine();
+            }
+            append(close);
+            first = false;
+        }
+
+        /**
+         * Writes the separator, indentation and name (if any) of the next member of the current container.
+         */
+        private void writeMember(String name) throws IOException {
+            if(!first) {
+                append(',');
+            }
+            first = false;
+            if(indent) {
+                newLine();
+            }
+            if(name != null) {
+                writeQuoted(name);
+                append(':');
+            }
+        }
+
+        private void writeKey(String key) throws IOException {
+            if(!first) {
+                append(',');
+            }
+            first = false;
+            if(indent) {
+                newLine();
+            }
+            if(key.indexOf('@') != -1) {
+                append('"');
+                append('@');
+                append(':');
+                writeEscaped(key);
+                append('"');
+            } else {
+                writeQuoted(key);
+            }
+            append(':');
+        }
+
+        private void newLine() throws IOException {
+            append('\n');
+            for(int i = 0; i < level; i++) {
+                appendRun("    ", 0, 4);
+            }
+        }
+
+        private void writeQuoted(String str) throws IOException {
+            append('"');
+            writeEscaped(str);
+            append('"');
+        }
+
+        /**
+         * Writes a string, copying runs of characters that need no escaping as a whole.
+         */
+        private void writeEscaped(String str) throws IOException {
+            int length = str.length();
+            int start = 0;
+            for(int i = 0; i < length; i++) {
+                char c = str.charAt(i);
+                if(c < 0x20 || c == '"' || c == '\\') {
+                    appendRun(str, start, i);
+                    start = i + 1;
+                    append('\\');
+                    switch(c) {
+                        case '"':  append('"');  break;
+                        case '\\': append('\\'); break;
+                        case '\b': append('b');  break;
+                        case '\f': append('f');  break;
+                        case '\n': append('n');  break;
+                        case '\r': append('r');  break;
+                        case '\t': append('t');  break;
+                        default:
+                            append('u');
+                            append('0');
+                            append('0');
+                            append(HEX[c >> 4]);
+                            append(HEX[c & 0xF]);
+                            break;
+                    }
+                }
+            }
+            appendRun(str, start, length);
+        }
+
+        private void writeLong(long val) throws IOException {
+            if(buf.length - len < 20) {
+                flush();
+            }
+            if(val == 0) {
+                buf[len++] = '0';
+                return;
+            }
+            if(val < 0) {
+                buf[len++] = '-';
+            } else {
+                val = -val; // negative values cover Long.MIN_VALUE, too
+            }
+            int end = len + digits(val);
+            len = end;
+            while(val != 0) {
+                buf[--end] = (char) ('0' - (val % 10));
+                val /= 10;
+            }
+        }
+
+        private static int digits(long negative) {
+            int count = 0;
+            while(negative != 0) {
+                negative /= 10;
+                count++;
+            }
+            return count;
+        }
+
+        private void append(char c) throws IOException {
+            if(len == buf.length) {
+                flush();
+            }
+            buf[len++] = c;
+        }
+
+        private void appendRun(String str, int from, int to) throws IOException {
+            while(from < to) {
+                if(len == buf.length) {
+                    flush();
+                }
+                int count = Math.min(to - from, buf.length - len);
+                str.getChars(from, from + count, buf, len);
+                len  += count;
+                from += count;
+            }
+        }
+
+        private void flush() throws IOException {
+            if(len > 0) {
+                out.write(buf, 0, len);
+                len = 0;
+            }
+        }
+
+        private static boolean hasTextKeys(Complex complex) {
+            // Non-textual keys (references, complex values, types and functions) sort after all textual keys.
+            if(complex instanceof ConcreteComplex) {
+                Pair<Value, Value> last = ((ConcreteComplex) complex).children().find(null, false);
+                return last == null || last.key().isText();
+            }
+            for(Pair<Value, Value> pair : complex) {
+                if(!pair.key().isText()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Reads JSON text from a character buffer that is refilled from the underlying Reader when empty.
+     */
+    private static final class Parser {
+
+        private static final int KEY_CACHE_SIZE = 256;
+        private static final int KEY_CACHE_MAX_LENGTH = 64;
+
+        private final Session session;
+        private final Reader in;
+        private final char[] buf = new char[BUFFER_SIZE];
+        private int pos;
+        private int lim;
+        private long offset; // number of characters before buf[0]
+
+        private char[] chars = new char[64]; // the current string or number
+        private int count;
+
+        private final String[] cacheNames = new String[KEY_CACHE_SIZE];
+        private final Value[] cacheKeys = new Value[KEY_CACHE_SIZE];
+
+        Parser(Session session, Reader in) {
+            this.session = session;
+            this.in = in;
+        }
+
+        Value parseDocument() throws IOException, StyxException {
+            int c = next();
+            if(c == '\uFEFF') {
+                c = next();
+            }
+            c = skipWhitespace(c);
+            Value result;
+            if(c == '{') {
+                result = parseObject(true);
+            } else if(c == '[') {
+                result = parseArray();
+            } else {
+                throw unexpected(c);
+            }
+            c = skipWhitespace(next());
+            if(c != -1) {
+                throw unexpected(c);
+            }
+            return result;
+        }
+
+        private Value parseValue(int c) throws IOException, StyxException {
+            switch(c) {
+                case '"':
+                    readString();
+                    return toText();
+                case '{':
+                    return parseObject(false);
+                case '[':
+                    return parseArray();
+                case 't':
+                    expectLiteral("rue");
+                    return session.bool(true);
+                case 'f':
+                    expectLiteral("alse");
+                    return session.bool(false);
+                default:
+                    if(c == '-' || (c >= '0' && c <= '9')) {
+                        return parseNumber(c);
+                    }
+                    throw unexpected(c);
+            }
+        }
+
+        /**
+         * Parses a JSON object after the opening brace, which is either a complex value with textual keys
+         * or one of the special forms '@null', '@text', '@ref', '@type' and '@func'.
+         */
+        private Value parseObject(boolean root) throws IOException, StyxException {
+            int c = skipWhitespace(next());
+            if(c == '}') {
+                return session.complex();
+            }
+            expect(c, '"');
+            readString();
+            if(isSpecial()) {
+                Value result = parseSpecial(root);
+                expect(skipWhitespace(next()), '}');
+                return result;
+            }
+            List<Pair<Value, Value>> pairs = new ArrayList<>();
+            while(true) {
+                Value key = toKey();
+                expect(skipWhitespace(next()), ':');
+                pairs.add(new Pair<Value, Value>(key, parseValue(skipWhitespace(next()))));
+                c = skipWhitespace(next());
+                if(c == '}') {
+                    break;
+                }
+                expect(c, ',');
+                expect(skipWhitespace(next()), '"');
+                readString();
+                if(isSpecial()) {
+                    throw new StyxException("Name '" + new String(chars, 0, count) + "' is only allowed as single name" + at());
+                }
+            }
+            return session.complex().putAll(pairs);
+        }
+
+        private Value parseSpecial(boolean root) throws IOException, StyxException {
+            String name = new String(chars, 0, count);
+            expect(skipWhitespace(next()), ':');
+            int c = skipWhitespace(next());
+            switch(name) {
+                case "@null": {
+                    if(!root) {
+                        throw new StyxException("@null is not allowed below root.");
+                    }
+                    Value val = parseValue(c);
+                    if(!val.isText() || !val.asText().toTextString().isEmpty()) {
+                        throw new StyxException("Empty value expected after '@null'.");
+                    }
+                    return null;
+                }
+                case "@text": {
+                    if(!root) {
+                        throw new StyxException("@text is not allowed below root.");
+                    }
+                    Value val = parseValue(c);
+                    if(!val.isText()) {
+                        throw new StyxException("Texual value expected after '@text'.");
+                    }
+                    return val;
+                }
+                case "@ref": {
+                    if(c != '[') {
+                        throw new StyxException("Array expected after '@ref'.");
+                    }
+                    Reference result = session.root();
+                    c = skipWhitespace(next());
+                    while(c != ']') {
+                        result = result.child(parseValue(c));
+                        c = skipWhitespace(next());
+                        if(c == ',') {
+                            c = skipWhitespace(next());
+                        } else {
+                            expect(c, ']');
+                        }
+                    }
+                    return result;
+                }
+                case "@type":
+                    return session.type(parseValue(c));
+                case "@func":
+                    return session.function(parseValue(c));
+                default:
+                    throw new StyxException("Unexpected name '" + name + "'" + at());
+            }
+        }
+
+        /**
+         * Parses a JSON array after the opening bracket, which contains a complex value with arbitrary keys
+         * as a sequence of objects with names '@key' and '@val'.
+         */
+        private Value parseArray() throws IOException, StyxException {
+            List<Pair<Value, Value>> pairs = new ArrayList<>();
+            int c = skipWhitespace(next());
+            while(c != ']') {
+                expect(c, '{');
+                Value key = null;
+                Value val = null;
+                c = skipWhitespace(next());
+                while(c != '}') {
+                    expect(c, '"');
+                    readString();
+                    boolean isKey = matches("@key");
+                    if(!isKey && !matches("@val")) {
+                        throw new StyxException("Only names '@key' and '@val' are accepted in array.");
+                    }
+                    expect(skipWhitespace(next()), ':');
+                    Value part = parseValue(skipWhitespace(next()));
+                    if(isKey) {
+                        key = part;
+                    } else {
+                        val = part;
+                    }
+                    c = skipWhitespace(next());
+                    if(c == ',') {
+                        c = skipWhitespace(next());
+                    } else {
+                        expect(c, '}');
+                    }
+                }
+                if(key == null || val == null) {
+                    throw new StyxException("Names '@key' and '@val' are required in array.");
+                }
+                pairs.add(new Pair<Value, Value>(key, val));
+                c = skipWhitespace(next());
+                if(c == ',') {
+                    c = skipWhitespace(next());
+                } else {
+                    expect(c, ']');
+                }
+            }
+            return session.complex().putAll(pairs);
+        }
+
+        private Value parseNumber(int c) throws IOException, StyxException {
+            count = 0;
+            while(c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+                if(c == 'e') {
+                    c = 'E'; // JSON allows both 'e' and 'E', but only the latter is canonical
+                }
+                if(c != '+' || count == 0 || chars[count - 1] != 'E') {
+                    appendChar((char) c); // JSON allows 'E+', but only 'E' is canonical
+                }
+                c = next();
+            }
+            if(c != -1) {
+                pos--; // push back the character after the number
+            }
+            Value val = toText();
+            if(!val.isNumber()) {
+                throw new StyxException("Invalid number '" + new String(chars, 0, count) + "'" + at());
+            }
+            return val;
+        }
+
+        /**
+         * Converts the current string into a value, without creating a String for simple integers.
+         */
+        private Value toText() {
+            if(isSimpleInteger(chars, count)) {
+                return session.number(parseSimpleInteger(chars, count));
+            }
+            return session.text(new String(chars, 0, count));
+        }
+
+        /**
+         * Converts the current string into a key, using a cache to avoid creating Strings for recurring names.
+         */
+        private Value toKey() {
+            int start = count >= 2 && chars[0] == '@' && chars[1] == ':' ? 2 : 0;
+            int length = count - start;
+            if(isSimpleInteger(chars, count)) {
+                return session.number(parseSimpleInteger(chars, count));
+            }
+            if(length > KEY_CACHE_MAX_LENGTH) {
+                return session.text(new String(chars, start, length));
+            }
+            int hash = 0;
+            for(int i = start; i < count; i++) {
+                hash = 31 * hash + chars[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & (KEY_CACHE_SIZE - 1);
+            String name = cacheNames[slot];
+            if(name != null && name.length() == length) {
+                boolean equal = true;
+                for(int i = 0; i < length && equal; i++) {
+                    equal = name.charAt(i) == chars[start + i];
+                }
+                if(equal) {
+                    return cacheKeys[slot];
+                }
+            }
+            name = new String(chars, start, length);
+            Value key = session.text(name);
+            cacheNames[slot] = name;
+            cacheKeys[slot] = key;
+            return key;
+        }
+
+        private boolean isSpecial() {
+            return count > 0 && chars[0] == '@' && (matches("@null") || matches("@text") || matches("@ref") || matches("@type") || matches("@func"));
+        }
+
+        private boolean matches(String name) {
+            if(name.length() != count) {
+                return false;
+            }
+            for(int i = 0; i < count; i++) {
+                if(name.charAt(i) != chars[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Reads a string after the opening quote into the current string, copying runs of unescaped characters as a whole.
+         */
+        private void readString() throws IOException, StyxException {
+            count = 0;
+            while(true) {
+                if(pos == lim && !fill()) {
+                    throw new StyxException("Unterminated string" + at());
+                }
+                int start = pos;
+                while(pos < lim) {
+                    char c = buf[pos];
+                    if(c == '"' || c == '\\' || c < 0x20) {
+                        break;
+                    }
+                    pos++;
+                }
+                appendChars(start, pos - start);
+                if(pos < lim) {
+                    char c = buf[pos++];
+                    if(c == '"') {
+                        return;
+                    } else if(c == '\\') {
+                        appendChar(readEscape());
+                    } else {
+                        throw new StyxException("Unescaped control character in string" + at());
+                    }
+                }
+            }
+        }
+
+        private char readEscape() throws IOException, StyxException {
+            int c = next();
+            switch(c) {
+                case '"':  return '"';
+                case '\\': return '\\';
+                case '/':  return '/';
+                case 'b':  return '\b';
+                case 'f':  return '\f';
+                case 'n':  return '\n';
+                case 'r':  return '\r';
+                case 't':  return '\t';
+                case 'u':
+                    int val = 0;
+                    for(int i = 0; i < 4; i++) {
+                        int digit = Character.digit(next(), 16);
+                        if(digit < 0) {
+                            throw new StyxException("Invalid unicode escape sequence" + at());
+                        }
+                        val = (val << 4) | digit;
+                    }
+                    return (char) val;
+                default:
+                    throw new StyxException("Invalid escape sequence" + at());
+            }
+        }
+
+        private void expectLiteral(String rest) throws IOException, StyxException {
+            for(int i = 0; i < rest.length(); i++) {
+                int c = next();
+                if(c != rest.charAt(i)) {
+                    throw unexpected(c);
+                }
+            }
+        }
+
+        private void expect(int c, char expected) throws StyxException {
+            if(c != expected) {
+                throw unexpected(c);
+            }
+        }
+
+        private StyxException unexpected(int c) {
+            if(c == -1) {
+                return new StyxException("Unexpected end of input" + at());
+            }
+            return new StyxException("Unexpected character '" + (char) c + "'" + at());
+        }
+
+        private String at() {
+            return " at offset " + (offset + pos) + ".";
+        }
+
+        private int skipWhitespace(int c) throws IOException {
+            while(c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                c = next();
+            }
+            return c;
+        }
+
+        private int next() throws IOException {
+            if(pos == lim && !fill()) {
+                return -1;
+            }
+            return buf[pos++];
+        }
+
+        private boolean fill() throws IOException {
+            int n;
+            do {
+                n = in.read(buf, 0, buf.length);
+            } while(n == 0);
+            if(n < 0) {
+                return false;
+            }
+            offset += lim;
+            pos = 0;
+            lim = n;
+            return true;
+        }
+
+        private void appendChar(char c) {
+            if(count == chars.length) {
+                chars = Arrays.copyOf(chars, count * 2);
+            }
+            chars[count++] = c;
+        }
+
+        private void appendChars(int start, int length) {
+            if(count + length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(count + length, count * 2));
+            }
+            System.arraycopy(buf, start, chars, count, length);
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package styx.core.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import styx.Reference;
+import styx.Session;
+import styx.StyxException;
+import styx.Value;
+
+/**
+ * Buffers the writes of a streamed import and applies them by Session.writeAll() in batches of bounded size,
+ * so that a large document neither costs one commit per value nor has to be kept in memory as a whole.
+ * <p>
+ * Also reads the children of a streamed export by Session.readAll() in batches of the same size.
+ * Used by XmlSerializer and XmlExporter.
+ */
+final class SessionBatch {
+
+    /**
+     * The maximum number of values read or written by a single call to Session.readAll() or Session.writeAll().
+     */
+    static final int SIZE = 1000;
+
+    private final Session session;
+    private final Map<Reference, Value> writes = new LinkedHashMap<>();
+
+    SessionBatch(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Adds a write, flushing the batch if it is full.
+     */
+    void write(Reference ref, Value value) throws StyxException {
+        writes.remove(ref); // move to the end, the order matters if ancestors are written as well
+        writes.put(ref, value);
+        if(writes.size() >= SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Applies the pending writes.
+     */
+    void flush() throws StyxException {
+        if(!writes.isEmpty()) {
+            session.writeAll(writes);
+            writes.clear();
+        }
+    }
+
+    /**
+     * Reads the children of a reference, for the given range of keys.
+     * @return the values in the order of the keys, null for children that no longer have a value.
+     */
+    static List<Value> readChildren(Session session, Reference ref, List<Value> keys) throws StyxException {
+        List<Reference> refs = new ArrayList<>(keys.size());
+        for(Value key : keys) {
+            refs.add(ref.child(key));
+        }
+        return session.readAll(refs);
+    }
+}
@@ -18,6 +18,7 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 
 import styx.Pair;
+import styx.Reference;
 import styx.Session;
 import styx.StyxException;
 import styx.Value;
@@ -86,7 +87,7 @@ public class XmlExporter {
         try {
             return importValue(INPUT_FACTORY.createXMLStreamReader(stm));
         } catch (XMLStreamException e) {
-            throw new IOException("Failed to import from XML document.");
+            throw new IOException("Failed to import from XML document.", e);
         }
     }
 
@@ -95,7 +96,7 @@ public class XmlExporter {
         try {
             return importValue(INPUT_FACTORY.createXMLStreamReader(stm));
         } catch (XMLStreamException e) {
-            throw new IOException("Failed to import from XML document.");
+            throw new IOException("Failed to import from XML document.", e);
         }
     }
 
@@ -124,6 +125,98 @@ public class XmlExporter {
         return collect(stack, stack.removeFirst());
     }
 
+    /**
+     * Imports an XML document into the given reference without building the complete value in memory.
+     * <p>
+     * Elements up to the given depth are written to the session as soon as they are opened, their
+     * content is written child by child. Only elements nested deeper are collected in memory and written
+     * as a whole. The writes are batched, every call to Session.writeAll() writes up to 1000 values
+     * (and therefore commits them at once outside of a transaction).
+     * The result is the same as writing the return value of importDocument() to the reference.
+     * @param stm the InputStream, must contain an XML document.
+     * @param target the reference to write the document to.
+     * @param depth the number of element levels that are streamed, zero to stream only the document level.
+     * @throws IOException if an XML or IO related error occurs.
+     * @throws StyxException if the values cannot be written.
+     */
+    public void importDocument(InputStream stm, Reference target, int depth) throws IOException, StyxException {
+        Objects.requireNonNull(stm);
+        try {
+            importValue(INPUT_FACTORY.createXMLStreamReader(stm), Objects.requireNonNull(target), depth);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to import from XML document.", e);
+        }
+    }
+
+    /**
+     * Imports an XML document into the given reference without building the complete value in memory.
+     * @param stm the Reader, must contain an XML document.
+     * @param target the reference to write the document to.
+     * @param depth the number of element levels that are streamed, zero to stream only the document level.
+     * @throws IOException if an XML or IO related error occurs.
+     * @throws StyxException if the values cannot be written.
+     * @see #importDocument(InputStream, Reference, int)
+     */
+    public void importDocument(Reader stm, Reference target, int depth) throws IOException, StyxException {
+        Objects.requireNonNull(stm);
+        try {
+            importValue(INPUT_FACTORY.createXMLStreamReader(stm), Objects.requireNonNull(target), depth);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to import from XML document.", e);
+        }
+    }
+
+    private void importValue(XMLStreamReader reader, Reference target, int depth) throws XMLStreamException, StyxException {
+        // Streamed levels are written to the session, collected levels are kept on the stack as lists.
+        // Collected levels are always nested below streamed levels, never the other way round.
+        Deque<StreamLevel> levels = new ArrayDeque<>();
+        Deque<List<Value>> stack = new ArrayDeque<>();
+        SessionBatch batch = new SessionBatch(session);
+        batch.write(target, session.complex());
+        levels.addFirst(new StreamLevel(batch, target));
+        while(reader.hasNext()) {
+            reader.next();
+            if(reader.isStartElement()) {
+                String name = reader.getLocalName();
+                if(stack.isEmpty() && levels.size() <= depth) {
+                    StreamLevel parent = levels.getFirst();
+                    Reference elem = parent.ref.child(session.number(parent.count + 1));
+                    parent.append(elem, session.complex(session.text(name), session.complex()));
+                    levels.addFirst(new StreamLevel(batch, elem.child(session.text(name))));
+                } else {
+                    stack.addFirst(new ArrayList<>());
+                }
+                int numAttr = reader.getAttributeCount();
+                for(int idxAttr = 0; idxAttr < numAttr; idxAttr++) {
+                    String attrName = reader.getAttributeLocalName(idxAttr);
+                    String attrText = reader.getAttributeValue(idxAttr);
+                    appendStreamed(levels, stack, session.complex(session.text("#" + attrName), session.text(attrText)));
+                }
+            } else if(reader.isCharacters()) {
+                appendStreamed(levels, stack, session.text(reader.getText()));
+            } else if(reader.isEndElement()) {
+                if(stack.isEmpty()) {
+                    levels.removeFirst().finish();
+                } else {
+                    String name = reader.getLocalName();
+                    Value value = collect(stack, stack.removeFirst());
+                    appendStreamed(levels, stack, session.complex(session.text(name), value));
+                }
+            }
+        }
+        levels.removeFirst().finish();
+        batch.flush();
+    }
+
+    private void appendStreamed(Deque<StreamLevel> levels, Deque<List<Value>> stack, Value value) throws StyxException {
+        if(stack.isEmpty()) {
+            StreamLevel level = levels.getFirst();
+            level.append(level.ref.child(session.number(level.count + 1)), value);
+        } else {
+            append(stack, value);
+        }
+    }
+
     protected Value collect(Deque<List<Value>> stack, List<Value> list) throws StyxException {
         if(list.size() == 1 && list.get(0).isText()) {
             return list.get(0);
@@ -135,4 +228,33 @@ public class XmlExporter {
     protected void append(Deque<List<Value>> stack, Value value) throws StyxException {
         stack.getFirst().add(value);
     }
+
+    /**
+     * A level of the document that is written to the session child by child.
+     */
+    private final class StreamLevel {
+        private final SessionBatch batch;
+        private final Reference ref;
+        private int   count;
+        private Value first;
+
+        StreamLevel(SessionBatch batch, Reference ref) {
+            this.batch = batch;
+            this.ref   = ref;
+        }
+
+        void append(Reference child, Value value) throws StyxException {
+            batch.write(child, value);
+            if(++count == 1) {
+                first = value;
+            }
+        }
+
+        void finish() throws StyxException {
+            // Same as collect(): a level with a single textual child is represented by the text itself.
+            if(count == 1 && first.isText()) {
+                batch.write(ref, first);
+            }
+        }
+    }
 }
@@ -41,6 +41,10 @@ import styx.Value;
  * <li> values of type type: {@code <type>...</type>}.
  * <li> values of type function: {@code <function>...</function>}.
  * </ul>
+ * <p>
+ * Besides converting complete values, the serializer can also stream the value of a reference:
+ * The children of a complex value are then read from or written to the session one by one, so that
+ * the complete value never has to be held in memory.
  */
 public final class XmlSerializer {
 
@@ -82,6 +86,73 @@ public final class XmlSerializer {
         }
     }
 
+    /**
+     * Serializes the value of a reference into an OutputStream, reading the children in batches (see SessionBatch).
+     * @param session the session to read the value from.
+     * @param ref the reference whose value is to be serialized.
+     * @param stm the OutputStream, receives an XML document encoded as UTF-8.
+     * @param indent true if the output shall be formatted prettily.
+     * @throws StyxException if an XML or IO related error occurs or if the value cannot be read.
+     */
+    public static void serialize(Session session, Reference ref, OutputStream stm, boolean indent) throws StyxException {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(ref);
+        Objects.requireNonNull(stm);
+        try {
+            stm.write(BOM);
+            serialize(session, ref, OUTPUT_FACTORY.createXMLStreamWriter(stm, StandardCharsets.UTF_8.name()), indent, "utf-8");
+        } catch (XMLStreamException | IOException e) {
+            throw new StyxException("Failed to serialize as XML.", e);
+        }
+    }
+
+    /**
+     * Serializes the value of a reference into a Writer, reading the children in batches (see SessionBatch).
+     * @param session the session to read the value from.
+     * @param ref the reference whose value is to be serialized.
+     * @param stm the Writer, receives an XML document with no encoding.
+     * @param indent true if the output shall be formatted prettily.
+     * @throws StyxException if an XML or IO related error occurs or if the value cannot be read.
+     */
+    public static void serialize(Session session, Reference ref, Writer stm, boolean indent) throws StyxException {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(ref);
+        Objects.requireNonNull(stm);
+        try {
+            serialize(session, ref, OUTPUT_FACTORY.createXMLStreamWriter(stm), indent, null);
+        } catch (XMLStreamException e) {
+            throw new StyxException("Failed to serialize as XML.", e);
+        }
+    }
+
+    private static void serialize(Session session, Reference ref, XMLStreamWriter writer, boolean indent, String encoding) throws XMLStreamException, StyxException {
+        List<Value> keys = session.browse(ref);
+        if(keys == null) {
+            serialize(session.read(ref), writer, indent, encoding); // not complex, nothing to stream.
+            return;
+        }
+        if(encoding != null) {
+            writer.writeStartDocument(encoding, "1.0");
+        } else {
+            writer.writeStartDocument();
+        }
+        int level = indent ? 0 : -1;
+        writeIndent(writer, level);
+        writer.writeStartElement("complex");
+        for(int from = 0; from < keys.size(); from += SessionBatch.SIZE) {
+            List<Value> batch = keys.subList(from, Math.min(from + SessionBatch.SIZE, keys.size()));
+            List<Value> children = SessionBatch.readChildren(session, ref, batch);
+            for(int i = 0; i < batch.size(); i++) {
+                if(children.get(i) != null) {
+                    serializeValue(batch.get(i), children.get(i), writer, incIndent(level));
+                }
+            }
+        }
+        writeIndent(writer, level);
+        writer.writeEndElement();
+        writer.writeEndDocument();
+    }
+
     private static void serialize(Value val, XMLStreamWriter writer, boolean indent, String encoding) throws XMLStreamException {
         if(encoding != null) {
             writer.writeStartDocument(encoding, "1.0");
@@ -209,6 +280,74 @@ public final class XmlSerializer {
         }
     }
 
+    /**
+     * Deserializes an arbitrary UDM value from an InputStream and writes it to a reference, the children in batches (see SessionBatch).
+     * <p>
+     * If the document contains a complex value, its children are written in batches of up to 1000 values as they are read.
+     * Otherwise, the value is written after reading the whole document.
+     * @param session the session to be used to create and write values.
+     * @param stm the InputStream, must contain an XML document.
+     * @param target the reference to write the deserialized value to.
+     * @throws StyxException if an XML or IO related error occurs, including format violations, or if the value cannot be written.
+     *         Errors of the session (such as a ConcurrentException) are passed on unchanged.
+     */
+    public static void deserialize(Session session, InputStream stm, Reference target) throws StyxException {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(stm);
+        Objects.requireNonNull(target);
+        try {
+            deserialize(session, INPUT_FACTORY.createXMLStreamReader(stm), target);
+        } catch (XMLStreamException e) {
+            throw new StyxException("Failed to deserialize from XML.", e);
+        }
+    }
+
+    /**
+     * Deserializes an arbitrary UDM value from a Reader and writes it to a reference, the children in batches (see SessionBatch).
+     * @param session the session to be used to create and write values.
+     * @param stm the Reader, must contain an XML document.
+     * @param target the reference to write the deserialized value to.
+     * @throws StyxException if an XML or IO related error occurs, including format violations, or if the value cannot be written.
+     * @see #deserialize(Session, InputStream, Reference)
+     */
+    public static void deserialize(Session session, Reader stm, Reference target) throws StyxException {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(stm);
+        Objects.requireNonNull(target);
+        try {
+            deserialize(session, INPUT_FACTORY.createXMLStreamReader(stm), target);
+        } catch (XMLStreamException e) {
+            throw new StyxException("Failed to deserialize from XML.", e);
+        }
+    }
+
+    private static void deserialize(Session session, XMLStreamReader reader, Reference target) throws XMLStreamException, StyxException {
+        Scope   scope    = new Scope(null);
+        boolean streamed = false;
+        SessionBatch batch = new SessionBatch(session);
+        while(reader.hasNext()) {
+            reader.next();
+            if(reader.isStartElement()) {
+                Scope nested = scope.onStartElement(session, reader.getLocalName(), reader);
+                if(scope.parent == null && reader.getLocalName().equals("complex")) {
+                    batch.write(target, session.complex());
+                    nested = new ScopeStream(scope, batch, target);
+                    streamed = true;
+                }
+                scope = nested;
+            } else if(reader.isCharacters()) {
+                scope = scope.onCharacters(session, reader.getText());
+            } else if(reader.isEndElement()) {
+                scope = scope.onEndElement(session, reader.getLocalName());
+            }
+        }
+        if(!streamed) {
+            session.write(target, scope.get(session));
+        } else {
+            batch.flush();
+        }
+    }
+
     private static Value deserialize(Session session, XMLStreamReader reader) throws XMLStreamException, StyxException {
         Scope scope = new Scope(null);
         while(reader.hasNext()) {
@@ -330,6 +469,28 @@ public final class XmlSerializer {
         }
     }
 
+    private static class ScopeStream extends Scope {
+        private final SessionBatch batch;
+        private final Reference    target;
+
+        ScopeStream(Scope parent, SessionBatch batch, Reference target) {
+            super(parent);
+            this.batch  = batch;
+            this.target = target;
+        }
+
+        @Override Scope onEndElement(Session session, String name) {
+            return parent; // un-nest, the children are written in batches
+        }
+
+        @Override void add(Value val) throws StyxException {
+            if(key == null) {
+                throw new StyxException("Child of element 'complex' has no attribute or element 'key'.");
+            }
+            batch.write(target.child(key), val);
+        }
+    }
+
     private static class ScopeLeaf extends Scope {
         private final StringBuilder text = new StringBuilder();
 
@@ -21,6 +21,28 @@ abstract class AbstractReference extends AbstractValue implements Reference {
         }
     }
 
+    /**
+     * Compares references by their names, from the bottom up.
+     * <p>
+     * Other than compareTo(), this stops at the first common ancestor instance and at the first differing hash code.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof Reference) {
+            return equalReference(this, (Reference) other);
+        }
+        return super.equals(other);
+    }
+
+    /**
+     * Returns a hash code that is computed from the hash codes of the names, consistent with equals().
+     */
+    @Override
+    public int hashCode() {
+        Reference parent = parent();
+        return parent == null ? 0 : 31 * parent.hashCode() + name().hashCode();
+    }
+
     @Override
     public boolean isReference() {
         return true;
@@ -53,6 +75,31 @@ abstract class AbstractReference extends AbstractValue implements Reference {
         return cur;
     }
 
+    /**
+     * Checks two references for equality.
+     * @param a the 1st value to compare.
+     * @param b the 2nd value to compare.
+     * @return true if a == b
+     */
+    protected static boolean equalReference(Reference a, Reference b) {
+        while(a != b) {
+            if(a.hashCode() != b.hashCode()) {
+                return false;
+            }
+            Reference aparent = a.parent();
+            Reference bparent = b.parent();
+            if(aparent == null || bparent == null) {
+                return aparent == bparent; // both are root
+            }
+            if(!a.name().equals(b.name())) {
+                return false;
+            }
+            a = aparent;
+            b = bparent;
+        }
+        return true;
+    }
+
     /**
      * Compares two references.
      * @param a the 1st value to compare.
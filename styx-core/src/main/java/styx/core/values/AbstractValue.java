@@ -173,6 +173,14 @@ public abstract class AbstractValue implements Value {
         return AbstractNumber.factory(val);
     }
 
+    /**
+     * Checks whether the given value is a normalized number represented by a 32-bit signed integer.
+     * Such values can be processed by fast paths that do not need any conversions (see BinaryOperator).
+     */
+    public static boolean isInteger(Value val) {
+        return val instanceof ConcreteNumberInteger;
+    }
+
     public static Binary binary(byte[] val) {
         return ConcreteBinary.factory(val);
     }
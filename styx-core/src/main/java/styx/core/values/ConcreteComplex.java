@@ -1,6 +1,9 @@
 package styx.core.values;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 
 import styx.Complex;
@@ -74,8 +77,57 @@ public final class ConcreteComplex extends AbstractComplex {
         return new ConcreteComplex(children.put(AbstractNumber.factory(next), val));
     }
 
+    @Override
+    public Complex putAll(Collection<Pair<Value,Value>> pairs) {
+        if(!children.isEmpty() || !(children instanceof ImmutableAvlTree) || pairs.size() < 2) {
+            return super.putAll(pairs);
+        }
+        // Fast path: build the tree of an empty complex value in one go.
+        List<Pair<Value,Value>> sorted = new ArrayList<>(pairs);
+        if(!isStrictlySorted(sorted)) {
+            sorted.sort((a, b) -> a.key().compareTo(b.key())); // stable, the last of equal keys wins below
+            List<Pair<Value,Value>> unique = new ArrayList<>(sorted.size());
+            for(int i = 0; i < sorted.size(); i++) {
+                Pair<Value,Value> pair = sorted.get(i);
+                if(i + 1 < sorted.size() && pair.key().compareTo(sorted.get(i + 1).key()) == 0) {
+                    continue; // replaced by a later pair
+                }
+                if(pair.val() != null) {
+                    unique.add(pair); // a null value removes the key
+                }
+            }
+            sorted = unique;
+        }
+        return new ConcreteComplex(ImmutableAvlTree.fromSorted(sorted));
+    }
+
+    @Override
+    public Complex addAll(Collection<Value> vals) {
+        if(!children.isEmpty() || !(children instanceof ImmutableAvlTree) || vals.size() < 2 || vals.contains(null)) {
+            return super.addAll(vals);
+        }
+        // Fast path: the keys of an empty complex value are 1...n and therefore already sorted.
+        List<Pair<Value,Value>> sorted = new ArrayList<>(vals.size());
+        int next = 1;
+        for(Value val : vals) {
+            sorted.add(new Pair<Value,Value>(AbstractNumber.factory(next++), val));
+        }
+        return new ConcreteComplex(ImmutableAvlTree.fromSorted(sorted));
+    }
+
     @Override
     public Pair<Value,Value> single() {
         return children.single();
     }
+
+    private static boolean isStrictlySorted(List<Pair<Value,Value>> pairs) {
+        for(int i = 0; i < pairs.size(); i++) {
+            Pair<Value,Value> pair = Objects.requireNonNull(pairs.get(i));
+            Objects.requireNonNull(pair.key());
+            if(pair.val() == null || (i > 0 && pairs.get(i - 1).key().compareTo(pair.key()) >= 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
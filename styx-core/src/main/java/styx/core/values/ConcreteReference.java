@@ -25,6 +25,11 @@ final class ConcreteReference extends AbstractReference {
      */
     private final Value name;
 
+    /**
+     * The hash code, computed on first use (zero if not yet computed).
+     */
+    private int hash;
+
     /**
      * Constructs a new root reference.
      */
@@ -53,6 +58,15 @@ final class ConcreteReference extends AbstractReference {
         return name;
     }
 
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if(result == 0 && parent != null) {
+            result = hash = super.hashCode();
+        }
+        return result;
+    }
+
     @Override
     public Reference child(Value name) {
         return new ConcreteReference(this, Objects.requireNonNull(name));
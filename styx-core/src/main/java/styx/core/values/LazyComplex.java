@@ -0,0 +1,180 @@
+package styx.core.values;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import styx.Complex;
+import styx.Pair;
+import styx.StyxException;
+import styx.StyxRuntimeException;
+import styx.Value;
+
+/**
+ * A complex value whose children are generated on demand.
+ *
+ * Iterating the value runs the generator and keeps nothing in memory, so a chain of lazy values (or a
+ * foreach loop over one) is evaluated in a single pass with constant extra memory. isEmpty(), hasSingle(),
+ * hasMany() and single() generate at most two children. All other methods materialize the children once
+ * into a regular complex value and then delegate to it.
+ *
+ * Since iterators cannot throw checked exceptions, a failing generator throws a GeneratorException
+ * that wraps the original StyxException.
+ */
+public abstract class LazyComplex extends AbstractComplex {
+
+    /**
+     * The empty complex value used to materialize the children.
+     */
+    private final Complex empty;
+
+    /**
+     * The materialized value, null if not materialized yet.
+     */
+    private volatile Complex materialized;
+
+    protected LazyComplex(Complex empty) {
+        this.empty = Objects.requireNonNull(empty);
+    }
+
+    /**
+     * Starts a new run of the generator.
+     * @return an iterator over the children, which are generated while iterating.
+     */
+    protected abstract Iterator<Pair<Value,Value>> generate();
+
+    /**
+     * Returns the materialized value, materializing it if not done yet.
+     * @return the materialized value, never null and never a LazyComplex.
+     * @throws StyxException if the generator failed.
+     */
+    public final Complex get() throws StyxException {
+        Complex result = materialized;
+        if(result == null) {
+            List<Pair<Value,Value>> children = new ArrayList<Pair<Value,Value>>();
+            try {
+                for(Iterator<Pair<Value,Value>> it = generate(); it.hasNext(); ) {
+                    children.add(it.next());
+                }
+            } catch(GeneratorException e) {
+                throw e.getCause();
+            }
+            result = empty.putAll(children);
+            materialized = result;
+        }
+        return result;
+    }
+
+    /**
+     * Replaces all lazy complex values within the given value (the value itself, its children and their
+     * descendants) by their materialized values, so that the value can be stored.
+     * @param val the value, can be null.
+     * @return the given value if it does not contain any lazy complex values, a materialized copy otherwise.
+     * @throws StyxException if a generator failed.
+     */
+    public static Value materializeAll(Value val) throws StyxException {
+        if(val instanceof LazyComplex) {
+            val = ((LazyComplex) val).get();
+        } else if(!(val instanceof Complex)) {
+            return val; // neither null, a leaf nor a proxy (see LazyValue) can contain lazy children
+        }
+        Complex result = (Complex) val;
+        for(Pair<Value,Value> child : (Complex) val) {
+            Value key  = materializeAll(child.key());
+            Value val2 = materializeAll(child.val());
+            if(key != child.key()) {
+                result = result.put(child.key(), null).put(key, val2);
+            } else if(val2 != child.val()) {
+                result = result.put(key, val2);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<Pair<Value, Value>> iterator() {
+        Complex result = materialized;
+        return result != null ? result.iterator() : generate();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    public boolean hasSingle() {
+        return single() != null;
+    }
+
+    @Override
+    public boolean hasMany() {
+        Iterator<Pair<Value,Value>> it = iterator();
+        if(!it.hasNext()) {
+            return false;
+        }
+        it.next();
+        return it.hasNext();
+    }
+
+    @Override
+    public Pair<Value,Value> single() {
+        Iterator<Pair<Value,Value>> it = iterator();
+        if(!it.hasNext()) {
+            return null;
+        }
+        Pair<Value,Value> first = it.next();
+        return it.hasNext() ? null : first;
+    }
+
+    @Override
+    public Value get(Value key) {
+        return materialize().get(key);
+    }
+
+    @Override
+    public Complex put(Value key, Value val) {
+        return materialize().put(key, val);
+    }
+
+    @Override
+    public Complex putAll(Collection<Pair<Value,Value>> pairs) {
+        return materialize().putAll(pairs);
+    }
+
+    @Override
+    public Complex add(Value val) {
+        return materialize().add(val);
+    }
+
+    @Override
+    public Complex addAll(Collection<Value> vals) {
+        return materialize().addAll(vals);
+    }
+
+    private Complex materialize() {
+        try {
+            return get();
+        } catch(StyxException e) {
+            throw new GeneratorException(e);
+        }
+    }
+
+    /**
+     * Thrown while iterating or accessing a lazy complex value if the generator failed.
+     */
+    @SuppressWarnings("serial")
+    public static final class GeneratorException extends StyxRuntimeException {
+
+        public GeneratorException(StyxException cause) {
+            super(cause.getMessage(), cause);
+        }
+
+        @Override
+        public synchronized StyxException getCause() {
+            return (StyxException) super.getCause();
+        }
+    }
+}
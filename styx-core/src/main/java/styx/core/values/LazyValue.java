@@ -0,0 +1,174 @@
+package styx.core.values;
+
+import styx.Binary;
+import styx.Bool;
+import styx.Complex;
+import styx.Function;
+import styx.Numeric;
+import styx.Reference;
+import styx.StyxException;
+import styx.StyxRuntimeException;
+import styx.Text;
+import styx.Type;
+import styx.Value;
+import styx.Void;
+
+/**
+ * A proxy for a value that is kept in its encoded form and decoded on first access.
+ *
+ * Storage implementations return instances of this class for values that are expensive to decode,
+ * so values which are read but never accessed by the caller are never decoded. All methods of Value
+ * (including compareTo(), equals() and toString()) decode the value and then delegate to it.
+ *
+ * Subclasses provide the encoded form and may expose it to the storage they came from,
+ * so that unchanged values can be written back without encoding them again. Subclasses may
+ * also override the isXYZ() methods if the answer is known without decoding.
+ */
+public abstract class LazyValue implements Value {
+
+    /**
+     * The decoded value, null if not decoded yet.
+     */
+    private volatile Value decoded;
+
+    /**
+     * Decodes the value, called at most once per thread (usually once) on first access.
+     * @return the decoded value, never null.
+     * @throws StyxException if the encoded form is not valid.
+     */
+    protected abstract Value decode() throws StyxException;
+
+    /**
+     * Returns whether the value has already been decoded.
+     */
+    public final boolean isDecoded() {
+        return decoded != null;
+    }
+
+    /**
+     * Returns the decoded value, decoding it if not done yet.
+     * @return the decoded value, never null and never a LazyValue.
+     */
+    public final Value get() {
+        Value result = decoded;
+        if(result == null) {
+            try {
+                result = decode();
+            } catch (StyxException e) {
+                throw new StyxRuntimeException("Failed to decode value.", e);
+            }
+            decoded = result;
+        }
+        return result;
+    }
+
+    @Override
+    public int compareTo(Value other) {
+        return get().compareTo(other);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return get().equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return get().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return get().toString();
+    }
+
+    @Override
+    public boolean isText() {
+        return get().isText();
+    }
+
+    @Override
+    public boolean isVoid() {
+        return get().isVoid();
+    }
+
+    @Override
+    public boolean isBool() {
+        return get().isBool();
+    }
+
+    @Override
+    public boolean isNumber() {
+        return get().isNumber();
+    }
+
+    @Override
+    public boolean isBinary() {
+        return get().isBinary();
+    }
+
+    @Override
+    public boolean isReference() {
+        return get().isReference();
+    }
+
+    @Override
+    public boolean isComplex() {
+        return get().isComplex();
+    }
+
+    @Override
+    public boolean isType() {
+        return get().isType();
+    }
+
+    @Override
+    public boolean isFunction() {
+        return get().isFunction();
+    }
+
+    @Override
+    public Text asText() {
+        return get().asText();
+    }
+
+    @Override
+    public Void asVoid() {
+        return get().asVoid();
+    }
+
+    @Override
+    public Bool asBool() {
+        return get().asBool();
+    }
+
+    @Override
+    public Numeric asNumber() {
+        return get().asNumber();
+    }
+
+    @Override
+    public Binary asBinary() {
+        return get().asBinary();
+    }
+
+    @Override
+    public Reference asReference() {
+        return get().asReference();
+    }
+
+    @Override
+    public Complex asComplex() {
+        return get().asComplex();
+    }
+
+    @Override
+    public Type asType() {
+        return get().asType();
+    }
+
+    @Override
+    public Function asFunction() {
+        return get().asFunction();
+    }
+}
@@ -0,0 +1,94 @@
+package styx.core.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+
+public class TestBinaryOperator {
+
+	private static final int[] INTEGERS = { 0, 1, -1, 2, 7, -7, 1000, 94906265, 94906266, -94906266, Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+	private Session session = SessionManager.getDetachedSession();
+
+	@Test
+	public void testIntegerFastPath() throws StyxException {
+		for(BinaryOperator.Operator op : BinaryOperator.Operator.values()) {
+			if(op == BinaryOperator.Operator.Coal || op == BinaryOperator.Operator.Or || op == BinaryOperator.Operator.And || op == BinaryOperator.Operator.Child) {
+				continue;
+			}
+			for(int a : INTEGERS) {
+				for(int b : INTEGERS) {
+					String generic = apply(op, a, b, false);
+					String special = apply(op, a, b, true);
+					assertEquals(op + " " + a + " " + b, generic, special);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDeoptimize() throws StyxException {
+		BinaryOperator node = new BinaryOperator(BinaryOperator.Operator.Add, new Constant(session.number(1)), new Constant(session.number(2)));
+		assertTrue(node.speculating());
+		assertEquals(3, node.evaluate(new Stack(session)).asNumber().toInteger());
+		assertTrue(node.speculating());
+		assertEquals(3.5, node.apply(session, session.number(1.5), session.number(2)).asNumber().toDouble(), 0.0);
+		assertFalse(node.speculating());
+		assertEquals(3, node.evaluate(new Stack(session)).asNumber().toInteger());
+
+		node = new BinaryOperator(BinaryOperator.Operator.Mul, new Constant(session.number(1)), new Constant(session.number(2)));
+		assertEquals(6, node.apply(session, session.number(2), session.number(3)).asNumber().toInteger());
+		assertTrue(node.speculating());
+		assertEquals(Math.pow(2, 60), node.apply(session, session.number(1 << 30), session.number(1 << 30)).asNumber().toDouble(), 0.0);
+		assertFalse(node.speculating());
+
+		node = new BinaryOperator(BinaryOperator.Operator.Mod, new Constant(session.number(1)), new Constant(session.number(2)));
+		try {
+			node.apply(session, session.number(1), session.number(0));
+		} catch(ArithmeticException e) {
+			assertFalse(node.speculating());
+		}
+
+		node = new BinaryOperator(BinaryOperator.Operator.Concat, new Constant(session.number(1)), new Constant(session.number(2)));
+		assertFalse(node.speculating());
+		assertEquals("12", node.evaluate(new Stack(session)).asText().toTextString());
+	}
+
+	@Test
+	public void testIdentity() throws StyxException {
+		// Shared values detect changes by identity, every result must be a new instance.
+		BinaryOperator node = new BinaryOperator(BinaryOperator.Operator.Add, new Constant(session.number(1)), new Constant(session.number(2)));
+		assertTrue(node.speculating());
+		assertNotSame(node.evaluate(new Stack(session)), node.evaluate(new Stack(session)));
+		assertNotSame(BinaryOperator.Operator.Shl.apply(session, session.number(1), session.number(2)), BinaryOperator.Operator.Shl.apply(session, session.number(1), session.number(2)));
+	}
+
+	@Test
+	public void testAssignment() throws StyxException {
+		try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+			assertEquals("[7,-2,22.5,4,a1]", session.evaluate("a := 1, b := 1, c := 1, d := 1, e := \"a\", for(i := 1, i <= 3, i += 1) { a += i, b -= 1 }, c *= 22.5, d <<= 2, e ++= 1, [(a),(b),(c),(d),(e)]").asComplex().get(session.number(10)).toString());
+		}
+	}
+
+	private String apply(BinaryOperator.Operator op, int a, int b, boolean speculate) {
+		try {
+			Value result;
+			if(speculate) {
+				result = new BinaryOperator(op, new Constant(session.number(a)), new Constant(session.number(b))).evaluate(new Stack(session));
+			} else {
+				result = op.apply(session, session.number(a), session.number(b));
+			}
+			return session.serialize(result, false);
+		} catch(StyxException | RuntimeException e) {
+			return e.getClass().getSimpleName() + ": " + e.getMessage();
+		}
+	}
+}
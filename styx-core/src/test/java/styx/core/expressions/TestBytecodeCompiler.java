@@ -0,0 +1,114 @@
+package styx.core.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import styx.Complex;
+import styx.Function;
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.core.intrinsics.AllIntrinsics;
+
+public class TestBytecodeCompiler {
+
+    private static final String[] SCRIPTS = {
+        // operators
+        "1 + 2 * 3 - 4 / 8, 7 % 4, 2 ** 10, 5 <=> 7, 6 | 3, 6 & 3, 6 ^ 3, 1 << 4, 256 >> 2, -(4), ~5, \"a\" ++ 1",
+        "x := 5, y := 7, [ (x == y), (x != y), (x < y), (x <= y), (x > y), (x >= y), (!(x < y)) ]",
+        "t := true, f := false, [ (t && f), (t || f), (f || t && t), (!f && (t || f)), (null ?? 5), (4 ?? 5) ]",
+        "a := false && (1/0 == 0), b := true || (1/0 == 0), [ (a), (b) ]",
+        "c := [ x: [ y: 42 ] ], c.x.y, c[\"x\"][\"y\"], c.z ?? \"none\"",
+        // declarations and assignments
+        "PI :=== 3, x := 1, y :== 2, x += y, x *= 10, x -= 1, x /= 2, x %= 5, x **= 2, [(x), (y), (PI)]",
+        "s := \"\", s ++= \"a\", s ++= 1, n := null, n ??= 5, n ??= 6, b := true, b &&= false, b ||= true, [(s), (n), (b)]",
+        "x := 12, x |= 1, x &= 29, x ^= 7, x <<= 2, x >>= 1, x",
+        // control flow
+        "x := 5, if(x > 3) { x = 1 } else { x = 2 }, y := if(x == 1) \"one\" else \"other\", z := if(x == 2) 5, [(x), (y), (z)]",
+        "v := 0, loop { v += 10, if(v > 20) { break }, v += 2 }, v",
+        "v := 0, w := 0, while(v < 20) { v += 1, if(v % 2 == 0) { continue }, w += v }, [(v), (w)]",
+        "v := 0, do { v += 10 } while(v < 0), u := 0, do { u += 10 } while(u < 35), [(v), (u)]",
+        "s := 0, for(i := 1, i <= 10, i += 1) { if(i == 8) { break }, if(i % 3 != 0) { s += i } }, s",
+        "r := \"\", for(i := 1, i <= 3, i += 1) { for(j := 1, j <= 3, j += 1) { if(j > i) { break }, r = r ++ i ++ j } }, r",
+        "x := { a := 1, yield a + 1 }, y := { if(x == 2) { yield \"two\" }, yield \"other\" }, z := { b := 2 }, [(x), (y), (z)]",
+        // functions
+        "f := (a, b) -> { return a * b + 1 }, g := (a) -> { if(a < 0) { return -a }, return a }, [ (f(3, 4)), (g(-5)), (g(6)) ]",
+        "fib :=== (f, n) -> { if(n < 2) { return n }, return f(f, n-1) + f(f, n-2) }, fib(fib, 15)",
+        "dup :=== (s, n) -> { res := \"\", num := n, if(num < 0) { return }, while(num > 0) { num = num - 1, if(num >= 1000) { return \"huge\" }, if(num >= 100) { res = \"large\", break }, if(num >= 10) { res = res ++ \".\", continue }, res = res ++ s }, return res }, [ (dup(\"x\", -1)), (dup(\"x\", 0)), (dup(\"x\", 3)), (dup(\"x\", 12)), (dup(\"x\", 150)), (dup(\"x\", 2000)) ]",
+        "f := () -> { return () -> { return 42 } }, f()()",
+        "cmp := (a, b) -> { return a <=> b }, [ (cmp(1, 2)), (cmp(\"b\", \"a\")), (cmp(null, null)) ]",
+        // nodes that are evaluated by the interpreter
+        "sum := 0, foreach(k, v in [10, 20, 30]) { sum += k * v }, sum",
+        "squares := for(i := 1, i <= 5, i += 1) yield i * i, sum := 0, foreach(v in squares) { if(v > 10) { break }, sum += v }, [(squares), (sum)]",
+        "f := () -> { foreach(v in [1, 2, 3]) { if(v == 2) { return v * 10 } }, return 0 }, f()",
+        "a := 1000, b := 2000, i := 1, while(i <= 3) { try { x := 1, throw \"x\" } catch(e) { a2 := a + 1, a = a2, b += 2 }, i += 1 }, a + b",
+        "t := (x) -> { throw x }, res := \"\", i := 1, while(i <= 3) { j :== i, res = res ++ j, try { res = res ++ j, try { res = res ++ \"t\", t(\"x\") } finally { res = res ++ \"f\" } } catch(e) { res = res ++ \"e\" }, i += 1 }, res",
+        "[/][*] = [ a: 1 ], [/a][*] = 2, x := [/a][*], x + [/][*].a",
+        // errors
+        "x := 1, x.y",
+        "f := (a) -> { return a + 1 }, f(null)",
+        "x := null, x()",
+        "throw \"failed\"",
+        "x := { break }"
+    };
+
+    @Test
+    public void testScripts() throws StyxException {
+        for(String script : SCRIPTS) {
+            assertEquals(script, run(script, -1), run(script, 0));
+        }
+    }
+
+    @Test
+    public void testTranslation() throws StyxException {
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            Function func = compile(session, "x := 1, y := 2, f := (a, b) -> a + b, f(x, y)", -1);
+            func.invoke(session, null);
+            func.invoke(session, null);
+            assertNull(((FunctionExpression) func.definition()).bytecode());
+
+            func = compile(session, "x := 1, y := 2, f := (a, b) -> a + b, f(x, y)", 2);
+            assertNull(((FunctionExpression) func.definition()).bytecode());
+            for(int i = 0; i < 2; i++) {
+                assertEquals(3, func.invoke(session, null).asComplex().get(session.number(4)).asNumber().toInteger());
+                assertNull(((FunctionExpression) func.definition()).bytecode());
+            }
+            assertEquals(3, func.invoke(session, null).asComplex().get(session.number(4)).asNumber().toInteger());
+            assertNotNull(((FunctionExpression) func.definition()).bytecode());
+            assertEquals(3, func.invoke(session, null).asComplex().get(session.number(4)).asNumber().toInteger());
+        }
+    }
+
+    private static String run(String script, int threshold) throws StyxException {
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            Function func;
+            try {
+                func = compile(session, script, threshold);
+            } catch(StyxException | RuntimeException e) {
+                return e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+            String result = null;
+            for(int i = 0; i < 2; i++) { // the 1st run may still be interpreted
+                try {
+                    result = session.serialize(func.invoke(session, null), false);
+                } catch(StyxException | RuntimeException e) {
+                    result = e.getClass().getSimpleName() + ": " + e.getMessage();
+                }
+            }
+            if(threshold >= 0) {
+                // Every script has nodes that can be translated, so none falls back to the interpreter entirely.
+                assertNotNull(script, ((FunctionExpression) func.definition()).bytecode());
+            }
+            return result;
+        }
+    }
+
+    static Function compile(Session session, String script, int threshold) throws StyxException {
+        Complex environment = AllIntrinsics.buildEnvironment(new FuncRegistry(), session);
+        FunctionExpression function = (FunctionExpression) session.parse(script, false).definition();
+        return function.compile(new Scope(session, environment, Scope.optimizations, threshold), null).function();
+    }
+}
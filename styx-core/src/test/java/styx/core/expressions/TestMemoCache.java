@@ -0,0 +1,116 @@
+package styx.core.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+import styx.Function;
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+
+public class TestMemoCache {
+
+    @After
+    public void tearDown() {
+        MemoCache.maxEntries = 0;
+    }
+
+    @Test
+    public void testDisabled() throws StyxException {
+        MemoCache.maxEntries = 0;
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            assertNull(memo(session.evaluate("(n) -> { return n * n }").asFunction()));
+        }
+    }
+
+    @Test
+    public void testHits() throws StyxException {
+        MemoCache.maxEntries = 100;
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            Function func = session.evaluate("(a, b) -> { return [ (a), (b) ] }").asFunction();
+            MemoCache memo = memo(func);
+            assertNotNull(memo);
+            Value result = func.invoke(session, new Value[] { session.number(3), session.text("x") });
+            assertEquals("[3,x]", result.toString());
+            assertSame(result, func.invoke(session, new Value[] { session.number(3), session.text("x") }));
+            assertEquals("[4,x]", func.invoke(session, new Value[] { session.number(4), session.text("x") }).toString());
+            assertEquals(1, memo.hits());
+            assertEquals(2, memo.misses());
+
+            // structurally equal arguments are found
+            Value arg1 = session.deserialize("[a:1,b:[2,3]]");
+            Value arg2 = session.complex().put(session.text("b"), session.deserialize("[2,3]")).put(session.text("a"), session.number(1));
+            result = func.invoke(session, new Value[] { arg1, null });
+            assertSame(result, func.invoke(session, new Value[] { arg2, null }));
+            assertEquals(2, memo.hits());
+
+            // calls from scripts use the cache as well
+            assertEquals("[[1,2],[1,2]]", session.evaluate("f :=== (a, b) -> { return [ (a), (b) ] }, [ (f(1, 2)), (f(1, 2)) ]").asComplex().get(session.number(2)).toString());
+        }
+    }
+
+    @Test
+    public void testEviction() throws StyxException {
+        MemoCache.maxEntries = 10;
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            Function func = session.evaluate("(n) -> { return n * n }").asFunction();
+            MemoCache memo = memo(func);
+            for(int i = 0; i < 20; i++) {
+                assertEquals(i * i, func.invoke(session, new Value[] { session.number(i) }).asNumber().toInteger());
+            }
+            assertTrue(memo.size() <= 10);
+            assertTrue(memo.evictions() >= 10);
+            long hits = memo.hits();
+            func.invoke(session, new Value[] { session.number(19) });
+            assertEquals(hits + 1, memo.hits());
+        }
+    }
+
+    @Test
+    public void testNotCached() throws StyxException {
+        MemoCache.maxEntries = 100;
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            assertNull(memo(session.evaluate("(n) -> { return [/][*] }").asFunction()));
+
+            Function func = session.evaluate("(n) -> { if(n == 0) { throw \"zero\" }, return n }").asFunction();
+            for(int i = 0; i < 2; i++) {
+                try {
+                    func.invoke(session, new Value[] { session.number(0) });
+                    fail();
+                } catch(StyxException e) {
+                    assertEquals(0, memo(func).size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHash() throws StyxException {
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            String[] values = { "1", "0.0", "12345678901234567890", "abc", "true", "void", "[1,2,3]", "[x:[y:z]]", "[/a/b]" };
+            for(String value : values) {
+                assertEquals(value, MemoCache.hash(session.deserialize(value)), MemoCache.hash(session.deserialize(value)));
+            }
+            // equal numbers with different representations
+            assertEquals(MemoCache.hash(session.number(0)), MemoCache.hash(session.number(-0.0)));
+            assertEquals(MemoCache.hash(session.number(1)), MemoCache.hash(session.number(1.0)));
+            assertEquals(MemoCache.hash(session.number(1)), MemoCache.hash(session.number(1L)));
+            // numerically equal numbers with different text forms (denormalized numbers)
+            assertEquals(MemoCache.hash(session.number(1)), MemoCache.hash(session.number("1.0")));
+            assertEquals(MemoCache.hash(session.number(150)), MemoCache.hash(session.number("1.5E2")));
+            assertEquals(MemoCache.hash(session.number(0.5)), MemoCache.hash(session.number("0.50")));
+        }
+    }
+
+    private static MemoCache memo(Function func) {
+        return ((FunctionExpression) func.definition()).memo();
+    }
+}
@@ -0,0 +1,179 @@
+package styx.core.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+import styx.Complex;
+import styx.Determinism;
+import styx.Function;
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+
+public class TestOptimizer {
+
+    private static final String[] SCRIPTS = {
+        // constant folding
+        "1 + 2 * 3, [ a: (1 + 1), b: (\"x\" ++ 2) ], -(4) + ~5",
+        "sq :=== (n) -> { return n * n }, sq(4) + sq(sq(2))",
+        // dead code
+        "x := 0, if(false) { x = 1 } else { x = 2 }, y := if(false) 5, z := if(true) 6 else 7, [(x), (y), (z)]",
+        "x := 0, while(false) { x = 1 }, w := while(false) yield 1, [(x), (w)]",
+        "v := 0, loop { v += 1, if(v > 3) { break } }, u := 0, do { u += 1, if(u > 4) { break } } while(true), [(v), (u)]",
+        "f := (a) -> { b := a, return b * 2, b = 5 }, g := (a) -> { if(a > 0) { return 1 }, return 0, throw \"dead\" }, [ (f(3)), (g(1)), (g(-1)) ]",
+        "s := 0, i := 0, while(i < 5) { i += 1, if(i % 2 == 0) { continue, s += 100 }, s += i }, s",
+        // loop invariants
+        "n := 3, s := 0, for(i := 0, i < 4, i += 1) { s += i * (n * n + 1) }, s",
+        "n := 3, s := 0, foreach(v in [1, 2, 3]) { s += v * (n * n) + [ a: (n) ].a }, s",
+        "n := 1, t := 0, for(k := 0, k < 3, k += 1) { for(j := 0, j < 2, j += 1) { t += n * 10 + k }, n += 1 }, t",
+        "y := 1, i := 0, s := 0, while(i < 3) { s += y * 10, y += 1, i += 1 }, s",
+        "x := null, i := 0, res := 0, while(i < 3) { i += 1, if(i > 5) { res = x + 1 } }, res",
+        "x := 1, i := 0, res := \"\", while(i < 3) { i += 1, try { res = res ++ (x.y * 2) } catch(e) { res = res ++ i } }, res",
+        "sq :=== (n) -> { return n * n }, m := 5, s := 0, i := 0, while(i < 3) { s += sq(m) + i, i += 1 }, s",
+        "m := 2, r := for(i := 0, i < 3, i += 1) yield { k := m * 10, yield k + i }, r",
+        "f := (n) -> { s := 0, foreach(v in [1, 2]) { s += n * n * v }, return s }, [ (f(2)), (f(3)) ]",
+        // reference reads in atomic blocks
+        "[/][*] = [ a: 1, b: 2 ], r := 0, atomic { r = [/a][*] + [/a][*] * [/b][*] }, r",
+        "[/][*] = [ a: 1 ], r := 0, atomic { [/a][*] = [/a][*] + 1, r = [/a][*] }, r",
+        "[/][*] = [ a: 1, b: 5 ], r := 0, atomic { i := 0, while(i < 3) { r += [/a][*] + [/b][*], i += 1 } }, r",
+        "[/][*] = [ a: 1, b: 5 ], p := \"a\", r := 0, atomic { r = [/(p)][*], p = \"b\", r += [/(p)][*] }, r",
+        "[/][*] = [ a: 1 ], r := 0, atomic { i := 0, while(i < 3) { if([/b][*] == null) { r += 1 }, i += 1 } }, [ (r), ([/b][*]) ]"
+    };
+
+    @After
+    public void tearDown() {
+        Scope.optimizations = EnumSet.copyOf(CompileFlag.OPTIMIZATIONS);
+    }
+
+    @Test
+    public void testScripts() {
+        for(String script : SCRIPTS) {
+            String expected = run(script, EnumSet.noneOf(CompileFlag.class), -1);
+            for(CompileFlag flag : CompileFlag.OPTIMIZATIONS) {
+                assertEquals(flag + ": " + script, expected, run(script, EnumSet.of(flag), -1));
+            }
+            assertEquals(script, expected, run(script, CompileFlag.OPTIMIZATIONS, -1));
+            assertEquals(script, expected, run(script, CompileFlag.OPTIMIZATIONS, 0));
+        }
+    }
+
+    @Test
+    public void testParseOptimizations() {
+        assertEquals(CompileFlag.OPTIMIZATIONS, CompileFlag.parseOptimizations(null));
+        assertEquals(EnumSet.noneOf(CompileFlag.class), CompileFlag.parseOptimizations(""));
+        assertEquals(EnumSet.of(CompileFlag.FoldConstants, CompileFlag.HoistReads), CompileFlag.parseOptimizations("FoldConstants, HoistReads"));
+        try {
+            CompileFlag.parseOptimizations("AllowReturn");
+            assertTrue(false);
+        } catch(IllegalArgumentException e) { }
+    }
+
+    @Test
+    public void testFoldConstants() throws StyxException {
+        String script = "f := (n) -> { return n * (2 + 3) }";
+        assertTrue(compile(script, EnumSet.noneOf(CompileFlag.class)).contains("Add"));
+        assertFalse(compile(script, EnumSet.of(CompileFlag.FoldConstants)).contains("Add"));
+    }
+
+    @Test
+    public void testEliminateDeadCode() throws StyxException {
+        String[] scripts = {
+            "f := (n) -> { m := n, if(false) { m = 42 }, return m }",
+            "f := (n) -> { m := n, while(false) { m = 42 }, return m }",
+            "f := (n) -> { m := n, return m, m = 42 }"
+        };
+        for(String script : scripts) {
+            assertTrue(script, compile(script, EnumSet.noneOf(CompileFlag.class)).contains("42"));
+            assertFalse(script, compile(script, EnumSet.of(CompileFlag.EliminateDeadCode)).contains("42"));
+        }
+    }
+
+    @Test
+    public void testHoistInvariants() throws StyxException {
+        String script = "(n) -> { s := 0, for(i := 0, i < n, i += 1) { s += i * (n * n) }, return s }";
+        assertEquals(3, frameSize(script, EnumSet.noneOf(CompileFlag.class)));
+        assertEquals(4, frameSize(script, EnumSet.of(CompileFlag.HoistInvariants)));
+        // assigned in the loop
+        script = "(a) -> { n := a, s := 0, for(i := 0, i < n, i += 1) { s += i * (n * n), n = n - 1 }, return s }";
+        assertEquals(4, frameSize(script, EnumSet.of(CompileFlag.HoistInvariants)));
+    }
+
+    @Test
+    public void testHoistReads() throws StyxException {
+        String script = "() -> { r := 0, atomic { r = [/a][*] + [/a][*] }, return r }";
+        assertEquals(1, frameSize(script, EnumSet.noneOf(CompileFlag.class)));
+        assertEquals(3, frameSize(script, EnumSet.of(CompileFlag.HoistReads)));
+        // the block writes: reads are not cached
+        script = "() -> { r := 0, atomic { r = [/a][*], [/b][*] = 1 }, return r }";
+        assertEquals(1, frameSize(script, EnumSet.of(CompileFlag.HoistReads)));
+    }
+
+    @Test
+    public void testHoistNull() throws StyxException {
+        final int[] count = new int[1];
+        Invariant invariant = new Invariant(new Expression() {
+            @Override
+            protected Complex toValue() {
+                return null;
+            }
+
+            @Override
+            public Expression compile(Scope scope, EnumSet<CompileFlag> flags) {
+                return this;
+            }
+
+            @Override
+            public Determinism effects() {
+                return Determinism.PURE;
+            }
+
+            @Override
+            public Value evaluate(Stack stack) {
+                count[0]++;
+                return null;
+            }
+        });
+        invariant.assignSlot(0);
+        Stack stack = new Stack(SessionManager.getDetachedSession());
+        for(int i = 0; i < 3; i++) {
+            assertNull(invariant.evaluate(stack));
+        }
+        assertEquals(1, count[0]); // a value of null is cached as well
+    }
+
+    private static String compile(String script, EnumSet<CompileFlag> optimizations) throws StyxException {
+        Scope.optimizations = optimizations;
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            return session.serialize(session.parse(script).definition(), false);
+        }
+    }
+
+    private static int frameSize(String script, EnumSet<CompileFlag> optimizations) throws StyxException {
+        Scope.optimizations = optimizations;
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            return ((FunctionExpression) session.evaluate(script).asFunction().definition()).frameSize();
+        }
+    }
+
+    private static String run(String script, EnumSet<CompileFlag> optimizations, int threshold) {
+        Scope.optimizations = optimizations;
+        try(Session session = SessionManager.createMemorySessionFactory(true).createSession()) {
+            Function func = TestBytecodeCompiler.compile(session, script, threshold);
+            String result = null;
+            for(int i = 0; i < 2; i++) { // the 1st run may still be interpreted
+                result = session.serialize(func.invoke(session, null), false);
+            }
+            return result;
+        } catch(StyxException | RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package styx.core.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import styx.Complex;
+import styx.Function;
+import styx.Pair;
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+
+public class TestProfiler {
+
+    private static final String[] SCRIPTS = {
+        "x := 1, x += 2, y :== x * 3, [(x), (y)]",
+        "f := (a, b) -> { return a * b + 1 }, g := (a) -> { if(a < 0) { return -a }, return a }, [ (f(3, 4)), (g(-5)), (g(6)) ]",
+        "s := 0, for(i := 1, i <= 10, i += 1) { if(i == 8) { break }, if(i % 3 != 0) { s += i } }, s",
+        "squares := for(i := 1, i <= 5, i += 1) yield i * i, sum := 0, foreach(v in squares) { sum += v }, [(squares), (sum)]",
+        "f := (f, n) -> { if(n == 0) { return 0 }, return f(f, n-1) }, f(f, 100000)",
+        "[/][*] = [ a: 1 ], [/a][*] = [/a][*] + 1, x := [/a][*], atomic { [/b][*] = x }, [/][*]",
+        "r := \"\", try { r = r ++ \"t\", throw \"x\" } catch(e) { r = r ++ \"c\" } finally { r = r ++ \"f\" }, r",
+        "collection.map([1, 2, 3], (k, v) -> { return v * 10 })",
+        "x := 1, x.y"
+    };
+
+    @Test
+    public void testScripts() throws StyxException {
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            for(String script : SCRIPTS) {
+                Profiler profiler = new Profiler();
+                assertEquals(script, run(session, session.parse(script)), run(session, profiler.instrument(session, session.parse(script))));
+            }
+        }
+    }
+
+    @Test
+    public void testReport() throws StyxException {
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            Profiler profiler = new Profiler();
+            Function func = profiler.instrument(session, session.parse("f := (n) -> { s := 0, for(i := 0, i < n, i += 1) { s += i * i }, return s }, f(10) + f(20)"));
+            assertEquals(2755, func.invoke(session, null).asComplex().get(session.number(2)).asNumber().toInteger());
+
+            Complex report = profiler.report(session);
+            Complex body = find(session, report, "(n) -> ");
+            assertNotNull(body);
+            assertEquals(2, body.get(session.text("count")).asNumber().toInteger());
+            assertEquals(session.bool(true), body.get(session.text("function")));
+            Complex mul = find(session, report, "@Mul ");
+            assertEquals(30, mul.get(session.text("count")).asNumber().toInteger());
+            assertTrue(mul.get(session.text("self")).asNumber().toLong() > 0);
+            Complex loop = find(session, report, "@For ");
+            assertTrue(loop.get(session.text("total")).asNumber().toLong() >= loop.get(session.text("self")).asNumber().toLong());
+
+            String folded = profiler.folded();
+            for(String line : folded.split("\n")) {
+                assertTrue(line, line.matches(".+ [0-9]+"));
+            }
+            assertTrue(folded.contains("(n) -> "));
+            assertTrue(folded.contains(";@For "));
+
+            profiler.reset();
+            assertEquals("", profiler.folded());
+            assertTrue(profiler.report(session).isEmpty());
+        }
+    }
+
+    @Test
+    public void testNotInstrumented() throws StyxException {
+        try(Session session = SessionManager.createMemorySessionFactory(false).createSession()) {
+            Function func = session.evaluate("collection.map").asFunction();
+            assertTrue(func == new Profiler().instrument(session, func));
+        }
+    }
+
+    private static String run(Session session, Function func) {
+        try {
+            return session.serialize(func.invoke(session, null), false);
+        } catch(StyxException | RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private static Complex find(Session session, Complex report, String prefix) {
+        for(Pair<Value, Value> entry : report) {
+            if(entry.val().asComplex().get(session.text("node")).asText().toTextString().startsWith(prefix)) {
+                return entry.val().asComplex();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,207 @@
+package styx.core.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.junit.After;
+import org.junit.Test;
+
+import styx.ConcurrentException;
+import styx.Complex;
+import styx.Function;
+import styx.Session;
+import styx.SessionFactory;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.core.memory.SharedValueFile;
+import styx.core.sessions.TransactionMetrics;
+
+public class TestRetryPolicy {
+
+    private static final int THREADS    = 8;
+    private static final int ITERATIONS = 200;
+
+    @After
+    public void tearDown() {
+        RetryPolicy.maxAttempts = 0;
+        RetryPolicy.minBackoff  = 10;
+        RetryPolicy.maxBackoff  = 10000;
+        RetryPolicy.lockAfter   = 0;
+    }
+
+    @Test
+    public void testMayRetry() {
+        assertTrue(RetryPolicy.mayRetry(1000));
+        RetryPolicy.maxAttempts = 3;
+        assertTrue(RetryPolicy.mayRetry(2));
+        assertTrue(!RetryPolicy.mayRetry(3));
+    }
+
+    @Test
+    public void testBackoff() {
+        RetryPolicy.minBackoff = 0;
+        long start = System.nanoTime();
+        RetryPolicy.backoff(100);
+        RetryPolicy.minBackoff = 1000;
+        RetryPolicy.maxBackoff = 2000;
+        for(int i = 1; i < 40; i++) {
+            RetryPolicy.backoff(i);
+        }
+        assertTrue(System.nanoTime() - start < 40 * 2000000L + 1000000000L);
+    }
+
+    @Test
+    public void testContention() throws Exception {
+        Totals totals = run();
+        assertEquals(THREADS * ITERATIONS, totals.commits);
+        assertEquals(THREADS * ITERATIONS, totals.counter);
+        assertEquals(0, totals.failures);
+        assertEquals(0, totals.locks);
+        assertTrue(totals.conflicts == 0 || totals.aborted > 0);
+    }
+
+    @Test
+    public void testMaxAttempts() throws Exception {
+        RetryPolicy.maxAttempts = 1;
+        RetryPolicy.minBackoff  = 0;
+        Totals totals = run();
+        assertEquals(THREADS * ITERATIONS, totals.commits + totals.failures);
+        assertEquals(totals.commits, totals.counter);
+        assertEquals(totals.conflicts, totals.failures);
+        assertEquals(totals.failures, totals.exceptions.get());
+    }
+
+    @Test
+    public void testLock() throws Exception {
+        RetryPolicy.lockAfter = 1;
+        Totals totals = run();
+        assertEquals(THREADS * ITERATIONS, totals.commits);
+        assertEquals(THREADS * ITERATIONS, totals.counter);
+        assertEquals(totals.conflicts, totals.locks); // an exclusive transaction never conflicts
+    }
+
+    @Test
+    public void testLockPerData() throws Exception {
+        RetryPolicy.lockAfter = 1;
+        SessionFactory factory = SessionManager.createMemorySessionFactory(true);
+        SessionFactory independent = SessionManager.createMemorySessionFactory(true);
+        try(Session session1 = factory.createSession(); Session session2 = factory.createSession(); Session other = independent.createSession()) {
+            ReadWriteLock rwlock = RetryPolicy.lockOf(session1);
+            assertSame(rwlock, RetryPolicy.lockOf(session2));
+            assertNotSame(rwlock, RetryPolicy.lockOf(other));
+
+            Thread same;
+            Lock lock = RetryPolicy.lock(rwlock, 1); // an exclusive transaction of session1
+            try {
+                Thread thread = increment(other);
+                thread.join(10000);
+                assertFalse(thread.isAlive()); // transactions on independent data are not blocked
+                same = increment(session2);
+                same.join(200);
+                assertTrue(same.isAlive()); // transactions on the same data are
+            } finally {
+                RetryPolicy.unlock(lock);
+            }
+            same.join(10000);
+            assertFalse(same.isAlive());
+        }
+        Path file = Paths.get("target", "styx-session", "TestRetryPolicy.styx");
+        assertSame(new SharedValueFile(file, false).transactionLock(), new SharedValueFile(file.toAbsolutePath(), false).transactionLock());
+        assertNotSame(new SharedValueFile(file, false).transactionLock(), new SharedValueFile(file.resolveSibling("other.styx"), false).transactionLock());
+    }
+
+    @Test
+    public void testScript() throws StyxException {
+        try(Session session = SessionManager.createMemorySessionFactory(true).createSession()) {
+            Complex result = session.evaluate("[/][*] = [ n: 0 ], atomic { [/n][*] = [/n][*] + 1 }, atomic { [/n][*] = [/n][*] + 1 }, session.transactions()").asComplex().get(session.number(4)).asComplex();
+            assertEquals(2, result.get(session.text("session")).asComplex().get(session.text("commits")).asNumber().toInteger());
+            assertTrue(result.get(session.text("global")).asComplex().get(session.text("commits")).asNumber().toLong() >= 2);
+        }
+    }
+
+    /**
+     * Starts a thread that runs an 'atomic' block in the given session.
+     */
+    private static Thread increment(final Session session) throws StyxException {
+        final Function func = session.parse("atomic { [/][*] = ([/][*] ?? 0) + 1 }");
+        Thread thread = new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    func.invoke(session, null);
+                } catch (StyxException e) {
+                    e.printStackTrace();
+                }
+            } });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Increments a counter from multiple threads and sums up the metrics of their sessions.
+     */
+    private static Totals run() throws Exception {
+        final SessionFactory factory = SessionManager.createMemorySessionFactory(true);
+        final Totals totals = new Totals();
+        try(Session session = factory.createSession()) {
+            session.write(session.root(), session.deserialize("[ n: 0 ]"));
+        }
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < THREADS; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override public void run() {
+                    try(Session session = factory.createSession()) {
+                        Function func = session.parse("atomic { [/n][*] = [/n][*] + 1 }");
+                        for(int j = 0; j < ITERATIONS; j++) {
+                            try {
+                                func.invoke(session, null);
+                            } catch(ConcurrentException e) {
+                                totals.exceptions.incrementAndGet();
+                            }
+                        }
+                        totals.add(TransactionMetrics.of(session));
+                    } catch (StyxException e) {
+                        e.printStackTrace();
+                    }
+                } }));
+        }
+        for(Thread thread : threads) {
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join(60000);
+        }
+        try(Session session = factory.createSession()) {
+            totals.counter = session.read(session.root().child(session.text("n"))).asNumber().toLong();
+        }
+        return totals;
+    }
+
+    private static final class Totals {
+        private final AtomicInteger exceptions = new AtomicInteger();
+        private long counter;
+        private long commits;
+        private long conflicts;
+        private long failures;
+        private long locks;
+        private long aborted;
+
+        private synchronized void add(TransactionMetrics metrics) {
+            commits   += metrics.commits();
+            conflicts += metrics.conflicts();
+            failures  += metrics.failures();
+            locks     += metrics.locks();
+            aborted   += metrics.abortedNanos();
+        }
+    }
+}
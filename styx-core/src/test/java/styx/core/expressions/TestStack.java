@@ -129,6 +129,29 @@ public class TestStack {
 		assertEquals(0, stack.getFrameSize());
 	}
 
+	@Test
+	public void testTailCall() {
+		Stack stack = new Stack(session, 1);
+		stack.push(session.text("u"));
+		int pos1 = stack.prepareFrame();
+		stack.push(session.text("a"));
+		stack.enterFrame(pos1);
+		stack.setFrameValue(1, session.text("b")); // a local variable
+		int pos2 = stack.prepareFrame();
+		stack.push(session.text("x"));
+		stack.push(session.text("y"));
+		stack.enterTailCall(pos2, null);
+		assertEquals(2, stack.getFrameSize()); // x + y replace the current frame
+		assertEquals("x", stack.getFrameValue(0).asText().toTextString());
+		assertEquals("y", stack.getFrameValue(1).asText().toTextString());
+		stack.reserveFrame(10);
+		stack.setFrameValue(9, session.text("z"));
+		assertEquals(10, stack.getFrameSize());
+		stack.leaveFrame(pos1);
+		assertEquals(1, stack.getFrameSize()); // u
+		assertEquals("u", stack.getFrameValue(0).asText().toTextString());
+	}
+
 	@Test
 	public void testCallAborted() {
 		Stack stack = new Stack(session);
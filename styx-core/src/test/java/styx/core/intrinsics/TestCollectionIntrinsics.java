@@ -1,18 +1,53 @@
 package styx.core.intrinsics;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
 import org.junit.Test;
 
+import styx.Complex;
+import styx.Determinism;
+import styx.Function;
+import styx.Pair;
+import styx.Reference;
 import styx.Session;
 import styx.SessionFactory;
 import styx.SessionManager;
 import styx.StyxException;
+import styx.Value;
+import styx.core.expressions.CompileFlag;
+import styx.core.expressions.CompiledFunction;
+import styx.core.expressions.FuncRegistry;
+import styx.core.expressions.FunctionExpression;
+import styx.core.expressions.Scope;
+import styx.core.expressions.Stack;
+import styx.core.values.LazyComplex;
 
 public class TestCollectionIntrinsics extends Base {
 
     private static SessionFactory sf = SessionManager.createMemorySessionFactory(false);
 
+    private static final String[] PARALLEL_SCRIPTS = {
+        " collection.filter([/][*], (k,v) -> { return v % 7 == 0 }) ",
+        " collection.filter_vals([/][*], (k,v) -> { return v % 7 == 0 }) ",
+        " collection.map([/][*], (k,v) -> { return [ (k), (v * v) ] }) ",
+        " collection.map_vals([/][*], (k,v) -> { return v ++ \"x\" }) ",
+        " collection.reduce([/][*], (v1,v2) -> { return v1 + v2 }) ",
+        " collection.reduce_assoc([/][*], (v1,v2) -> { return v1 + v2 }) ",
+        " collection.reduce_assoc(collection.map_vals([/][*], (k,v) -> { return \"\" ++ (v % 10) }), (v1,v2) -> { return v1 ++ v2 }) ",
+    };
+
+    @After
+    public void tearDown() {
+        CollectionIntrinsics.parallelThreshold = -1;
+    }
+
     @Test
     public void testFilter() throws StyxException {
         try(Session session = sf.createSession()) {
@@ -49,4 +84,118 @@ public class TestCollectionIntrinsics extends Base {
             assertEquals("100", evaluate(session, " collection.reduce([/][*], (v1,v2) -> { return v1 + v2 }) ").toString());
         }
     }
+
+    @Test
+    public void testParallel() throws StyxException {
+        try(Session session = sf.createSession()) {
+            session.evaluate("[/][*] = for(i := 1, i <= 5000, i += 1) yield i");
+            for(String script : PARALLEL_SCRIPTS) {
+                CollectionIntrinsics.parallelThreshold = -1;
+                String sequential = evaluate(session, script).toString();
+                CollectionIntrinsics.parallelThreshold = 0;
+                assertEquals(script, sequential, evaluate(session, script).toString());
+            }
+            assertEquals("12345", evaluate(session, " collection.reduce_assoc([1,2,3,4,5], (v1,v2) -> { return v1 ++ v2 }) ").toString());
+            try {
+                evaluate(session, " collection.map_vals([/][*], (k,v) -> { if(v != 4711) { return v } }) ");
+                fail();
+            } catch(StyxException e) {
+                assertEquals("map_vals(): The provided mapper function did not return a value.", e.getMessage());
+            }
+            try {
+                evaluate(session, " collection.reduce_assoc([/][*], (v1,v2) -> { if(v2 == 4711) { throw \"failed\" }, return v1 + v2 }) ");
+                fail();
+            } catch(StyxException e) {
+                assertEquals("The script invoked a 'throw' statement.", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testParallelBytecode() throws StyxException {
+        try(Session session = sf.createSession()) {
+            session.evaluate("[/][*] = for(i := 1, i <= 5000, i += 1) yield i");
+            String script = " collection.map_vals([/][*], (k,v) -> { s := 0, for(i := 0, i < 3, i += 1) { s += v * i + k }, return s }) ";
+            CollectionIntrinsics.parallelThreshold = -1;
+            String sequential = evaluate(session, script).toString();
+            CollectionIntrinsics.parallelThreshold = 0;
+            for(int i = 0; i < 5; i++) {
+                // The mapper is translated by one of the workers while the others keep invoking it.
+                Function func = ((FunctionExpression) session.parse(script, false).definition()).compile(new Scope(
+                        session, AllIntrinsics.buildEnvironment(new FuncRegistry(), session), CompileFlag.OPTIMIZATIONS, 100), null).function();
+                assertEquals(sequential, func.invoke(session, null).toString());
+            }
+        }
+    }
+
+    @Test
+    public void testParallelSession() throws StyxException {
+        try(Session session = sf.createSession()) {
+            final Set<Session> sessions = Collections.newSetFromMap(new ConcurrentHashMap<Session, Boolean>());
+            Function mapper = new CompiledFunction(new FuncRegistry(), "test_mapper", Determinism.PURE, 2) {
+                @Override
+                public Value invoke(Stack stack) throws StyxException {
+                    sessions.add(stack.session());
+                    return stack.getFrameValue(1);
+                }
+            }.function();
+            Complex complex = session.complex();
+            for(int i = 0; i < 5000; i++) {
+                complex = complex.add(session.number(i));
+            }
+            assertEquals(complex, CollectionIntrinsics.map_vals(session, complex, mapper)); // disabled by default
+            assertEquals(Collections.singleton(session), sessions);
+
+            sessions.clear();
+            CollectionIntrinsics.parallelThreshold = 0;
+            assertEquals(complex, CollectionIntrinsics.map_vals(session, complex, mapper));
+            assertFalse(sessions.contains(session)); // the workers don't share the caller's session
+        }
+    }
+
+    @Test
+    public void testLazy() throws StyxException {
+        try(Session session = sf.createSession()) {
+            session.evaluate("[/][*] = for(i := 1, i <= 5000, i += 1) yield i");
+            String pipeline = "collection.map_vals(collection.filter(collection.map(SOURCE, (k,v) -> { return v * 3 }), (k,v) -> { return v % 2 == 0 }), (k,v) -> { return [ (k), (v) ] })";
+            assertEquals(
+                    evaluate(session, pipeline.replace("SOURCE", "[/][*]")).toString(),
+                    evaluate(session, pipeline.replace("SOURCE", "collection.lazy([/][*])")).toString());
+            assertEquals(
+                    evaluate(session, " collection.reduce(" + pipeline.replace("SOURCE", "[/][*]") + ", (v1,v2) -> { return [ (v1[1] + v2[1]), (v1[2] + v2[2]) ] }) ").toString(),
+                    evaluate(session, " collection.reduce_assoc(" + pipeline.replace("SOURCE", "collection.lazy([/][*])") + ", (v1,v2) -> { return [ (v1[1] + v2[1]), (v1[2] + v2[2]) ] }) ").toString());
+            assertEquals("[3,[4,A]]", evaluate(session, " [1,2,3].x ?? [ (collection.filter_vals(collection.lazy([1,2,3,4]), (k,v) -> { return v > 1 })[2]), (collection.map_vals(collection.lazy([A]), (k,v) -> { return [ (k+3), (v) ] })[1]) ] ").toString());
+            assertEquals("10100", last(evaluate(session, " s := 0, foreach(v in collection.map_vals(collection.lazy([/][*]), (k,v) -> { return v * 2 })) { if(v > 200) { break }, s += v }, s ")).toString());
+            assertEquals("[true,true,false,true]", last(evaluate(session, " l := collection.filter_vals(collection.lazy([1,2,3]), (k,v) -> { return v > 2 }), [ (l == [3]), (l.isEmpty == null), (collection.lazy([1,2]) == [1,2,3]), (collection.lazy([1,2]) == [1,2]) ] ")).toString());
+
+            // functions are evaluated when the sequence is consumed, errors can be caught there
+            assertEquals("1", last(evaluate(session, " l := collection.map_vals(collection.lazy([1,2]), (k,v) -> { throw \"failed\" }), 1 ")).toString());
+            assertEquals("caught", last(evaluate(session, " l := collection.map_vals(collection.lazy([1,2]), (k,v) -> { throw \"failed\" }), r := null, try { foreach(v in l) { } } catch(e) { r = \"caught\" }, r ")).toString());
+            try {
+                evaluate(session, " collection.reduce(collection.map_vals(collection.lazy([1,2]), (k,v) -> { return null }), (v1,v2) -> { return v1 }) ");
+                fail();
+            } catch(StyxException e) {
+                assertEquals("map_vals(): The provided mapper function did not return a value.", e.getMessage());
+            }
+
+            // lazy values are materialized when written
+            session.evaluate("[/lazy][*] = collection.map_vals(collection.lazy([1,2]), (k,v) -> { return v * 10 })");
+            assertEquals("[10,20]", session.evaluate("[/lazy][*]").toString());
+            session.evaluate("[/nested][*] = [ a: [ b: (collection.map_vals(collection.lazy([1,2]), (k,v) -> { return v * 10 })) ] ]");
+            assertFalse(session.read(session.evaluate("[/nested/a/b]").asReference()) instanceof LazyComplex);
+            assertEquals("@a @b [10,20]", session.evaluate("[/nested][*]").toString());
+            session.writeAll(Collections.<Reference, Value>singletonMap(session.root().child(session.text("all")),
+                    session.complex(session.text("x"), session.evaluate("collection.lazy([3,4])"))));
+            assertFalse(session.read(session.evaluate("[/all/x]").asReference()) instanceof LazyComplex);
+            assertEquals("@x [3,4]", session.evaluate("[/all][*]").toString());
+        }
+    }
+
+    private static Value last(Value batch) {
+        Value result = null;
+        for(Pair<Value, Value> pair : batch.asComplex()) {
+            result = pair.val();
+        }
+        return result;
+    }
 }
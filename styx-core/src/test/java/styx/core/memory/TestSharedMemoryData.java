@@ -0,0 +1,351 @@
+package styx.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import styx.ConcurrentException;
+import styx.Reference;
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+import styx.Watcher;
+
+public class TestSharedMemoryData {
+
+    private static final Session session = SessionManager.getDetachedSession();
+
+    private SharedValue state;
+
+    @Before
+    public void prepare() throws StyxException {
+        state = new SharedValueMemory(session.deserialize("[a:1,b:2,c:[x:3]]"));
+    }
+
+    @Test
+    public void testDisjoint() throws StyxException {
+        SharedMemoryData data1 = new SharedMemoryData(state.clone());
+        SharedMemoryData data2 = new SharedMemoryData(state.clone());
+        data1.beginTransaction(session);
+        data2.beginTransaction(session);
+        data1.write(session, ref("a"), session.number(data1.read(session, ref("a")).asNumber().toInteger() + 10));
+        data2.write(session, ref("b"), session.number(data2.read(session, ref("b")).asNumber().toInteger() + 20));
+        data2.write(session, ref("c", "y"), session.number(4));
+        data2.commitTransaction(session);
+        data1.commitTransaction(session); // rebased
+        assertEquals("[a:11,b:22,c:[x:3,y:4]]", session.serialize(state.get(session), false));
+    }
+
+    @Test
+    public void testOwnWrites() throws StyxException {
+        SharedMemoryData data1 = new SharedMemoryData(state.clone());
+        SharedMemoryData data2 = new SharedMemoryData(state.clone());
+        data1.beginTransaction(session);
+        data2.beginTransaction(session);
+        data1.write(session, ref("a"), session.number(10));
+        data1.write(session, ref("b"), data1.read(session, ref("a"))); // own write, not recorded as read
+        data2.write(session, ref("c", "x"), session.number(30));
+        data2.commitTransaction(session);
+        data1.commitTransaction(session);
+        assertEquals("[a:10,b:10,c:@x 30]", session.serialize(state.get(session), false));
+    }
+
+    @Test
+    public void testConflictWrite() throws StyxException {
+        SharedMemoryData data1 = new SharedMemoryData(state.clone());
+        SharedMemoryData data2 = new SharedMemoryData(state.clone());
+        data1.beginTransaction(session);
+        data2.beginTransaction(session);
+        data1.write(session, ref("c"), session.number(10));
+        data2.write(session, ref("c", "x"), session.number(20));
+        data2.commitTransaction(session);
+        try {
+            data1.commitTransaction(session);
+            fail();
+        } catch(ConcurrentException e) { }
+        assertEquals("[a:1,b:2,c:@x 20]", session.serialize(state.get(session), false));
+    }
+
+    @Test
+    public void testWriteOrder() throws StyxException {
+        SharedMemoryData data1 = new SharedMemoryData(state.clone());
+        SharedMemoryData data2 = new SharedMemoryData(state.clone());
+        data1.beginTransaction(session);
+        data2.beginTransaction(session);
+        data1.write(session, ref("c", "x"), session.number(5));
+        data1.write(session, ref("c"), session.deserialize("[z:6]"));
+        data1.write(session, ref("c", "x"), session.number(7));
+        data2.write(session, ref("b"), null);
+        data2.commitTransaction(session);
+        data1.commitTransaction(session);
+        assertEquals("[a:1,c:[x:7,z:6]]", session.serialize(state.get(session), false));
+    }
+
+    @Test
+    public void testReadOnly() throws StyxException {
+        SharedMemoryData data1 = new SharedMemoryData(state.clone());
+        SharedMemoryData data2 = new SharedMemoryData(state.clone());
+        data1.beginTransaction(session);
+        assertEquals("1", session.serialize(data1.read(session, ref("a")), false));
+        data2.write(session, ref("a"), session.number(10));
+        data2.write(session, ref("c", "y"), session.number(4));
+        assertEquals("1", session.serialize(data1.read(session, ref("a")), false)); // snapshot
+        assertEquals("[x]", session.serialize(session.complex().addAll(data1.browse(session, ref("c"), null, null, null, true)), false));
+        data1.commitTransaction(session); // nothing written, always succeeds
+        assertEquals("10", session.serialize(data1.read(session, ref("a")), false));
+        assertEquals("[x,y]", session.serialize(session.complex().addAll(data1.browse(session, ref("c"), null, null, null, true)), false));
+        assertNull(data1.read(session, ref("c", "x", "z")));
+    }
+
+    @Test
+    public void testConflictRead() throws StyxException {
+        SharedMemoryData data1 = new SharedMemoryData(state.clone());
+        SharedMemoryData data2 = new SharedMemoryData(state.clone());
+        data1.beginTransaction(session);
+        data2.beginTransaction(session);
+        data1.write(session, ref("b"), data1.read(session, ref("a")));
+        data2.write(session, ref("a"), session.number(10));
+        data2.commitTransaction(session);
+        try {
+            data1.commitTransaction(session);
+            fail();
+        } catch(ConcurrentException e) { }
+        assertEquals("[a:10,b:2,c:@x 3]", session.serialize(state.get(session), false));
+    }
+
+    @Test
+    public void testConflictBrowse() throws StyxException {
+        SharedMemoryData data1 = new SharedMemoryData(state.clone());
+        SharedMemoryData data2 = new SharedMemoryData(state.clone());
+        data1.beginTransaction(session);
+        data2.beginTransaction(session);
+        data1.browse(session, ref("c"), null, null, null, true);
+        data1.write(session, ref("a"), null);
+        data2.write(session, ref("c", "y"), session.number(4));
+        data2.commitTransaction(session);
+        try {
+            data1.commitTransaction(session);
+            fail();
+        } catch(ConcurrentException e) { }
+    }
+
+    @Test
+    public void testConflictParent() throws StyxException {
+        SharedMemoryData data1 = new SharedMemoryData(state.clone());
+        SharedMemoryData data2 = new SharedMemoryData(state.clone());
+        data1.beginTransaction(session);
+        data2.beginTransaction(session);
+        data1.write(session, ref("c", "y"), session.number(4));
+        data2.write(session, ref("c"), null);
+        data2.commitTransaction(session);
+        try {
+            data1.commitTransaction(session);
+            fail();
+        } catch(ConcurrentException e) { }
+        assertEquals("[a:1,b:2]", session.serialize(state.get(session), false));
+    }
+
+    @Test
+    public void testUnchangedValue() throws StyxException {
+        SharedMemoryData data1 = new SharedMemoryData(state.clone());
+        SharedMemoryData data2 = new SharedMemoryData(state.clone());
+        data1.beginTransaction(session);
+        data2.beginTransaction(session);
+        data1.write(session, ref("b"), data1.read(session, ref("c")));
+        data2.write(session, ref("c"), session.deserialize("[x:3]")); // equal value
+        data2.commitTransaction(session);
+        data1.commitTransaction(session);
+        assertEquals("[a:1,b:@x 3,c:@x 3]", session.serialize(state.get(session), false));
+    }
+
+    @Test
+    public void testWatch() throws StyxException, InterruptedException {
+        checkWatch(state);
+    }
+
+    @Test
+    public void testWatchFile() throws StyxException, InterruptedException, IOException {
+        Path file = Paths.get("target", "styx-session", "TestSharedMemoryData.styx");
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+        SharedValue state = new SharedValueFile(file, false);
+        state.set(session, session.deserialize("[a:1,b:2,c:[x:3]]"));
+        checkWatch(state);
+    }
+
+    @Test
+    public void testWatchCoalesce() throws StyxException, InterruptedException {
+        long delay = SharedValueWatcher.delay;
+        SharedValueWatcher.delay = 200;
+        try(SharedMemoryData data1 = new SharedMemoryData(state.clone());
+                SharedMemoryData data2 = new SharedMemoryData(state.clone())) {
+            BlockingQueue<String> events = watch(data1, ref("a"));
+            for(int i = 1; i <= 50; i++) {
+                data2.write(session, ref("a"), session.number(i));
+            }
+            int count = 0;
+            String event;
+            do {
+                event = events.poll(10, TimeUnit.SECONDS);
+                count++;
+            } while(event != null && !event.equals("[/a]=50"));
+            assertEquals("[/a]=50", event);
+            assertTrue(count < 50);
+        } finally {
+            SharedValueWatcher.delay = delay;
+        }
+    }
+
+    @Test
+    public void testWatchBaseline() throws StyxException, InterruptedException {
+        long delay = SharedValueWatcher.delay;
+        SharedValueWatcher.delay = 200;
+        try(SharedMemoryData data1 = new SharedMemoryData(state.clone());
+                SharedMemoryData data2 = new SharedMemoryData(state.clone())) {
+            BlockingQueue<String> events1 = watch(data1, ref("a"));
+            data2.write(session, ref("a"), session.number(5));
+            // Added while the change is being coalesced, compared with the same version as the first watcher.
+            BlockingQueue<String> events2 = watch(data1, ref("a"));
+            assertEquals("[/a]=5", events1.poll(10, TimeUnit.SECONDS));
+            assertEquals("[/a]=5", events2.poll(10, TimeUnit.SECONDS));
+        } finally {
+            SharedValueWatcher.delay = delay;
+        }
+    }
+
+    @Test
+    public void testWatchSession() throws StyxException, InterruptedException {
+        final Set<Session> sessions = Collections.newSetFromMap(new ConcurrentHashMap<Session, Boolean>());
+        SharedValue recording = new RecordingValue(state, sessions);
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        try(Session owner = SessionManager.createMemorySessionFactory(false).createSession();
+                SharedMemoryData data1 = new SharedMemoryData(recording.clone());
+                SharedMemoryData data2 = new SharedMemoryData(state.clone())) {
+            data1.watch(owner, ref("a"), new Watcher() {
+                @Override
+                public void changed(Reference ref, Value val) {
+                    events.add(ref + "=" + val);
+                }
+            });
+            data2.write(session, ref("a"), session.number(5));
+            assertEquals("[/a]=5", events.poll(10, TimeUnit.SECONDS));
+            assertFalse(sessions.isEmpty());
+            assertFalse(sessions.contains(owner)); // the thread does not use the session of the owner
+        }
+    }
+
+    private static void checkWatch(SharedValue state) throws StyxException, InterruptedException {
+        try(SharedMemoryData data1 = new SharedMemoryData(state.clone());
+                SharedMemoryData data2 = new SharedMemoryData(state.clone())) {
+            BlockingQueue<String> events = watch(data1, ref("c"));
+            data2.write(session, ref("a"), session.number(10)); // not watched
+            data2.write(session, ref("c", "y"), session.number(4));
+            assertEquals("[/c]=[x:3,y:4]", events.poll(10, TimeUnit.SECONDS));
+
+            data2.beginTransaction(session);
+            data2.write(session, ref("c", "x"), session.number(5));
+            data2.write(session, ref("b"), session.number(20));
+            data2.commitTransaction(session);
+            assertEquals("[/c]=[x:5,y:4]", events.poll(10, TimeUnit.SECONDS));
+
+            data2.write(session, ref("c", "x"), session.number(5)); // unchanged
+            data2.write(session, ref("c"), null);
+            assertEquals("[/c]=null", events.poll(10, TimeUnit.SECONDS));
+
+            data1.unwatch(session, null); // not watching
+            data1.close(); // stops all watchers
+            data2.write(session, ref("c"), session.number(6));
+            assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static BlockingQueue<String> watch(SharedMemoryData data, Reference ref) throws StyxException {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        data.watch(session, ref, new Watcher() {
+            @Override
+            public void changed(Reference ref, Value val) {
+                events.add(ref + "=" + val);
+            }
+        });
+        return events;
+    }
+
+    /**
+     * Records the sessions used by the watcher thread.
+     */
+    private static final class RecordingValue implements SharedValue {
+        private final SharedValue  value;
+        private final Set<Session> sessions;
+
+        private RecordingValue(SharedValue value, Set<Session> sessions) {
+            this.value    = value;
+            this.sessions = sessions;
+        }
+
+        private void record(Session session) {
+            if(Thread.currentThread().getName().equals("styx-watcher")) {
+                sessions.add(session);
+            }
+        }
+
+        @Override
+        public SharedValue clone() {
+            return new RecordingValue(value.clone(), sessions);
+        }
+
+        @Override
+        public ReadWriteLock transactionLock() {
+            return value.transactionLock();
+        }
+
+        @Override
+        public Value get(Session session) throws StyxException {
+            record(session);
+            return value.get(session);
+        }
+
+        @Override
+        public void set(Session session, Value val) throws StyxException {
+            record(session);
+            value.set(session, val);
+        }
+
+        @Override
+        public boolean testset(Session session, Value val) throws StyxException {
+            record(session);
+            return value.testset(session, val);
+        }
+
+        @Override
+        public void monitor(Session session) {
+            record(session);
+            value.monitor(session);
+        }
+    }
+
+    private static Reference ref(String... names) {
+        Reference ref = session.root();
+        for(String name : names) {
+            ref = ref.child(session.text(name));
+        }
+        return ref;
+    }
+}
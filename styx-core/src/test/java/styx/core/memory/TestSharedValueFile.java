@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -15,12 +16,16 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import styx.Complex;
+import styx.Reference;
 import styx.Session;
 import styx.SessionManager;
 import styx.StyxException;
@@ -33,6 +38,7 @@ public class TestSharedValueFile {
     private static final Session session = SessionManager.getDetachedSession();
 
     private final Path file = Paths.get("target", "styx-session", "TestSharedValueFile.styx");
+    private final Path journal = Paths.get("target", "styx-session", "TestSharedValueFile.styx.journal");
 
     @BeforeClass
     public static void createFolder() throws IOException {
@@ -42,6 +48,7 @@ public class TestSharedValueFile {
     @Before
     public void prepare() throws IOException {
         Files.deleteIfExists(file);
+        Files.deleteIfExists(journal);
     }
 
     @Test
@@ -179,6 +186,94 @@ public class TestSharedValueFile {
         t1.join(60000);
     }
 
+    @Test
+    public void testMonitorNotified() throws StyxException, IOException, InterruptedException {
+        SharedValue val = new SharedValueFile(file, false);
+        final SharedValue other = val.clone();
+        final long[] stored = new long[1];
+
+        storeFile(file, "\t\t\t\t                           \n", "[1,2,3,4]"); // 0b00001111 = 15
+        assertEquals("[1,2,3,4]", val.get(session).toString());
+
+        Thread t1 = new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    Thread.sleep(3000); // long enough for polling to have backed off to one second
+                    other.set(session, session.deserialize("[5,6,7,8]"));
+                    synchronized(stored) {
+                        stored[0] = System.nanoTime();
+                    }
+                } catch (InterruptedException | StyxException e) {
+                    e.printStackTrace();
+                }
+            } });
+        t1.start();
+
+        val.monitor(session);
+        long woken = System.nanoTime();
+        t1.join(60000);
+        assertEquals("[5,6,7,8]", val.get(session).toString());
+        synchronized(stored) {
+            assertTrue((woken - stored[0]) / 1000000 < 500);
+        }
+        assertFalse(FileNotifier.isWaiting(file)); // the signal is removed with the last waiter
+    }
+
+    @Test
+    public void testLockInterrupted() throws StyxException, IOException, InterruptedException {
+        final SharedValue val = new SharedValueFile(file, false, /* 100, */ 100, 100);
+        final StyxException[] failure = new StyxException[1];
+        final boolean[] interrupted = new boolean[1];
+        Path lock = Paths.get(file + ".lock");
+        Files.createFile(lock);
+        try {
+            Thread t1 = new Thread(new Runnable() {
+                @Override public void run() {
+                    try {
+                        val.set(session, session.deserialize("[5,6,7,8]"));
+                    } catch (StyxException e) {
+                        failure[0] = e;
+                    }
+                    interrupted[0] = Thread.currentThread().isInterrupted();
+                } });
+            t1.start();
+            Thread.sleep(200);
+            t1.interrupt();
+            t1.join(60000);
+            assertNotNull(failure[0]);
+            assertTrue(failure[0].getMessage().endsWith("(locked and interrupted)."));
+            assertTrue(interrupted[0]);
+            assertFalse(FileNotifier.isWaiting(file));
+        } finally {
+            Files.delete(lock);
+        }
+    }
+
+    @Test
+    public void testCache() throws StyxException, IOException {
+        SharedValue val = new SharedValueFile(file, false);
+        SharedValue other = val.clone();
+
+        storeFile(file, "\t\t\t\t                           \n", "[1,2,3,4]"); // 0b00001111 = 15
+        Value value = val.get(session);
+        assertEquals("[1,2,3,4]", value.toString());
+        assertSame(value, val.get(session));
+        assertSame(value, other.get(session)); // clones share the cache
+        assertSame(value, new SharedValueFile(file, false).get(session)); // so do other instances for the same file
+        assertSame(value, new SharedValueFile(Paths.get("target", "styx-session", "..", "styx-session", "TestSharedValueFile.styx"), false).get(session));
+
+        assertTrue(other.testset(session, session.deserialize("[5,6,7,8]"))); // should write file with version 16
+        value = val.get(session);
+        assertEquals("[5,6,7,8]", value.toString());
+        assertSame(value, other.get(session));
+
+        storeFile(file, "    \t                          \n", "[5,6,7,8,9]"); // same version, but modified
+        assertEquals("[5,6,7,8,9]", val.get(session).toString());
+
+        Files.delete(file);
+        assertNull(val.get(session));
+    }
+
     @Test
     public void testGetAndSetFirst() throws StyxException, IOException {
         SharedValue val = new SharedValueFile(file, false, /* 3, */ 100, 100);
@@ -329,6 +424,97 @@ public class TestSharedValueFile {
         assertTrue(val.testset(session, session.deserialize("[5,6,7,8]"))); // should write file with version 2
     }
 
+    @Test
+    public void testJournal() throws StyxException, IOException {
+        SharedValue val = new SharedValueFile(file, false, true);
+        SharedValue val2 = val.clone();
+
+        assertTrue(val.testset(session, session.deserialize("[a:1,b:2,c:0]"), changes("[/]", "[a:1,b:2,c:0]"))); // should write file with version 1
+        assertFalse(Files.exists(journal));
+
+        assertTrue(val.testset(session, session.deserialize("[a:3,b:2,c:0]"), changes("[/a]", "3"))); // should create journal with version 2
+        assertEquals("\t                              \n[a:1,b:2,c:0]", loadFile(file));
+        assertEquals("\t                              \n" + " \t                             \n" + versionLine(96 + 13) + "[2,[[/a],3]]\n", loadFile(journal));
+
+        assertFalse(val2.testset(session, session.deserialize("[a:1,c:0]"), changes("[/b]", null)));
+        assertEquals("[a:3,b:2,c:0]", val2.get(session).toString());
+        assertTrue(val2.testset(session, session.deserialize("[a:3,c:0]"), changes("[/b]", null))); // should append version 3
+        assertEquals("\t                              \n" + "\t\t                             \n" + versionLine(96 + 13 + 11) + "[2,[[/a],3]]\n[3,[[/b]]]\n", loadFile(journal));
+
+        assertEquals("[a:3,c:0]", new SharedValueFile(file, false).get(session).toString());
+
+        assertTrue(val2.testset(session, session.deserialize("[c:4,d:5]"))); // should write file with version 4 and reset journal
+        assertEquals("  \t                            \n[c:4,d:5]", loadFile(file));
+        assertEquals("  \t                            \n" + "  \t                            \n" + versionLine(96), loadFile(journal));
+        assertEquals("[c:4,d:5]", new SharedValueFile(file, false, true).get(session).toString());
+    }
+
+    @Test
+    public void testJournalOrphan() throws StyxException, IOException {
+        SharedValue val = new SharedValueFile(file, false, true);
+        assertTrue(val.testset(session, session.deserialize("[a:1]"), changes("[/]", "[a:1]"))); // should write file with version 1
+        assertTrue(val.testset(session, session.deserialize("[a:2]"), changes("[/a]", "2"))); // should create journal with version 2
+
+        // An append that failed before updating the header leaves an entry of the next version, maybe a torn one.
+        Files.write(journal, "[3,[[/a],99]]\n[4,[[/a]".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertEquals("@a 2", new SharedValueFile(file, false, true).get(session).toString());
+
+        SharedValue val2 = new SharedValueFile(file, false, true);
+        assertEquals("@a 2", val2.get(session).toString());
+        assertTrue(val2.testset(session, session.deserialize("[a:2,b:3]"), changes("[/b]", "3"))); // should replace the orphan by version 3
+        assertEquals("\t                              \n" + "\t\t                             \n" + versionLine(96 + 13 + 13) + "[2,[[/a],2]]\n[3,[[/b],3]]\n", loadFile(journal));
+        assertEquals("[a:2,b:3]", new SharedValueFile(file, false, true).get(session).toString());
+        assertEquals("[a:2,b:3]", new SharedValueFile(file, false).get(session).toString());
+
+        // Entries must have consecutive versions.
+        storeFile(journal, "\t                              \n", "\t\t                             \n" + versionLine(96 + 26) + "[2,[[/a],2]]\n[2,[[/b],3]]\n");
+        try {
+            new SharedValueFile(file, false, true).get(session);
+            fail();
+        } catch(StyxException e) {
+            assertTrue(e.getMessage().contains("Invalid journal entry (version=2, expected=3)"));
+        }
+    }
+
+    @Test
+    public void testJournalCheckpoint() throws StyxException, IOException, InterruptedException {
+        long checkpointBytes = SharedValueFile.checkpointBytes;
+        SharedValueFile.checkpointBytes = 200;
+        try {
+            SharedValue val = new SharedValueFile(file, false, true);
+            val.set(session, session.complex());
+            Complex value = session.complex();
+            for(int i = 1; i <= 20; i++) {
+                value = value.put(session.number(i), session.text("value " + i));
+                assertTrue(val.testset(session, value, changes("[/" + i + "]", "\"value " + i + "\"")));
+            }
+            // Wait for the background checkpoint, which rewrites the file and removes the journal entries it contains.
+            String header = "\t                              \n"; // 0b00000001 = 1
+            for(int i = 0; i < 100 && loadFile(file).startsWith(header); i++) {
+                Thread.sleep(50);
+            }
+            assertFalse(loadFile(file).startsWith(header));
+            assertEquals(loadFile(file).substring(0, 32), loadFile(journal).substring(0, 32));
+            assertFalse(loadFile(journal).contains("\"value 1\""));
+            assertEquals(value, new SharedValueFile(file, false, true).get(session));
+            assertEquals(value, new SharedValueFile(file, false).get(session));
+        } finally {
+            SharedValueFile.checkpointBytes = checkpointBytes;
+        }
+    }
+
+    private static Map<Reference, Value> changes(String ref, String val) throws StyxException {
+        return Collections.singletonMap(session.deserialize(ref).asReference(), val == null ? null : session.deserialize(val));
+    }
+
+    private static String versionLine(int version) {
+        StringBuilder line = new StringBuilder();
+        for(int i = 0; i < 31; i++) {
+            line.append((version & (1 << i)) != 0 ? '\t' : ' ');
+        }
+        return line.append('\n').toString();
+    }
+
     private static String loadFile(Path file) throws IOException {
         try(Reader stm = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
             return FileIntrinsics.readToEnd(stm);
@@ -0,0 +1,90 @@
+package styx.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+
+public class TestSharedValueMemory {
+
+    private static final Session session = SessionManager.getDetachedSession();
+
+    @Test
+    public void testTestSet() throws StyxException {
+        SharedValue val = new SharedValueMemory(session.deserialize("[1,2,3,4]"));
+        SharedValue other = val.clone();
+
+        assertEquals("[1,2,3,4]", val.get(session).toString());
+        assertEquals("[1,2,3,4]", other.get(session).toString());
+        assertTrue(val.testset(session, session.deserialize("[5,6,7,8]")));
+        assertFalse(other.testset(session, session.deserialize("[9]")));
+        assertEquals("[5,6,7,8]", other.get(session).toString());
+        assertTrue(other.testset(session, session.deserialize("[9]")));
+        assertFalse(val.testset(session, session.deserialize("[10]")));
+        assertEquals("[9]", val.get(session).toString());
+    }
+
+    @Test
+    public void testTestSetEqual() throws StyxException {
+        // Changes are detected by identity, not by equality.
+        SharedValue val = new SharedValueMemory(session.deserialize("[1,2,3,4]"));
+        SharedValue other = val.clone();
+
+        val.get(session);
+        other.set(session, session.deserialize("[1,2,3,4]"));
+        assertFalse(val.testset(session, session.deserialize("[5,6,7,8]")));
+    }
+
+    @Test
+    public void testMonitorSync() throws StyxException {
+        SharedValue val = new SharedValueMemory(session.deserialize("[1,2,3,4]"));
+        assertEquals("[1,2,3,4]", val.get(session).toString());
+
+        SharedValue other = val.clone();
+        other.set(session, session.deserialize("[5,6,7,8]"));
+
+        val.monitor(session);
+        assertEquals("[5,6,7,8]", val.get(session).toString());
+    }
+
+    @Test
+    public void testMonitorAsync() throws StyxException, InterruptedException {
+        final SharedValue val = new SharedValueMemory(session.deserialize("[1,2,3,4]"));
+        final AtomicInteger woken = new AtomicInteger();
+
+        Thread[] threads = new Thread[8];
+        for(int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override public void run() {
+                    try {
+                        SharedValue mine = val.clone();
+                        Value before = mine.get(session);
+                        mine.monitor(session);
+                        if(mine.get(session) != before) {
+                            woken.incrementAndGet();
+                        }
+                    } catch (StyxException e) {
+                        e.printStackTrace();
+                    }
+                } });
+            threads[i].start();
+        }
+        Thread.sleep(200);
+
+        long start = System.nanoTime();
+        val.clone().set(session, session.deserialize("[5,6,7,8]"));
+        for(Thread thread : threads) {
+            thread.join(60000);
+        }
+        assertEquals(threads.length, woken.get());
+        assertTrue(System.nanoTime() - start < 5000000000L); // well before the timeout
+    }
+}
@@ -1,6 +1,7 @@
 package styx.core.parser;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -512,6 +513,19 @@ public class TestInterpreter {
         }
     }
 
+    @Test
+    public void testTailCalls() throws StyxException, IOException {
+        try(Session session = sf.createSession()) {
+            // deep enough to overflow the JVM stack without tail calls
+            assertEquals(100000, evaluate(session, " count :=== (f, n, acc) -> { if(n == 0) { return acc }, return f(f, n-1, acc+1) }, count(count, 100000, 0) ", 2).asNumber().toInteger());
+            assertEquals(100000, evaluate(session, " count :=== (f, n, acc) -> { while(true) { if(n == 0) { return acc } else { return f(f, n-1, acc+1) } } }, count(count, 100000, 0) ", 2).asNumber().toInteger());
+            assertEquals(0, evaluate(session, " even :=== (f, g, n) -> { if(n == 0) { return 1 }, return g(g, f, n-1) }, odd :=== (f, g, n) -> { if(n == 0) { return 0 }, return g(g, f, n-1) }, even(even, odd, 10001) ", 3).asNumber().toInteger());
+            // not a tail call within try
+            assertEquals("caught", evaluate(session, " t :=== (x) -> { throw x }, f :=== () -> { try { return t(1) } catch(e) { return \"caught\" } }, f() ", 3).asText().toTextString());
+            assertEquals(7, evaluate(session, " g :=== (x, y) -> { return x + y }, f :=== (a) -> { b := a * 2, return g(b, a) + 1 }, f(2) ", 3).asNumber().toInteger());
+        }
+    }
+
     @Test
     public void testFunctionExplicit() throws IOException, StyxException {
         try(Session session = sf.createSession()) {
@@ -690,6 +704,26 @@ public class TestInterpreter {
         }
     }
 
+    @Test
+    public void testParseNested() throws StyxException {
+        try(Session session = sf.createSession()) {
+            // nested typed parameters are parsed as function arguments first, this used to take exponential time
+            String valid = "t";
+            String invalid = "t";
+            for(int i = 0; i < 40; i++) {
+                valid = "(x" + i + " :: " + valid + ") -> x" + i;
+                invalid = "(x" + i + " :: " + invalid + ")";
+            }
+            assertNotNull(session.parse(valid, false));
+            try {
+                parse(session, invalid);
+                fail();
+            } catch(StyxException e) {
+                assertTrue(e.getMessage().contains("Cannot handle"));
+            }
+        }
+    }
+
     private Function parse(Session session, String script) throws StyxException {
         return session.parse(script, true);
     }
@@ -0,0 +1,163 @@
+package styx.core.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import styx.Complex;
+import styx.Function;
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.core.sessions.AbstractSessionFactory;
+
+public class TestScriptCache {
+
+    @Test
+    public void testDisabled() throws StyxException {
+        AbstractSessionFactory sf = (AbstractSessionFactory) SessionManager.createMemorySessionFactory(false);
+        try(Session session = sf.createSession()) {
+            assertNotSame(session.parse("x := 1, x + 1"), session.parse("x := 1, x + 1"));
+            assertEquals(0, sf.getScriptCache().size());
+        }
+    }
+
+    @Test
+    public void testSession() throws StyxException {
+        AbstractSessionFactory sf = cachingFactory();
+        ScriptCache cache = sf.getScriptCache();
+        try(Session session1 = sf.createSession(); Session session2 = sf.createSession()) {
+            Function func = session1.parse("x := 1, x + 1");
+            assertEquals(0, cache.hits());
+            assertEquals(1, cache.misses());
+            assertSame(func, session1.parse("x := 1, x + 1"));
+            assertSame(func, session2.parse("x := 1, x + 1"));
+            assertEquals(2, cache.hits());
+            assertEquals(2, session2.evaluate("x := 1, x + 1").asComplex().get(session2.number(2)).asNumber().toInteger());
+            assertEquals(3, cache.hits());
+
+            assertNotSame(func, session1.parse("x := 1, x + 1", false)); // not compiled
+            assertNotSame(func, session1.parse("x := 1, x + 2"));
+            assertEquals(3, cache.hits());
+            assertEquals(3, cache.misses());
+            assertEquals(3, cache.size());
+
+            sf.addEnvironment(session1.text("foo"), session1.number(42)); // affects new sessions only
+            try(Session session3 = sf.createSession()) {
+                assertNotSame(func, session3.parse("x := 1, x + 1"));
+                assertEquals(42, session3.evaluate("foo").asNumber().toInteger());
+            }
+            assertSame(func, session1.parse("x := 1, x + 1"));
+
+            try {
+                session1.parse("x := )");
+                fail();
+            } catch(StyxException e) {
+                assertTrue(e.getMessage().contains("Cannot handle"));
+            }
+            assertNull(session1.parse(""));
+        }
+    }
+
+    @Test
+    public void testConcurrent() throws StyxException, InterruptedException {
+        // The cached function and its nodes are shared by sessions that evaluate it at the same time.
+        final String script = "f := (n) -> { s := 0, for(i := 0, i < n, i += 1) { s += if(i % 3 == 0) i * 0.5 else i }, return s }, " +
+                              "[ (f(200)), (f(7)), (collection.reduce([1,2,3], (a,b) -> { return a * b })) ]";
+        final AbstractSessionFactory sf = cachingFactory();
+        final String expected;
+        final Function func;
+        try(Session session = sf.createSession()) {
+            func = session.parse(script);
+            expected = session.serialize(func.invoke(session, null), false);
+        }
+        final AtomicInteger failures = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < 8; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override public void run() {
+                    try(Session session = sf.createSession()) {
+                        for(int j = 0; j < 200; j++) {
+                            Function cached = session.parse(script);
+                            if(cached != func || !expected.equals(session.serialize(cached.invoke(session, null), false))) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    } catch (StyxException | RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                } }));
+        }
+        for(Thread thread : threads) {
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join(60000);
+        }
+        assertEquals(0, failures.get());
+        assertEquals(8 * 200, sf.getScriptCache().hits());
+    }
+
+    @Test
+    public void testLimits() throws StyxException {
+        AbstractSessionFactory sf = cachingFactory();
+        try(Session session = sf.createSession()) {
+            Complex env = session.complex();
+            Function func = session.parse("1");
+
+            ScriptCache cache = new ScriptCache(10, 1000000);
+            for(int i = 0; i < 10; i++) {
+                cache.put("script" + i, env, env, true, func);
+            }
+            assertEquals(10, cache.size());
+            assertNotNull(cache.get("script0", env, env, true)); // most recently used now
+            cache.put("script10", env, env, true, func);
+            assertEquals(9, cache.size());
+            assertEquals(2, cache.evictions());
+            assertNotNull(cache.get("script0", env, env, true));
+            assertNull(cache.get("script1", env, env, true));
+            assertNull(cache.get("script2", env, env, true));
+            assertNotNull(cache.get("script10", env, env, true));
+            assertNull(cache.get("script10", env, session.complex(session.text("x"), session.text("y")), true));
+
+            cache = new ScriptCache(1000, 10000);
+            cache.put(new String(new char[1000]), env, env, true, func); // larger than the limit
+            assertEquals(0, cache.size());
+            for(int i = 0; i < 100; i++) {
+                cache.put("script" + i, env, env, true, func);
+                assertTrue(cache.bytes() <= 10000);
+            }
+            assertTrue(cache.size() < 100);
+            assertEquals(100 - cache.size(), cache.evictions());
+            cache.clear();
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.bytes());
+
+            cache = new ScriptCache(0, 0); // disabled
+            cache.put("script", env, env, true, func);
+            assertNull(cache.get("script", env, env, true));
+        }
+    }
+
+    /**
+     * Creates a session factory with the script cache enabled, which is disabled by default.
+     */
+    private static AbstractSessionFactory cachingFactory() {
+        System.setProperty("styx.script.cache.entries", "1000");
+        try {
+            return (AbstractSessionFactory) SessionManager.createMemorySessionFactory(false);
+        } finally {
+            System.clearProperty("styx.script.cache.entries");
+        }
+    }
+}
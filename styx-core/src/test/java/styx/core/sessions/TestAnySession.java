@@ -10,7 +10,10 @@ import static org.junit.Assert.fail;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -142,6 +145,37 @@ public abstract class TestAnySession extends TestBase {
         }
     }
 
+    @Test
+    public void testReadWriteAll() throws StyxException {
+        try(Session session = sf.createSession()) {
+            Reference ra = session.root().child(session.text("A"));
+            Reference rb = session.root().child(session.text("B"));
+            Reference rc = session.root().child(session.text("C"));
+            Reference rd = session.root().child(session.text("D"));
+
+            session.write(session.root(), session.deserialize("[A:1,B:2]"));
+
+            Map<Reference, Value> vals = new LinkedHashMap<>();
+            vals.put(ra, null);
+            vals.put(rc, session.deserialize("[x:1]"));
+            vals.put(rc.child(session.text("y")), session.number(3));
+            vals.put(rb, session.text("b"));
+            session.writeAll(vals);
+            assertEquals("[B:b,C:[x:1,y:3]]", session.serialize(session.read(session.root()), false));
+
+            List<Value> res = session.readAll(Arrays.asList(ra, rb, rc, rd, rc.child(session.text("x"))));
+            assertEquals(5, res.size());
+            assertNull(res.get(0));
+            assertEquals("b", session.serialize(res.get(1), false));
+            assertEquals("[x:1,y:3]", session.serialize(res.get(2), false));
+            assertNull(res.get(3));
+            assertEquals("1", session.serialize(res.get(4), false));
+
+            session.writeAll(new LinkedHashMap<Reference, Value>());
+            assertEquals(0, session.readAll(Arrays.<Reference>asList()).size());
+        }
+    }
+
     @Test
     public void testWrite2() throws StyxException {
         try(Session session = sf.createSession()) {
@@ -8,6 +8,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -33,6 +35,34 @@ public abstract class TestAnyTransaction extends TestBase {
         this.sf = sf;
     }
 
+    @Test
+    public void testWriteAll() throws StyxException {
+        try(Session session = sf.createSession()) {
+            Reference root = session.root();
+            session.write(root, session.deserialize("[a:1,b:2]"));
+
+            // Outside of a transaction, either all or none of the values are written.
+            Map<Reference, Value> vals = new LinkedHashMap<>();
+            vals.put(root.child(session.text("a")), session.number(10));
+            vals.put(root.child(session.text("x")).child(session.text("y")), session.number(20)); // parent does not exist
+            try {
+                session.writeAll(vals);
+                fail();
+            } catch(StyxException e) { }
+            assertEquals("[a:1,b:2]", session.serialize(session.read(root), false));
+
+            // Within a transaction, the values are written when committed.
+            vals.remove(root.child(session.text("x")).child(session.text("y")));
+            vals.put(root.child(session.text("b")), null);
+            vals.put(root.child(session.text("c")), session.number(3));
+            session.beginTransaction();
+            session.writeAll(vals);
+            assertEquals("[a:10,c:3]", session.serialize(session.read(root), false));
+            session.commitTransaction();
+            assertEquals("[a:10,c:3]", session.serialize(session.read(root), false));
+        }
+    }
+
     @Test
     public void testReadWriteTxns() throws StyxException {
         try(Session session = sf.createSession()) {
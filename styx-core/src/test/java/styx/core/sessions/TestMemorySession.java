@@ -49,6 +49,9 @@ public class TestMemorySession extends TestAnySession {
                 },
                 new Object[] { // test parameter [2]
                         FileSessionProvider.createSessionFactory(Paths.get("target", "styx-session", "TestMemorySession.styx"), true)
+                },
+                new Object[] { // test parameter [3]
+                        FileSessionProvider.createSessionFactory(Paths.get("target", "styx-session", "TestMemorySessionJournal.styx"), true, true)
                 });
     }
 }
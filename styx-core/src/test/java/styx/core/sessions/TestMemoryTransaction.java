@@ -36,6 +36,9 @@ public class TestMemoryTransaction extends TestAnyTransaction {
                 },
                 new Object[] { // test parameter [1]
                         FileSessionProvider.createSessionFactory(Paths.get("target", "styx-session", "TestMemorySession.styx"), true)
+                },
+                new Object[] { // test parameter [2]
+                        FileSessionProvider.createSessionFactory(Paths.get("target", "styx-session", "TestMemorySessionJournal.styx"), true, true)
                 });
     }
 
@@ -0,0 +1,126 @@
+package styx.core.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import styx.Complex;
+import styx.Reference;
+import styx.Session;
+import styx.SessionFactory;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.Value;
+
+public class TestColumnarSerializer {
+
+    private static SessionFactory sf = SessionManager.createMemorySessionFactory(false);
+
+    @Test
+    public void testSimple() throws StyxException {
+        try(Session session = sf.createSession()) {
+            roundTrip(session, null);
+            roundTrip(session, session.text("foo"));
+            roundTrip(session, session.number(-123));
+            roundTrip(session, session.complex());
+            roundTrip(session, session.deserialize("[a,b,c]"));
+            roundTrip(session, session.deserialize("[ home:[/home/philip], name:philip, tags:[@X x, @Y y], [k1:v1,k2:v2]:[foo,bar] ]"));
+        }
+    }
+
+    @Test
+    public void testRecords() throws StyxException {
+        try(Session session = sf.createSession()) {
+            roundTrip(session, session.deserialize("[ [a:1,b:x], [a:2,b:y], [a:3,b:x] ]"));
+            roundTrip(session, session.deserialize("[ k1: [a:1.5,b:true], k2: [a:-2,b:0xFF], k3: [a:0,b:\"\"] ]"));
+            roundTrip(session, session.deserialize("[ [a:007,b:[1,2]], [a:-0,b:[x:y]], [a:9223372036854775807,b:@x y] ]"));
+            roundTrip(session, session.deserialize("[ [a:1], [b:1], [a:1], foo, bar, [], [a:[[x:1],[x:2]]] ]"));
+            roundTrip(session, session.deserialize("[ 5: [a:1], 6: [a:2], -3: [a:3], 123456789012345678901234567890: [a:4] ]"));
+        }
+    }
+
+    @Test
+    public void testLarge() throws StyxException {
+        try(Session session = sf.createSession()) {
+            Complex val = session.complex();
+            for(int i = 1; i <= 5000; i++) {
+                val = val.add(session.complex()
+                        .put(session.text("id"), session.number(i * 1000003L))
+                        .put(session.text("kind"), session.text("kind " + (i % 7)))
+                        .put(session.text("name"), session.text("name " + i))
+                        .put(session.text("ratio"), session.number(i / 8.0)));
+            }
+            byte[] bytes = roundTrip(session, val);
+            int textSize = Serializer.serialize(val, false).getBytes(StandardCharsets.UTF_8).length;
+            assertTrue(bytes.length * 2 < textSize);
+
+            roundTrip(session, TestJsonCodec.generate(session, 4, 40));
+        }
+    }
+
+    @Test
+    public void testStream() throws StyxException {
+        try(Session session = sf.createSession()) {
+            Value val = TestJsonCodec.generate(session, 3, 20);
+            session.write(session.root(), session.deserialize("[ data: [], text: foo ]"));
+            Reference data = session.root().child(session.text("data"));
+            Reference text = session.root().child(session.text("text"));
+            Reference copy = session.root().child(session.text("copy"));
+            session.write(data, val);
+
+            ByteArrayOutputStream stm = new ByteArrayOutputStream();
+            ColumnarSerializer.serialize(session, data, stm);
+            assertEquals(val, ColumnarSerializer.deserialize(session, new ByteArrayInputStream(stm.toByteArray())));
+            ColumnarSerializer.deserialize(session, new ByteArrayInputStream(stm.toByteArray()), copy);
+            assertEquals(val, session.read(copy));
+
+            stm = new ByteArrayOutputStream();
+            ColumnarSerializer.serialize(session, text, stm);
+            ColumnarSerializer.deserialize(session, new ByteArrayInputStream(stm.toByteArray()), copy);
+            assertEquals("foo", session.read(copy).toString());
+        }
+    }
+
+    @Test
+    public void testInvalid() throws StyxException {
+        try(Session session = sf.createSession()) {
+            byte[] bytes = serialize(session.deserialize("[ [a:1,b:x], [a:2,b:y] ]"));
+            assertInvalid(session, new byte[0]);
+            assertInvalid(session, "foo".getBytes(StandardCharsets.UTF_8));
+            assertInvalid(session, Arrays.copyOf(bytes, bytes.length - 1));
+            assertInvalid(session, Arrays.copyOf(bytes, bytes.length + 1));
+        }
+    }
+
+    private static byte[] roundTrip(Session session, Value val) throws StyxException {
+        byte[] bytes = serialize(val);
+        Value val2 = ColumnarSerializer.deserialize(session, new ByteArrayInputStream(bytes));
+        assertEquals(val, val2);
+        if(val != null) {
+            assertEquals(Serializer.serialize(val, false), Serializer.serialize(val2, false));
+        }
+        return bytes;
+    }
+
+    private static byte[] serialize(Value val) throws StyxException {
+        ByteArrayOutputStream stm = new ByteArrayOutputStream();
+        ColumnarSerializer.serialize(val, stm);
+        return stm.toByteArray();
+    }
+
+    private static void assertInvalid(Session session, byte[] bytes) {
+        try {
+            ColumnarSerializer.deserialize(session, new ByteArrayInputStream(bytes));
+            fail();
+        } catch(StyxException e) {
+            assertEquals("Failed to deserialize from columnar.", e.getMessage());
+        }
+    }
+}
@@ -1,19 +1,24 @@
 package styx.core.utils;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNull;
 
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.junit.Test;
 
+import styx.Reference;
 import styx.Session;
 import styx.SessionFactory;
 import styx.SessionManager;
 import styx.StyxException;
 import styx.Value;
+import styx.core.sessions.FileSessionProvider;
 
 public class TestXmlExporter {
 
@@ -44,25 +49,49 @@ public class TestXmlExporter {
     }
 
     @Test
-    public void testImportLargeXml() throws StyxException, IOException {
+    public void testImportStreamed() throws StyxException, IOException {
         try(Session session = sf.createSession()) {
-            session.evaluate("[/][*] = []");
-            session.evaluate("[/swap][*] = []"); // XXX
-            Value result = new XmlLargeExporter(session, 6, session.root().child(session.text("swap"))).
-                    importDocument(new StringReader("<a><b><x>01</x><x>02</x><x>03</x><x>04</x><x>05</x><x>06</x><x>07</x><x>08</x><x>09</x><x>10</x><YYY><y/><y/><y/><y/><y/><y/><y/><y/></YYY>"+
-                                                          "<x>11</x><x>12</x><x>13</x><x>14</x><x>15</x><x>16</x><x>17</x><x>18</x><x>19</x><x>20</x></b></a>"));
-
-            assertEquals("[@a [@b [@x 01,@x 02,@x 03,@x 04,@x 05,@x 06,@x 07,@x 08,@x 09,@x 10," + "@YYY [@y [],@y [],@y [],@y [],@y [],@y [],@y [],@y []]," +
-                                  "@x 11,@x 12,@x 13,@x 14,@x 15,@x 16,@x 17,@x 18,@x 19,@x 20]]]", result.toString());
-
-            assertNull(session.evaluate("[/swap/2][*]"));
-
-            assertEquals("[@x 01,@x 02,@x 03,@x 04,@x 05,@x 06,@x 07,@x 08,@x 09,@x 10," + "@YYY [@y [],@y [],@y [],@y [],@y [],@y [],@y [],@y []]," +
-                          "@x 11,@x 12,@x 13,@x 14,@x 15,@x 16,@x 17,@x 18,@x 19,@x 20]", session.evaluate("[/swap/3][*]").toString());
+            String xml = "<a><b><x>01</x><x>02</x><x>03</x><YYY><y/><y/><y/></YYY><x>04</x></b><c id=\"i\">ccc</c></a>";
+            Value expected = importXml(session, xml);
+            for(int depth = 0; depth <= 4; depth++) {
+                session.write(session.root(), session.complex());
+                Reference target = session.root().child(session.text("import"));
+                new XmlExporter(session).importDocument(new StringReader(xml), target, depth);
+                assertEquals("depth=" + depth, expected, session.read(target));
+            }
+            assertEquals("[@a [@b [@x 01,@x 02,@x 03,@YYY [@y [],@y [],@y []],@x 04],@c [[\"#id\":i],ccc]]]", expected.toString());
+        }
+    }
 
-            assertEquals("[@y [],@y [],@y [],@y [],@y [],@y [],@y [],@y []]", session.evaluate("[/swap/4][*]").toString());
+    @Test
+    public void testImportStreamedBatched() throws StyxException, IOException {
+        Path file = Paths.get("target", "styx-session", "TestXmlExporter.styx");
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+        StringBuilder xml = new StringBuilder("<a>");
+        for(int i = 0; i < 2500; i++) {
+            xml.append("<x>").append(i).append("</x>");
+        }
+        xml.append("</a>");
+        try(Session session = FileSessionProvider.createSessionFactory(file, false).createSession()) {
+            session.write(session.root(), session.complex());
+            Reference target = session.root().child(session.text("import"));
+            new XmlExporter(session).importDocument(new StringReader(xml.toString()), target, 1);
+            assertEquals(importXml(session, xml.toString()), session.read(target));
+        }
+        // Every commit increments the version of the file: 1 for the root and 3 for about 2500 values.
+        String header = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).substring(1, 32);
+        assertEquals("  \t", header.substring(0, 3)); // 0b100 = 4
+        assertEquals(-1, header.indexOf('\t', 3));
+    }
 
-            assertNull(session.evaluate("[/swap/5][*]"));
+    @Test
+    public void testImportStreamedText() throws StyxException, IOException {
+        try(Session session = sf.createSession()) {
+            session.write(session.root(), session.complex());
+            Reference target = session.root().child(session.text("import"));
+            new XmlExporter(session).importDocument(new StringReader("<html>xxx</html>"), target, 3);
+            assertEquals("[@html xxx]", session.read(target).toString());
         }
     }
 
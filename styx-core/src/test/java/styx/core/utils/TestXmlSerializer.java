@@ -16,16 +16,22 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
 
+import styx.Complex;
+import styx.Reference;
 import styx.Session;
 import styx.SessionFactory;
 import styx.SessionManager;
 import styx.StyxException;
 import styx.Value;
+import styx.core.sessions.FileSessionProvider;
 
 public class TestXmlSerializer {
 
@@ -170,6 +176,54 @@ public class TestXmlSerializer {
         }
     }
 
+    @Test
+    public void testStreamed() throws StyxException, IOException {
+        try(Session session = sf.createSession()) {
+            session.write(session.root(), session.deserialize("[ data: [ home:[/home/philip], name:philip, tags:[@X x, @Y y], [k1:v1,k2:v2]:[foo,bar]], text: foo ]"));
+            Reference data = session.root().child(session.text("data"));
+            Reference text = session.root().child(session.text("text"));
+            Reference copy = session.root().child(session.text("copy"));
+
+            StringWriter writer = new StringWriter();
+            XmlSerializer.serialize(session, data, writer, true);
+            assertEquals(serialize(session.read(data), true), writer.toString());
+            XmlSerializer.deserialize(session, new StringReader(writer.toString()), copy);
+            assertEquals(session.read(data), session.read(copy));
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            XmlSerializer.serialize(session, text, stream, false);
+            XmlSerializer.deserialize(session, new ByteArrayInputStream(stream.toByteArray()), copy);
+            assertEquals("foo", session.read(copy).toString());
+
+            XmlSerializer.deserialize(session, new StringReader("<null/>"), copy);
+            assertNull(session.read(copy));
+        }
+    }
+
+    @Test
+    public void testStreamedBatched() throws StyxException, IOException {
+        Path file = Paths.get("target", "styx-session", "TestXmlSerializer.styx");
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+        try(Session session = FileSessionProvider.createSessionFactory(file, false).createSession()) {
+            Complex data = session.complex();
+            for(int i = 0; i < 2500; i++) {
+                data = data.put(session.number(i), session.text("x" + i));
+            }
+            session.write(session.root(), session.complex());
+            Reference copy = session.root().child(session.text("copy"));
+            XmlSerializer.deserialize(session, new StringReader(serialize(data, false)), copy);
+            assertEquals(data, session.read(copy));
+            StringWriter writer = new StringWriter();
+            XmlSerializer.serialize(session, copy, writer, false);
+            assertEquals(serialize(data, false), writer.toString());
+        }
+        // Every commit increments the version of the file: 1 for the root and 3 for the target and 2500 children.
+        String header = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).substring(1, 32);
+        assertEquals("  \t", header.substring(0, 3)); // 0b100 = 4
+        assertEquals(-1, header.indexOf('\t', 3));
+    }
+
     @Test
     public void testSerializeInvalid() throws StyxException {
         try(Session session = sf.createSession()) {
@@ -274,6 +328,13 @@ public class TestXmlSerializer {
         return json;
     }
 
+    private static String serialize(Value val, boolean indent) throws StyxException, IOException {
+        try(StringWriter stm = new StringWriter()) {
+            XmlSerializer.serialize(val, stm, indent);
+            return stm.toString();
+        }
+    }
+
     private static String serialize(Value val) throws StyxException, IOException {
         String xml;
         try(StringWriter stm = new StringWriter()) {
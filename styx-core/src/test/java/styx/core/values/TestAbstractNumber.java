@@ -2,6 +2,7 @@ package styx.core.values;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -42,6 +43,12 @@ public class TestAbstractNumber {
 		assertEquals(0, v.toInteger());
 	}
 
+	@Test
+	public void testIdentity() {
+		assertNotSame(AbstractNumber.factory(1), AbstractNumber.factory(1)); // shared values detect changes by identity
+		assertNotSame(AbstractNumber.factory(1L), AbstractNumber.factory(1L));
+	}
+
 	@Test
 	public void testIntegerPos() {
 		Numeric v = AbstractNumber.factory("1234");
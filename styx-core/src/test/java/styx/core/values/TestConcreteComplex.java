@@ -7,9 +7,15 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.Test;
 
 import styx.Complex;
+import styx.Pair;
 import styx.Session;
 import styx.SessionManager;
 import styx.Value;
@@ -112,6 +118,41 @@ public class TestConcreteComplex {
 		assertEquals("[x,y,z]", val.toString());
 	}
 
+	@Test
+	public void testPutAll() {
+		List<Pair<Value,Value>> pairs = new ArrayList<>();
+		Complex expected = ConcreteComplex.EMPTY;
+		for(int i = 0; i < 100; i++) {
+			pairs.add(new Pair<Value,Value>(session.number(i * 7 % 100), session.number(i)));
+			expected = expected.put(session.number(i * 7 % 100), session.number(i));
+		}
+		assertEquals(expected, ConcreteComplex.EMPTY.putAll(pairs));
+		Collections.sort(pairs, (a, b) -> a.key().compareTo(b.key()));
+		assertEquals(expected, ConcreteComplex.EMPTY.putAll(pairs));
+
+		// later pairs replace earlier ones, null values remove keys
+		Complex val = ConcreteComplex.EMPTY.putAll(Arrays.asList(
+				new Pair<Value,Value>(session.text("b"), session.text("1")),
+				new Pair<Value,Value>(session.text("a"), session.text("2")),
+				new Pair<Value,Value>(session.text("b"), session.text("3")),
+				new Pair<Value,Value>(session.text("c"), session.text("4")),
+				new Pair<Value,Value>(session.text("c"), null)));
+		assertEquals("[a:2,b:3]", val.toString());
+		assertEquals("[a:2,b:5]", val.putAll(Arrays.asList(new Pair<Value,Value>(session.text("b"), session.text("5")))).toString());
+
+		try {
+			ConcreteComplex.EMPTY.putAll(Arrays.asList(new Pair<Value,Value>(session.text("a"), session.empty()), new Pair<Value,Value>(null, session.empty())));
+			fail();
+		} catch(NullPointerException e) { }
+	}
+
+	@Test
+	public void testAddAll() {
+		Complex val = ConcreteComplex.EMPTY.addAll(Arrays.asList(session.text("x"), session.text("y"), session.text("z")));
+		assertEquals("[x,y,z]", val.toString());
+		assertEquals("[x,y,z,w]", val.addAll(Arrays.asList(session.text("w"))).toString());
+	}
+
 	@Test
 	public void testFactory() {
 		assertNotNull(ConcreteComplex.EMPTY.put(session.empty(), null));
@@ -1,10 +1,14 @@
 package styx.core.values;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.junit.Test;
 
 import styx.Reference;
@@ -78,6 +82,29 @@ public class TestConcreteReference {
 		} catch(NullPointerException e) { }
 	}
 
+	@Test
+	public void testEqualsAndHashCode() {
+		Reference val1 = ConcreteReference.ROOT.child(session.text("a")).child(session.number(1));
+		Reference val2 = session.root().child(session.text("a")).child(session.number(1));
+		Reference val3 = session.root().child(session.text("a")).child(session.number(2));
+		Reference val4 = session.root().child(session.number(1));
+
+		assertEquals(val1, val2);
+		assertEquals(val1.hashCode(), val2.hashCode());
+		assertFalse(val1.equals(val3));
+		assertFalse(val1.equals(val4));
+		assertFalse(val1.equals(val1.parent()));
+		assertFalse(val1.parent().equals(val1));
+		assertFalse(val1.equals(session.text("a")));
+		assertEquals(ConcreteReference.ROOT, session.root());
+		assertEquals(0, ConcreteReference.ROOT.hashCode());
+
+		Map<Reference, String> map = new HashMap<>();
+		map.put(val1, "x");
+		assertEquals("x", map.get(val2));
+		assertNull(map.get(val3));
+	}
+
 	@Test(expected=NullPointerException.class)
 	public void testChildIllegal() {
 		ConcreteReference.ROOT.child(null);
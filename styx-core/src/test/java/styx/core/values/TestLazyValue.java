@@ -0,0 +1,81 @@
+package styx.core.values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import styx.Session;
+import styx.SessionManager;
+import styx.StyxException;
+import styx.StyxRuntimeException;
+import styx.Value;
+
+public class TestLazyValue {
+
+	private final Session session = SessionManager.getDetachedSession();
+
+	@Test
+	public void testDecodeOnce() {
+		CountingValue val = new CountingValue("[a:1,b:2]");
+		assertFalse(val.isDecoded());
+		assertEquals(0, val.count);
+		assertTrue(val.isComplex());
+		assertTrue(val.isDecoded());
+		assertEquals("1", val.asComplex().get(session.text("a")).toString());
+		assertEquals("[a:1,b:2]", val.toString());
+		assertEquals(1, val.count);
+	}
+
+	@Test
+	public void testCompare() throws StyxException {
+		Value val = session.deserialize("\"some text\"");
+		assertEquals(0, new CountingValue("\"some text\"").compareTo(val));
+		assertEquals(0, val.compareTo(new CountingValue("\"some text\"")));
+		assertTrue(new CountingValue("\"some text\"").equals(val));
+		assertTrue(val.equals(new CountingValue("\"some text\"")));
+		assertEquals(val.hashCode(), new CountingValue("\"some text\"").hashCode());
+		assertEquals(-1, new CountingValue("1").compareTo(val));
+		assertEquals( 1, val.compareTo(new CountingValue("1")));
+		assertEquals(session.complex(session.text("k"), val), session.complex(session.text("k"), new CountingValue("\"some text\"")));
+	}
+
+	@Test
+	public void testTypes() {
+		assertTrue(new CountingValue("123").isNumber());
+		assertEquals(123, new CountingValue("123").asNumber().toInteger());
+		assertTrue(new CountingValue("true").asBool().toBool());
+		assertTrue(new CountingValue("[/a/b]").isReference());
+		assertEquals(2, new CountingValue("[/a/b]").asReference().level());
+		assertTrue(new CountingValue("0xAB").isBinary());
+	}
+
+	@Test
+	public void testInvalid() {
+		CountingValue val = new CountingValue("[a:");
+		try {
+			val.isText();
+			fail();
+		} catch(StyxRuntimeException e) {
+			assertEquals("Failed to decode value.", e.getMessage());
+		}
+		assertFalse(val.isDecoded());
+	}
+
+	private final class CountingValue extends LazyValue {
+		private final String encoded;
+		private int count;
+
+		CountingValue(String encoded) {
+			this.encoded = encoded;
+		}
+
+		@Override
+		protected Value decode() throws StyxException {
+			count++;
+			return session.deserialize(encoded);
+		}
+	}
+}
@@ -1,27 +1,40 @@
 package styx.db;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
 
 import styx.StyxException;
 import styx.Pair;
 import styx.Reference;
 import styx.Session;
 import styx.Value;
+import styx.Watcher;
 import styx.core.DataProvider;
 import styx.core.memory.MemoryObject;
 import styx.core.utils.SessionUtils;
+import styx.core.values.LazyValue;
 
 public class RowDatabaseData implements DataProvider {
 
-    private final RowDatabase db;
+    private final RowDatabase   db;
+    private final ReadWriteLock lock;
 
     public RowDatabaseData(RowDatabase db) {
-        this.db  = db;
+        this(db, null);
+    }
+
+    /**
+     * @param lock the lock for exclusive transactions, shared by all instances that access the same database, can be null.
+     */
+    public RowDatabaseData(RowDatabase db, ReadWriteLock lock) {
+        this.db   = db;
+        this.lock = lock;
     }
 
     @Override
@@ -56,6 +69,31 @@ public class RowDatabaseData implements DataProvider {
         }
     }
 
+    @Override
+    public List<Value> readAll(Session session, Collection<Reference> refs) throws StyxException {
+        if(db.hasTransaction()) {
+            return readAll2(session, refs);
+        } else {
+            try(Transaction trans = new Transaction()) {
+                List<Value> result = readAll2(session, refs);
+                trans.success();
+                return result;
+            }
+        }
+    }
+
+    @Override
+    public void writeAll(Session session, Map<Reference, Value> vals) throws StyxException {
+        if(db.hasTransaction()) {
+            writeAll2(session, vals);
+        } else {
+            try(Transaction trans = new Transaction()) {
+                writeAll2(session, vals);
+                trans.success();
+            }
+        }
+    }
+
     @Override
     public List<Value> browse(Session session, Reference ref, Value after, Value before, Integer maxResults, boolean forward) throws StyxException {
         Objects.requireNonNull(ref);
@@ -70,6 +108,11 @@ public class RowDatabaseData implements DataProvider {
         }
     }
 
+    @Override
+    public ReadWriteLock transactionLock() {
+        return lock;
+    }
+
     @Override
     public boolean hasTransaction() {
         return db.hasTransaction();
@@ -90,11 +133,19 @@ public class RowDatabaseData implements DataProvider {
         db.abortTransaction(retry);
     }
 
+    @Override
+    public void watch(Session session, Reference ref, Watcher watcher) {
+        throw new UnsupportedOperationException("This session does not support watching.");
+    }
+
+    @Override
+    public void unwatch(Session session, Watcher watcher) { }
+
     private Value read2(Session session, Reference ref) throws StyxException {
         Row      row = lookup(session, ref, false);
         Value val = null;
         if(row != null) {
-            val = session.deserialize(row.value);
+            val = decodeValue(session, row.value);
             if(val.isComplex()) {
                 int          topLvl = ref.level(); // same as level(row.parent)
                 MemoryObject topObj = new MemoryObject(val);
@@ -106,7 +157,7 @@ public class RowDatabaseData implements DataProvider {
                     for(int i = topLvl + 1; i <= descLvl; i++) {
                         descObj = descObj.child(names.get(descendant.prefix(i)));
                     }
-                    descObj.write(session.deserialize(descendant.value));
+                    descObj.write(decodeValue(session, descendant.value));
                 }
                 val = topObj.read();
             }
@@ -127,6 +178,20 @@ public class RowDatabaseData implements DataProvider {
         }
     }
 
+    private List<Value> readAll2(Session session, Collection<Reference> refs) throws StyxException {
+        List<Value> result = new ArrayList<>(refs.size());
+        for(Reference ref : refs) {
+            result.add(read2(session, Objects.requireNonNull(ref)));
+        }
+        return result;
+    }
+
+    private void writeAll2(Session session, Map<Reference, Value> vals) throws StyxException {
+        for(Map.Entry<Reference, Value> entry : vals.entrySet()) {
+            write2(session, Objects.requireNonNull(entry.getKey()), entry.getValue());
+        }
+    }
+
     private List<Value> browse2(Session session, Reference ref, Value after, Value before, Integer maxResults, boolean forward) throws StyxException {
         Row row = lookup(session, ref, false);
         if(row == null || row.value.equals("[]") == false) {
@@ -149,8 +214,28 @@ public class RowDatabaseData implements DataProvider {
                 suffix++;
             }
         } else {
-            db.insert(row.parent, row.name, row.suffix, session.serialize(val, false));
+            db.insert(row.parent, row.name, row.suffix, encodeValue(session, val));
+        }
+    }
+
+    /**
+     * Decodes the value column of a row, complex values are decoded immediately, all others lazily.
+     */
+    private static Value decodeValue(Session session, String value) {
+        if(value.equals("[]")) {
+            return session.complex(); // children are stored in separate rows
         }
+        return new LazyRowValue(session, value);
+    }
+
+    /**
+     * Encodes the value column of a row, values that have been read lazily and are written unchanged are not encoded again.
+     */
+    private static String encodeValue(Session session, Value val) throws StyxException {
+        if(val instanceof LazyRowValue) {
+            return ((LazyRowValue) val).value;
+        }
+        return session.serialize(val, false);
     }
 
     private Row lookup(Session session, Reference ref, boolean create) throws StyxException {
@@ -183,6 +268,29 @@ public class RowDatabaseData implements DataProvider {
         return row;
     }
 
+    /**
+     * A value read from the value column of a row, kept as text until first accessed.
+     */
+    private static final class LazyRowValue extends LazyValue {
+        private final Session session;
+        private final String value;
+
+        LazyRowValue(Session session, String value) {
+            this.session = session;
+            this.value   = value;
+        }
+
+        @Override
+        protected Value decode() throws StyxException {
+            return session.deserialize(value);
+        }
+
+        @Override
+        public boolean isComplex() {
+            return false; // complex values are stored as "[]" and never decoded lazily
+        }
+    }
+
     private final class Transaction implements AutoCloseable {
         private boolean success;
 
@@ -1,5 +1,8 @@
 package styx.db.jdbc;
 
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 import styx.Complex;
 import styx.Session;
 import styx.SessionFactory;
@@ -27,9 +30,11 @@ public class JdbcSessionProvider implements SessionProvider {
 
     public static AbstractSessionFactory createSessionFactory(final String connstr, final String dialect) {
         return new AbstractSessionFactory() {
+            private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
             @Override
             public Session createSession() throws StyxException {
-                return new ConcreteSession(new RowDatabaseData(new JdbcDatabase(connstr, dialect)), type, func, eval, environment);
+                return new ConcreteSession(new RowDatabaseData(new JdbcDatabase(connstr, dialect), lock), type, func, eval, environment);
             }
         };
     }
@@ -19,6 +19,8 @@ import styx.SessionManager;
 import styx.StyxException;
 import styx.Value;
 import styx.core.values.ConcreteComplex;
+import styx.core.values.LazyComplex;
+import styx.core.values.LazyValue;
 
 public class MmapDatabase implements AutoCloseable {
 
@@ -257,13 +259,8 @@ public class MmapDatabase implements AutoCloseable {
                     byte[] bytes = longToBytes(address, arg);
                     return session.text(new String(bytes, StandardCharsets.UTF_8));
                 }
-                case TAG_OTHER: {
-                    int size = getInt(address);
-                    byte[] bytes = new byte[size];
-                    getArray(address + 4, bytes);
-                    ByteArrayInputStream stm = new ByteArrayInputStream(bytes);
-                    return session.deserialize(stm);
-                }
+                case TAG_OTHER:
+                    return new LazyOtherValue(address); // decoded on first access
                 default:
                     throw new StyxException("Illegal tag " + tag);
             }
@@ -277,6 +274,15 @@ public class MmapDatabase implements AutoCloseable {
             if(value == null) {
                 return 0; // not used by MmapAvlTree, only required when [/][*] = null
             }
+            if(value instanceof LazyOtherValue && ((LazyOtherValue) value).db() == this) {
+                return ((long) TAG_OTHER << TAG_SHIFT) | ((LazyOtherValue) value).address; // already stored here
+            }
+            if(value instanceof LazyValue) {
+                value = ((LazyValue) value).get();
+            }
+            if(value instanceof LazyComplex) {
+                value = ((LazyComplex) value).get();
+            }
             if(value.isComplex()) {
                 if(value instanceof ConcreteComplex == false) {
                     throw new StyxException("Unsupported implementation of Complex.");
@@ -368,6 +374,38 @@ public class MmapDatabase implements AutoCloseable {
         }
     }
 
+    /**
+     * A value stored with TAG_OTHER, kept as address into the database until first accessed.
+     */
+    private final class LazyOtherValue extends LazyValue {
+        private final long address;
+
+        LazyOtherValue(long address) {
+            this.address = address;
+        }
+
+        MmapDatabase db() {
+            return MmapDatabase.this;
+        }
+
+        @Override
+        protected Value decode() throws StyxException {
+            if(bytes == null) {
+                throw new StyxException("MMAP(" + path + "): The database has been closed before the value was decoded.");
+            }
+            int size = getInt(address);
+            byte[] bytes = new byte[size];
+            getArray(address + 4, bytes);
+            ByteArrayInputStream stm = new ByteArrayInputStream(bytes);
+            return session.deserialize(stm);
+        }
+
+        @Override
+        public boolean isComplex() {
+            return false; // complex values are stored with TAG_COMPLEX
+        }
+    }
+
     private byte[] longToBytes(long value, int num) {
         byte[] data = new byte[num];
         for(int i = 0; i < num; i++) {
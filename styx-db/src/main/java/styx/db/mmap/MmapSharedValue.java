@@ -1,6 +1,8 @@
 package styx.db.mmap;
 
 import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import styx.Session;
 import styx.StyxException;
@@ -9,7 +11,8 @@ import styx.core.memory.SharedValue;
 
 public final class MmapSharedValue implements SharedValue {
 
-    private final MmapDatabase db;
+    private final MmapDatabase  db;
+    private final ReadWriteLock lock;
 
     /**
      * The address of the last value read or written, used to detect changes in testset() and monitor().
@@ -17,12 +20,22 @@ public final class MmapSharedValue implements SharedValue {
     private long base;
 
     public MmapSharedValue(MmapDatabase db) {
-        this.db = Objects.requireNonNull(db);
+        this(db, new ReentrantReadWriteLock());
+    }
+
+    private MmapSharedValue(MmapDatabase db, ReadWriteLock lock) {
+        this.db   = Objects.requireNonNull(db);
+        this.lock = lock;
     }
 
     @Override
     public SharedValue clone() {
-        return new MmapSharedValue(db);
+        return new MmapSharedValue(db, lock);
+    }
+
+    @Override
+    public ReadWriteLock transactionLock() {
+        return lock;
     }
 
     @Override
@@ -2,7 +2,10 @@ package styx.db.mmap;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -15,7 +18,9 @@ import styx.Session;
 import styx.SessionFactory;
 import styx.SessionManager;
 import styx.StyxException;
+import styx.StyxRuntimeException;
 import styx.Value;
+import styx.core.values.LazyValue;
 
 public class TestMmapDatabase {
 
@@ -158,6 +163,48 @@ public class TestMmapDatabase {
 
     }
 
+    @Test
+    public void testLazyValues() throws StyxException {
+        Session session = SessionManager.getDetachedSession();
+        try(MmapDatabase db = MmapDatabase.fromMemory(64 << 10)) {
+            Value text = session.text("a text that is too long to be stored inline");
+            long address = db.storeValue(text);
+            long next = db.getNext();
+
+            Value val = db.loadValue(address);
+            assertTrue(val instanceof LazyValue);
+            assertFalse(((LazyValue) val).isDecoded());
+            assertEquals(address, db.storeValue(val)); // stored again without encoding it again
+            assertEquals(next, db.getNext());
+            assertFalse(val.isComplex());
+            assertFalse(((LazyValue) val).isDecoded());
+
+            assertEquals(text, val);
+            assertTrue(((LazyValue) val).isDecoded());
+
+            try(MmapDatabase db2 = MmapDatabase.fromMemory(64 << 10)) {
+                assertEquals(text, db2.loadValue(db2.storeValue(val))); // a lazy value from another database
+            }
+        }
+    }
+
+    @Test
+    public void testLazyValueClosed() throws StyxException {
+        Session session = SessionManager.getDetachedSession();
+        Value val;
+        try(MmapDatabase db = MmapDatabase.fromMemory(64 << 10)) {
+            val = db.loadValue(db.storeValue(session.text("a text that is too long to be stored inline")));
+            assertFalse(((LazyValue) val).isDecoded());
+        }
+        try {
+            val.asText();
+            fail();
+        } catch(StyxRuntimeException e) {
+            assertTrue(e.getCause() instanceof StyxException);
+            assertEquals("MMAP(memory): The database has been closed before the value was decoded.", e.getCause().getMessage());
+        }
+    }
+
     @Test
     public void testSession() throws StyxException, IOException {
         Path file = Paths.get("target", "styx-session", "TestMappedDatabase.2.db");
@@ -17,8 +17,10 @@ import styx.Reference;
 import styx.Session;
 import styx.StyxException;
 import styx.Value;
+import styx.core.expressions.Profiler;
 import styx.core.intrinsics.FileIntrinsics;
-import styx.core.utils.JsonSerializer;
+import styx.core.sessions.TransactionMetrics;
+import styx.core.utils.JsonCodec;
 import styx.core.utils.XmlSerializer;
 
 @SuppressWarnings("serial")
@@ -76,10 +78,19 @@ public final class RestServlet extends BaseServlet {
                 req = readRequest(request, params, session);
             }
 
+            // If profiling is requested, a posted script is instrumented and the profile is sent instead of the result.
+            Profiler profiler = null;
+            if(params.profile != null && params.method == Method.POST && req != null && req.isFunction()) {
+                profiler = new Profiler();
+                req = profiler.instrument(session, req.asFunction());
+            }
+
             // Note: the method to be executed (params.method) can be different from the actual HTTP verb (method).
             Value res = params.method.dispatch(this, session, ref, req);
 
-            if(method == Method.GET || method == Method.POST) {
+            if(profiler != null) {
+                writeProfile(response, params, session, profiler);
+            } else if(method == Method.GET || method == Method.POST) {
                 writeResponse(response, params, session, res, ref);
             } else {
                 response.setStatus(HttpServletResponse.SC_NO_CONTENT);
@@ -106,6 +117,10 @@ public final class RestServlet extends BaseServlet {
         return result == null ? null : session.complex().addAll(result);
     }
 
+    private Value internalStats(Session session) throws StyxException {
+        return TransactionMetrics.global().toValue(session);
+    }
+
     private Value internalPost(Session session, Reference ref, Value req) throws StyxException {
         return req.asFunction().invoke(session, null);
     }
@@ -139,7 +154,7 @@ public final class RestServlet extends BaseServlet {
             case CONTENT_TYPE_XML:
                 return XmlSerializer.deserialize(session, reader);
             case CONTENT_TYPE_JSON:
-                return JsonSerializer.deserialize(session, reader);
+                return JsonCodec.deserialize(session, reader);
             default:
                 // TODO (bug): Firefox generates 'application/styx-script; charset=UTF-8' when POST with jQuery's $.ajax
                 throw new IOException("Invalid request content type '" + params.requestContentType + "'.");
@@ -161,13 +176,25 @@ public final class RestServlet extends BaseServlet {
                 XmlSerializer.serialize(res, writer, params.responseIndent);
                 break;
             case CONTENT_TYPE_JSON:
-                JsonSerializer.serialize(res, writer, params.responseIndent);
+                JsonCodec.serialize(res, writer, params.responseIndent);
                 break;
             default:
                 throw new IOException("Invalid response content type '" + params.responseContentType + "'.");
         }
     }
 
+    private void writeProfile(HttpServletResponse response, RequestParamters params, Session session, Profiler profiler) throws IOException, StyxException {
+        if(params.profile.equals("folded")) {
+            // The folded stack format, as read by flame graph tools
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(CONTENT_TYPE_TEXT);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write(profiler.folded());
+        } else {
+            writeResponse(response, params, session, profiler.report(session), null);
+        }
+    }
+
     private enum Method {
         HEAD {
             @Override public Value dispatch(RestServlet inst, Session session, Reference ref, Value req) throws StyxException {
@@ -184,6 +211,11 @@ public final class RestServlet extends BaseServlet {
                 return inst.internalList(session, ref);
             }
         },
+        STATS {
+            @Override public Value dispatch(RestServlet inst, Session session, Reference ref, Value req) throws StyxException {
+                return inst.internalStats(session);
+            }
+        },
         POST {
             @Override public Value dispatch(RestServlet inst, Session session, Reference ref, Value req) throws StyxException {
                 return inst.internalPost(session, ref, req);
@@ -210,6 +242,7 @@ public final class RestServlet extends BaseServlet {
         public String  requestContentType = CONTENT_TYPE_STYX;
         public String  responseContentType = CONTENT_TYPE_TEXT; // send as plain text instead as STYX by default because it is browser friendly
         public boolean responseIndent = true;
+        public String  profile; // null, 'folded' or 'report'
 
         public RequestParamters(Method method, String path, String requestContentType) {
             this.method = method;
@@ -235,6 +268,8 @@ public final class RestServlet extends BaseServlet {
                     responseContentType = param.getValue()[0];
                 } else if(param.getKey().equals("ind")) {
                     responseIndent = param.getValue()[0].equals("true");
+                } else if(param.getKey().equals("prof")) {
+                    profile = param.getValue()[0];
                 }
             }
         }